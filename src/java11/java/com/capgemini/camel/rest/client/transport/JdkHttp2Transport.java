@@ -0,0 +1,230 @@
+package com.capgemini.camel.rest.client.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.Cancellable;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A transport on the JDK {@link HttpClient}, speaking HTTP/2 whenever the server does.
+ * <p/>
+ * HTTP/2 multiplexes the concurrent requests to a backend over a few connections instead of one connection
+ * per in-flight request: h2 is negotiated through ALPN on https endpoints, h2c through the HTTP/1.1 upgrade
+ * on http endpoints (the JDK client does not support h2c with prior knowledge). Servers which only speak
+ * HTTP/1.1 are still served over HTTP/1.1.
+ * <p/>
+ * The socket timeout of the request configuration bounds the wait for the response headers, the connect
+ * timeout is set once for the client. Both timeouts are raised as the exceptions of the Apache transport,
+ * {@link SocketTimeoutException} and {@link ConnectTimeoutException}. Request entities are buffered before being sent.
+ * <p/>
+ * The class is compiled for Java 11 apart from the rest of the library, which still runs on Java 8, and is
+ * only loaded when the <code>http2</code> transport is selected. The connections are
+ * pooled by the JDK client, outside of the {@link com.capgemini.camel.rest.client.connection.ConnectionLeaseTracker}.
+ *
+ * @author Abbas Attarwala
+ */
+public class JdkHttp2Transport implements RestTransport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdkHttp2Transport.class);
+
+    private static final ProtocolVersion HTTP_2 = new ProtocolVersion("HTTP", 2, 0);
+    private static final ProtocolVersion HTTP_1_1 = new ProtocolVersion("HTTP", 1, 1);
+
+    /**
+     * Headers set by the JDK client itself, which it refuses to take from the caller
+     */
+    private static final Collection<String> RESTRICTED_HEADERS = new HashSet<>(Arrays.asList(
+            "connection", "content-length", "date", "expect", "from", "host", "upgrade", "via", "warning",
+            "keep-alive", "transfer-encoding", "te", "proxy-connection"));
+
+    private final HttpClient httpClient;
+
+    /**
+     * @param connectTimeoutMillis  The connect timeout of the client
+     */
+    public JdkHttp2Transport(int connectTimeoutMillis) {
+        this(HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofMillis(Math.max(1, connectTimeoutMillis)))
+                .build());
+    }
+
+    public JdkHttp2Transport(HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public HttpResponse execute(final HttpRequestBase httpRequest, HttpContext httpContext) throws IOException {
+        if (httpRequest.isAborted()) {
+            throw new IOException("Request aborted");
+        }
+
+        final CompletableFuture<java.net.http.HttpResponse<InputStream>> future =
+                httpClient.sendAsync(toJdkRequest(httpRequest), java.net.http.HttpResponse.BodyHandlers.ofInputStream());
+        final ResponseCancellable cancellable = new ResponseCancellable(future);
+        httpRequest.setCancellable(cancellable);
+        if (httpRequest.isAborted()) {
+            cancellable.cancel();
+            throw new IOException("Request aborted");
+        }
+
+        try {
+            java.net.http.HttpResponse<InputStream> response = future.get();
+            cancellable.setBody(response.body());
+            return toHttpResponse(response);
+        } catch (InterruptedException ie) {
+            cancellable.cancel();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the response of " + httpRequest.getURI());
+        } catch (CancellationException ce) {
+            throw new IOException("Request aborted", ce);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof HttpConnectTimeoutException) {
+                ConnectTimeoutException timeout = new ConnectTimeoutException(cause.getMessage());
+                timeout.initCause(cause);
+                throw timeout;
+            }
+            if (cause instanceof HttpTimeoutException) {
+                SocketTimeoutException timeout = new SocketTimeoutException(cause.getMessage());
+                timeout.initCause(cause);
+                throw timeout;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private HttpRequest toJdkRequest(HttpRequestBase httpRequest) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(httpRequest.getURI());
+
+        RequestConfig requestConfig = httpRequest.getConfig();
+        if (requestConfig != null && requestConfig.getSocketTimeout() > 0) {
+            builder.timeout(Duration.ofMillis(requestConfig.getSocketTimeout()));
+        }
+
+        for (Header header : httpRequest.getAllHeaders()) {
+            if (!RESTRICTED_HEADERS.contains(header.getName().toLowerCase(Locale.ENGLISH))) {
+                builder.header(header.getName(), header.getValue());
+            }
+        }
+
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.noBody();
+        if (httpRequest instanceof HttpEntityEnclosingRequest) {
+            HttpEntity entity = ((HttpEntityEnclosingRequest) httpRequest).getEntity();
+            if (entity != null) {
+                if (entity.getContentType() != null && !httpRequest.containsHeader(HttpHeaders.CONTENT_TYPE)) {
+                    builder.header(HttpHeaders.CONTENT_TYPE, entity.getContentType().getValue());
+                }
+                if (entity.getContentEncoding() != null && !httpRequest.containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+                    builder.header(HttpHeaders.CONTENT_ENCODING, entity.getContentEncoding().getValue());
+                }
+                ByteArrayOutputStream content = new ByteArrayOutputStream(
+                        entity.getContentLength() > 0 && entity.getContentLength() < Integer.MAX_VALUE ? (int) entity.getContentLength() : 4096);
+                entity.writeTo(content);
+                body = HttpRequest.BodyPublishers.ofByteArray(content.toByteArray());
+            }
+        }
+
+        return builder.method(httpRequest.getMethod(), body).build();
+    }
+
+    private static HttpResponse toHttpResponse(java.net.http.HttpResponse<InputStream> response) {
+        final int statusCode = response.statusCode();
+        final ProtocolVersion protocolVersion = response.version() == HttpClient.Version.HTTP_2 ? HTTP_2 : HTTP_1_1;
+        LOGGER.debug("{} response received over {}", statusCode, protocolVersion);
+
+        BasicHttpResponse httpResponse = new BasicHttpResponse(new BasicStatusLine(protocolVersion, statusCode,
+                EnglishReasonPhraseCatalog.INSTANCE.getReason(statusCode, Locale.ENGLISH)));
+        for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+            if (header.getKey().startsWith(":")) {
+                continue;
+            }
+            for (String value : header.getValue()) {
+                httpResponse.addHeader(header.getKey(), value);
+            }
+        }
+
+        BasicHttpEntity entity = new BasicHttpEntity();
+        entity.setContent(response.body());
+        entity.setContentLength(response.headers().firstValueAsLong(HttpHeaders.CONTENT_LENGTH).orElse(-1L));
+        Header contentType = httpResponse.getFirstHeader(HttpHeaders.CONTENT_TYPE);
+        if (contentType != null) {
+            entity.setContentType(contentType);
+        }
+        Header contentEncoding = httpResponse.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+        if (contentEncoding != null) {
+            entity.setContentEncoding(contentEncoding);
+        }
+        httpResponse.setEntity(entity);
+        return httpResponse;
+    }
+
+    /**
+     * Cancels the exchange while waiting for the response, closes the response stream once it has arrived,
+     * which gives the stream back to the connection
+     */
+    private static final class ResponseCancellable implements Cancellable {
+
+        private final CompletableFuture<?> future;
+        private volatile InputStream body;
+
+        private ResponseCancellable(CompletableFuture<?> future) {
+            this.future = future;
+        }
+
+        private void setBody(InputStream body) {
+            this.body = body;
+        }
+
+        @Override
+        public boolean cancel() {
+            boolean cancelled = future.cancel(true);
+            InputStream responseBody = body;
+            if (responseBody != null) {
+                try {
+                    responseBody.close();
+                } catch (IOException ex) {
+                    LOGGER.debug("Response stream could not be closed", ex);
+                }
+            }
+            return cancelled || responseBody != null;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.capgemini.camel.rest.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Benchmarks the logging of the request details, with the debug level of the client on and off.
+ * Debug messages are formatted and discarded, so that the cost of the client is measured, not the one of the output.
+ *
+ * @author Abbas Attarwala
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+
+    @Param({"false", "true"})
+    private boolean debug;
+
+    private RestClient restClient;
+    private HttpRequestBase request;
+    private Logger logger;
+    private DiscardingAppender appender;
+
+    @Setup
+    public void setUp() throws Exception {
+        logger = (Logger) LoggerFactory.getLogger(RestClient.class);
+        appender = new DiscardingAppender();
+        appender.setContext(logger.getLoggerContext());
+        appender.start();
+        logger.addAppender(appender);
+        logger.setAdditive(false);
+        logger.setLevel(debug ? Level.DEBUG : Level.INFO);
+
+        restClient = new RestClient("benchmark", "http://localhost:8080/api");
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Accept", "application/json");
+        headers.put("X-Correlation-Id", "5f1c0a9e-benchmark");
+        headers.put("Authorization", "Bearer benchmark-token");
+        request = new HttpGet(restClient.createEndpointUri("/items", null));
+        restClient.setHeaders(request, headers);
+        restClient.setHttpRequestConfig(request, "getItems");
+    }
+
+    @TearDown
+    public void tearDown() {
+        logger.detachAppender(appender);
+        logger.setAdditive(true);
+        logger.setLevel(null);
+        appender.stop();
+    }
+
+    @Benchmark
+    public long logHttpRequestDetails() {
+        restClient.logHttpRequestDetails(request);
+        return appender.count;
+    }
+
+    /**
+     * Formats the events like a real appender would, without writing them
+     */
+    private static final class DiscardingAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+        private long count;
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            count += event.getFormattedMessage().length();
+        }
+    }
+}
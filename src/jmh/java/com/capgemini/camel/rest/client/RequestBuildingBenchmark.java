@@ -0,0 +1,63 @@
+package com.capgemini.camel.rest.client;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks building a request: the endpoint URI with its query string, and the request configuration.
+ *
+ * @author Abbas Attarwala
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestBuildingBenchmark {
+
+    @Param({"0", "3", "10"})
+    private int queryParamCount;
+
+    private RestClient restClient;
+    private Map<String, String> queryParams;
+    private URI uri;
+
+    @Setup
+    public void setUp() throws Exception {
+        restClient = new RestClient("benchmark", "http://localhost:8080/api");
+        queryParams = new LinkedHashMap<>();
+        for (int i = 0; i < queryParamCount; i++) {
+            queryParams.put("param" + i, "value " + i + " & more");
+        }
+        uri = restClient.createEndpointUri("/items", queryParams);
+    }
+
+    @Benchmark
+    public URI createEndpointUri() throws Exception {
+        return restClient.createEndpointUri("/items", queryParams);
+    }
+
+    @Benchmark
+    public HttpRequestBase setHttpRequestConfig() {
+        HttpRequestBase request = new HttpGet(uri);
+        restClient.setHttpRequestConfig(request, "getItems");
+        return request;
+    }
+}
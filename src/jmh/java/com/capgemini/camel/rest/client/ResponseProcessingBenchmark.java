@@ -0,0 +1,82 @@
+package com.capgemini.camel.rest.client;
+
+import java.util.concurrent.TimeUnit;
+
+import com.capgemini.camel.rest.client.model.RestClientResponse;
+import com.netflix.config.ConfigurationManager;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.message.BasicHeader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the classification of successful responses, with and without JSON validation.
+ *
+ * @author Abbas Attarwala
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseProcessingBenchmark {
+
+    private static final String VALIDATE_JSON_PROPERTY = "http.request.benchmark.validateJson";
+
+    @Param({"small", "large"})
+    private String payload;
+
+    @Param({"false", "true"})
+    private boolean validateJson;
+
+    private RestClient restClient;
+    private RestClientResponse response;
+
+    @Setup
+    public void setUp() {
+        ConfigurationManager.getConfigInstance().setProperty(VALIDATE_JSON_PROPERTY, validateJson);
+        restClient = new RestClient("benchmark", "http://localhost:8080/api");
+        String json = "small".equals(payload) ? item(1) : items(1000);
+        response = new RestClientResponse(json, 200,
+                new Header[] {new BasicHeader(HttpHeaders.CONTENT_TYPE, "application/json; charset=UTF-8")});
+    }
+
+    @TearDown
+    public void tearDown() {
+        ConfigurationManager.getConfigInstance().clearProperty(VALIDATE_JSON_PROPERTY);
+    }
+
+    @Benchmark
+    public RestClientResponse processResponseFailures() throws Exception {
+        restClient.processResponseFailures(response, "processResponse");
+        return response;
+    }
+
+    static String items(int count) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 1; i <= count; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append(item(i));
+        }
+        return json.append(']').toString();
+    }
+
+    static String item(int id) {
+        return "{\"id\":" + id + ",\"name\":\"Item " + id + "\",\"price\":" + (id * 1.25)
+                + ",\"tags\":[\"benchmark\",\"json\"],\"available\":true}";
+    }
+}
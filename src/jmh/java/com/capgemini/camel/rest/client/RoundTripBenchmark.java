@@ -0,0 +1,87 @@
+package com.capgemini.camel.rest.client;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.capgemini.camel.rest.client.connection.ManagedHttpClientFactory;
+import com.capgemini.camel.rest.client.testsupport.StubResponse;
+import com.capgemini.camel.rest.client.testsupport.StubServer;
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks full GET round trips through the clients, Hystrix and the connection pool,
+ * against an in-process HTTP server on the loopback interface.
+ *
+ * @author Abbas Attarwala
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoundTripBenchmark {
+
+    private StubServer server;
+    private RestClient restClient;
+    private CachingRestClient cachingRestClient;
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException {
+        server = new StubServer(4).stub("/items", StubResponse.ok(ResponseProcessingBenchmark.item(1)));
+
+        String endPoint = server.getEndPoint();
+        restClient = new RestClient("roundTrip", endPoint);
+        cachingRestClient = new CachingRestClient("cachedRoundTrip", endPoint);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        ManagedHttpClientFactory.getInstance().shutdownAll();
+        server.close();
+    }
+
+    @Benchmark
+    public String restClientGet() throws Exception {
+        return restClient.get("/items", "getItem", null);
+    }
+
+    /**
+     * Every call after the first one of an iteration is served from the Hystrix request cache
+     */
+    @Benchmark
+    public String cachingRestClientGet(RequestContext requestContext) throws Exception {
+        return cachingRestClient.get("/items", "getCachedItem", "item-1", null);
+    }
+
+    /**
+     * The Hystrix request context required by the caching client, one per thread and iteration
+     */
+    @State(Scope.Thread)
+    public static class RequestContext {
+
+        private HystrixRequestContext context;
+
+        @Setup(Level.Iteration)
+        public void initialize() {
+            context = HystrixRequestContext.initializeContext();
+        }
+
+        @TearDown(Level.Iteration)
+        public void shutdown() {
+            context.shutdown();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.capgemini.camel.rest.client.config;
+
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.config.DynamicPropertyFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks resolving the properties read by a blocking call: through the RestClientProperties, which reuse
+ * the resolved values until the properties change, and through Archaius on every call as a baseline.
+ *
+ * @author Abbas Attarwala
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PropertyResolutionBenchmark {
+
+    private static final String COMMAND_NAME = "getItems";
+    private static final String[] BOOLEAN_PROPERTIES = {
+            "coalesce.enabled", "compression.enabled", "validateJson", "hedge.enabled", "limit.enabled"};
+    private static final String[] INT_PROPERTIES = {
+            "retry.maxRetries", "ratelimit.burst", "hedge.percentile", "timeout.adaptive.percentile", "timeout.adaptive.minMs"};
+    private static final String[] LONG_PROPERTIES = {
+            "ratelimit.timeoutMs", "retry.baseDelayMs", "retry.maxDelayMs", "hedge.delayMs", "timeout.adaptive.refreshIntervalMs"};
+
+    private RestClientProperties properties;
+
+    @Setup
+    public void setUp() {
+        properties = new RestClientProperties("benchmark");
+    }
+
+    @Benchmark
+    public void resolvedProperties(Blackhole blackhole) {
+        for (String name : BOOLEAN_PROPERTIES) {
+            blackhole.consume(properties.getBoolean(COMMAND_NAME, name, false));
+        }
+        for (String name : INT_PROPERTIES) {
+            blackhole.consume(properties.getInt(COMMAND_NAME, name, 1));
+        }
+        for (String name : LONG_PROPERTIES) {
+            blackhole.consume(properties.getLong(COMMAND_NAME, name, 100L));
+        }
+    }
+
+    @Benchmark
+    public void archaiusLookups(Blackhole blackhole) {
+        DynamicPropertyFactory propertyFactory = DynamicPropertyFactory.getInstance();
+        for (String name : BOOLEAN_PROPERTIES) {
+            blackhole.consume(propertyFactory.getBooleanProperty("http.request." + COMMAND_NAME + "." + name,
+                    propertyFactory.getBooleanProperty("http.request.benchmark." + name, false).getValue()).getValue());
+        }
+        for (String name : INT_PROPERTIES) {
+            blackhole.consume(propertyFactory.getIntProperty("http.request." + COMMAND_NAME + "." + name,
+                    propertyFactory.getIntProperty("http.request.benchmark." + name, 1).getValue()).getValue());
+        }
+        for (String name : LONG_PROPERTIES) {
+            blackhole.consume(propertyFactory.getLongProperty("http.request." + COMMAND_NAME + "." + name,
+                    propertyFactory.getLongProperty("http.request.benchmark." + name, 100L).getValue()).getValue());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.capgemini.camel.rest.client;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.capgemini.camel.rest.client.model.RestRequest;
+
+/**
+ * Merges single-key lookups of a bulk-capable REST resource into one bulk request,
+ * and splits the bulk response back into one response per key.
+ * <p/>
+ * Registered per command with {@link RestClient#registerBatchRequestHandler(String, BatchRequestHandler)},
+ * it is used by {@link RestClient#getBatched(String, String)} to send the concurrent lookups of a
+ * collapsing window as a single HTTP request.
+ *
+ * @author Abbas Attarwala
+ */
+public interface BatchRequestHandler {
+
+    /**
+     * Builds the bulk request fetching every key, e.g. <code>GET /items?ids=1,2,3</code>.
+     * The command name of the returned request names the Hystrix command executing the bulk request.
+     *
+     * @param keys  The distinct keys collapsed into the batch
+     * @return      The bulk request
+     */
+    RestRequest createBatchRequest(Collection<String> keys);
+
+    /**
+     * Splits the JSON response of the bulk request into the JSON response of each key.
+     * Keys missing from the returned map get a null response.
+     *
+     * @param json  The JSON response of the bulk request
+     * @param keys  The keys collapsed into the batch
+     * @return      The JSON response of each key
+     * @throws Exception if the bulk response cannot be split, reported as a {@link com.capgemini.camel.exception.rest.JsonReadException}
+     */
+    Map<String, String> splitBatchResponse(String json, Collection<String> keys) throws Exception;
+}
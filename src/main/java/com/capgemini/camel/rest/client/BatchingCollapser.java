@@ -0,0 +1,123 @@
+package com.capgemini.camel.rest.client;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.capgemini.camel.rest.client.model.RestClientResponse;
+import com.netflix.hystrix.HystrixCollapser;
+import com.netflix.hystrix.HystrixCollapserKey;
+import com.netflix.hystrix.HystrixCollapserProperties;
+import com.netflix.hystrix.HystrixCommand;
+import com.netflix.hystrix.exception.HystrixBadRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Netflix Hystrix Collapser batching the single-key lookups of a command issued within the
+ * same time window, from any thread, into one bulk request built by a {@link BatchRequestHandler}.
+ * <p/>
+ * With a global scope, Hystrix keeps one batching queue per collapser key, created from the first
+ * collapser of that key, whose client, timer window and batch size serve every later batch. The
+ * collapser key therefore names the client instance, the window and the batch size, so that two clients
+ * sharing a command name never send each other's lookups, and a changed window or batch size takes effect
+ * on the next lookup. The batch request handler is looked up for every batch, hence a handler registered
+ * again replaces the previous one.
+ *
+ * @author Abbas Attarwala
+ */
+class BatchingCollapser extends HystrixCollapser<RestClientResponse, String, String> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchingCollapser.class);
+
+    private final RestClient restClient;
+    private final String handlerName;
+    private final String commandName;
+    private final String key;
+
+    /**
+     * @param restClient          The client executing the bulk requests
+     * @param handlerName         The command name the batch request handler has been registered for
+     * @param commandName         The command name, prefixed with the group key if required
+     * @param key                 The key looked up by this request
+     * @param windowMillis        How long requests are collected before the batch is sent
+     * @param maxBatchSize        The maximum number of keys in a batch
+     */
+    BatchingCollapser(RestClient restClient,
+                      String handlerName,
+                      String commandName,
+                      String key,
+                      int windowMillis,
+                      int maxBatchSize) {
+
+        super(Setter.withCollapserKey(HystrixCollapserKey.Factory.asKey(
+                        collapserKeyName(restClient, commandName, windowMillis, maxBatchSize)))
+                .andScope(Scope.GLOBAL)
+                .andCollapserPropertiesDefaults(HystrixCollapserProperties.Setter()
+                        .withTimerDelayInMilliseconds(windowMillis)
+                        .withMaxRequestsInBatch(maxBatchSize)));
+
+        this.restClient = restClient;
+        this.handlerName = handlerName;
+        this.commandName = commandName;
+        this.key = key;
+    }
+
+    /**
+     * @return <code>&lt;commandName&gt;#&lt;clientId&gt;[&lt;windowMillis&gt;ms,&lt;maxBatchSize&gt;]</code>
+     */
+    static String collapserKeyName(RestClient restClient, String commandName, int windowMillis, int maxBatchSize) {
+        return commandName + '#' + restClient.getClientId() + '[' + windowMillis + "ms," + maxBatchSize + ']';
+    }
+
+    @Override
+    public String getRequestArgument() {
+        return key;
+    }
+
+    @Override
+    protected HystrixCommand<RestClientResponse> createCommand(Collection<CollapsedRequest<String, String>> collapsedRequests) {
+        Set<String> keys = keys(collapsedRequests);
+        LOGGER.debug("Collapsing {} lookups of {} into one bulk request", keys.size(), commandName);
+        try {
+            return restClient.createBatchCommand(getBatchRequestHandler().createBatchRequest(keys));
+        } catch (Exception ex) {
+            throw new HystrixBadRequestException("Bulk request of " + commandName + " could not be created", ex);
+        }
+    }
+
+    @Override
+    protected void mapResponseToRequests(RestClientResponse batchResponse,
+                                         Collection<CollapsedRequest<String, String>> collapsedRequests) {
+        final Map<String, String> responses;
+        try {
+            responses = restClient.splitBatchResponse(batchResponse, keys(collapsedRequests), getBatchRequestHandler(), commandName);
+        } catch (Exception ex) {
+            for (CollapsedRequest<String, String> collapsedRequest : collapsedRequests) {
+                collapsedRequest.setException(ex);
+            }
+            return;
+        }
+
+        for (CollapsedRequest<String, String> collapsedRequest : collapsedRequests) {
+            collapsedRequest.setResponse(responses.get(collapsedRequest.getArgument()));
+        }
+    }
+
+    private BatchRequestHandler getBatchRequestHandler() {
+        BatchRequestHandler batchRequestHandler = restClient.getBatchRequestHandler(handlerName);
+        if (batchRequestHandler == null) {
+            throw new IllegalStateException("No batch request handler has been registered for " + handlerName);
+        }
+        return batchRequestHandler;
+    }
+
+    private static Set<String> keys(Collection<CollapsedRequest<String, String>> collapsedRequests) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (CollapsedRequest<String, String> collapsedRequest : collapsedRequests) {
+            keys.add(collapsedRequest.getArgument());
+        }
+        return keys;
+    }
+}
@@ -1,13 +1,29 @@
 package com.capgemini.camel.rest.client;
 
 import java.net.URI;
+import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.capgemini.camel.exception.rest.*;
+import com.capgemini.camel.rest.client.cache.CacheControl;
+import com.capgemini.camel.rest.client.cache.CachedResponse;
+import com.capgemini.camel.rest.client.cache.SharedResponseCache;
+import com.capgemini.camel.rest.client.circuitbreaker.CommandAsyncCachedRestResourceCall;
 import com.capgemini.camel.rest.client.circuitbreaker.CommandCachedRestResourceCall;
+import com.capgemini.camel.rest.client.constants.RestRequestConfigurationDefaults;
+import com.capgemini.camel.rest.client.exception.ConcurrencyLimitExceededException;
+import com.capgemini.camel.rest.client.exception.RateLimitExceededException;
+import com.capgemini.camel.rest.client.limit.AdaptiveConcurrencyLimiter;
 import com.capgemini.camel.rest.client.model.RestClientResponse;
 import com.netflix.hystrix.exception.HystrixBadRequestException;
 import com.netflix.hystrix.exception.HystrixRuntimeException;
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestContext;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.*;
 import org.apache.http.client.protocol.HttpClientContext;
@@ -28,6 +44,23 @@ public class CachingRestClient extends RestClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CachingRestClient.class);
 
+    private static final int BACKGROUND_REFRESH_THREADS = 4;
+
+    private static final ConcurrentMap<String, Boolean> REFRESHES_IN_FLIGHT = new ConcurrentHashMap<>();
+
+    private static final ExecutorService BACKGROUND_REFRESH_EXECUTOR = new ThreadPoolExecutor(
+            0, BACKGROUND_REFRESH_THREADS, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+            new ThreadFactory() {
+                private final AtomicInteger threadNumber = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "rest-client-cache-refresh-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
     /**
      * Creates a Cached REST Client specific to a REST API
      *
@@ -117,7 +150,7 @@ public class CachingRestClient extends RestClient {
         setHeaders(getRequest, headers);
         setHttpRequestConfig(getRequest, commandName);
         logHttpRequestDetails(getRequest);
-        String json = callResource(getRequest, commandName, cacheKey);
+        String json = callCoalescedResource(getRequest, commandName, cacheKey);
 
         return json;
     }
@@ -352,6 +385,504 @@ public class CachingRestClient extends RestClient {
         return json;
     }
 
+    /**
+     * A non-blocking, cached GET resource call to a specified resourcePath with the specified queryParams
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param cacheKey      The key under which the response is cached for the current request context
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @return              A future completed with the JSON string, or exceptionally with the
+     *                      same exceptions thrown by {@link #get(String, String, String, Map)}
+     */
+    public CompletableFuture<String> getAsync(String resourcePath,
+                                              String commandName,
+                                              String cacheKey,
+                                              Map<String, String> queryParams) {
+
+        // call the 'with headers' method
+        return this.getAsync(resourcePath, commandName, cacheKey, queryParams, null);
+    }
+
+    /**
+     * A non-blocking, cached GET resource call to a specified resourcePath with the specified queryParams
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param cacheKey      The key under which the response is cached for the current request context
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param headers       Key-Value pair {@link Map<String, String>} of header values (can be null).
+     * @return              A future completed with the JSON string, or exceptionally with the
+     *                      same exceptions thrown by {@link #get(String, String, String, Map, Map)}
+     */
+    public CompletableFuture<String> getAsync(String resourcePath,
+                                              String commandName,
+                                              String cacheKey,
+                                              Map<String, String> queryParams,
+                                              Map<String, String> headers) {
+
+        LOGGER.debug("Creating a non-blocking HTTP GET request for {} resource", commandName);
+        try {
+            URI endpointUri = createEndpointUri(resourcePath, queryParams);
+            HttpRequestBase getRequest = new HttpGet(endpointUri);
+            setHeaders(getRequest, headers);
+            setHttpRequestConfig(getRequest, commandName);
+            logHttpRequestDetails(getRequest);
+            return callResourceAsync(getRequest, commandName, cacheKey);
+        } catch (RestClientSideException | InstantiationException ex) {
+            return failedFuture(ex);
+        }
+    }
+
+    /**
+     * A non-blocking, cached POST resource call to a specified resourcePath with the specified queryParams and a requestBody
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param requestCacheKey The key under which the response is cached for the current request context
+     * @param requestBody   The requestBody that needs to be sent to the REST resource. This can be XML or JSON or even a simple string.
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param contentType   The HTTP content type for the request body, if null then we will assume 'text/plain'
+     * @return              A future completed with the JSON string, or exceptionally with the
+     *                      same exceptions thrown by {@link #post(String, String, String, String, Map, ContentType)}
+     */
+    public CompletableFuture<String> postAsync(String resourcePath,
+                                               String commandName,
+                                               String requestBody,
+                                               String requestCacheKey,
+                                               Map<String, String> queryParams,
+                                               ContentType contentType) {
+
+        // call the 'with headers' method
+        return this.postAsync(resourcePath, commandName, requestBody, requestCacheKey, queryParams, contentType, null);
+    }
+
+    /**
+     * A non-blocking, cached POST resource call to a specified resourcePath with the specified queryParams and a requestBody
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param requestCacheKey The key under which the response is cached for the current request context
+     * @param requestBody   The requestBody that needs to be sent to the REST resource. This can be XML or JSON or even a simple string.
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param contentType   The HTTP content type for the request body, if null then we will assume 'text/plain'
+     * @param headers       Key-Value pair {@link Map<String, String>} of header variables (can be null).
+     * @return              A future completed with the JSON string, or exceptionally with the
+     *                      same exceptions thrown by {@link #post(String, String, String, String, Map, ContentType, Map)}
+     */
+    public CompletableFuture<String> postAsync(String resourcePath,
+                                               String commandName,
+                                               String requestBody,
+                                               String requestCacheKey,
+                                               Map<String, String> queryParams,
+                                               ContentType contentType,
+                                               Map<String, String> headers) {
+
+        LOGGER.debug("Creating a non-blocking HTTP POST request for {} resource", commandName);
+        try {
+            URI endpointUri = createEndpointUri(resourcePath, queryParams);
+            HttpEntityEnclosingRequestBase postRequest = new HttpPost(endpointUri);
+            setHeaders(postRequest, headers);
+            setPayload(requestBody, postRequest, commandName, contentType);
+            setHttpRequestConfig(postRequest, commandName);
+            logHttpRequestDetails(postRequest);
+            return callResourceAsync(postRequest, commandName, requestCacheKey);
+        } catch (RestClientSideException | RestProtocolException | InstantiationException ex) {
+            return failedFuture(ex);
+        }
+    }
+
+    /**
+     * A non-blocking, cached PUT resource call to a specified resourcePath with the specified queryParams and a requestBody
+     *
+     * @param resourcePath  The resource path. Must start with "/"
+     * @param commandName   The Hystrix command name
+     * @param requestCacheKey The key under which the response is cached for the current request context
+     * @param requestBody   The requestBody that needs to be sent to the REST resource. This can be XML or JSON or even a simple string.
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param contentType   The HTTP content type for the request body, if null then we will assume 'text/plain'
+     * @return              A future completed with the JSON string, or exceptionally with the
+     *                      same exceptions thrown by {@link #put(String, String, String, String, Map, ContentType)}
+     */
+    public CompletableFuture<String> putAsync(String resourcePath,
+                                              String commandName,
+                                              String requestBody,
+                                              String requestCacheKey,
+                                              Map<String, String> queryParams,
+                                              ContentType contentType) {
+
+        // call the 'with headers' method
+        return this.putAsync(resourcePath, commandName, requestBody, requestCacheKey, queryParams, contentType, null);
+    }
+
+    /**
+     * A non-blocking, cached PUT resource call to a specified resourcePath with the specified queryParams and a requestBody
+     *
+     * @param resourcePath  The resource path. Must start with "/"
+     * @param commandName   The Hystrix command name
+     * @param requestCacheKey The key under which the response is cached for the current request context
+     * @param requestBody   The requestBody that needs to be sent to the REST resource. This can be XML or JSON or even a simple string.
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param contentType   The HTTP content type for the request body, if null then we will assume 'text/plain'
+     * @param headers       Key-Value pair {@link Map<String, String>} of header values (can be null).
+     * @return              A future completed with the JSON string, or exceptionally with the
+     *                      same exceptions thrown by {@link #put(String, String, String, String, Map, ContentType, Map)}
+     */
+    public CompletableFuture<String> putAsync(String resourcePath,
+                                              String commandName,
+                                              String requestBody,
+                                              String requestCacheKey,
+                                              Map<String, String> queryParams,
+                                              ContentType contentType,
+                                              Map<String, String> headers) {
+
+        LOGGER.debug("Creating a non-blocking HTTP PUT request for {} resource", commandName);
+        try {
+            URI endpointUri = createEndpointUri(resourcePath, queryParams);
+            HttpEntityEnclosingRequestBase putRequest = new HttpPut(endpointUri);
+            setHeaders(putRequest, headers);
+            setPayload(requestBody, putRequest, commandName, contentType);
+            setHttpRequestConfig(putRequest, commandName);
+            logHttpRequestDetails(putRequest);
+            return callResourceAsync(putRequest, commandName, requestCacheKey);
+        } catch (RestClientSideException | RestProtocolException | InstantiationException ex) {
+            return failedFuture(ex);
+        }
+    }
+
+    /**
+     * A non-blocking, cached DELETE resource call to a specified resourcePath with the specified queryParams
+     *
+     * @param resourcePath  The resource path. Must start with "/"
+     * @param commandName   The Hystrix command name
+     * @param requestCacheKey The key under which the response is cached for the current request context
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @return              A future completed with the JSON string, or exceptionally with the
+     *                      same exceptions thrown by {@link #delete(String, String, String, Map)}
+     */
+    public CompletableFuture<String> deleteAsync(String resourcePath,
+                                                 String commandName,
+                                                 String requestCacheKey,
+                                                 Map<String, String> queryParams) {
+
+        // call the 'with headers' method
+        return this.deleteAsync(resourcePath, commandName, requestCacheKey, queryParams, null);
+    }
+
+    /**
+     * A non-blocking, cached DELETE resource call to a specified resourcePath with the specified queryParams
+     *
+     * @param resourcePath  The resource path. Must start with "/"
+     * @param commandName   The Hystrix command name
+     * @param requestCacheKey The key under which the response is cached for the current request context
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param headers       Key-Value pair {@link Map<String, String>} of header values (can be null).
+     * @return              A future completed with the JSON string, or exceptionally with the
+     *                      same exceptions thrown by {@link #delete(String, String, String, Map, Map)}
+     */
+    public CompletableFuture<String> deleteAsync(String resourcePath,
+                                                 String commandName,
+                                                 String requestCacheKey,
+                                                 Map<String, String> queryParams,
+                                                 Map<String, String> headers) {
+
+        LOGGER.debug("Creating a non-blocking HTTP DELETE request for {} resource", commandName);
+        try {
+            URI endpointUri = createEndpointUri(resourcePath, queryParams);
+            HttpRequestBase deleteRequest = new HttpDelete(endpointUri);
+            setHeaders(deleteRequest, headers);
+            setHttpRequestConfig(deleteRequest, commandName);
+            logHttpRequestDetails(deleteRequest);
+            return callResourceAsync(deleteRequest, commandName, requestCacheKey);
+        } catch (RestClientSideException | InstantiationException ex) {
+            return failedFuture(ex);
+        }
+    }
+
+    /**
+     * This method triggers the non-blocking resource call via the cached Hystrix command within the rate limits
+     * of the command and group key and the concurrency limit of the command, and flushes the request cache if
+     * the call fails.
+     */
+    private CompletableFuture<String> callResourceAsync(HttpRequestBase httpRequest,
+                                                        String commandName,
+                                                        final String requestCacheKey) {
+
+        final String cachedCommandName = prependGroupKeyNameToCommandNameIfRequired(commandName);
+
+        final AdaptiveConcurrencyLimiter limiter;
+        try {
+            acquireRatePermit(cachedCommandName);
+            limiter = acquireConcurrencySlot(cachedCommandName);
+        } catch (RateLimitExceededException | ConcurrencyLimitExceededException ex) {
+            return failedFuture(ex);
+        }
+
+        final CommandAsyncCachedRestResourceCall restResourceCall;
+        try {
+            restResourceCall = new CommandAsyncCachedRestResourceCall(groupKeyName, cachedCommandName, requestCacheKey,
+                                                                      httpRequest, getHttpAsyncClient(), HttpClientContext.create());
+        } catch (HystrixBadRequestException hbre) {
+            cancelCall(limiter, null);
+            LOGGER.error(CB_BAD_REQUEST.getLogMessage(cachedCommandName), hbre);
+            return failedFuture(new RestClientSideException(CB_BAD_REQUEST));
+        }
+
+        final CompletableFuture<String> result = observeResourceCall(restResourceCall, httpRequest, cachedCommandName, limiter, null);
+        result.whenComplete((json, failure) -> {
+            if (failure != null) {
+                CommandCachedRestResourceCall.flushCache(cachedCommandName, requestCacheKey);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * This method coalesces identical concurrent GET calls when enabled,
+     * before they reach the shared and the request scoped caches.
+     * @see RestClient#coalesce(HttpRequestBase, String, Callable)
+     */
+    private String callCoalescedResource(final HttpRequestBase httpRequest,
+                                         final String commandName,
+                                         final String cacheKey) throws ResourceStateConflictException,
+                                                                       JsonReadException,
+                                                                       RestClientSideException,
+                                                                       RestServerSideException,
+                                                                       RestConnectionException,
+                                                                       RestEndpointException,
+                                                                       InstantiationException {
+
+        return coalesce(httpRequest, commandName, new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return callSharedCachedResource(httpRequest, commandName, cacheKey);
+            }
+        });
+    }
+
+    /**
+     * This method serves GET responses from the process-wide {@link SharedResponseCache} when it is enabled
+     * for the command (<code>http.request.&lt;name&gt;.cache.enabled</code>), falling back to the
+     * request scoped Hystrix cache and the REST resource on a miss.
+     * <p/>
+     * The freshness of a stored response is taken from the <code>Cache-Control</code> header of the response
+     * (<code>s-maxage</code>, <code>max-age</code>, <code>no-cache</code>, <code>no-store</code>) unless
+     * <code>http.request.&lt;name&gt;.cache.honourCacheControl</code> is FALSE, and defaults to
+     * <code>http.request.&lt;name&gt;.cache.ttl</code> milliseconds. Responses only match requests carrying
+     * the same values for the headers named by their <code>Vary</code> header.
+     * Within the <code>stale-while-revalidate</code> window a stale response is returned immediately and
+     * refreshed once in the background. Other stale entries carrying an <code>ETag</code> or
+     * <code>Last-Modified</code> validator are refreshed with a conditional request, a
+     * <code>304 Not Modified</code> answer extends the entry instead of downloading it again.
+     */
+    private String callSharedCachedResource(HttpRequestBase httpRequest,
+                                            String commandName,
+                                            String cacheKey) throws ResourceStateConflictException,
+                                                                    JsonReadException,
+                                                                    RestClientSideException,
+                                                                    RestServerSideException,
+                                                                    RestConnectionException,
+                                                                    RestEndpointException,
+                                                                    InstantiationException {
+
+        if (cacheKey == null || !properties.getBoolean(commandName, "cache.enabled", RestRequestConfigurationDefaults.SHARED_CACHE_ENABLED)) {
+            return callResource(httpRequest, commandName, cacheKey);
+        }
+
+        final SharedResponseCache sharedCache = SharedResponseCache.getInstance();
+        final String cachedCommandName = prependGroupKeyNameToCommandNameIfRequired(commandName);
+
+        CachedResponse cachedResponse = sharedCache.get(cachedCommandName, cacheKey);
+        if (cachedResponse != null && !cachedResponse.matchesVaryHeaders(httpRequest)) {
+            cachedResponse = null;
+        }
+
+        if (cachedResponse != null && cachedResponse.isFresh()) {
+            sharedCache.recordHit(cachedCommandName);
+            LOGGER.debug("Call To CachedRestResource: {}, Response Returned From Shared Cache", cachedCommandName);
+            return cachedResponse.getJsonResponse();
+        }
+
+        if (cachedResponse != null && cachedResponse.isWithinStaleWhileRevalidate()) {
+            sharedCache.recordHit(cachedCommandName);
+            LOGGER.debug("Call To CachedRestResource: {}, Stale Response Returned From Shared Cache", cachedCommandName);
+            refreshInBackground(httpRequest, commandName, cacheKey, cachedResponse);
+            return cachedResponse.getJsonResponse();
+        }
+
+        return loadIntoSharedCache(httpRequest, commandName, cacheKey, cachedResponse);
+    }
+
+    /**
+     * This method calls the REST resource, conditionally if the stale cache entry carries validators,
+     * and stores the response in the {@link SharedResponseCache}.
+     */
+    private String loadIntoSharedCache(HttpRequestBase httpRequest,
+                                       String commandName,
+                                       String cacheKey,
+                                       CachedResponse staleResponse) throws ResourceStateConflictException,
+                                                                           JsonReadException,
+                                                                           RestClientSideException,
+                                                                           RestServerSideException,
+                                                                           RestConnectionException,
+                                                                           RestEndpointException,
+                                                                           InstantiationException {
+
+        final SharedResponseCache sharedCache = SharedResponseCache.getInstance();
+        final String cachedCommandName = prependGroupKeyNameToCommandNameIfRequired(commandName);
+
+        if (staleResponse != null && staleResponse.hasValidators()) {
+            setConditionalHeaders(httpRequest, staleResponse);
+        } else {
+            staleResponse = null;
+        }
+
+        final long loadStart = System.nanoTime();
+        RestClientResponse restClientResponse = executeResourceCall(httpRequest, commandName, cacheKey);
+        final long loadTime = System.nanoTime() - loadStart;
+
+        if (staleResponse != null && restClientResponse != null
+                && restClientResponse.getHttpResponseCode() == HttpStatus.SC_NOT_MODIFIED) {
+            CacheControl cacheControl = getCacheControl(restClientResponse, commandName);
+            sharedCache.recordRevalidation(cachedCommandName);
+            sharedCache.put(cachedCommandName, cacheKey, staleResponse.revalidated(
+                    restClientResponse.getFirstHeaderValue(HttpHeaders.ETAG),
+                    restClientResponse.getFirstHeaderValue(HttpHeaders.LAST_MODIFIED),
+                    cacheControl.getFreshnessLifetimeMillis(getSharedCacheTtl(commandName)),
+                    cacheControl.getStaleWhileRevalidateMillis(),
+                    getSharedCacheRevalidationRetention(commandName)));
+            LOGGER.debug("Call To CachedRestResource: {}, Response Revalidated In Shared Cache", cachedCommandName);
+            return staleResponse.getJsonResponse();
+        }
+
+        sharedCache.recordMiss(cachedCommandName);
+        sharedCache.recordLoad(cachedCommandName, loadTime);
+
+        if (restClientResponse == null) {
+            LOGGER.debug("No Content response from the {} resource with null payload.", cachedCommandName);
+            return null;
+        }
+
+        CachedResponse cachedResponse = createCachedResponse(restClientResponse, httpRequest, commandName);
+        if (cachedResponse != null) {
+            sharedCache.put(cachedCommandName, cacheKey, cachedResponse);
+        } else {
+            sharedCache.invalidate(cachedCommandName, cacheKey);
+        }
+
+        return restClientResponse.getJsonResponse();
+    }
+
+    /**
+     * Refreshes a stale entry on the background refresh executor, unless a refresh of the
+     * same entry is already in flight. The refresh runs in a request context of its own.
+     */
+    private void refreshInBackground(final HttpRequestBase httpRequest,
+                                     final String commandName,
+                                     final String cacheKey,
+                                     final CachedResponse staleResponse) {
+
+        final String refreshKey = prependGroupKeyNameToCommandNameIfRequired(commandName) + '\n' + cacheKey;
+        if (REFRESHES_IN_FLIGHT.putIfAbsent(refreshKey, Boolean.TRUE) != null) {
+            return;
+        }
+
+        try {
+            BACKGROUND_REFRESH_EXECUTOR.execute(new Runnable() {
+                @Override
+                public void run() {
+                    HystrixRequestContext context = HystrixRequestContext.initializeContext();
+                    try {
+                        loadIntoSharedCache(httpRequest, commandName, cacheKey, staleResponse);
+                    } catch (Exception ex) {
+                        LOGGER.warn("Background refresh of the {} resource failed", commandName, ex);
+                    } finally {
+                        context.shutdown();
+                        REFRESHES_IN_FLIGHT.remove(refreshKey);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            LOGGER.debug("Background refresh of the {} resource skipped, all refresh threads are busy", commandName);
+            REFRESHES_IN_FLIGHT.remove(refreshKey);
+        }
+    }
+
+    /**
+     * Creates the shared cache entry for a response, or returns null if the response must not be stored.
+     */
+    private CachedResponse createCachedResponse(RestClientResponse restClientResponse,
+                                                HttpRequestBase httpRequest,
+                                                String commandName) {
+
+        int httpStatusCode = restClientResponse.getHttpResponseCode();
+        if (httpStatusCode < HttpStatus.SC_OK || httpStatusCode >= HttpStatus.SC_MULTIPLE_CHOICES) {
+            return null;
+        }
+
+        CacheControl cacheControl = getCacheControl(restClientResponse, commandName);
+        if (cacheControl.isNoStore()) {
+            return null;
+        }
+
+        Map<String, String> varyHeaders = new HashMap<>();
+        String vary = restClientResponse.getFirstHeaderValue(HttpHeaders.VARY);
+        if (vary != null) {
+            for (String headerName : vary.split(",")) {
+                headerName = headerName.trim().toLowerCase(Locale.ENGLISH);
+                if (headerName.equals("*")) {
+                    return null;
+                }
+                if (!headerName.isEmpty()) {
+                    Header header = httpRequest.getFirstHeader(headerName);
+                    varyHeaders.put(headerName, header == null ? null : header.getValue());
+                }
+            }
+        }
+
+        return new CachedResponse(restClientResponse.getJsonResponse(),
+                                  httpStatusCode,
+                                  restClientResponse.getFirstHeaderValue(HttpHeaders.ETAG),
+                                  restClientResponse.getFirstHeaderValue(HttpHeaders.LAST_MODIFIED),
+                                  varyHeaders,
+                                  cacheControl.getFreshnessLifetimeMillis(getSharedCacheTtl(commandName)),
+                                  cacheControl.getStaleWhileRevalidateMillis(),
+                                  getSharedCacheRevalidationRetention(commandName));
+    }
+
+    /**
+     * Parses the Cache-Control header of the response, if the command honours it.
+     */
+    private CacheControl getCacheControl(RestClientResponse restClientResponse, String commandName) {
+        if (!properties.getBoolean(commandName, "cache.honourCacheControl", RestRequestConfigurationDefaults.SHARED_CACHE_HONOUR_CACHE_CONTROL)) {
+            return CacheControl.parse(null);
+        }
+        return CacheControl.parse(restClientResponse.getFirstHeaderValue(HttpHeaders.CACHE_CONTROL));
+    }
+
+    private long getSharedCacheTtl(String commandName) {
+        return properties.getLong(commandName, "cache.ttl", RestRequestConfigurationDefaults.SHARED_CACHE_TTL);
+    }
+
+    private long getSharedCacheRevalidationRetention(String commandName) {
+        return properties.getLong(commandName, "cache.revalidationRetention",
+                                  RestRequestConfigurationDefaults.SHARED_CACHE_REVALIDATION_RETENTION);
+    }
+
+    /**
+     * Turns the refresh of a stale cache entry into a conditional request,
+     * unless the caller has already set the conditional headers.
+     */
+    private void setConditionalHeaders(HttpRequestBase httpRequest, CachedResponse cachedResponse) {
+        if (cachedResponse.getEntityTag() != null && !httpRequest.containsHeader(HttpHeaders.IF_NONE_MATCH)) {
+            httpRequest.setHeader(HttpHeaders.IF_NONE_MATCH, cachedResponse.getEntityTag());
+        }
+        if (cachedResponse.getLastModified() != null && !httpRequest.containsHeader(HttpHeaders.IF_MODIFIED_SINCE)) {
+            httpRequest.setHeader(HttpHeaders.IF_MODIFIED_SINCE, cachedResponse.getLastModified());
+        }
+    }
+
     /**
      * This method triggers the resource call via the Hystrix command,
      * extracts the JSON,
@@ -369,64 +900,80 @@ public class CachingRestClient extends RestClient {
                                                                RestEndpointException,
                                                                InstantiationException {
 
+        RestClientResponse restClientResponse = executeResourceCall(httpRequest, commandName, requestCacheKey);
+
+        if (restClientResponse == null) {
+            LOGGER.debug("No Content response from the {} resource with null payload.", commandName);
+            return null;
+        }
+
+        LOGGER.debug("JSON recieved from {} resource is - {}", commandName, restClientResponse);
+        return restClientResponse.getJsonResponse();
+    }
+
+    /**
+     * This method triggers the resource call via the Hystrix command within the rate limits of the command and group key
+     * and the concurrency limit of the command,
+     * handles and wraps exceptions if any,
+     * releases resources related to the HTTP call,
+     * and returns the response. A <code>304 Not Modified</code> response is returned as is,
+     * it is up to the caller to serve the revalidated entry.
+     * The rate permit and the concurrency slot are taken before the request scoped cache is looked up,
+     * a response served from the Hystrix request cache takes them too.
+     */
+    private RestClientResponse executeResourceCall(HttpRequestBase httpRequest,
+                                                   String commandName,
+                                                   String requestCacheKey) throws ResourceStateConflictException,
+                                                                                  JsonReadException,
+                                                                                  RestClientSideException,
+                                                                                  RestServerSideException,
+                                                                                  RestConnectionException,
+                                                                                  RestEndpointException,
+                                                                                  InstantiationException {
+
         RestClientResponse restClientResponse = null;
         commandName = prependGroupKeyNameToCommandNameIfRequired(commandName);
+        acquireRatePermit(commandName);
 
         final CommandCachedRestResourceCall restResourceCall
-            = new CommandCachedRestResourceCall(groupKeyName, commandName, requestCacheKey, httpRequest, getHttpClient(), HttpClientContext.create());
+            = new CommandCachedRestResourceCall(groupKeyName, commandName, requestCacheKey, httpRequest, getTransport(), HttpClientContext.create());
+        final AdaptiveConcurrencyLimiter limiter = acquireConcurrencySlot(commandName);
 
+        final long start = System.nanoTime();
+        Exception failure = null;
         try {
             restClientResponse = restResourceCall.execute();
 
             LOGGER.debug("Call To CachedRestResource: {}, Was Response Returned From Cache: {}", commandName, restResourceCall.isResponseFromCache());
 
-            processResponseFailures(restClientResponse.getHttpResponseCode(), restClientResponse.getJsonResponse(), commandName);
-
         } catch (HystrixRuntimeException hre) {
+            failure = hre;
             CommandCachedRestResourceCall.flushCache(commandName, requestCacheKey);
             httpRequest.abort();
 
             LOGGER.debug("HTTP Request to {} resource has been aborted.");
-            switch(hre.getFailureType()) {
-                case TIMEOUT:
-                    LOGGER.error(CB_TIMED_OUT.getLogMessage(commandName), hre);
-                    throw new RestConnectionException(CB_TIMED_OUT);
-                case SHORTCIRCUIT:
-                    LOGGER.error(CB_SHORT_CIRCUITED.getLogMessage(commandName), hre);
-                    throw new RestEndpointException(CB_SHORT_CIRCUITED, hre);
-                case REJECTED_THREAD_EXECUTION:
-                    LOGGER.error(CB_REJECTED_THREAD_EXECUTION.getLogMessage(commandName), hre);
-                    throw new RestEndpointException(CB_REJECTED_THREAD_EXECUTION, hre);
-                case REJECTED_SEMAPHORE_FALLBACK:
-                    LOGGER.error(CB_REJECTED_SEMAPHORE_FALLBACK.getLogMessage(commandName), hre);
-                    throw new RestEndpointException(CB_REJECTED_SEMAPHORE_FALLBACK, hre);
-                case REJECTED_SEMAPHORE_EXECUTION:
-                    LOGGER.error(CB_REJECTED_SEMAPHORE_EXECUTION.getLogMessage(commandName), hre);
-                    throw new RestServerSideException(CB_REJECTED_SEMAPHORE_EXECUTION, hre);
-                case COMMAND_EXCEPTION:
-                    LOGGER.error(CB_BAD_REQUEST.getLogMessage(commandName), hre);
-                    throw new RestEndpointException(CB_BAD_REQUEST);
-                default:
-                    LOGGER.error(CB_UNKNOWN_ERROR.getLogMessage(commandName), hre);
-                    throw new RestServerSideException(CB_UNKNOWN_ERROR, hre);
-            }
+            rethrowHystrixRuntimeException(hre, commandName);
         } catch (HystrixBadRequestException hbre) {
+            failure = hbre;
             LOGGER.error(CB_BAD_REQUEST.getLogMessage(commandName), hbre);
             throw new RestClientSideException(CB_BAD_REQUEST);
 
         } catch (Exception e) {
+            failure = e;
             // for all other exceptions flush this key from the cache.
             CommandCachedRestResourceCall.flushCache(commandName, requestCacheKey);
             throw new RestServerSideException(CB_UNKNOWN_ERROR, e);
 
         } finally {
-            if (restClientResponse != null) {
-                LOGGER.debug("Releasing the connections associated with {} resource", commandName);
-                httpRequest.releaseConnection();
-            }
+            completeCall(limiter, null, System.nanoTime() - start, restClientResponse, failure);
+            LOGGER.debug("Releasing the connections associated with {} resource", commandName);
+            httpRequest.releaseConnection();
         }
 
-        LOGGER.debug("JSON recieved from {} resource is - {}", commandName, restClientResponse);
-        return restClientResponse.getJsonResponse();
+        // failure responses raise the same REST exceptions as the RestClient calls, they are not unknown errors
+        if (restClientResponse != null && restClientResponse.getHttpResponseCode() != HttpStatus.SC_NOT_MODIFIED) {
+            processResponseFailures(restClientResponse, commandName);
+        }
+        return restClientResponse;
     }
 }
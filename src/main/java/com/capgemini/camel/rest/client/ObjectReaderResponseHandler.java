@@ -0,0 +1,47 @@
+package com.capgemini.camel.rest.client;
+
+import java.io.InputStream;
+
+import com.capgemini.camel.exception.rest.JsonReadException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.http.Header;
+import org.apache.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.capgemini.camel.exception.rest.ErrorScenario.JSON_READ_FAILED;
+
+/**
+ * Decodes the response payload straight from the entity stream with an {@link ObjectReader}.
+ * Malformed payloads are reported as a {@link JsonReadException} rather than as an I/O failure,
+ * so they do not count against the circuit breaker.
+ *
+ * @author Abbas Attarwala
+ */
+class ObjectReaderResponseHandler<T> implements RestResponseHandler<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ObjectReaderResponseHandler.class);
+
+    private final ObjectReader objectReader;
+    private final String commandName;
+
+    ObjectReaderResponseHandler(ObjectReader objectReader, String commandName) {
+        this.objectReader = objectReader;
+        this.commandName = commandName;
+    }
+
+    @Override
+    public T handleResponse(int httpStatusCode, Header[] headers, InputStream body) throws Exception {
+        if (httpStatusCode == HttpStatus.SC_NO_CONTENT) {
+            LOGGER.debug("Http No Content response from the {} resource, nothing to decode.", commandName);
+            return null;
+        }
+        try {
+            return objectReader.readValue(body);
+        } catch (JsonProcessingException ex) {
+            LOGGER.error(JSON_READ_FAILED.getLogMessage(commandName), ex);
+            throw new JsonReadException(JSON_READ_FAILED, ex);
+        }
+    }
+}
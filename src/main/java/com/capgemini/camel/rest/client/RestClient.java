@@ -1,30 +1,92 @@
 package com.capgemini.camel.rest.client;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 import com.capgemini.camel.exception.rest.*;
+import com.capgemini.camel.rest.client.circuitbreaker.CommandAsyncRestResourceCall;
+import com.capgemini.camel.rest.client.circuitbreaker.CommandHedgedRestResourceCall;
 import com.capgemini.camel.rest.client.circuitbreaker.CommandRestResourceCall;
+import com.capgemini.camel.rest.client.circuitbreaker.CommandStreamingRestResourceCall;
+import com.capgemini.camel.rest.client.config.EndpointCommandProperties;
+import com.capgemini.camel.rest.client.config.PropertyChangeTracker;
+import com.capgemini.camel.rest.client.connection.ConnectionLeaseTracker;
+import com.capgemini.camel.rest.client.connection.ManagedHttpClientFactory;
+import com.capgemini.camel.rest.client.entity.JacksonEntity;
+import com.capgemini.camel.rest.client.exception.ConcurrencyLimitExceededException;
+import com.capgemini.camel.rest.client.exception.RateLimitExceededException;
+import com.capgemini.camel.rest.client.limit.AdaptiveConcurrencyLimiter;
+import com.capgemini.camel.rest.client.limit.TokenBucketRateLimiter;
+import com.capgemini.camel.rest.client.loadbalancer.EndpointLoadBalancer;
+import com.capgemini.camel.rest.client.config.RestClientProperties;
 import com.capgemini.camel.rest.client.constants.RestRequestConfigurationDefaults;
 import com.capgemini.camel.rest.client.model.RestClientResponse;
+import com.capgemini.camel.rest.client.model.RestRequest;
+import com.capgemini.camel.rest.client.model.RestResult;
+import com.capgemini.camel.rest.client.timeout.AdaptiveTimeoutStats;
+import com.capgemini.camel.rest.client.timeout.AdaptiveTimeouts;
+import com.capgemini.camel.rest.client.transport.ApacheHttpTransport;
+import com.capgemini.camel.rest.client.transport.RestTransport;
+import com.capgemini.camel.rest.client.util.Backoff;
+import com.capgemini.camel.rest.client.util.ObjectReaderCache;
 import com.capgemini.camel.rest.client.util.QueryString;
+import com.capgemini.camel.rest.client.util.RequestBudget;
+import com.capgemini.camel.rest.client.util.SingleFlight;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.config.DynamicBooleanProperty;
 import com.netflix.config.DynamicPropertyFactory;
+import com.netflix.hystrix.HystrixCommand;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandMetrics;
+import com.netflix.hystrix.HystrixObservable;
 import com.netflix.hystrix.exception.HystrixBadRequestException;
 import com.netflix.hystrix.exception.HystrixRuntimeException;
 import org.apache.http.*;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.GzipCompressingEntity;
 import org.apache.http.client.entity.EntityBuilder;
 import org.apache.http.client.methods.*;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import rx.Observable;
+import rx.Observer;
+import rx.Subscriber;
 
 import static com.capgemini.camel.exception.rest.ErrorScenario.*;
 
@@ -39,16 +101,49 @@ public class RestClient {
     public static final String HTTP_PROXY_ENABLED = "http.proxy.enabled";
     public static final String HTTP_PROXY_HOST = "http.proxy.host";
     public static final String HTTP_PROXY_PORT = "http.proxy.port";
+    public static final String HTTP_COALESCE_ENABLED = "http.coalesce.enabled";
+    public static final String ACCEPTED_ENCODINGS = "gzip, deflate";
+    public static final String TRANSPORT_APACHE = "apache";
+    public static final String TRANSPORT_HTTP2 = "http2";
+    private static final DynamicBooleanProperty COALESCE_ENABLED = DynamicPropertyFactory.getInstance().getBooleanProperty(HTTP_COALESCE_ENABLED, false);
+    private static final String JDK_HTTP2_TRANSPORT_CLASS = "com.capgemini.camel.rest.client.transport.JdkHttp2Transport";
+
+    private static final Collection<String> IDEMPOTENT_METHODS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            HttpGet.METHOD_NAME, HttpHead.METHOD_NAME, HttpOptions.METHOD_NAME, HttpPut.METHOD_NAME, HttpDelete.METHOD_NAME)));
 
     private HttpClient httpClient;
+    private HttpAsyncClient httpAsyncClient;
+    private volatile RestTransport transport;
+    private volatile ApacheHttpTransport apacheTransport;
+    private volatile RestTransport http2Transport;
 
     protected final String groupKeyName;
     protected final String endPoint;
     protected boolean prependGroupKeyNameToCommandKey;
     protected String groupKeyPropertyPrefix;
+    protected final RestClientProperties properties;
+    protected final AdaptiveTimeouts adaptiveTimeouts;
+    protected final RequestBudget retryBudget;
+    protected final EndpointLoadBalancer loadBalancer;
+
+    private final int clientId = CLIENT_IDS.incrementAndGet();
+    private final SingleFlight<String, String> inFlightGets = new SingleFlight<>();
+    private final ConcurrentMap<String, CompiledRequestConfig> requestConfigs = new ConcurrentHashMap<>();
+    private volatile ObjectReaderCache objectReaders = DEFAULT_OBJECT_READERS;
+    private final ConcurrentMap<String, BatchRequestHandler> batchRequestHandlers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, RequestBudget> hedgeBudgets = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AdaptiveConcurrencyLimiter> concurrencyLimiters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, TokenBucketRateLimiter> commandRateLimiters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, TokenBucketRateLimiter> groupRateLimiter = new ConcurrentHashMap<>();
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RestClient.class);
 
+    private static final AtomicInteger CLIENT_IDS = new AtomicInteger();
+
+    private static final JsonFactory JSON_FACTORY = new ObjectMapper().getFactory();
+
+    private static final ObjectReaderCache DEFAULT_OBJECT_READERS = new ObjectReaderCache(new ObjectMapper());
+
     /**
      * Creates a REST Client specific to a REST API
      *
@@ -68,10 +163,34 @@ public class RestClient {
      *                      FALSE otherwise
      */
     public RestClient(String groupKeyName, String endPoint, boolean prependGroupKeyNameToCommandKey) {
+        this(groupKeyName, Collections.singletonList(endPoint), prependGroupKeyNameToCommandKey);
+    }
+
+    /**
+     * Creates a REST Client specific to a REST API served by several endpoints.
+     * Requests are balanced over the endpoints, each endpoint having its own circuit breaker.
+     *
+     * @param groupKeyName  The Hystrix groupKey name
+     * @param endPoints     The REST API endpoints, all serving the same resources
+     * @param prependGroupKeyNameToCommandKey      Set to TRUE to append the Group Key to the command key when building the Hystrix command,
+     *                      FALSE otherwise
+     * @see EndpointLoadBalancer
+     */
+    public RestClient(String groupKeyName, List<String> endPoints, boolean prependGroupKeyNameToCommandKey) {
         this.groupKeyName = groupKeyName;
-        this.endPoint = endPoint;
+        this.endPoint = endPoints.get(0);
         this.prependGroupKeyNameToCommandKey = prependGroupKeyNameToCommandKey;
         this.groupKeyPropertyPrefix = "http.request." + this.groupKeyName;
+        this.properties = new RestClientProperties(groupKeyName);
+        this.adaptiveTimeouts = new AdaptiveTimeouts(properties);
+        this.retryBudget = new RequestBudget(properties.getGroupInt("retry.budgetInitialTokens", RestRequestConfigurationDefaults.RETRY_BUDGET_INITIAL_TOKENS),
+                                             properties.getGroupInt("retry.budgetMaxTokens", RestRequestConfigurationDefaults.RETRY_BUDGET_MAX_TOKENS));
+        this.loadBalancer = endPoints.size() > 1 ? new EndpointLoadBalancer(endPoints, new EndpointLoadBalancer.Settings(
+                properties.getGroupInt("lb.consecutiveErrors", RestRequestConfigurationDefaults.LB_CONSECUTIVE_ERRORS),
+                properties.getGroupDouble("lb.latencyOutlierFactor", RestRequestConfigurationDefaults.LB_LATENCY_OUTLIER_FACTOR),
+                properties.getGroupInt("lb.minRequests", RestRequestConfigurationDefaults.LB_MIN_REQUESTS),
+                properties.getGroupLong("lb.baseEjectionMs", RestRequestConfigurationDefaults.LB_BASE_EJECTION),
+                properties.getGroupLong("lb.maxEjectionMs", RestRequestConfigurationDefaults.LB_MAX_EJECTION))) : null;
     }
 
     /**
@@ -139,7 +258,7 @@ public class RestClient {
         setHeaders(getRequest, headers);
         setHttpRequestConfig(getRequest, commandName);
         logHttpRequestDetails(getRequest);
-        String json = callResource(getRequest, commandName);
+        String json = callCoalescedResource(getRequest, commandName);
 
         return json;
     }
@@ -297,6 +416,278 @@ public class RestClient {
         return json;
     }
 
+    /**
+     * A POST resource call to a specified resourcePath with the specified queryParams and a binary requestBody
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param requestBody   The requestBody that needs to be sent to the REST resource, sent as is.
+     * @param contentType   The HTTP content type for the request body, if null then we will assume 'application/octet-stream'
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param headers       Key-Value pair {@link Map<String, String>} of header variables (can be null).
+     * @return              The JSON string
+     * @throws RestProtocolException
+     * @throws JsonReadException
+     * @throws RestClientSideException
+     * @throws RestServerSideException
+     * @throws RestConnectionException
+     * @throws RestEndpointException
+     * @throws InstantiationException
+     */
+    public String postBytes(String resourcePath,
+                            String commandName,
+                            byte[] requestBody,
+                            Map<String, String> queryParams,
+                            ContentType contentType,
+                            Map<String, String> headers) throws ResourceStateConflictException,
+                                                          RestProtocolException,
+                                                          JsonReadException,
+                                                          RestClientSideException,
+                                                          RestServerSideException,
+                                                          RestConnectionException,
+                                                          RestEndpointException,
+                                                          InstantiationException {
+
+        LOGGER.debug("Creating an HTTP POST request with a binary payload for {} resource", commandName);
+        URI endpointUri = createEndpointUri(resourcePath, queryParams);
+        HttpEntityEnclosingRequestBase postRequest = new HttpPost(endpointUri);
+        requirePayload(requestBody, postRequest, commandName);
+        if (requestBody.length == 0) {
+            LOGGER.warn(EMPTY_REQUEST_PAYLOAD.getLogMessage(postRequest.getMethod(), commandName));
+        }
+        return callResourceWithPayload(postRequest,
+                                       new ByteArrayEntity(requestBody, contentType == null ? ContentType.APPLICATION_OCTET_STREAM : contentType),
+                                       commandName,
+                                       headers);
+    }
+
+    /**
+     * A POST resource call to a specified resourcePath with the specified queryParams and a requestBody streamed from an InputStream
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param requestBody   The stream the requestBody is read from. It is read once, so the request cannot be repeated.
+     * @param contentLength The length of the requestBody, or -1 if unknown in which case it is sent chunked
+     * @param contentType   The HTTP content type for the request body, if null then we will assume 'application/octet-stream'
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param headers       Key-Value pair {@link Map<String, String>} of header variables (can be null).
+     * @return              The JSON string
+     * @throws RestProtocolException
+     * @throws JsonReadException
+     * @throws RestClientSideException
+     * @throws RestServerSideException
+     * @throws RestConnectionException
+     * @throws RestEndpointException
+     * @throws InstantiationException
+     */
+    public String postStream(String resourcePath,
+                             String commandName,
+                             InputStream requestBody,
+                             long contentLength,
+                             Map<String, String> queryParams,
+                             ContentType contentType,
+                             Map<String, String> headers) throws ResourceStateConflictException,
+                                                          RestProtocolException,
+                                                          JsonReadException,
+                                                          RestClientSideException,
+                                                          RestServerSideException,
+                                                          RestConnectionException,
+                                                          RestEndpointException,
+                                                          InstantiationException {
+
+        LOGGER.debug("Creating an HTTP POST request with a streamed payload for {} resource", commandName);
+        URI endpointUri = createEndpointUri(resourcePath, queryParams);
+        HttpEntityEnclosingRequestBase postRequest = new HttpPost(endpointUri);
+        requirePayload(requestBody, postRequest, commandName);
+        InputStreamEntity entity = new InputStreamEntity(requestBody, contentLength,
+                                                         contentType == null ? ContentType.APPLICATION_OCTET_STREAM : contentType);
+        entity.setChunked(contentLength < 0);
+        return callResourceWithPayload(postRequest, entity, commandName, headers);
+    }
+
+    /**
+     * A POST resource call to a specified resourcePath with the specified queryParams and an object serialized to JSON directly into the request
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param requestBody   The object serialized to JSON with the client {@link #getObjectMapper() ObjectMapper}.
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param headers       Key-Value pair {@link Map<String, String>} of header variables (can be null).
+     * @return              The JSON string
+     * @throws RestProtocolException
+     * @throws JsonReadException
+     * @throws RestClientSideException
+     * @throws RestServerSideException
+     * @throws RestConnectionException
+     * @throws RestEndpointException
+     * @throws InstantiationException
+     */
+    public String postObject(String resourcePath,
+                             String commandName,
+                             Object requestBody,
+                             Map<String, String> queryParams,
+                             Map<String, String> headers) throws ResourceStateConflictException,
+                                                          RestProtocolException,
+                                                          JsonReadException,
+                                                          RestClientSideException,
+                                                          RestServerSideException,
+                                                          RestConnectionException,
+                                                          RestEndpointException,
+                                                          InstantiationException {
+
+        LOGGER.debug("Creating an HTTP POST request with a JSON serialized payload for {} resource", commandName);
+        URI endpointUri = createEndpointUri(resourcePath, queryParams);
+        HttpEntityEnclosingRequestBase postRequest = new HttpPost(endpointUri);
+        requirePayload(requestBody, postRequest, commandName);
+        return callResourceWithPayload(postRequest, new JacksonEntity(requestBody, getObjectMapper()), commandName, headers);
+    }
+
+    /**
+     * A PUT resource call to a specified resourcePath with the specified queryParams and a binary requestBody
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param requestBody   The requestBody that needs to be sent to the REST resource, sent as is.
+     * @param contentType   The HTTP content type for the request body, if null then we will assume 'application/octet-stream'
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param headers       Key-Value pair {@link Map<String, String>} of header variables (can be null).
+     * @return              The JSON string
+     * @throws RestProtocolException
+     * @throws JsonReadException
+     * @throws RestClientSideException
+     * @throws RestServerSideException
+     * @throws RestConnectionException
+     * @throws RestEndpointException
+     * @throws InstantiationException
+     */
+    public String putBytes(String resourcePath,
+                           String commandName,
+                           byte[] requestBody,
+                           Map<String, String> queryParams,
+                           ContentType contentType,
+                           Map<String, String> headers) throws ResourceStateConflictException,
+                                                          RestProtocolException,
+                                                          JsonReadException,
+                                                          RestClientSideException,
+                                                          RestServerSideException,
+                                                          RestConnectionException,
+                                                          RestEndpointException,
+                                                          InstantiationException {
+
+        LOGGER.debug("Creating an HTTP PUT request with a binary payload for {} resource", commandName);
+        URI endpointUri = createEndpointUri(resourcePath, queryParams);
+        HttpEntityEnclosingRequestBase putRequest = new HttpPut(endpointUri);
+        requirePayload(requestBody, putRequest, commandName);
+        if (requestBody.length == 0) {
+            LOGGER.warn(EMPTY_REQUEST_PAYLOAD.getLogMessage(putRequest.getMethod(), commandName));
+        }
+        return callResourceWithPayload(putRequest,
+                                       new ByteArrayEntity(requestBody, contentType == null ? ContentType.APPLICATION_OCTET_STREAM : contentType),
+                                       commandName,
+                                       headers);
+    }
+
+    /**
+     * A PUT resource call to a specified resourcePath with the specified queryParams and a requestBody streamed from an InputStream
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param requestBody   The stream the requestBody is read from. It is read once, so the request cannot be repeated.
+     * @param contentLength The length of the requestBody, or -1 if unknown in which case it is sent chunked
+     * @param contentType   The HTTP content type for the request body, if null then we will assume 'application/octet-stream'
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param headers       Key-Value pair {@link Map<String, String>} of header variables (can be null).
+     * @return              The JSON string
+     * @throws RestProtocolException
+     * @throws JsonReadException
+     * @throws RestClientSideException
+     * @throws RestServerSideException
+     * @throws RestConnectionException
+     * @throws RestEndpointException
+     * @throws InstantiationException
+     */
+    public String putStream(String resourcePath,
+                            String commandName,
+                            InputStream requestBody,
+                            long contentLength,
+                            Map<String, String> queryParams,
+                            ContentType contentType,
+                            Map<String, String> headers) throws ResourceStateConflictException,
+                                                          RestProtocolException,
+                                                          JsonReadException,
+                                                          RestClientSideException,
+                                                          RestServerSideException,
+                                                          RestConnectionException,
+                                                          RestEndpointException,
+                                                          InstantiationException {
+
+        LOGGER.debug("Creating an HTTP PUT request with a streamed payload for {} resource", commandName);
+        URI endpointUri = createEndpointUri(resourcePath, queryParams);
+        HttpEntityEnclosingRequestBase putRequest = new HttpPut(endpointUri);
+        requirePayload(requestBody, putRequest, commandName);
+        InputStreamEntity entity = new InputStreamEntity(requestBody, contentLength,
+                                                         contentType == null ? ContentType.APPLICATION_OCTET_STREAM : contentType);
+        entity.setChunked(contentLength < 0);
+        return callResourceWithPayload(putRequest, entity, commandName, headers);
+    }
+
+    /**
+     * A PUT resource call to a specified resourcePath with the specified queryParams and an object serialized to JSON directly into the request
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param requestBody   The object serialized to JSON with the client {@link #getObjectMapper() ObjectMapper}.
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param headers       Key-Value pair {@link Map<String, String>} of header variables (can be null).
+     * @return              The JSON string
+     * @throws RestProtocolException
+     * @throws JsonReadException
+     * @throws RestClientSideException
+     * @throws RestServerSideException
+     * @throws RestConnectionException
+     * @throws RestEndpointException
+     * @throws InstantiationException
+     */
+    public String putObject(String resourcePath,
+                            String commandName,
+                            Object requestBody,
+                            Map<String, String> queryParams,
+                            Map<String, String> headers) throws ResourceStateConflictException,
+                                                          RestProtocolException,
+                                                          JsonReadException,
+                                                          RestClientSideException,
+                                                          RestServerSideException,
+                                                          RestConnectionException,
+                                                          RestEndpointException,
+                                                          InstantiationException {
+
+        LOGGER.debug("Creating an HTTP PUT request with a JSON serialized payload for {} resource", commandName);
+        URI endpointUri = createEndpointUri(resourcePath, queryParams);
+        HttpEntityEnclosingRequestBase putRequest = new HttpPut(endpointUri);
+        requirePayload(requestBody, putRequest, commandName);
+        return callResourceWithPayload(putRequest, new JacksonEntity(requestBody, getObjectMapper()), commandName, headers);
+    }
+
+    /**
+     * Sets the headers, the payload and the configuration of the request, then calls the resource.
+     */
+    private String callResourceWithPayload(HttpEntityEnclosingRequestBase request,
+                                           HttpEntity entity,
+                                           String commandName,
+                                           Map<String, String> headers) throws ResourceStateConflictException,
+                                                                               JsonReadException,
+                                                                               RestClientSideException,
+                                                                               RestServerSideException,
+                                                                               RestConnectionException,
+                                                                               RestEndpointException,
+                                                                               InstantiationException {
+        setHeaders(request, headers);
+        setPayload(entity, request, commandName);
+        setHttpRequestConfig(request, commandName);
+        logHttpRequestDetails(request);
+        return callResource(request, commandName);
+    }
+
     /**
      * A DELETE resource call to a specified resourcePath with the specified queryParams
      *
@@ -366,103 +757,1697 @@ public class RestClient {
     }
 
     /**
-     * This method triggers the resource call via the Hystrix command,
-     * extracts the JSON,
-     * handles and wraps exceptions if any,
-     * releases resources related to the HTTP call,
-     * and returns the JSON String.
+     * A non-blocking GET resource call to a specified resourcePath with the specified queryParams
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @return              A future completed with the JSON string, or exceptionally with the
+     *                      same exceptions thrown by {@link #get(String, String, Map)}
      */
-    private String callResource(HttpRequestBase httpRequest,
-                                String commandName) throws ResourceStateConflictException, JsonReadException,
-                                                           RestClientSideException,
-                                                           RestServerSideException,
-                                                           RestConnectionException,
-                                                           RestEndpointException,
-                                                           InstantiationException {
+    public CompletableFuture<String> getAsync(String resourcePath,
+                                              String commandName,
+                                              Map<String, String> queryParams) {
 
-        RestClientResponse restClientResponse = null;
-        commandName = prependGroupKeyNameToCommandNameIfRequired(commandName);
+        // call the 'with headers' method
+        return this.getAsync(resourcePath, commandName, queryParams, null);
+    }
 
-        final CommandRestResourceCall restResourceCall
-            = new CommandRestResourceCall(groupKeyName, commandName, httpRequest, getHttpClient(), HttpClientContext.create());
+    /**
+     * A non-blocking GET resource call to a specified resourcePath with the specified queryParams
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param headers       Key-Value pair {@link Map<String, String>} of header values (can be null).
+     * @return              A future completed with the JSON string, or exceptionally with the
+     *                      same exceptions thrown by {@link #get(String, String, Map, Map)}
+     */
+    public CompletableFuture<String> getAsync(String resourcePath,
+                                              String commandName,
+                                              Map<String, String> queryParams,
+                                              Map<String, String> headers) {
 
+        LOGGER.debug("Creating a non-blocking HTTP GET request for {} resource", commandName);
         try {
-            restClientResponse = restResourceCall.execute();
+            URI endpointUri = createEndpointUri(resourcePath, queryParams);
+            HttpRequestBase getRequest = new HttpGet(endpointUri);
+            setHeaders(getRequest, headers);
+            setHttpRequestConfig(getRequest, commandName);
+            logHttpRequestDetails(getRequest);
+            return callResourceAsync(getRequest, commandName);
+        } catch (RestClientSideException | InstantiationException ex) {
+            return failedFuture(ex);
+        }
+    }
 
-            if (restClientResponse == null) {
-                LOGGER.debug("No Content response from the {} resource with null payload.", commandName);
-                return null;
-            }
+    /**
+     * A non-blocking POST resource call to a specified resourcePath with the specified queryParams and a requestBody
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param requestBody   The requestBody that needs to be sent to the REST resource. This can be XML or JSON or even a simple string.
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param contentType   The HTTP content type for the request body, if null then we will assume 'text/plain'
+     * @return              A future completed with the JSON string, or exceptionally with the
+     *                      same exceptions thrown by {@link #post(String, String, String, Map, ContentType)}
+     */
+    public CompletableFuture<String> postAsync(String resourcePath,
+                                               String commandName,
+                                               String requestBody,
+                                               Map<String, String> queryParams,
+                                               ContentType contentType) {
 
-            processResponseFailures(restClientResponse.getHttpResponseCode(), restClientResponse.getJsonResponse(), commandName);
+        // call the 'with headers' method
+        return this.postAsync(resourcePath, commandName, requestBody, queryParams, contentType, null);
+    }
 
-        } catch (HystrixRuntimeException hre) {
-            httpRequest.abort();
-            LOGGER.debug("HTTP Request to {} resource has been aborted.");
-            switch(hre.getFailureType()) {
-                case TIMEOUT:
-                    LOGGER.error(CB_TIMED_OUT.getLogMessage(commandName), hre);
-                    throw new RestConnectionException(CB_TIMED_OUT);
-                case SHORTCIRCUIT:
-                    LOGGER.error(CB_SHORT_CIRCUITED.getLogMessage(commandName), hre);
-                    throw new RestEndpointException(CB_SHORT_CIRCUITED, hre);
-                case REJECTED_THREAD_EXECUTION:
-                    LOGGER.error(CB_REJECTED_THREAD_EXECUTION.getLogMessage(commandName), hre);
-                    throw new RestEndpointException(CB_REJECTED_THREAD_EXECUTION, hre);
-                case REJECTED_SEMAPHORE_FALLBACK:
-                    LOGGER.error(CB_REJECTED_SEMAPHORE_FALLBACK.getLogMessage(commandName), hre);
-                    throw new RestEndpointException(CB_REJECTED_SEMAPHORE_FALLBACK, hre);
-                case REJECTED_SEMAPHORE_EXECUTION:
-                    LOGGER.error(CB_REJECTED_SEMAPHORE_EXECUTION.getLogMessage(commandName), hre);
-                    throw new RestServerSideException(CB_REJECTED_SEMAPHORE_EXECUTION, hre);
-                case COMMAND_EXCEPTION:
-                    LOGGER.error(CB_BAD_REQUEST.getLogMessage(commandName), hre);
-                    throw new RestEndpointException(CB_BAD_REQUEST);
-                default:
-                    LOGGER.error(CB_UNKNOWN_ERROR.getLogMessage(commandName), hre);
-                    throw new RestServerSideException(CB_UNKNOWN_ERROR, hre);
-            }
-        } catch (HystrixBadRequestException hbre) {
-            LOGGER.error(CB_BAD_REQUEST.getLogMessage(commandName), hbre);
-            throw new RestClientSideException(CB_BAD_REQUEST);
-        } finally {
-            if (restClientResponse != null) {
-                LOGGER.debug("Releasing the connections associated with {} resource", commandName);
-                httpRequest.releaseConnection();
-            }
+    /**
+     * A non-blocking POST resource call to a specified resourcePath with the specified queryParams and a requestBody
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param requestBody   The requestBody that needs to be sent to the REST resource. This can be XML or JSON or even a simple string.
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param contentType   The HTTP content type for the request body, if null then we will assume 'text/plain'
+     * @param headers       Key-Value pair {@link Map<String, String>} of header variables (can be null).
+     * @return              A future completed with the JSON string, or exceptionally with the
+     *                      same exceptions thrown by {@link #post(String, String, String, Map, ContentType, Map)}
+     */
+    public CompletableFuture<String> postAsync(String resourcePath,
+                                               String commandName,
+                                               String requestBody,
+                                               Map<String, String> queryParams,
+                                               ContentType contentType,
+                                               Map<String, String> headers) {
+
+        LOGGER.debug("Creating a non-blocking HTTP POST request for {} resource", commandName);
+        try {
+            URI endpointUri = createEndpointUri(resourcePath, queryParams);
+            HttpEntityEnclosingRequestBase postRequest = new HttpPost(endpointUri);
+            setHeaders(postRequest, headers);
+            setPayload(requestBody, postRequest, commandName, contentType);
+            setHttpRequestConfig(postRequest, commandName);
+            logHttpRequestDetails(postRequest);
+            return callResourceAsync(postRequest, commandName);
+        } catch (RestClientSideException | RestProtocolException | InstantiationException ex) {
+            return failedFuture(ex);
         }
-
-        LOGGER.debug("JSON received from {} resource is - {}", commandName, restClientResponse.getJsonResponse());
-        return restClientResponse.getJsonResponse();
     }
 
-    protected String prependGroupKeyNameToCommandNameIfRequired(String commandName) {
+    /**
+     * A non-blocking PUT resource call to a specified resourcePath with the specified queryParams and a requestBody
+     *
+     * @param resourcePath  The resource path. Must start with "/"
+     * @param commandName   The Hystrix command name
+     * @param requestBody   The requestBody that needs to be sent to the REST resource. This can be XML or JSON or even a simple string.
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param contentType   The HTTP content type for the request body, if null then we will assume 'text/plain'
+     * @return              A future completed with the JSON string, or exceptionally with the
+     *                      same exceptions thrown by {@link #put(String, String, String, Map, ContentType)}
+     */
+    public CompletableFuture<String> putAsync(String resourcePath,
+                                              String commandName,
+                                              String requestBody,
+                                              Map<String, String> queryParams,
+                                              ContentType contentType) {
 
-        if (prependGroupKeyNameToCommandKey) {
-            StringBuilder stringBuilder = new StringBuilder(commandName);
-            stringBuilder.insert(0, groupKeyName);
-            stringBuilder.insert(groupKeyName.length(), ".");
-            commandName = stringBuilder.toString();
+        // call the 'with headers' method
+        return this.putAsync(resourcePath, commandName, requestBody, queryParams, contentType, null);
+    }
+
+    /**
+     * A non-blocking PUT resource call to a specified resourcePath with the specified queryParams and a requestBody
+     *
+     * @param resourcePath  The resource path. Must start with "/"
+     * @param commandName   The Hystrix command name
+     * @param requestBody   The requestBody that needs to be sent to the REST resource. This can be XML or JSON or even a simple string.
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param contentType   The HTTP content type for the request body, if null then we will assume 'text/plain'
+     * @param headers       Key-Value pair {@link Map<String, String>} of header values (can be null).
+     * @return              A future completed with the JSON string, or exceptionally with the
+     *                      same exceptions thrown by {@link #put(String, String, String, Map, ContentType, Map)}
+     */
+    public CompletableFuture<String> putAsync(String resourcePath,
+                                              String commandName,
+                                              String requestBody,
+                                              Map<String, String> queryParams,
+                                              ContentType contentType,
+                                              Map<String, String> headers) {
+
+        LOGGER.debug("Creating a non-blocking HTTP PUT request for {} resource", commandName);
+        try {
+            URI endpointUri = createEndpointUri(resourcePath, queryParams);
+            HttpEntityEnclosingRequestBase putRequest = new HttpPut(endpointUri);
+            setHeaders(putRequest, headers);
+            setPayload(requestBody, putRequest, commandName, contentType);
+            setHttpRequestConfig(putRequest, commandName);
+            logHttpRequestDetails(putRequest);
+            return callResourceAsync(putRequest, commandName);
+        } catch (RestClientSideException | RestProtocolException | InstantiationException ex) {
+            return failedFuture(ex);
         }
+    }
 
-        return commandName;
+    /**
+     * A non-blocking DELETE resource call to a specified resourcePath with the specified queryParams
+     *
+     * @param resourcePath  The resource path. Must start with "/"
+     * @param commandName   The Hystrix command name
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @return              A future completed with the JSON string, or exceptionally with the
+     *                      same exceptions thrown by {@link #delete(String, String, Map)}
+     */
+    public CompletableFuture<String> deleteAsync(String resourcePath,
+                                                 String commandName,
+                                                 Map<String, String> queryParams) {
 
+        // call the 'with headers' method
+        return this.deleteAsync(resourcePath, commandName, queryParams, null);
     }
 
-    /*
-    This method sets the request payload to the REST request
-    */
-    protected HttpEntityEnclosingRequestBase setPayload(  String requestBody,
-                                                        HttpEntityEnclosingRequestBase request,
-                                                        String commandName,
-                                                        ContentType contentType) throws RestProtocolException,
-                                                                                   InstantiationException {
-
-        if (requestBody == null) {
-            LOGGER.error(NULL_REQUEST_PAYLOAD.getLogMessage(request.getMethod(), commandName));
-            throw new RestProtocolException(NULL_REQUEST_PAYLOAD);
-        }
-        if (requestBody.equals("")) {
+    /**
+     * A non-blocking DELETE resource call to a specified resourcePath with the specified queryParams
+     *
+     * @param resourcePath  The resource path. Must start with "/"
+     * @param commandName   The Hystrix command name
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param headers       Key-Value pair {@link Map<String, String>} of header values (can be null).
+     * @return              A future completed with the JSON string, or exceptionally with the
+     *                      same exceptions thrown by {@link #delete(String, String, Map, Map)}
+     */
+    public CompletableFuture<String> deleteAsync(String resourcePath,
+                                                 String commandName,
+                                                 Map<String, String> queryParams,
+                                                 Map<String, String> headers) {
+
+        LOGGER.debug("Creating a non-blocking HTTP DELETE request for {} resource", commandName);
+        try {
+            URI endpointUri = createEndpointUri(resourcePath, queryParams);
+            HttpRequestBase deleteRequest = new HttpDelete(endpointUri);
+            setHeaders(deleteRequest, headers);
+            setHttpRequestConfig(deleteRequest, commandName);
+            logHttpRequestDetails(deleteRequest);
+            return callResourceAsync(deleteRequest, commandName);
+        } catch (RestClientSideException | InstantiationException ex) {
+            return failedFuture(ex);
+        }
+    }
+
+    /**
+     * A GET resource call to a specified resourcePath with the specified queryParams,
+     * whose JSON response is decoded straight from the response stream into the given type.
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param headers       Key-Value pair {@link Map<String, String>} of header values (can be null).
+     * @param responseType  The class the JSON response is decoded into
+     * @return              The decoded response, null for a No Content response
+     * @throws RestProtocolException
+     * @throws JsonReadException
+     * @throws RestClientSideException
+     * @throws RestServerSideException
+     * @throws RestConnectionException
+     * @throws RestEndpointException
+     * @throws InstantiationException
+     */
+    public <T> T get(String resourcePath,
+                     String commandName,
+                     Map<String, String> queryParams,
+                     Map<String, String> headers,
+                     Class<T> responseType) throws ResourceStateConflictException,
+                                                   RestProtocolException,
+                                                   JsonReadException,
+                                                   RestClientSideException,
+                                                   RestServerSideException,
+                                                   RestConnectionException,
+                                                   RestEndpointException,
+                                                   InstantiationException {
+
+        return getStreaming(resourcePath, commandName, queryParams, headers,
+                new ObjectReaderResponseHandler<T>(objectReaders.forType(responseType), commandName));
+    }
+
+    /**
+     * A GET resource call to a specified resourcePath with the specified queryParams,
+     * whose JSON response is decoded straight from the response stream into the given generic type.
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param headers       Key-Value pair {@link Map<String, String>} of header values (can be null).
+     * @param responseType  The generic type the JSON response is decoded into
+     * @return              The decoded response, null for a No Content response
+     * @throws RestProtocolException
+     * @throws JsonReadException
+     * @throws RestClientSideException
+     * @throws RestServerSideException
+     * @throws RestConnectionException
+     * @throws RestEndpointException
+     * @throws InstantiationException
+     */
+    public <T> T get(String resourcePath,
+                     String commandName,
+                     Map<String, String> queryParams,
+                     Map<String, String> headers,
+                     TypeReference<T> responseType) throws ResourceStateConflictException,
+                                                           RestProtocolException,
+                                                           JsonReadException,
+                                                           RestClientSideException,
+                                                           RestServerSideException,
+                                                           RestConnectionException,
+                                                           RestEndpointException,
+                                                           InstantiationException {
+
+        return getStreaming(resourcePath, commandName, queryParams, headers,
+                new ObjectReaderResponseHandler<T>(objectReaders.forType(responseType), commandName));
+    }
+
+    /**
+     * A GET resource call to a specified resourcePath with the specified queryParams,
+     * whose successful response payload is streamed to the responseHandler instead of being buffered.
+     *
+     * @param resourcePath    The resource path. Must start with "/".
+     * @param commandName     The Hystrix command name
+     * @param queryParams     Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param headers         Key-Value pair {@link Map<String, String>} of header values (can be null).
+     * @param responseHandler The handler consuming the response payload
+     * @return                The value returned by the responseHandler
+     * @throws RestProtocolException
+     * @throws JsonReadException
+     * @throws RestClientSideException
+     * @throws RestServerSideException
+     * @throws RestConnectionException
+     * @throws RestEndpointException
+     * @throws InstantiationException
+     */
+    public <T> T getStreaming(String resourcePath,
+                              String commandName,
+                              Map<String, String> queryParams,
+                              Map<String, String> headers,
+                              RestResponseHandler<T> responseHandler) throws ResourceStateConflictException,
+                                                                              RestProtocolException,
+                                                                              JsonReadException,
+                                                                              RestClientSideException,
+                                                                              RestServerSideException,
+                                                                              RestConnectionException,
+                                                                              RestEndpointException,
+                                                                              InstantiationException {
+
+        LOGGER.debug("Creating a streaming HTTP GET request for {} resource", commandName);
+        URI endpointUri = createEndpointUri(resourcePath, queryParams);
+        HttpRequestBase getRequest = new HttpGet(endpointUri);
+        setHeaders(getRequest, headers);
+        setHttpRequestConfig(getRequest, commandName);
+        logHttpRequestDetails(getRequest);
+        return callResourceStreaming(getRequest, commandName, responseHandler);
+    }
+
+    /**
+     * A POST resource call to a specified resourcePath with the specified queryParams and a requestBody,
+     * whose successful response payload is streamed to the responseHandler instead of being buffered.
+     *
+     * @param resourcePath    The resource path. Must start with "/".
+     * @param commandName     The Hystrix command name
+     * @param requestBody     The requestBody that needs to be sent to the REST resource. This can be XML or JSON or even a simple string.
+     * @param queryParams     Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param contentType     The HTTP content type for the request body, if null then we will assume 'text/plain'
+     * @param headers         Key-Value pair {@link Map<String, String>} of header variables (can be null).
+     * @param responseHandler The handler consuming the response payload
+     * @return                The value returned by the responseHandler
+     * @throws RestProtocolException
+     * @throws JsonReadException
+     * @throws RestClientSideException
+     * @throws RestServerSideException
+     * @throws RestConnectionException
+     * @throws RestEndpointException
+     * @throws InstantiationException
+     */
+    public <T> T postStreaming(String resourcePath,
+                               String commandName,
+                               String requestBody,
+                               Map<String, String> queryParams,
+                               ContentType contentType,
+                               Map<String, String> headers,
+                               RestResponseHandler<T> responseHandler) throws ResourceStateConflictException,
+                                                                               RestProtocolException,
+                                                                               JsonReadException,
+                                                                               RestClientSideException,
+                                                                               RestServerSideException,
+                                                                               RestConnectionException,
+                                                                               RestEndpointException,
+                                                                               InstantiationException {
+
+        LOGGER.debug("Creating a streaming HTTP POST request for {} resource", commandName);
+        URI endpointUri = createEndpointUri(resourcePath, queryParams);
+        HttpEntityEnclosingRequestBase postRequest = new HttpPost(endpointUri);
+        setHeaders(postRequest, headers);
+        setPayload(requestBody, postRequest, commandName, contentType);
+        setHttpRequestConfig(postRequest, commandName);
+        logHttpRequestDetails(postRequest);
+        return callResourceStreaming(postRequest, commandName, responseHandler);
+    }
+
+    /**
+     * A PUT resource call to a specified resourcePath with the specified queryParams and a requestBody,
+     * whose successful response payload is streamed to the responseHandler instead of being buffered.
+     *
+     * @param resourcePath    The resource path. Must start with "/"
+     * @param commandName     The Hystrix command name
+     * @param requestBody     The requestBody that needs to be sent to the REST resource. This can be XML or JSON or even a simple string.
+     * @param queryParams     Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param contentType     The HTTP content type for the request body, if null then we will assume 'text/plain'
+     * @param headers         Key-Value pair {@link Map<String, String>} of header variables (can be null).
+     * @param responseHandler The handler consuming the response payload
+     * @return                The value returned by the responseHandler
+     * @throws RestProtocolException
+     * @throws JsonReadException
+     * @throws RestClientSideException
+     * @throws RestServerSideException
+     * @throws RestConnectionException
+     * @throws RestEndpointException
+     * @throws InstantiationException
+     */
+    public <T> T putStreaming(String resourcePath,
+                              String commandName,
+                              String requestBody,
+                              Map<String, String> queryParams,
+                              ContentType contentType,
+                              Map<String, String> headers,
+                              RestResponseHandler<T> responseHandler) throws ResourceStateConflictException,
+                                                                              RestProtocolException,
+                                                                              JsonReadException,
+                                                                              RestClientSideException,
+                                                                              RestServerSideException,
+                                                                              RestConnectionException,
+                                                                              RestEndpointException,
+                                                                              InstantiationException {
+
+        LOGGER.debug("Creating a streaming HTTP PUT request for {} resource", commandName);
+        URI endpointUri = createEndpointUri(resourcePath, queryParams);
+        HttpEntityEnclosingRequestBase putRequest = new HttpPut(endpointUri);
+        setHeaders(putRequest, headers);
+        setPayload(requestBody, putRequest, commandName, contentType);
+        setHttpRequestConfig(putRequest, commandName);
+        logHttpRequestDetails(putRequest);
+        return callResourceStreaming(putRequest, commandName, responseHandler);
+    }
+
+    /**
+     * A DELETE resource call to a specified resourcePath with the specified queryParams,
+     * whose successful response payload is streamed to the responseHandler instead of being buffered.
+     *
+     * @param resourcePath    The resource path. Must start with "/"
+     * @param commandName     The Hystrix command name
+     * @param queryParams     Key-Value pair {@link Map<String, String>} of query parameters.
+     * @param headers         Key-Value pair {@link Map<String, String>} of header values (can be null).
+     * @param responseHandler The handler consuming the response payload
+     * @return                The value returned by the responseHandler
+     * @throws RestProtocolException
+     * @throws JsonReadException
+     * @throws RestClientSideException
+     * @throws RestServerSideException
+     * @throws RestConnectionException
+     * @throws RestEndpointException
+     * @throws InstantiationException
+     */
+    public <T> T deleteStreaming(String resourcePath,
+                                 String commandName,
+                                 Map<String, String> queryParams,
+                                 Map<String, String> headers,
+                                 RestResponseHandler<T> responseHandler) throws ResourceStateConflictException,
+                                                                                 RestProtocolException,
+                                                                                 JsonReadException,
+                                                                                 RestClientSideException,
+                                                                                 RestServerSideException,
+                                                                                 RestConnectionException,
+                                                                                 RestEndpointException,
+                                                                                 InstantiationException {
+
+        LOGGER.debug("Creating a streaming HTTP DELETE request for {} resource", commandName);
+        URI endpointUri = createEndpointUri(resourcePath, queryParams);
+        HttpRequestBase deleteRequest = new HttpDelete(endpointUri);
+        setHeaders(deleteRequest, headers);
+        setHttpRequestConfig(deleteRequest, commandName);
+        logHttpRequestDetails(deleteRequest);
+        return callResourceStreaming(deleteRequest, commandName, responseHandler);
+    }
+
+    /**
+     * Executes the requests through their circuit broken commands, concurrently, and returns their
+     * results in the order of the requests. A failed request does not fail the others, its result
+     * carries the exception the equivalent single call would have thrown.
+     *
+     * At most <code>http.request.&lt;groupKeyName&gt;.bulk.maxConcurrency</code> requests of the call are
+     * in flight at any time, by default the size of the Hystrix thread pool of the group key.
+     *
+     * @param requests  The requests to execute
+     * @return          One result per request, in the order of the requests
+     */
+    public List<RestResult> executeAll(List<RestRequest> requests) {
+        return executeAll(requests, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Executes the requests like {@link #executeAll(List)}, within an overall deadline.
+     * The requests which have not completed when the deadline expires are aborted,
+     * their result carries a {@link RestConnectionException}.
+     *
+     * @param requests  The requests to execute
+     * @param timeout   How long all the requests can take, 0 or less for no deadline
+     * @param unit      The unit of the timeout
+     * @return          One result per request, in the order of the requests
+     */
+    public List<RestResult> executeAll(List<RestRequest> requests, long timeout, TimeUnit unit) {
+        final long deadline = timeout > 0 ? System.nanoTime() + unit.toNanos(timeout) : Long.MAX_VALUE;
+        final int maxConcurrency = Math.max(1, properties.getGroupInt("bulk.maxConcurrency",
+                ManagedHttpClientFactory.getHystrixCoreSize(groupKeyName)));
+        final Semaphore permits = new Semaphore(maxConcurrency);
+
+        LOGGER.debug("Executing {} requests of {} group key, {} at a time", requests.size(), groupKeyName, maxConcurrency);
+
+        final List<HttpRequestBase> httpRequests = new ArrayList<>(requests.size());
+        final List<CompletableFuture<String>> results = new ArrayList<>(requests.size());
+
+        for (RestRequest request : requests) {
+            HttpRequestBase httpRequest = null;
+            CompletableFuture<String> result;
+            try {
+                httpRequest = createHttpRequest(request);
+                if (acquirePermit(permits, deadline)) {
+                    result = callResourceWithPermit(httpRequest, request.getCommandName(), permits);
+                } else {
+                    result = failedFuture(timedOut(request.getCommandName()));
+                }
+            } catch (Exception ex) {
+                result = failedFuture(ex);
+            }
+            httpRequests.add(httpRequest);
+            results.add(result);
+        }
+
+        final List<RestResult> restResults = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            restResults.add(awaitResult(requests.get(i), httpRequests.get(i), results.get(i), deadline));
+        }
+        return restResults;
+    }
+
+    /**
+     * Builds the HTTP request of a bulk request
+     */
+    protected HttpRequestBase createHttpRequest(RestRequest request) throws RestClientSideException,
+                                                                            RestProtocolException,
+                                                                            InstantiationException {
+        final String commandName = request.getCommandName();
+        final URI endpointUri = createEndpointUri(request.getResourcePath(), request.getQueryParams());
+        final HttpRequestBase httpRequest;
+
+        switch (request.getMethod()) {
+            case HttpGet.METHOD_NAME:
+                httpRequest = new HttpGet(endpointUri);
+                setHeaders(httpRequest, request.getHeaders());
+                break;
+            case HttpDelete.METHOD_NAME:
+                httpRequest = new HttpDelete(endpointUri);
+                setHeaders(httpRequest, request.getHeaders());
+                break;
+            case HttpPost.METHOD_NAME:
+            case HttpPut.METHOD_NAME:
+                HttpEntityEnclosingRequestBase entityRequest = HttpPost.METHOD_NAME.equals(request.getMethod())
+                        ? new HttpPost(endpointUri)
+                        : new HttpPut(endpointUri);
+                setHeaders(entityRequest, request.getHeaders());
+                setPayload(request.getRequestBody(), entityRequest, commandName, request.getContentType());
+                httpRequest = entityRequest;
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported HTTP method " + request.getMethod());
+        }
+
+        setHttpRequestConfig(httpRequest, commandName);
+        logHttpRequestDetails(httpRequest);
+        return httpRequest;
+    }
+
+    /**
+     * Waits for a permit until the deadline
+     */
+    private boolean acquirePermit(Semaphore permits, long deadline) {
+        try {
+            if (deadline == Long.MAX_VALUE) {
+                permits.acquire();
+                return true;
+            }
+            return permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Starts the resource call on the Hystrix thread pool,
+     * giving the permit back and releasing the connection once it completes.
+     */
+    private CompletableFuture<String> callResourceWithPermit(final HttpRequestBase httpRequest,
+                                                             String commandName,
+                                                             final Semaphore permits) {
+        commandName = prependGroupKeyNameToCommandNameIfRequired(commandName);
+
+        final CommandRestResourceCall restResourceCall;
+        final AdaptiveConcurrencyLimiter limiter;
+        try {
+            acquireRatePermit(commandName);
+            limiter = acquireConcurrencySlot(commandName);
+        } catch (RateLimitExceededException | ConcurrencyLimitExceededException ex) {
+            permits.release();
+            return failedFuture(ex);
+        }
+        recordHedgeableCall(httpRequest, commandName);
+        final EndpointLoadBalancer.Endpoint endpoint = chooseEndpoint(httpRequest);
+        try {
+            restResourceCall = createResourceCall(httpRequest, endpointCommandName(commandName, endpoint));
+        } catch (HystrixBadRequestException hbre) {
+            permits.release();
+            cancelCall(limiter, endpoint);
+            LOGGER.error(CB_BAD_REQUEST.getLogMessage(commandName), hbre);
+            return failedFuture(new RestClientSideException(CB_BAD_REQUEST));
+        }
+
+        final CompletableFuture<String> result = observeResourceCall(restResourceCall, httpRequest, commandName, limiter, endpoint);
+        result.whenComplete(new BiConsumer<String, Throwable>() {
+            @Override
+            public void accept(String json, Throwable throwable) {
+                permits.release();
+                httpRequest.releaseConnection();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Waits for the result of a bulk request until the deadline, aborting the request if the deadline expires
+     */
+    private RestResult awaitResult(RestRequest request,
+                                   HttpRequestBase httpRequest,
+                                   CompletableFuture<String> result,
+                                   long deadline) {
+        try {
+            if (deadline == Long.MAX_VALUE) {
+                return RestResult.success(request, result.get());
+            }
+            return RestResult.success(request, result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            return RestResult.failure(request, cause instanceof Exception ? (Exception) cause : ee);
+        } catch (TimeoutException | InterruptedException ex) {
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            RestConnectionException timedOut = timedOut(request.getCommandName());
+            if (result.completeExceptionally(timedOut) && httpRequest != null) {
+                httpRequest.abort();
+                LOGGER.debug("HTTP Request to {} resource has been aborted.", request.getCommandName());
+            }
+            return awaitResult(request, httpRequest, result, System.nanoTime());
+        }
+    }
+
+    /**
+     * The failure of a bulk request which did not complete before the deadline
+     */
+    private RestConnectionException timedOut(String commandName) {
+        LOGGER.error(CB_TIMED_OUT.getLogMessage(commandName));
+        return new RestConnectionException(CB_TIMED_OUT);
+    }
+
+    /**
+     * Registers how the lookups of a command are merged into a bulk request and split back out,
+     * enabling {@link #getBatched(String, String)} for the command.
+     * Registering another handler for the command replaces the previous one from the next batch on.
+     *
+     * @param commandName          The Hystrix command name of the single-key lookups
+     * @param batchRequestHandler  The handler merging and splitting the bulk requests
+     */
+    public void registerBatchRequestHandler(String commandName, BatchRequestHandler batchRequestHandler) {
+        batchRequestHandlers.put(commandName, batchRequestHandler);
+    }
+
+    /**
+     * @return the batch request handler registered for the command, null if there is none
+     */
+    BatchRequestHandler getBatchRequestHandler(String commandName) {
+        return batchRequestHandlers.get(commandName);
+    }
+
+    /**
+     * @return the identifier of this client instance, which tells apart the collapsers of clients sharing a command name
+     */
+    int getClientId() {
+        return clientId;
+    }
+
+    /**
+     * A single-key lookup, collapsed with the concurrent lookups of the same command into one bulk request.
+     *
+     * Lookups issued from any thread within <code>http.request.&lt;name&gt;.collapser.windowMs</code>
+     * milliseconds of each other, up to <code>collapser.maxBatchSize</code> keys, are sent as one HTTP
+     * request built by the {@link BatchRequestHandler} registered for the command.
+     * Only the lookups made through this client instance are collapsed together.
+     *
+     * @param commandName   The Hystrix command name the batch request handler has been registered for
+     * @param key           The key to look up
+     * @return              The JSON string of the key, null if the bulk response has none
+     * @throws JsonReadException
+     * @throws RestClientSideException
+     * @throws RestServerSideException
+     * @throws RestConnectionException
+     * @throws RestEndpointException
+     * @throws InstantiationException
+     */
+    public String getBatched(String commandName, String key) throws ResourceStateConflictException,
+                                                                    JsonReadException,
+                                                                    RestClientSideException,
+                                                                    RestServerSideException,
+                                                                    RestConnectionException,
+                                                                    RestEndpointException,
+                                                                    InstantiationException {
+
+        if (getBatchRequestHandler(commandName) == null) {
+            throw new IllegalStateException("No batch request handler has been registered for " + commandName);
+        }
+
+        final String collapserName = prependGroupKeyNameToCommandNameIfRequired(commandName);
+        final BatchingCollapser collapser = new BatchingCollapser(this, commandName, collapserName, key,
+                properties.getInt(commandName, "collapser.windowMs", RestRequestConfigurationDefaults.COLLAPSER_WINDOW),
+                properties.getInt(commandName, "collapser.maxBatchSize", RestRequestConfigurationDefaults.COLLAPSER_MAX_BATCH_SIZE));
+
+        try {
+            String json = collapser.queue().get();
+            LOGGER.debug("JSON received from {} resource for {} is - {}", collapserName, key, json);
+            return json;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            LOGGER.error(CB_UNKNOWN_ERROR.getLogMessage(collapserName), ie);
+            throw new RestServerSideException(CB_UNKNOWN_ERROR, ie);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof HystrixRuntimeException) {
+                rethrowHystrixRuntimeException((HystrixRuntimeException) cause, collapserName);
+            }
+            if (cause instanceof HystrixBadRequestException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            rethrowRestException(cause instanceof Exception ? (Exception) cause : ee, collapserName);
+            return null;
+        }
+    }
+
+    /**
+     * Creates the Hystrix command executing a bulk request, releasing its connection once the response has been read.
+     * With several endpoints, the bulk request is sent to the endpoint chosen by the load balancer.
+     * The bulk request takes a rate permit without waiting for it, the collapser timer thread never sleeping:
+     * without a permit the lookups of the batch fail with a {@link RateLimitExceededException}. It also takes a
+     * slot from the concurrency limiter of its command when <code>limit.enabled</code> is set for it.
+     */
+    protected HystrixCommand<RestClientResponse> createBatchCommand(RestRequest batchRequest) throws RestClientSideException,
+                                                                                                  RestProtocolException,
+                                                                                                  RateLimitExceededException,
+                                                                                                  ConcurrencyLimitExceededException,
+                                                                                                  InstantiationException {
+        final String commandName = prependGroupKeyNameToCommandNameIfRequired(batchRequest.getCommandName());
+        acquireRatePermit(commandName, System.nanoTime());
+
+        final HttpRequestBase httpRequest = createHttpRequest(batchRequest);
+        final AdaptiveConcurrencyLimiter limiter = acquireConcurrencySlot(commandName);
+        final EndpointLoadBalancer.Endpoint endpoint = chooseEndpoint(httpRequest);
+
+        return new CommandRestResourceCall(groupKeyName, endpointCommandName(commandName, endpoint), httpRequest,
+                                           getTransport(), HttpClientContext.create()) {
+            @Override
+            protected RestClientResponse run() throws Exception {
+                try {
+                    return super.run();
+                } finally {
+                    httpRequest.releaseConnection();
+                }
+            }
+
+            @Override
+            public Observable<RestClientResponse> toObservable() {
+                return completeCall(super.toObservable(), limiter, endpoint);
+            }
+        };
+    }
+
+    /**
+     * Checks the bulk response for failures and splits it into the response of each key
+     */
+    protected Map<String, String> splitBatchResponse(RestClientResponse batchResponse,
+                                                     Collection<String> keys,
+                                                     BatchRequestHandler batchRequestHandler,
+                                                     String commandName) throws Exception {
+        if (batchResponse == null) {
+            LOGGER.debug("No Content response from the {} bulk resource with null payload.", commandName);
+            return Collections.emptyMap();
+        }
+
+        processResponseFailures(batchResponse, commandName);
+        try {
+            Map<String, String> responses = batchRequestHandler.splitBatchResponse(batchResponse.getJsonResponse(), keys);
+            return responses == null ? Collections.<String, String>emptyMap() : responses;
+        } catch (Exception ex) {
+            LOGGER.error(JSON_READ_FAILED.getLogMessage(commandName), ex);
+            throw new JsonReadException(JSON_READ_FAILED, ex);
+        }
+    }
+
+    /**
+     * This method coalesces identical concurrent GET calls when coalescing is enabled globally
+     * (<code>http.coalesce.enabled</code>) or for the command (<code>http.request.&lt;name&gt;.coalesce.enabled</code>).
+     * Calls are identical when they have the same command name, URI and request headers,
+     * only the first one reaches the REST resource and every waiting caller receives its JSON or its exception.
+     */
+    private String callCoalescedResource(final HttpRequestBase httpRequest,
+                                         final String commandName) throws ResourceStateConflictException,
+                                                                          JsonReadException,
+                                                                          RestClientSideException,
+                                                                          RestServerSideException,
+                                                                          RestConnectionException,
+                                                                          RestEndpointException,
+                                                                          InstantiationException {
+
+        return coalesce(httpRequest, commandName, new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return callResource(httpRequest, commandName);
+            }
+        });
+    }
+
+    /**
+     * Runs the call once for all identical concurrent requests if coalescing is enabled for the command,
+     * runs it directly otherwise.
+     */
+    protected String coalesce(HttpRequestBase httpRequest,
+                              String commandName,
+                              Callable<String> call) throws ResourceStateConflictException,
+                                                            JsonReadException,
+                                                            RestClientSideException,
+                                                            RestServerSideException,
+                                                            RestConnectionException,
+                                                            RestEndpointException,
+                                                            InstantiationException {
+
+        boolean coalescingEnabled = properties.getBoolean(commandName, "coalesce.enabled",
+                COALESCE_ENABLED.get());
+
+        try {
+            if (!coalescingEnabled) {
+                return call.call();
+            }
+            return inFlightGets.execute(coalescingKey(httpRequest, commandName), call);
+        } catch (Exception e) {
+            rethrowRestException(e, commandName);
+            return null;
+        }
+    }
+
+    /**
+     * Builds the key identifying identical requests: command name, method, URI and the sorted request headers.
+     */
+    private String coalescingKey(HttpRequestBase httpRequest, String commandName) {
+        Header[] headers = httpRequest.getAllHeaders();
+        String[] headerLines = new String[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            headerLines[i] = headers[i].getName().toLowerCase(Locale.ENGLISH) + ':' + headers[i].getValue();
+        }
+        Arrays.sort(headerLines);
+
+        StringBuilder key = new StringBuilder(commandName)
+                .append(' ').append(httpRequest.getMethod())
+                .append(' ').append(httpRequest.getURI());
+        for (String headerLine : headerLines) {
+            key.append('\n').append(headerLine);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Rethrows an exception raised by a resource call with its original type,
+     * anything which is not a REST exception is wrapped as an unknown server side error.
+     */
+    protected void rethrowRestException(Exception e, String commandName) throws ResourceStateConflictException,
+                                                                                 JsonReadException,
+                                                                                 RestClientSideException,
+                                                                                 RestServerSideException,
+                                                                                 RestConnectionException,
+                                                                                 RestEndpointException,
+                                                                                 InstantiationException {
+        if (e instanceof ResourceStateConflictException) {
+            throw (ResourceStateConflictException) e;
+        } else if (e instanceof JsonReadException) {
+            throw (JsonReadException) e;
+        } else if (e instanceof RestClientSideException) {
+            throw (RestClientSideException) e;
+        } else if (e instanceof RestServerSideException) {
+            throw (RestServerSideException) e;
+        } else if (e instanceof RestConnectionException) {
+            throw (RestConnectionException) e;
+        } else if (e instanceof RestEndpointException) {
+            throw (RestEndpointException) e;
+        } else if (e instanceof InstantiationException) {
+            throw (InstantiationException) e;
+        } else if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+        LOGGER.error(CB_UNKNOWN_ERROR.getLogMessage(commandName), e);
+        throw new RestServerSideException(CB_UNKNOWN_ERROR, e);
+    }
+
+    /**
+     * Creates the Hystrix command executing the request. GET requests are hedged when
+     * <code>hedge.enabled</code> is set for the command and a hedge delay is known.
+     *
+     * @param httpRequest   The HTTP request
+     * @param commandName   The Hystrix command name, prefixed with the group key if required
+     * @return              The Hystrix command
+     */
+    protected CommandRestResourceCall createResourceCall(HttpRequestBase httpRequest, String commandName) {
+        if (isHedged(httpRequest, commandName)) {
+            long hedgeDelay = getHedgeDelay(commandName);
+            if (hedgeDelay >= 0) {
+                return new CommandHedgedRestResourceCall(groupKeyName, commandName, httpRequest, getTransport(),
+                                                         hedgeDelay, getHedgeBudget(commandName));
+            }
+        }
+        return new CommandRestResourceCall(groupKeyName, commandName, httpRequest, getTransport(), HttpClientContext.create());
+    }
+
+    /**
+     * @return TRUE if the request is a GET and <code>hedge.enabled</code> is set for the command
+     */
+    private boolean isHedged(HttpRequestBase httpRequest, String commandName) {
+        return HttpGet.METHOD_NAME.equals(httpRequest.getMethod())
+                && properties.getBoolean(commandName, "hedge.enabled", RestRequestConfigurationDefaults.HEDGE_ENABLED);
+    }
+
+    /**
+     * Adds the <code>hedge.budgetPercent</code> of a token to the hedge budget of the command for a call which can be hedged.
+     * It is recorded once per call, whatever the number of its retries and endpoints, so that the retries
+     * of a failing backend do not earn more hedges against it.
+     */
+    private void recordHedgeableCall(HttpRequestBase httpRequest, String commandName) {
+        if (isHedged(httpRequest, commandName)) {
+            getHedgeBudget(commandName).recordRequest(properties.getInt(commandName, "hedge.budgetPercent",
+                                                                        RestRequestConfigurationDefaults.HEDGE_BUDGET_PERCENT));
+        }
+    }
+
+    /**
+     * The hedge delay is either fixed by <code>hedge.delayMs</code>, or follows the
+     * <code>hedge.percentile</code> of the command execution times, never below <code>hedge.minDelayMs</code>.
+     *
+     * @return the hedge delay in milliseconds, -1 if no execution time has been recorded yet
+     */
+    private long getHedgeDelay(String commandName) {
+        long fixedDelay = properties.getLong(commandName, "hedge.delayMs", RestRequestConfigurationDefaults.HEDGE_DELAY);
+        if (fixedDelay > 0) {
+            return fixedDelay;
+        }
+
+        HystrixCommandMetrics metrics = HystrixCommandMetrics.getInstance(HystrixCommandKey.Factory.asKey(commandName));
+        if (metrics == null) {
+            return -1;
+        }
+        int percentile = metrics.getExecutionTimePercentile(
+                properties.getInt(commandName, "hedge.percentile", RestRequestConfigurationDefaults.HEDGE_PERCENTILE));
+        if (percentile <= 0) {
+            return -1;
+        }
+        return Math.max(percentile, properties.getLong(commandName, "hedge.minDelayMs", RestRequestConfigurationDefaults.HEDGE_MIN_DELAY));
+    }
+
+    /**
+     * @return the hedge budget of the command, shared by all its endpoints
+     */
+    private RequestBudget getHedgeBudget(String commandName) {
+        int endpointSeparator = commandName.lastIndexOf(RestClientProperties.ENDPOINT_SEPARATOR);
+        if (endpointSeparator > 0) {
+            commandName = commandName.substring(0, endpointSeparator);
+        }
+        RequestBudget hedgeBudget = hedgeBudgets.get(commandName);
+        if (hedgeBudget == null) {
+            int maxTokens = properties.getInt(commandName, "hedge.budgetMaxTokens", RestRequestConfigurationDefaults.HEDGE_BUDGET_MAX_TOKENS);
+            RequestBudget created = new RequestBudget(1, maxTokens);
+            hedgeBudget = hedgeBudgets.putIfAbsent(commandName, created);
+            if (hedgeBudget == null) {
+                hedgeBudget = created;
+            }
+        }
+        return hedgeBudget;
+    }
+
+    /**
+     * This method triggers the resource call via the Hystrix command,
+     * retries it with a copy of the request if its failure is transient and retries are allowed,
+     * extracts the JSON,
+     * handles and wraps exceptions if any,
+     * releases resources related to the HTTP call,
+     * and returns the JSON String.
+     * @see #getMaxRetries(HttpRequestBase, String)
+     */
+    private String callResource(HttpRequestBase httpRequest,
+                                String commandName) throws ResourceStateConflictException, JsonReadException,
+                                                           RestClientSideException,
+                                                           RestServerSideException,
+                                                           RestConnectionException,
+                                                           RestEndpointException,
+                                                           InstantiationException {
+
+        RestClientResponse restClientResponse = null;
+        commandName = prependGroupKeyNameToCommandNameIfRequired(commandName);
+        final int maxRetries = getMaxRetries(httpRequest, commandName);
+        final long ratePermitDeadline = getRatePermitDeadline(commandName);
+        recordHedgeableCall(httpRequest, commandName);
+
+        try {
+            for (int retry = 0; ; retry++) {
+                try {
+                    restClientResponse = executeResourceCall(httpRequest, commandName, ratePermitDeadline);
+                } catch (HystrixRuntimeException hre) {
+                    httpRequest.abort();
+                    LOGGER.debug("HTTP Request to {} resource has been aborted.", commandName);
+                    if (retry < maxRetries && isRetryable(hre) && awaitRetry(commandName, retry + 1)) {
+                        httpRequest = copyRequest(httpRequest);
+                        continue;
+                    }
+                    rethrowHystrixRuntimeException(hre, commandName);
+                }
+
+                if (restClientResponse != null && retry < maxRetries
+                        && isRetryable(restClientResponse.getHttpResponseCode())
+                        && awaitRetry(commandName, retry + 1)) {
+                    httpRequest.releaseConnection();
+                    httpRequest = copyRequest(httpRequest);
+                    continue;
+                }
+                break;
+            }
+
+            if (restClientResponse == null) {
+                LOGGER.debug("No Content response from the {} resource with null payload.", commandName);
+                recordSuccess();
+                return null;
+            }
+
+            processResponseFailures(restClientResponse, commandName);
+            recordSuccess();
+
+        } catch (HystrixBadRequestException hbre) {
+            LOGGER.error(CB_BAD_REQUEST.getLogMessage(commandName), hbre);
+            throw new RestClientSideException(CB_BAD_REQUEST);
+        } finally {
+            LOGGER.debug("Releasing the connections associated with {} resource", commandName);
+            httpRequest.releaseConnection();
+        }
+
+        LOGGER.debug("JSON received from {} resource is - {}", commandName, restClientResponse.getJsonResponse());
+        return restClientResponse.getJsonResponse();
+    }
+
+    /**
+     * Executes the Hystrix command of the request within the rate limits of the command and group key, and
+     * within the adaptive concurrency limit of the command when <code>limit.enabled</code> is set for it.
+     * The rate permits are waited for until the deadline of the call, which its retries share.
+     * With several endpoints, the request is sent to the endpoint chosen by the load balancer.
+     *
+     * @see #completeCall(AdaptiveConcurrencyLimiter, EndpointLoadBalancer.Endpoint, long, RestClientResponse, Throwable)
+     * @throws RateLimitExceededException if no rate permit is available in time, the request is not sent
+     * @throws ConcurrencyLimitExceededException if the limit has been reached, the request is not sent
+     */
+    private RestClientResponse executeResourceCall(HttpRequestBase httpRequest,
+                                                   String commandName,
+                                                   long ratePermitDeadline) throws RateLimitExceededException,
+                                                                                   ConcurrencyLimitExceededException {
+
+        acquireRatePermit(commandName, ratePermitDeadline);
+        final AdaptiveConcurrencyLimiter limiter = acquireConcurrencySlot(commandName);
+
+        final EndpointLoadBalancer.Endpoint endpoint = chooseEndpoint(httpRequest);
+        final long start = System.nanoTime();
+        RestClientResponse restClientResponse = null;
+        RuntimeException failure = null;
+        try {
+            restClientResponse = createResourceCall(httpRequest, endpointCommandName(commandName, endpoint)).execute();
+            return restClientResponse;
+        } catch (RuntimeException ex) {
+            failure = ex;
+            throw ex;
+        } finally {
+            completeCall(limiter, endpoint, System.nanoTime() - start, restClientResponse, failure);
+        }
+    }
+
+    /**
+     * Points the request to the endpoint chosen by the load balancer, and counts it as outstanding on that endpoint
+     *
+     * @return the chosen endpoint, null if the client has a single endpoint
+     */
+    protected EndpointLoadBalancer.Endpoint chooseEndpoint(HttpRequestBase httpRequest) {
+        if (loadBalancer == null) {
+            return null;
+        }
+        EndpointLoadBalancer.Endpoint endpoint = loadBalancer.choose();
+        httpRequest.setURI(loadBalancer.rewrite(httpRequest.getURI(), endpoint));
+        endpoint.start();
+        return endpoint;
+    }
+
+    /**
+     * Each endpoint gets its own Hystrix command key, hence its own circuit: <code>&lt;commandName&gt;@&lt;host&gt;</code>.
+     * The <code>hystrix.command.&lt;commandName&gt;.*</code> properties apply to it.
+     *
+     * @see EndpointCommandProperties
+     */
+    protected String endpointCommandName(String commandName, EndpointLoadBalancer.Endpoint endpoint) {
+        if (endpoint == null) {
+            return commandName;
+        }
+        final String endpointCommandName = commandName + RestClientProperties.ENDPOINT_SEPARATOR + endpoint.getHostKey();
+        EndpointCommandProperties.bridge(commandName, endpointCommandName);
+        return endpointCommandName;
+    }
+
+    /**
+     * Takes a slot from the adaptive concurrency limiter of the command when <code>limit.enabled</code> is set for it
+     *
+     * @return the limiter the slot has been taken from, null if the command has no concurrency limit
+     * @throws ConcurrencyLimitExceededException if the limit has been reached, the request is not sent
+     */
+    protected AdaptiveConcurrencyLimiter acquireConcurrencySlot(String commandName) throws ConcurrencyLimitExceededException {
+        final AdaptiveConcurrencyLimiter limiter = getConcurrencyLimiter(commandName);
+        if (limiter != null && !limiter.tryAcquire()) {
+            LOGGER.error(CB_REJECTED_SEMAPHORE_EXECUTION.getLogMessage(commandName));
+            throw new ConcurrencyLimitExceededException(commandName, limiter.getLimit());
+        }
+        return limiter;
+    }
+
+    /**
+     * Records the outcome of a call on its concurrency limiter and on its endpoint, either of which can be null.
+     * <p/>
+     * Timeouts, I/O failures of the command and 5xx responses are drops, cutting the concurrency limit.
+     * Short circuits and rejections never reached the REST resource: they give their slot back without
+     * adapting the limit, but still count as errors of the endpoint so that the load balancer moves away
+     * from an endpoint whose circuit is open. Bad requests count as successes of both.
+     *
+     * @param response  The response of the call, null if it failed or had no content
+     * @param failure   The failure of the call, null if it completed
+     */
+    protected void completeCall(AdaptiveConcurrencyLimiter limiter,
+                                EndpointLoadBalancer.Endpoint endpoint,
+                                long latencyNanos,
+                                RestClientResponse response,
+                                Throwable failure) {
+        final boolean serverError = response != null && response.getHttpResponseCode() >= 500;
+        if (limiter != null) {
+            if (isRejection(failure)) {
+                limiter.cancel();
+            } else {
+                limiter.release(latencyNanos, serverError || isDrop(failure));
+            }
+        }
+        if (endpoint != null) {
+            loadBalancer.complete(endpoint, latencyNanos,
+                                  !serverError && (failure == null || failure instanceof HystrixBadRequestException));
+        }
+    }
+
+    /**
+     * Completes the call on its concurrency limiter and endpoint once the Hystrix command terminates
+     *
+     * @see #completeCall(AdaptiveConcurrencyLimiter, EndpointLoadBalancer.Endpoint, long, RestClientResponse, Throwable)
+     */
+    protected Observable<RestClientResponse> completeCall(Observable<RestClientResponse> responses,
+                                                          final AdaptiveConcurrencyLimiter limiter,
+                                                          final EndpointLoadBalancer.Endpoint endpoint) {
+        if (limiter == null && endpoint == null) {
+            return responses;
+        }
+        final long start = System.nanoTime();
+        return responses.doOnEach(new Observer<RestClientResponse>() {
+
+            private RestClientResponse response;
+
+            @Override
+            public void onNext(RestClientResponse restClientResponse) {
+                response = restClientResponse;
+            }
+
+            @Override
+            public void onCompleted() {
+                completeCall(limiter, endpoint, System.nanoTime() - start, response, null);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completeCall(limiter, endpoint, System.nanoTime() - start, null, throwable);
+            }
+        });
+    }
+
+    /**
+     * Gives back the concurrency slot and the endpoint taken for a call which has not been sent after all
+     */
+    protected void cancelCall(AdaptiveConcurrencyLimiter limiter, EndpointLoadBalancer.Endpoint endpoint) {
+        if (limiter != null) {
+            limiter.cancel();
+        }
+        if (endpoint != null) {
+            endpoint.cancel();
+        }
+    }
+
+    /**
+     * Timeouts and I/O failures of the command come from the REST resource
+     */
+    static boolean isDrop(Throwable failure) {
+        if (!(failure instanceof HystrixRuntimeException)) {
+            return false;
+        }
+        HystrixRuntimeException hre = (HystrixRuntimeException) failure;
+        switch (hre.getFailureType()) {
+            case TIMEOUT:
+                return true;
+            case COMMAND_EXCEPTION:
+                return hre.getCause() instanceof IOException;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Short circuited and rejected calls never reached the REST resource
+     */
+    static boolean isRejection(Throwable failure) {
+        if (!(failure instanceof HystrixRuntimeException)) {
+            return false;
+        }
+        switch (((HystrixRuntimeException) failure).getFailureType()) {
+            case SHORTCIRCUIT:
+            case REJECTED_THREAD_EXECUTION:
+            case REJECTED_SEMAPHORE_EXECUTION:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Takes a permit from the rate limiter of the command (<code>http.request.&lt;command&gt;.ratelimit.permitsPerSecond</code>)
+     * and from the one of the group key (<code>http.request.&lt;groupKey&gt;.ratelimit.permitsPerSecond</code>), on the
+     * caller thread so that throttled calls never take a Hystrix thread. The caller waits up to
+     * <code>ratelimit.timeoutMs</code> for the permits, 0 failing fast.
+     *
+     * @throws RateLimitExceededException if a permit is not available in time
+     * @see #acquireRatePermit(String, long)
+     */
+    protected void acquireRatePermit(String commandName) throws RateLimitExceededException {
+        acquireRatePermit(commandName, getRatePermitDeadline(commandName));
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} until which a call of the command can wait for its rate permits
+     */
+    protected long getRatePermitDeadline(String commandName) {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(
+                properties.getLong(commandName, "ratelimit.timeoutMs", RestRequestConfigurationDefaults.RATE_LIMIT_TIMEOUT));
+    }
+
+    /**
+     * Takes a permit from the rate limiter of the command and from the one of the group key, waiting for them
+     * until the deadline. Both permits are reserved without waiting, the command permit being given back if
+     * the group key has none in time, then the caller sleeps once until the later of the two is available.
+     *
+     * @param deadlineNanos The {@link System#nanoTime()} until which the caller can wait, now or earlier failing fast
+     * @throws RateLimitExceededException if a permit is not available in time
+     */
+    protected void acquireRatePermit(String commandName, long deadlineNanos) throws RateLimitExceededException {
+        final long maxWait = Math.max(0, deadlineNanos - System.nanoTime());
+
+        final TokenBucketRateLimiter commandLimiter = getRateLimiter(commandRateLimiters, commandName,
+                properties.getCommandDouble(commandName, "ratelimit.permitsPerSecond", RestRequestConfigurationDefaults.RATE_LIMIT_PERMITS_PER_SECOND),
+                properties.getInt(commandName, "ratelimit.burst", RestRequestConfigurationDefaults.RATE_LIMIT_BURST));
+        long commandWait = 0;
+        if (commandLimiter != null) {
+            commandWait = commandLimiter.reserve(maxWait, TimeUnit.NANOSECONDS);
+            if (commandWait < 0) {
+                LOGGER.error(CB_REJECTED_SEMAPHORE_EXECUTION.getLogMessage(commandName));
+                throw new RateLimitExceededException(commandName);
+            }
+        }
+
+        final TokenBucketRateLimiter groupLimiter = getRateLimiter(groupRateLimiter, groupKeyName,
+                properties.getGroupDouble("ratelimit.permitsPerSecond", RestRequestConfigurationDefaults.RATE_LIMIT_PERMITS_PER_SECOND),
+                properties.getGroupInt("ratelimit.burst", RestRequestConfigurationDefaults.RATE_LIMIT_BURST));
+        long groupWait = 0;
+        if (groupLimiter != null) {
+            groupWait = groupLimiter.reserve(maxWait, TimeUnit.NANOSECONDS);
+            if (groupWait < 0) {
+                if (commandLimiter != null) {
+                    commandLimiter.cancel();
+                }
+                LOGGER.error(CB_REJECTED_SEMAPHORE_EXECUTION.getLogMessage(commandName));
+                throw new RateLimitExceededException(groupKeyName);
+            }
+        }
+
+        final long wait = Math.max(commandWait, groupWait);
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                if (commandLimiter != null) {
+                    commandLimiter.cancel();
+                }
+                if (groupLimiter != null) {
+                    groupLimiter.cancel();
+                }
+                throw new RateLimitExceededException(commandName);
+            }
+        }
+    }
+
+    /**
+     * @return the rate limiter of a command or group key set to the current rate, null if it has no rate limit
+     */
+    private static TokenBucketRateLimiter getRateLimiter(ConcurrentMap<String, TokenBucketRateLimiter> rateLimiters,
+                                                         String limitName,
+                                                         double permitsPerSecond,
+                                                         int burst) {
+        if (permitsPerSecond <= 0) {
+            return null;
+        }
+        TokenBucketRateLimiter limiter = rateLimiters.get(limitName);
+        if (limiter == null) {
+            TokenBucketRateLimiter created = new TokenBucketRateLimiter(permitsPerSecond, burst);
+            limiter = rateLimiters.putIfAbsent(limitName, created);
+            if (limiter == null) {
+                return created;
+            }
+        }
+        limiter.setRate(permitsPerSecond, burst);
+        return limiter;
+    }
+
+    /**
+     * @return the concurrency limiter of the command, null if adaptive concurrency limiting is disabled for it
+     */
+    private AdaptiveConcurrencyLimiter getConcurrencyLimiter(String commandName) {
+        if (!properties.getBoolean(commandName, "limit.enabled", RestRequestConfigurationDefaults.CONCURRENCY_LIMIT_ENABLED)) {
+            return null;
+        }
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimiters.get(commandName);
+        if (limiter == null) {
+            AdaptiveConcurrencyLimiter created = new AdaptiveConcurrencyLimiter(
+                    properties.getInt(commandName, "limit.initial", RestRequestConfigurationDefaults.CONCURRENCY_LIMIT_INITIAL),
+                    properties.getInt(commandName, "limit.min", RestRequestConfigurationDefaults.CONCURRENCY_LIMIT_MIN),
+                    properties.getInt(commandName, "limit.max", RestRequestConfigurationDefaults.CONCURRENCY_LIMIT_MAX),
+                    properties.getDouble(commandName, "limit.backoffRatio", RestRequestConfigurationDefaults.CONCURRENCY_LIMIT_BACKOFF_RATIO),
+                    properties.getDouble(commandName, "limit.latencyTolerance", RestRequestConfigurationDefaults.CONCURRENCY_LIMIT_LATENCY_TOLERANCE));
+            limiter = concurrencyLimiters.putIfAbsent(commandName, created);
+            if (limiter == null) {
+                limiter = created;
+            }
+        }
+        return limiter;
+    }
+
+    /**
+     * Returns how many times a failed request may be retried: <code>retry.maxRetries</code> for idempotent
+     * methods whose entity, if any, can be sent again, 0 otherwise.
+     */
+    protected int getMaxRetries(HttpRequestBase httpRequest, String commandName) {
+        if (!IDEMPOTENT_METHODS.contains(httpRequest.getMethod())) {
+            return 0;
+        }
+        if (httpRequest instanceof HttpEntityEnclosingRequest) {
+            HttpEntity entity = ((HttpEntityEnclosingRequest) httpRequest).getEntity();
+            if (entity != null && !entity.isRepeatable()) {
+                return 0;
+            }
+        }
+        return Math.max(0, properties.getInt(commandName, "retry.maxRetries", RestRequestConfigurationDefaults.RETRY_MAX_RETRIES));
+    }
+
+    /**
+     * Timeouts and connection failures of the command are transient, the circuit breaker
+     * rejections and short circuits are not: retrying them would only add load.
+     */
+    protected boolean isRetryable(HystrixRuntimeException hre) {
+        switch (hre.getFailureType()) {
+            case TIMEOUT:
+                return true;
+            case COMMAND_EXCEPTION:
+                return isTransient(hre.getCause());
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Refused and reset connections, connect and read timeouts, and connections closed without a response are
+     * transient. Other I/O failures, such as a request entity which cannot be serialized, fail the same way again.
+     */
+    protected boolean isTransient(Throwable cause) {
+        return cause instanceof SocketException
+                || cause instanceof SocketTimeoutException
+                || cause instanceof ConnectTimeoutException
+                || cause instanceof NoHttpResponseException;
+    }
+
+    /**
+     * Bad gateway, service unavailable and gateway timeout responses are transient.
+     */
+    protected boolean isRetryable(int httpStatusCode) {
+        return httpStatusCode == HttpStatus.SC_BAD_GATEWAY
+                || httpStatusCode == HttpStatus.SC_SERVICE_UNAVAILABLE
+                || httpStatusCode == HttpStatus.SC_GATEWAY_TIMEOUT;
+    }
+
+    /**
+     * Takes a token from the retry budget and sleeps for the backoff delay of the retry.
+     *
+     * @return TRUE if the request can be sent again, FALSE if the budget is exhausted or the thread is interrupted
+     */
+    private boolean awaitRetry(String commandName, int retry) {
+        if (!retryBudget.tryAcquire()) {
+            LOGGER.debug("Retry budget of {} exhausted, not retrying {} resource", groupKeyName, commandName);
+            return false;
+        }
+
+        long delay = Backoff.fullJitter(retry,
+                properties.getLong(commandName, "retry.baseDelayMs", RestRequestConfigurationDefaults.RETRY_BASE_DELAY),
+                properties.getLong(commandName, "retry.maxDelayMs", RestRequestConfigurationDefaults.RETRY_MAX_DELAY));
+        LOGGER.debug("Retrying {} resource in {} ms, retry {}", commandName, delay, retry);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Copies a request for another attempt. The Hystrix thread of a timed out attempt may still be using its
+     * request, so every attempt is sent with its own. Only idempotent requests are retried, their entity is
+     * repeatable and shared by the copies.
+     */
+    protected HttpRequestBase copyRequest(HttpRequestBase httpRequest) {
+        final URI uri = httpRequest.getURI();
+        final HttpRequestBase copy;
+        switch (httpRequest.getMethod()) {
+            case HttpGet.METHOD_NAME:
+                copy = new HttpGet(uri);
+                break;
+            case HttpHead.METHOD_NAME:
+                copy = new HttpHead(uri);
+                break;
+            case HttpOptions.METHOD_NAME:
+                copy = new HttpOptions(uri);
+                break;
+            case HttpDelete.METHOD_NAME:
+                copy = new HttpDelete(uri);
+                break;
+            case HttpPut.METHOD_NAME:
+                HttpPut putCopy = new HttpPut(uri);
+                putCopy.setEntity(((HttpEntityEnclosingRequest) httpRequest).getEntity());
+                copy = putCopy;
+                break;
+            default:
+                throw new IllegalArgumentException("Only idempotent requests are retried, not " + httpRequest.getMethod());
+        }
+        copy.setHeaders(httpRequest.getAllHeaders());
+        copy.setConfig(httpRequest.getConfig());
+        return copy;
+    }
+
+    /**
+     * Successful calls refill the retry budget of the group key
+     */
+    private void recordSuccess() {
+        retryBudget.recordRequest(properties.getGroupInt("retry.budgetPercent", RestRequestConfigurationDefaults.RETRY_BUDGET_PERCENT));
+    }
+
+    /**
+     * This method triggers the streaming resource call via the Hystrix command within the rate and concurrency limits,
+     * checks buffered failure responses,
+     * handles and wraps exceptions if any,
+     * releases resources related to the HTTP call,
+     * and returns the value produced by the response handler.
+     */
+    private <T> T callResourceStreaming(HttpRequestBase httpRequest,
+                                        String commandName,
+                                        RestResponseHandler<T> responseHandler) throws ResourceStateConflictException,
+                                                                                        JsonReadException,
+                                                                                        RestClientSideException,
+                                                                                        RestServerSideException,
+                                                                                        RestConnectionException,
+                                                                                        RestEndpointException,
+                                                                                        InstantiationException {
+
+        commandName = prependGroupKeyNameToCommandNameIfRequired(commandName);
+        acquireRatePermit(commandName);
+        final AdaptiveConcurrencyLimiter limiter = acquireConcurrencySlot(commandName);
+
+        final EndpointLoadBalancer.Endpoint endpoint = chooseEndpoint(httpRequest);
+        final long start = System.nanoTime();
+        RestClientResponse failureResponse = null;
+        RuntimeException failure = null;
+        try {
+            final CommandStreamingRestResourceCall<T> restResourceCall = new CommandStreamingRestResourceCall<>(
+                    groupKeyName, endpointCommandName(commandName, endpoint), httpRequest, getTransport(),
+                    HttpClientContext.create(), responseHandler);
+
+            CommandStreamingRestResourceCall.Result<T> result;
+            try {
+                result = restResourceCall.execute();
+            } catch (RuntimeException ex) {
+                failure = ex;
+                throw ex;
+            }
+
+            failureResponse = result.getFailureResponse();
+            if (failureResponse != null) {
+                processResponseFailures(failureResponse.getHttpResponseCode(), failureResponse.getJsonResponse(), commandName);
+            }
+            return result.getValue();
+
+        } catch (HystrixRuntimeException hre) {
+            httpRequest.abort();
+            LOGGER.debug("HTTP Request to {} resource has been aborted.", commandName);
+            rethrowHystrixRuntimeException(hre, commandName);
+            return null;
+        } catch (HystrixBadRequestException hbre) {
+            if (hbre.getCause() instanceof Exception) {
+                LOGGER.error("Response handler of the {} resource failed", commandName, hbre.getCause());
+                rethrowRestException((Exception) hbre.getCause(), commandName);
+            }
+            LOGGER.error(CB_BAD_REQUEST.getLogMessage(commandName), hbre);
+            throw new RestClientSideException(CB_BAD_REQUEST);
+        } finally {
+            completeCall(limiter, endpoint, System.nanoTime() - start, failureResponse, failure);
+            LOGGER.debug("Releasing the connections associated with {} resource", commandName);
+            httpRequest.releaseConnection();
+        }
+    }
+
+    /**
+     * This method triggers the non-blocking resource call via the Hystrix command, whose semaphore allows
+     * <code>http.request.&lt;name&gt;.async.maxConcurrentRequests</code> calls in flight.
+     * With several endpoints, the request is sent to the endpoint chosen by the load balancer.
+     * The rate permits and the concurrency slot are taken on the caller thread like for the blocking calls.
+     * @see CommandAsyncRestResourceCall
+     * @see #observeResourceCall(HystrixObservable, HttpRequestBase, String, AdaptiveConcurrencyLimiter, EndpointLoadBalancer.Endpoint)
+     */
+    private CompletableFuture<String> callResourceAsync(HttpRequestBase httpRequest, String commandName) {
+        commandName = prependGroupKeyNameToCommandNameIfRequired(commandName);
+
+        final AdaptiveConcurrencyLimiter limiter;
+        try {
+            acquireRatePermit(commandName);
+            limiter = acquireConcurrencySlot(commandName);
+        } catch (RateLimitExceededException | ConcurrencyLimitExceededException ex) {
+            return failedFuture(ex);
+        }
+
+        final EndpointLoadBalancer.Endpoint endpoint = chooseEndpoint(httpRequest);
+        final String endpointCommandName = endpointCommandName(commandName, endpoint);
+        if (endpoint != null) {
+            EndpointCommandProperties.bridge(commandName + CommandAsyncRestResourceCall.COMMAND_KEY_SUFFIX,
+                                             endpointCommandName + CommandAsyncRestResourceCall.COMMAND_KEY_SUFFIX);
+        }
+
+        final CommandAsyncRestResourceCall restResourceCall;
+        try {
+            restResourceCall = new CommandAsyncRestResourceCall(groupKeyName, endpointCommandName, httpRequest,
+                    getHttpAsyncClient(), HttpClientContext.create(),
+                    properties.getInt(commandName, "async.maxConcurrentRequests", RestRequestConfigurationDefaults.ASYNC_MAX_CONCURRENT_REQUESTS));
+        } catch (HystrixBadRequestException hbre) {
+            cancelCall(limiter, endpoint);
+            LOGGER.error(CB_BAD_REQUEST.getLogMessage(commandName), hbre);
+            return failedFuture(new RestClientSideException(CB_BAD_REQUEST));
+        }
+
+        return observeResourceCall(restResourceCall, httpRequest, commandName, limiter, endpoint);
+    }
+
+    /**
+     * This method subscribes to the non-blocking Hystrix command,
+     * checks the response for failures,
+     * maps failures onto the same exceptions thrown by the blocking calls,
+     * and completes the returned future with the JSON String.
+     */
+    protected CompletableFuture<String> observeResourceCall(final HystrixObservable<RestClientResponse> restResourceCall,
+                                                            final HttpRequestBase httpRequest,
+                                                            final String commandName) {
+        return observeResourceCall(restResourceCall, httpRequest, commandName, null, null);
+    }
+
+    /**
+     * Observes the resource call like {@link #observeResourceCall(HystrixObservable, HttpRequestBase, String)},
+     * completing the call on its concurrency limiter and on the endpoint it has been sent to.
+     *
+     * @param limiter   The concurrency limiter the call has taken a slot from, null if the command has none
+     * @param endpoint  The endpoint chosen for the request, null if the client has a single endpoint
+     */
+    protected CompletableFuture<String> observeResourceCall(final HystrixObservable<RestClientResponse> restResourceCall,
+                                                            final HttpRequestBase httpRequest,
+                                                            final String commandName,
+                                                            final AdaptiveConcurrencyLimiter limiter,
+                                                            final EndpointLoadBalancer.Endpoint endpoint) {
+
+        final CompletableFuture<String> result = new CompletableFuture<>();
+
+        completeCall(restResourceCall.toObservable(), limiter, endpoint).subscribe(new Subscriber<RestClientResponse>() {
+
+            private RestClientResponse restClientResponse;
+
+            @Override
+            public void onNext(RestClientResponse response) {
+                restClientResponse = response;
+            }
+
+            @Override
+            public void onCompleted() {
+                if (restClientResponse == null) {
+                    LOGGER.debug("No Content response from the {} resource with null payload.", commandName);
+                    result.complete(null);
+                    return;
+                }
+                try {
+                    processResponseFailures(restClientResponse, commandName);
+                    LOGGER.debug("JSON received from {} resource is - {}", commandName, restClientResponse.getJsonResponse());
+                    result.complete(restClientResponse.getJsonResponse());
+                } catch (Exception ex) {
+                    result.completeExceptionally(ex);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                if (throwable instanceof HystrixRuntimeException) {
+                    httpRequest.abort();
+                    LOGGER.debug("HTTP Request to {} resource has been aborted.", commandName);
+                    try {
+                        rethrowHystrixRuntimeException((HystrixRuntimeException) throwable, commandName);
+                    } catch (Exception ex) {
+                        result.completeExceptionally(ex);
+                    }
+                } else if (throwable instanceof HystrixBadRequestException) {
+                    LOGGER.error(CB_BAD_REQUEST.getLogMessage(commandName), throwable);
+                    result.completeExceptionally(new RestClientSideException(CB_BAD_REQUEST));
+                } else {
+                    LOGGER.error(CB_UNKNOWN_ERROR.getLogMessage(commandName), throwable);
+                    Exception cause = throwable instanceof Exception ? (Exception) throwable : new RuntimeException(throwable);
+                    result.completeExceptionally(new RestServerSideException(CB_UNKNOWN_ERROR, cause));
+                }
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Maps the failure type of a {@link HystrixRuntimeException} onto the corresponding REST exception and throws it.
+     */
+    protected void rethrowHystrixRuntimeException(HystrixRuntimeException hre,
+                                                  String commandName) throws RestConnectionException,
+                                                                             RestEndpointException,
+                                                                             RestServerSideException {
+        switch(hre.getFailureType()) {
+            case TIMEOUT:
+                LOGGER.error(CB_TIMED_OUT.getLogMessage(commandName), hre);
+                throw new RestConnectionException(CB_TIMED_OUT);
+            case SHORTCIRCUIT:
+                LOGGER.error(CB_SHORT_CIRCUITED.getLogMessage(commandName), hre);
+                throw new RestEndpointException(CB_SHORT_CIRCUITED, hre);
+            case REJECTED_THREAD_EXECUTION:
+                LOGGER.error(CB_REJECTED_THREAD_EXECUTION.getLogMessage(commandName), hre);
+                throw new RestEndpointException(CB_REJECTED_THREAD_EXECUTION, hre);
+            case REJECTED_SEMAPHORE_FALLBACK:
+                LOGGER.error(CB_REJECTED_SEMAPHORE_FALLBACK.getLogMessage(commandName), hre);
+                throw new RestEndpointException(CB_REJECTED_SEMAPHORE_FALLBACK, hre);
+            case REJECTED_SEMAPHORE_EXECUTION:
+                LOGGER.error(CB_REJECTED_SEMAPHORE_EXECUTION.getLogMessage(commandName), hre);
+                throw new RestServerSideException(CB_REJECTED_SEMAPHORE_EXECUTION, hre);
+            case COMMAND_EXCEPTION:
+                LOGGER.error(CB_BAD_REQUEST.getLogMessage(commandName), hre);
+                throw new RestEndpointException(CB_BAD_REQUEST);
+            default:
+                LOGGER.error(CB_UNKNOWN_ERROR.getLogMessage(commandName), hre);
+                throw new RestServerSideException(CB_UNKNOWN_ERROR, hre);
+        }
+    }
+
+    /**
+     * Returns a future that has already been completed with the given exception.
+     */
+    protected static <T> CompletableFuture<T> failedFuture(Throwable throwable) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
+
+    protected String prependGroupKeyNameToCommandNameIfRequired(String commandName) {
+
+        if (prependGroupKeyNameToCommandKey) {
+            StringBuilder stringBuilder = new StringBuilder(commandName);
+            stringBuilder.insert(0, groupKeyName);
+            stringBuilder.insert(groupKeyName.length(), ".");
+            commandName = stringBuilder.toString();
+        }
+
+        return commandName;
+
+    }
+
+    /*
+    This method sets the request payload to the REST request
+    */
+    protected HttpEntityEnclosingRequestBase setPayload(  String requestBody,
+                                                        HttpEntityEnclosingRequestBase request,
+                                                        String commandName,
+                                                        ContentType contentType) throws RestProtocolException,
+                                                                                   InstantiationException {
+
+        requirePayload(requestBody, request, commandName);
+        if (requestBody.equals("")) {
             LOGGER.warn(EMPTY_REQUEST_PAYLOAD.getLogMessage(request.getMethod(), commandName));
         }
         if (contentType == null) {
@@ -473,12 +2458,45 @@ public class RestClient {
                                 .setText(requestBody)
                                 .setContentType(contentType)
                             .build();
-        request.setEntity(entity);
         LOGGER.debug("Request Body --> {}", requestBody);
 
+        return setPayload(entity, request, commandName);
+    }
+
+    /*
+    This method sets an already built request payload to the REST request,
+    gzip compressing it when request compression is enabled and the payload is at least
+    http.request.<name>.compression.request.minSize bytes long, or of unknown length
+    */
+    protected HttpEntityEnclosingRequestBase setPayload(HttpEntity entity,
+                                                        HttpEntityEnclosingRequestBase request,
+                                                        String commandName) {
+
+        if (properties.getBoolean(commandName, "compression.request.enabled", RestRequestConfigurationDefaults.REQUEST_COMPRESSION_ENABLED)
+                && entity.getContentEncoding() == null) {
+            long minSize = properties.getLong(commandName, "compression.request.minSize", RestRequestConfigurationDefaults.REQUEST_COMPRESSION_MIN_SIZE);
+            long contentLength = entity.getContentLength();
+            if (contentLength < 0 || contentLength >= minSize) {
+                LOGGER.debug("Compressing the {} bytes request payload of {} resource", contentLength, commandName);
+                entity = new GzipCompressingEntity(entity);
+            }
+        }
+        request.setEntity(entity);
         return request;
     }
 
+    /*
+    This method rejects null request payloads
+    */
+    protected void requirePayload(Object requestBody,
+                                  HttpEntityEnclosingRequestBase request,
+                                  String commandName) throws RestProtocolException, InstantiationException {
+        if (requestBody == null) {
+            LOGGER.error(NULL_REQUEST_PAYLOAD.getLogMessage(request.getMethod(), commandName));
+            throw new RestProtocolException(NULL_REQUEST_PAYLOAD);
+        }
+    }
+
     /*
     This method extracts the JSON string from the HTTP response and
     checks the HTTP status code to check for valid response types
@@ -518,36 +2536,140 @@ public class RestClient {
     }
 
     /**
-     * Checks if the httpResponse from the REST Web Service is a success or a failure
+     * Checks if the response from the REST Web Service is a success or a failure.
+     *
+     * The classification is driven by the HTTP status code. When JSON validation is enabled for the
+     * command (<code>http.request.&lt;name&gt;.validateJson</code>), successful responses whose
+     * <code>Content-Type</code> is JSON (or missing) are also checked to be well-formed JSON with a
+     * streaming parser, without building a tree.
+     */
+    protected void processResponseFailures(RestClientResponse restClientResponse,
+                                           String commandName) throws ResourceStateConflictException,
+                                                                      JsonReadException,
+                                                                      RestClientSideException,
+                                                                      RestServerSideException,
+                                                                      InstantiationException {
+
+        final int httpStatusCode = restClientResponse.getHttpResponseCode();
+        final String json = restClientResponse.getJsonResponse();
+
+        processResponseFailures(httpStatusCode, json, commandName);
+
+        if (properties.getBoolean(commandName, "validateJson", RestRequestConfigurationDefaults.VALIDATE_JSON)
+                && isJsonContentType(restClientResponse.getFirstHeaderValue(HttpHeaders.CONTENT_TYPE))) {
+            validateJson(json, commandName);
+        }
+    }
+
+    /**
+     * Checks if the httpResponse from the REST Web Service is a success or a failure,
+     * based on the HTTP status code alone.
      */
     protected void processResponseFailures( int httpStatusCode,
                                             String json,
                                             String commandName) throws ResourceStateConflictException,RestClientSideException,
                                                                        RestServerSideException,
                                                                        InstantiationException {
-        try {
-            new ObjectMapper().readTree(json);
+        if (httpStatusCode == 400) {
+            LOGGER.error(CB_BAD_REQUEST.getLogMessage(commandName, json, httpStatusCode));
+            throw new RestClientSideException(json);
+        } else if (httpStatusCode == 409) {
+            LOGGER.error(CONFLICT_HTTP_RESPONSE.getLogMessage(commandName, httpStatusCode, json));
+            throw new ResourceStateConflictException(CONFLICT_HTTP_RESPONSE, json);
+        } else if (httpStatusCode >= 401 && httpStatusCode < 500) {
+            LOGGER.error(RESPONSE_FAILURE.getLogMessage(commandName, httpStatusCode, json));
+            throw new RestClientSideException(RESPONSE_FAILURE, json);
+        } else if (httpStatusCode >= 500 && httpStatusCode < 600) {
+            LOGGER.error(RESPONSE_FAILURE.getLogMessage(commandName, httpStatusCode, json));
+            throw new RestServerSideException(RESPONSE_FAILURE, json);
+        }
+    }
+
+    /**
+     * Checks that the payload is well-formed JSON by streaming through its tokens.
+     * An empty payload, e.g. of a 201 or 202 response without a body, is valid.
+     */
+    protected void validateJson(String json, String commandName) throws JsonReadException {
+        if (json == null) {
             return;
-        } catch (IOException e) {
-            if (httpStatusCode == 400) {
-                LOGGER.error(CB_BAD_REQUEST.getLogMessage(commandName, json, httpStatusCode));
-                throw new RestClientSideException(json);
-            } else if (httpStatusCode == 409) {
-                LOGGER.error(CONFLICT_HTTP_RESPONSE.getLogMessage(commandName, httpStatusCode, json));
-                throw new ResourceStateConflictException(CONFLICT_HTTP_RESPONSE, json);
-            } else if (httpStatusCode >= 401 && httpStatusCode < 500) {
-                LOGGER.error(RESPONSE_FAILURE.getLogMessage(commandName, httpStatusCode, json));
-                throw new RestClientSideException(RESPONSE_FAILURE, json);
-            } else if (httpStatusCode >= 500 && httpStatusCode < 600) {
-                LOGGER.error(RESPONSE_FAILURE.getLogMessage(commandName, httpStatusCode, json));
-                throw new RestServerSideException(RESPONSE_FAILURE, json);
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            while (parser.nextToken() != null) {
+                // walking the tokens is enough for the parser to detect malformed content
             }
+        } catch (IOException ex) {
+            LOGGER.error(JSON_READ_FAILED.getLogMessage(commandName), ex);
+            throw new JsonReadException(JSON_READ_FAILED, ex);
+        }
+    }
+
+    /**
+     * @return TRUE if the content type is JSON, or if it is unknown
+     */
+    private boolean isJsonContentType(String contentType) {
+        if (contentType == null) {
+            return true;
+        }
+        String mimeType = contentType.toLowerCase(Locale.ENGLISH);
+        int parameters = mimeType.indexOf(';');
+        if (parameters >= 0) {
+            mimeType = mimeType.substring(0, parameters);
+        }
+        mimeType = mimeType.trim();
+        return mimeType.equals("application/json") || mimeType.endsWith("+json");
+    }
+
+
+    /**
+     * Sets the HTTP Request configuration parameters and negotiates the response compression.
+     *
+     * The configuration is resolved once per command name and reused until one of the
+     * REST client properties is changed through Archaius. The socket timeout follows the
+     * observed latency of the command when adaptive timeouts are enabled.
+     * @see #buildHttpRequestConfig(String)
+     * @see #setAcceptEncoding(HttpRequestBase, String)
+     * @see AdaptiveTimeouts
+     */
+    protected void setHttpRequestConfig(HttpRequestBase httpRequest, String commandName) {
+        RequestConfig requestConfig = getHttpRequestConfig(commandName);
+        int socketTimeout = adaptiveTimeouts.getSocketTimeout(prependGroupKeyNameToCommandNameIfRequired(commandName),
+                                                              requestConfig.getSocketTimeout());
+        if (socketTimeout != requestConfig.getSocketTimeout()) {
+            requestConfig = RequestConfig.copy(requestConfig).setSocketTimeout(socketTimeout).build();
+        }
+        httpRequest.setConfig(requestConfig);
+        setAcceptEncoding(httpRequest, commandName);
+    }
+
+    /**
+     * Asks for a compressed response when compression is enabled for the command or its group key
+     * (<code>http.request.&lt;name&gt;.compression.enabled</code>), unless the caller has set its own
+     * <code>Accept-Encoding</code> header. Compressed responses are decompressed while their payload is read.
+     */
+    protected void setAcceptEncoding(HttpRequestBase httpRequest, String commandName) {
+        if (properties.getBoolean(commandName, "compression.enabled", RestRequestConfigurationDefaults.COMPRESSION_ENABLED)
+                && !httpRequest.containsHeader(HttpHeaders.ACCEPT_ENCODING)) {
+            httpRequest.setHeader(HttpHeaders.ACCEPT_ENCODING, ACCEPTED_ENCODINGS);
         }
     }
 
+    /**
+     * Returns the HTTP Request configuration of a command, building it if it has not been
+     * built yet or if the REST client properties have changed since.
+     */
+    protected RequestConfig getHttpRequestConfig(String commandName) {
+        final long propertiesVersion = PropertyChangeTracker.getVersion();
+
+        CompiledRequestConfig compiledConfig = requestConfigs.get(commandName);
+        if (compiledConfig == null || compiledConfig.propertiesVersion != propertiesVersion) {
+            compiledConfig = new CompiledRequestConfig(buildHttpRequestConfig(commandName), propertiesVersion);
+            requestConfigs.put(commandName, compiledConfig);
+        }
+        return compiledConfig.requestConfig;
+    }
 
     /**
-     * Sets the HTTP Request configuration parameters.
+     * Builds the HTTP Request configuration parameters.
      *
      * First priority is given to the resource specific configuration parameters
      * which are identified by the commandName.
@@ -558,7 +2680,7 @@ public class RestClient {
      * Third and last fallback are constants specified in the
      * {@link com.capgemini.camel.rest.client.constants.RestRequestConfigurationDefaults} class
      */
-    protected void setHttpRequestConfig(HttpRequestBase httpRequest, String commandName) {
+    protected RequestConfig buildHttpRequestConfig(String commandName) {
         DynamicPropertyFactory propertyFactory = DynamicPropertyFactory.getInstance();
 
         final String commandNamePropertyPrefix = "http.request." + commandName;
@@ -600,7 +2722,7 @@ public class RestClient {
             configBuilder.setProxy(proxy);
             LOGGER.debug("Using HTTP proxy Host: {} , Port: {}", httpProxyHost, httpProxyPort);
         }
-        httpRequest.setConfig(configBuilder.build());
+        return configBuilder.build();
     }
 
     /**
@@ -675,18 +2797,168 @@ public class RestClient {
     }
 
     /**
-     * Public getter for use with Spring (or suchlike)
+     * Public getter for use with Spring (or suchlike).
+     * When no client has been set, the pooled client managed for the group key is used. It is looked up
+     * on every call rather than kept, so that the client recreated after a
+     * {@link ManagedHttpClientFactory#shutdown(String) shutdown} of the pool is picked up.
      * @return
+     * @see ManagedHttpClientFactory
      */
     public HttpClient getHttpClient() {
-        return httpClient;
+        if (httpClient != null) {
+            return httpClient;
+        }
+        return ManagedHttpClientFactory.getInstance().getHttpClient(groupKeyName);
     }
 
     /**
-     * Public setter for use with Spring (or suchlike)
+     * Public setter for use with Spring (or suchlike).
+     * The leases of the client are only accounted for if it has been built on a {@link ConnectionLeaseTracker}.
      * @param httpClient
      */
     public void setHttpClient(HttpClient httpClient) {
         this.httpClient = httpClient;
     }
+
+    /**
+     * Returns the transport sending the requests of the blocking calls: the one which has been set,
+     * otherwise the one named by <code>http.request.&lt;groupKey&gt;.transport</code>, either
+     * <code>apache</code> (HTTP/1.1 over {@link #getHttpClient()}, the default) or <code>http2</code>.
+     * Both transports are created once and reused, the Apache one until the client it wraps changes.
+     * @see RestTransport
+     */
+    public RestTransport getTransport() {
+        if (transport != null) {
+            return transport;
+        }
+        String transportName = properties.getGroupString("transport", TRANSPORT_APACHE);
+        if (TRANSPORT_HTTP2.equalsIgnoreCase(transportName)) {
+            return getHttp2Transport();
+        }
+        return getApacheTransport();
+    }
+
+    /**
+     * Public setter for use with Spring (or suchlike)
+     * @param transport
+     */
+    public void setTransport(RestTransport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * The client wrapped by the transport is compared on every call, the managed client of the group key being
+     * recreated after a shutdown of its pool
+     */
+    private RestTransport getApacheTransport() {
+        final HttpClient currentHttpClient = getHttpClient();
+        ApacheHttpTransport currentTransport = apacheTransport;
+        if (currentTransport == null || currentTransport.getHttpClient() != currentHttpClient) {
+            currentTransport = new ApacheHttpTransport(currentHttpClient);
+            apacheTransport = currentTransport;
+        }
+        return currentTransport;
+    }
+
+    private RestTransport getHttp2Transport() {
+        RestTransport currentTransport = http2Transport;
+        if (currentTransport == null) {
+            synchronized (this) {
+                currentTransport = http2Transport;
+                if (currentTransport == null) {
+                    currentTransport = createHttp2Transport();
+                    http2Transport = currentTransport;
+                }
+            }
+        }
+        return currentTransport;
+    }
+
+    /**
+     * Loads the JDK HTTP/2 transport by name, it is compiled for Java 11 while the rest of the library runs on Java 8.
+     * On older JVMs the calls fall back to the Apache transport.
+     */
+    private RestTransport createHttp2Transport() {
+        int connectionTimeout = DynamicPropertyFactory.getInstance()
+                .getIntProperty(groupKeyPropertyPrefix + ".connectionTimeout", RestRequestConfigurationDefaults.CONNECTION_TIMEOUT).getValue();
+        try {
+            return (RestTransport) Class.forName(JDK_HTTP2_TRANSPORT_CLASS).getConstructor(int.class).newInstance(connectionTimeout);
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            LOGGER.warn("The {} transport needs Java 11 or later, {} group key keeps using the {} transport",
+                    TRANSPORT_HTTP2, groupKeyName, TRANSPORT_APACHE, ex);
+            return new RestTransport() {
+                @Override
+                public HttpResponse execute(HttpRequestBase httpRequest, HttpContext httpContext) throws IOException {
+                    return getApacheTransport().execute(httpRequest, httpContext);
+                }
+            };
+        }
+    }
+
+    /**
+     * Public getter for use with Spring (or suchlike)
+     * @return the client used by the non-blocking calls
+     */
+    public HttpAsyncClient getHttpAsyncClient() {
+        return httpAsyncClient;
+    }
+
+    /**
+     * Public setter for use with Spring (or suchlike).
+     * The client must be started before any non-blocking call is made. Its connections are not accounted for
+     * by a {@link ConnectionLeaseTracker}, the pool statistics of its own connection manager apply.
+     * @param httpAsyncClient
+     */
+    public void setHttpAsyncClient(HttpAsyncClient httpAsyncClient) {
+        this.httpAsyncClient = httpAsyncClient;
+    }
+
+    /**
+     * Public getter for use with Spring (or suchlike)
+     * @return the mapper used by the typed calls
+     */
+    public ObjectMapper getObjectMapper() {
+        return objectReaders.getObjectMapper();
+    }
+
+    /**
+     * @return the adaptive timeouts computed for every command of this client, keyed by Hystrix command name
+     */
+    public Map<String, AdaptiveTimeoutStats> getAdaptiveTimeouts() {
+        return adaptiveTimeouts.getStats();
+    }
+
+    /**
+     * @return the current adaptive concurrency limit of every limited command of this client, keyed by Hystrix command name
+     */
+    public Map<String, Integer> getConcurrencyLimits() {
+        Map<String, Integer> limits = new LinkedHashMap<>();
+        for (Map.Entry<String, AdaptiveConcurrencyLimiter> entry : concurrencyLimiters.entrySet()) {
+            limits.put(entry.getKey(), entry.getValue().getLimit());
+        }
+        return limits;
+    }
+
+    /**
+     * Public setter for use with Spring (or suchlike).
+     * The mapper must not be reconfigured once it has been set, the readers derived from it are cached.
+     * @param objectMapper
+     */
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectReaders = new ObjectReaderCache(objectMapper);
+    }
+
+    /**
+     * A request configuration together with the version of the properties it was built from
+     */
+    private static final class CompiledRequestConfig {
+
+        private final RequestConfig requestConfig;
+        private final long propertiesVersion;
+
+        private CompiledRequestConfig(RequestConfig requestConfig, long propertiesVersion) {
+            this.requestConfig = requestConfig;
+            this.propertiesVersion = propertiesVersion;
+        }
+    }
 }
@@ -0,0 +1,33 @@
+package com.capgemini.camel.rest.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.http.Header;
+
+/**
+ * Consumes the payload of a successful REST response as a stream, so that large responses
+ * can be processed with constant memory instead of being buffered into a String.
+ * <p/>
+ * The handler runs inside the circuit broken command, on the Hystrix thread. The stream does not
+ * need to be closed by the handler, the underlying connection is released by the REST client once
+ * the handler returns or fails.
+ *
+ * @param <T> the type of the value produced from the response
+ *
+ * @author Abbas Attarwala
+ */
+public interface RestResponseHandler<T> {
+
+    /**
+     * Handles a successful response.
+     *
+     * @param httpStatusCode  The HTTP status code of the response
+     * @param headers         The response headers
+     * @param body            The response payload, an empty stream if the response has no payload
+     * @return                The value returned to the caller of the REST client (can be null)
+     * @throws IOException    if the payload cannot be read, treated as a failure of the resource call
+     * @throws Exception      if the payload cannot be handled, returned to the caller without tripping the circuit breaker
+     */
+    T handleResponse(int httpStatusCode, Header[] headers, InputStream body) throws Exception;
+}
@@ -0,0 +1,161 @@
+package com.capgemini.camel.rest.client.cache;
+
+import java.util.Locale;
+
+/**
+ * The caching directives of a <code>Cache-Control</code> response header which are honoured by the
+ * {@link SharedResponseCache}: <code>max-age</code>, <code>s-maxage</code>, <code>no-store</code>,
+ * <code>no-cache</code> and <code>stale-while-revalidate</code>. Any other directive is ignored.
+ *
+ * @author Abbas Attarwala
+ */
+public final class CacheControl {
+
+    public static final long UNSPECIFIED = -1;
+
+    private static final CacheControl EMPTY = new CacheControl(UNSPECIFIED, UNSPECIFIED, false, false, UNSPECIFIED);
+
+    private final long maxAgeSeconds;
+    private final long sharedMaxAgeSeconds;
+    private final boolean noStore;
+    private final boolean noCache;
+    private final long staleWhileRevalidateSeconds;
+
+    private CacheControl(long maxAgeSeconds,
+                         long sharedMaxAgeSeconds,
+                         boolean noStore,
+                         boolean noCache,
+                         long staleWhileRevalidateSeconds) {
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.sharedMaxAgeSeconds = sharedMaxAgeSeconds;
+        this.noStore = noStore;
+        this.noCache = noCache;
+        this.staleWhileRevalidateSeconds = staleWhileRevalidateSeconds;
+    }
+
+    /**
+     * Parses the value of a <code>Cache-Control</code> header.
+     *
+     * @param headerValue  The header value (can be null)
+     * @return             The parsed directives, never null
+     */
+    public static CacheControl parse(String headerValue) {
+        if (headerValue == null || headerValue.trim().isEmpty()) {
+            return EMPTY;
+        }
+
+        long maxAge = UNSPECIFIED;
+        long sharedMaxAge = UNSPECIFIED;
+        boolean noStore = false;
+        boolean noCache = false;
+        long staleWhileRevalidate = UNSPECIFIED;
+
+        for (String directive : headerValue.split(",")) {
+            String name = directive;
+            String value = null;
+            int equals = directive.indexOf('=');
+            if (equals >= 0) {
+                name = directive.substring(0, equals);
+                value = directive.substring(equals + 1).trim();
+            }
+            name = name.trim().toLowerCase(Locale.ENGLISH);
+
+            switch (name) {
+                case "max-age":
+                    maxAge = parseSeconds(value);
+                    break;
+                case "s-maxage":
+                    sharedMaxAge = parseSeconds(value);
+                    break;
+                case "no-store":
+                    noStore = true;
+                    break;
+                case "no-cache":
+                    noCache = true;
+                    break;
+                case "stale-while-revalidate":
+                    staleWhileRevalidate = parseSeconds(value);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return new CacheControl(maxAge, sharedMaxAge, noStore, noCache, staleWhileRevalidate);
+    }
+
+    /**
+     * Parses a delta-seconds value, malformed values are treated as unspecified
+     */
+    private static long parseSeconds(String value) {
+        if (value == null) {
+            return UNSPECIFIED;
+        }
+        if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            long seconds = Long.parseLong(value);
+            return seconds < 0 ? UNSPECIFIED : seconds;
+        } catch (NumberFormatException ex) {
+            return UNSPECIFIED;
+        }
+    }
+
+    /**
+     * @return TRUE if the response must not be stored
+     */
+    public boolean isNoStore() {
+        return noStore;
+    }
+
+    /**
+     * @return TRUE if the response must be revalidated before every use
+     */
+    public boolean isNoCache() {
+        return noCache;
+    }
+
+    /**
+     * @return TRUE if the header specified how long the response is fresh for
+     */
+    public boolean hasFreshnessLifetime() {
+        return noCache || sharedMaxAgeSeconds != UNSPECIFIED || maxAgeSeconds != UNSPECIFIED;
+    }
+
+    /**
+     * The freshness lifetime of the response as seen by a shared cache,
+     * <code>s-maxage</code> takes precedence over <code>max-age</code>.
+     *
+     * @param defaultMillis  The lifetime to use when the header does not specify one
+     * @return               The freshness lifetime in milliseconds
+     */
+    public long getFreshnessLifetimeMillis(long defaultMillis) {
+        if (noCache) {
+            return 0;
+        }
+        if (sharedMaxAgeSeconds != UNSPECIFIED) {
+            return sharedMaxAgeSeconds * 1000;
+        }
+        if (maxAgeSeconds != UNSPECIFIED) {
+            return maxAgeSeconds * 1000;
+        }
+        return defaultMillis;
+    }
+
+    /**
+     * @return how long a stale response can be served while it is refreshed in the background, 0 if not allowed
+     */
+    public long getStaleWhileRevalidateMillis() {
+        return staleWhileRevalidateSeconds == UNSPECIFIED ? 0 : staleWhileRevalidateSeconds * 1000;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheControl: max-age=" + maxAgeSeconds
+                + ", s-maxage=" + sharedMaxAgeSeconds
+                + ", no-store=" + noStore
+                + ", no-cache=" + noCache
+                + ", stale-while-revalidate=" + staleWhileRevalidateSeconds;
+    }
+}
@@ -0,0 +1,171 @@
+package com.capgemini.camel.rest.client.cache;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.Header;
+import org.apache.http.HttpMessage;
+
+/**
+ * A response held in the {@link SharedResponseCache}.
+ * <p/>
+ * An entry is fresh for its freshness lifetime. Once stale it can still be served for the
+ * <code>stale-while-revalidate</code> window granted by the server while it is refreshed in the background.
+ * Entries carrying an <code>ETag</code> or a <code>Last-Modified</code> validator are retained for a while
+ * longer, so that they can be revalidated with a conditional request instead of being downloaded again.
+ * An entry only matches requests carrying the same values for the request headers named by the
+ * <code>Vary</code> header of the response.
+ *
+ * @author Abbas Attarwala
+ */
+public class CachedResponse {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final String jsonResponse;
+    private final int httpResponseCode;
+    private final String entityTag;
+    private final String lastModified;
+    private final Map<String, String> varyHeaders;
+    private final long storedAtNanos;
+    private final long freshnessLifetimeNanos;
+    private final long staleWhileRevalidateNanos;
+    private final long timeToLiveNanos;
+
+    public CachedResponse(String jsonResponse, int httpResponseCode, long timeToLiveMillis) {
+        this(jsonResponse, httpResponseCode, null, null, null, timeToLiveMillis, 0, 0);
+    }
+
+    /**
+     * @param jsonResponse              The response payload
+     * @param httpResponseCode          The HTTP status code of the response
+     * @param entityTag                 The <code>ETag</code> response header (can be null)
+     * @param lastModified              The <code>Last-Modified</code> response header (can be null)
+     * @param varyHeaders               The request headers named by the <code>Vary</code> response header,
+     *                                  keyed by lower-case name, with the values they had in the request (can be null)
+     * @param freshnessLifetimeMillis   How long the entry can be served without revalidation
+     * @param staleWhileRevalidateMillis How long a stale entry can be served while it is refreshed in the background
+     * @param revalidationRetentionMillis How long a stale entry with validators is retained for revalidation
+     */
+    public CachedResponse(String jsonResponse,
+                          int httpResponseCode,
+                          String entityTag,
+                          String lastModified,
+                          Map<String, String> varyHeaders,
+                          long freshnessLifetimeMillis,
+                          long staleWhileRevalidateMillis,
+                          long revalidationRetentionMillis) {
+        this.jsonResponse = jsonResponse;
+        this.httpResponseCode = httpResponseCode;
+        this.entityTag = entityTag;
+        this.lastModified = lastModified;
+        this.varyHeaders = varyHeaders == null ? Collections.<String, String>emptyMap() : varyHeaders;
+        this.storedAtNanos = System.nanoTime();
+        this.freshnessLifetimeNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, freshnessLifetimeMillis));
+        this.staleWhileRevalidateNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, staleWhileRevalidateMillis));
+
+        long retentionNanos = hasValidators() ? TimeUnit.MILLISECONDS.toNanos(Math.max(0, revalidationRetentionMillis)) : 0;
+        this.timeToLiveNanos = freshnessLifetimeNanos + Math.max(staleWhileRevalidateNanos, retentionNanos);
+    }
+
+    /**
+     * Creates a copy of this entry whose freshness lifetime restarts now, following a
+     * <code>304 Not Modified</code> response. Validators sent along with the 304 replace the stored ones.
+     */
+    public CachedResponse revalidated(String newEntityTag,
+                                      String newLastModified,
+                                      long freshnessLifetimeMillis,
+                                      long staleWhileRevalidateMillis,
+                                      long revalidationRetentionMillis) {
+        return new CachedResponse(jsonResponse,
+                                  httpResponseCode,
+                                  newEntityTag != null ? newEntityTag : entityTag,
+                                  newLastModified != null ? newLastModified : lastModified,
+                                  varyHeaders,
+                                  freshnessLifetimeMillis,
+                                  staleWhileRevalidateMillis,
+                                  revalidationRetentionMillis);
+    }
+
+    public String getJsonResponse() {
+        return jsonResponse;
+    }
+
+    public int getHttpResponseCode() {
+        return httpResponseCode;
+    }
+
+    public String getEntityTag() {
+        return entityTag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public boolean hasValidators() {
+        return entityTag != null || lastModified != null;
+    }
+
+    /**
+     * @return TRUE if the entry can be served without revalidation
+     */
+    public boolean isFresh() {
+        return System.nanoTime() - storedAtNanos < freshnessLifetimeNanos;
+    }
+
+    /**
+     * @return TRUE if the entry is stale but can still be served while it is refreshed in the background
+     */
+    public boolean isWithinStaleWhileRevalidate() {
+        long age = System.nanoTime() - storedAtNanos;
+        return age >= freshnessLifetimeNanos && age < freshnessLifetimeNanos + staleWhileRevalidateNanos;
+    }
+
+    /**
+     * Checks that the request carries the same values for the headers named by the
+     * <code>Vary</code> header of the cached response.
+     *
+     * @param request  The request about to be served
+     * @return         TRUE if the entry can be used for the request
+     */
+    public boolean matchesVaryHeaders(HttpMessage request) {
+        for (Map.Entry<String, String> varyHeader : varyHeaders.entrySet()) {
+            Header header = request.getFirstHeader(varyHeader.getKey());
+            String value = header == null ? null : header.getValue();
+            if (value == null ? varyHeader.getValue() != null : !value.equals(varyHeader.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return how long the entry is physically retained by the cache
+     */
+    public long getTimeToLiveNanos() {
+        return timeToLiveNanos;
+    }
+
+    /**
+     * An estimate of the heap retained by this entry, used to bound the cache by total bytes.
+     */
+    public int getWeight() {
+        long weight = ENTRY_OVERHEAD_BYTES
+                + (jsonResponse == null ? 0 : 2L * jsonResponse.length())
+                + (entityTag == null ? 0 : 2L * entityTag.length())
+                + (lastModified == null ? 0 : 2L * lastModified.length())
+                + 64L * varyHeaders.size();
+        return (int) Math.min(Integer.MAX_VALUE, weight);
+    }
+
+    @Override
+    public String toString() {
+        return "CachedResponse: " + httpResponseCode
+                + ", fresh: " + isFresh()
+                + ", ETag: " + entityTag
+                + ", Last-Modified: " + lastModified
+                + ", weight: " + getWeight() + " bytes";
+    }
+}
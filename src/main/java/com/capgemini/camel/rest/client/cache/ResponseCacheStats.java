@@ -0,0 +1,92 @@
+package com.capgemini.camel.rest.client.cache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point-in-time snapshot of the {@link SharedResponseCache} statistics of a single Hystrix command.
+ *
+ * @author Abbas Attarwala
+ */
+public class ResponseCacheStats {
+
+    private final String commandName;
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long revalidationCount;
+    private final long loadCount;
+    private final long totalLoadTimeNanos;
+
+    public ResponseCacheStats(String commandName,
+                              long hitCount,
+                              long missCount,
+                              long evictionCount,
+                              long revalidationCount,
+                              long loadCount,
+                              long totalLoadTimeNanos) {
+        this.commandName = commandName;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.revalidationCount = revalidationCount;
+        this.loadCount = loadCount;
+        this.totalLoadTimeNanos = totalLoadTimeNanos;
+    }
+
+    public String getCommandName() {
+        return commandName;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return the number of hits that were served after a <code>304 Not Modified</code> revalidation
+     */
+    public long getRevalidationCount() {
+        return revalidationCount;
+    }
+
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    public long getTotalLoadTimeNanos() {
+        return totalLoadTimeNanos;
+    }
+
+    /**
+     * @return the ratio of lookups that were served from the cache, 1.0 if there were no lookups
+     */
+    public double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * @return the average time in milliseconds spent loading a response from the REST resource
+     */
+    public double getAverageLoadPenaltyMillis() {
+        return loadCount == 0 ? 0.0 : (double) totalLoadTimeNanos / TimeUnit.MILLISECONDS.toNanos(1) / loadCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseCacheStats: " + commandName
+                + ", hits: " + hitCount
+                + ", misses: " + missCount
+                + ", evictions: " + evictionCount
+                + ", revalidations: " + revalidationCount
+                + ", loads: " + loadCount
+                + ", averageLoadPenaltyMillis: " + getAverageLoadPenaltyMillis();
+    }
+}
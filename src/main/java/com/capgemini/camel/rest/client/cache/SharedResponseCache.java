@@ -0,0 +1,261 @@
+package com.capgemini.camel.rest.client.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.netflix.config.DynamicLongProperty;
+import com.netflix.config.DynamicPropertyFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A process-wide response cache shared by every {@link com.capgemini.camel.rest.client.CachingRestClient}.
+ * <p/>
+ * Unlike the Hystrix request cache, which only de-duplicates calls within a single
+ * {@link com.netflix.hystrix.strategy.concurrency.HystrixRequestContext}, entries held here
+ * outlive the request that loaded them. The cache is backed by Caffeine, which uses the
+ * frequency-aware W-TinyLFU eviction policy, and is bounded by the estimated number of bytes
+ * retained by its entries (<code>http.cache.maxBytes</code>, hot-reloadable). Each entry carries
+ * its own time to live, so TTLs can differ per command.
+ *
+ * @author Abbas Attarwala
+ */
+public final class SharedResponseCache {
+
+    public static final String HTTP_CACHE_MAX_BYTES = "http.cache.maxBytes";
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedResponseCache.class);
+
+    private static final SharedResponseCache INSTANCE = new SharedResponseCache(ForkJoinPool.commonPool());
+
+    private final Cache<Key, CachedResponse> cache;
+    private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * @param maintenanceExecutor The executor running the evictions and the removal notifications of the cache
+     */
+    SharedResponseCache(Executor maintenanceExecutor) {
+        final DynamicLongProperty maxBytes = DynamicPropertyFactory.getInstance()
+                .getLongProperty(HTTP_CACHE_MAX_BYTES, DEFAULT_MAX_BYTES);
+
+        this.cache = Caffeine.newBuilder()
+                .executor(maintenanceExecutor)
+                .maximumWeight(maxBytes.get())
+                .weigher(new Weigher<Key, CachedResponse>() {
+                    @Override
+                    public int weigh(Key key, CachedResponse value) {
+                        return key.getWeight() + value.getWeight();
+                    }
+                })
+                .expireAfter(new Expiry<Key, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(Key key, CachedResponse value, long currentTime) {
+                        return value.getTimeToLiveNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, CachedResponse value, long currentTime, long currentDuration) {
+                        return value.getTimeToLiveNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, CachedResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .removalListener(new RemovalListener<Key, CachedResponse>() {
+                    @Override
+                    public void onRemoval(Key key, CachedResponse value, RemovalCause cause) {
+                        if (key != null && cause.wasEvicted()) {
+                            countersFor(key.commandName).evictions.increment();
+                        }
+                    }
+                })
+                .build();
+
+        maxBytes.addCallback(new Runnable() {
+            @Override
+            public void run() {
+                LOGGER.info("Resizing the shared response cache to {} bytes", maxBytes.get());
+                cache.policy().eviction().get().setMaximum(maxBytes.get());
+            }
+        });
+    }
+
+    /**
+     * @return the process-wide cache
+     */
+    public static SharedResponseCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Looks up a response. The returned entry may be stale, callers decide whether to serve or
+     * revalidate it and record the outcome with {@link #recordHit(String)} or {@link #recordMiss(String)}.
+     *
+     * @param commandName  The Hystrix command name
+     * @param cacheKey     The caller supplied cache key
+     * @return             The cached response or null
+     */
+    public CachedResponse get(String commandName, String cacheKey) {
+        return cache.getIfPresent(new Key(commandName, cacheKey));
+    }
+
+    /**
+     * Records a response served from the cache.
+     */
+    public void recordHit(String commandName) {
+        countersFor(commandName).hits.increment();
+    }
+
+    /**
+     * Records a lookup that had to go to the REST resource.
+     */
+    public void recordMiss(String commandName) {
+        countersFor(commandName).misses.increment();
+    }
+
+    /**
+     * Records a stale response revalidated by a <code>304 Not Modified</code>, which counts as a hit.
+     */
+    public void recordRevalidation(String commandName) {
+        Counters commandCounters = countersFor(commandName);
+        commandCounters.hits.increment();
+        commandCounters.revalidations.increment();
+    }
+
+    /**
+     * Stores a response for the time to live it carries.
+     */
+    public void put(String commandName, String cacheKey, CachedResponse cachedResponse) {
+        if (cachedResponse.getTimeToLiveNanos() <= 0) {
+            return;
+        }
+        cache.put(new Key(commandName, cacheKey), cachedResponse);
+    }
+
+    /**
+     * Removes a response from the cache.
+     */
+    public void invalidate(String commandName, String cacheKey) {
+        cache.invalidate(new Key(commandName, cacheKey));
+    }
+
+    /**
+     * Removes every response from the cache.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Records the time spent loading a response from the REST resource after a miss.
+     */
+    public void recordLoad(String commandName, long loadTimeNanos) {
+        Counters commandCounters = countersFor(commandName);
+        commandCounters.loads.increment();
+        commandCounters.totalLoadTimeNanos.add(loadTimeNanos);
+    }
+
+    /**
+     * @return the statistics of a single command
+     */
+    public ResponseCacheStats getStats(String commandName) {
+        return countersFor(commandName).snapshot(commandName);
+    }
+
+    /**
+     * @return the statistics of every command that has used the cache, keyed by command name
+     */
+    public Map<String, ResponseCacheStats> getStats() {
+        Map<String, ResponseCacheStats> stats = new LinkedHashMap<>();
+        for (Map.Entry<String, Counters> entry : counters.entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().snapshot(entry.getKey()));
+        }
+        return stats;
+    }
+
+    /**
+     * @return the estimated number of bytes currently retained by the cache
+     */
+    public long getWeightedSize() {
+        return cache.policy().eviction().get().weightedSize().orElse(0L);
+    }
+
+    private Counters countersFor(String commandName) {
+        Counters commandCounters = counters.get(commandName);
+        if (commandCounters == null) {
+            Counters newCounters = new Counters();
+            commandCounters = counters.putIfAbsent(commandName, newCounters);
+            if (commandCounters == null) {
+                commandCounters = newCounters;
+            }
+        }
+        return commandCounters;
+    }
+
+    /**
+     * Cache key made up of the Hystrix command name and the caller supplied cache key
+     */
+    private static final class Key {
+
+        private final String commandName;
+        private final String cacheKey;
+
+        private Key(String commandName, String cacheKey) {
+            this.commandName = commandName;
+            this.cacheKey = cacheKey;
+        }
+
+        private int getWeight() {
+            return 2 * (commandName.length() + cacheKey.length());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return commandName.equals(other.commandName) && cacheKey.equals(other.cacheKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * commandName.hashCode() + cacheKey.hashCode();
+        }
+    }
+
+    /**
+     * Per command statistics counters
+     */
+    private static final class Counters {
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder revalidations = new LongAdder();
+        private final LongAdder loads = new LongAdder();
+        private final LongAdder totalLoadTimeNanos = new LongAdder();
+
+        private ResponseCacheStats snapshot(String commandName) {
+            return new ResponseCacheStats(commandName, hits.sum(), misses.sum(), evictions.sum(),
+                                          revalidations.sum(), loads.sum(), totalLoadTimeNanos.sum());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.capgemini.camel.rest.client.circuitbreaker;
+
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Netflix Hystrix Circuit Breaker wrapper for all Cached non-blocking REST WebService calls
+ * <p/>
+ * https://github.com/Netflix/Hystrix
+ *
+ * @author Abbas Attarwala
+ * @see com.netflix.hystrix.HystrixObservableCommand
+ * @see CommandCachedRestResourceCall
+ */
+public class CommandAsyncCachedRestResourceCall extends CommandAsyncRestResourceCall {
+
+    private final String requestCacheKey;
+
+    /**
+     * Constructor for the non-blocking REST WebService HystrixObservableCommand class, passing in all the
+     * parameters to execute the call.
+     *
+     * @param commandName      String the web service call name used to create the Hystrix Command Key
+     * @param groupKeyName     The group key under which this web service call falls
+     * @param requestCacheKey  The key under which the response is cached for the current request context
+     * @param httpRequest      Request method to be executed
+     * @param httpAsyncClient  HttpAsyncClient that executes the request, must already be started
+     * @param httpContext      Http request execution context
+     */
+    public CommandAsyncCachedRestResourceCall(final String groupKeyName,
+                                              final String commandName,
+                                              final String requestCacheKey,
+                                              final HttpRequestBase httpRequest,
+                                              final HttpAsyncClient httpAsyncClient,
+                                              final HttpContext httpContext) {
+
+        super(groupKeyName, commandName, httpRequest, httpAsyncClient, httpContext);
+
+        this.requestCacheKey = requestCacheKey;
+    }
+
+    @Override
+    protected String getCacheKey() {
+        return this.requestCacheKey;
+    }
+}
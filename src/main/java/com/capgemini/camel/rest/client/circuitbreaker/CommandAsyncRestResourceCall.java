@@ -0,0 +1,184 @@
+package com.capgemini.camel.rest.client.circuitbreaker;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+
+import com.capgemini.camel.rest.client.constants.RestRequestConfigurationDefaults;
+import com.capgemini.camel.rest.client.model.RestClientResponse;
+import com.netflix.hystrix.HystrixCommandGroupKey;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.HystrixObservableCommand;
+import com.netflix.hystrix.exception.HystrixBadRequestException;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rx.Observable;
+import rx.Subscriber;
+import rx.functions.Action0;
+import rx.subscriptions.Subscriptions;
+
+/**
+ * Netflix Hystrix Circuit Breaker wrapper for all non-blocking REST WebService calls.
+ * <p/>
+ * The request is handed over to an {@link HttpAsyncClient} and the response is emitted
+ * from its I/O dispatch thread, so no thread is held for the duration of the round trip.
+ * The command is isolated by a semaphore sized for many calls in flight, and runs under its own
+ * command key, <code>&lt;commandName&gt;.async</code>: Hystrix caches the properties of a command key
+ * on first use, so sharing the key of the thread isolated {@link CommandRestResourceCall} would let
+ * whichever variant runs first impose its isolation strategy on the other.
+ * <p/>
+ * https://github.com/Netflix/Hystrix
+ *
+ * @see com.netflix.hystrix.HystrixObservableCommand
+ *
+ * @author Abbas Attarwala
+ */
+public class CommandAsyncRestResourceCall extends HystrixObservableCommand<RestClientResponse> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommandAsyncRestResourceCall.class);
+
+    public static final String COMMAND_KEY_SUFFIX = ".async";
+
+    private final HttpAsyncClient httpAsyncClient;
+    private final String commandName;
+    private final HttpRequestBase httpRequest;
+    private final HttpContext httpContext;
+
+    /**
+     * Constructor for the non-blocking REST WebService HystrixObservableCommand class, passing in all the
+     * parameters to execute the call.
+     *
+     * @param commandName      String the web service call name used to create the Hystrix Command Key
+     * @param groupKeyName     The group key under which this web service call falls
+     * @param httpRequest      Request method to be executed
+     * @param httpAsyncClient  HttpAsyncClient that executes the request, must already be started
+     * @param httpContext      Http request execution context
+     */
+    public CommandAsyncRestResourceCall(final String groupKeyName,
+                                        final String commandName,
+                                        final HttpRequestBase httpRequest,
+                                        final HttpAsyncClient httpAsyncClient,
+                                        final HttpContext httpContext) {
+
+        this(groupKeyName, commandName, httpRequest, httpAsyncClient, httpContext,
+             RestRequestConfigurationDefaults.ASYNC_MAX_CONCURRENT_REQUESTS);
+    }
+
+    /**
+     * Constructor for the non-blocking REST WebService HystrixObservableCommand class, passing in all the
+     * parameters to execute the call.
+     *
+     * @param commandName           String the web service call name used to create the Hystrix Command Key
+     * @param groupKeyName          The group key under which this web service call falls
+     * @param httpRequest           Request method to be executed
+     * @param httpAsyncClient       HttpAsyncClient that executes the request, must already be started
+     * @param httpContext           Http request execution context
+     * @param maxConcurrentRequests How many calls of the command can be in flight, unless overridden by the
+     *                              <code>hystrix.command.&lt;commandName&gt;.async.execution.isolation.semaphore.maxConcurrentRequests</code> property
+     */
+    public CommandAsyncRestResourceCall(final String groupKeyName,
+                                        final String commandName,
+                                        final HttpRequestBase httpRequest,
+                                        final HttpAsyncClient httpAsyncClient,
+                                        final HttpContext httpContext,
+                                        final int maxConcurrentRequests) {
+
+        super(Setter.withGroupKey(HystrixCommandGroupKey.Factory.asKey(groupKeyName))
+                .andCommandKey(HystrixCommandKey.Factory.asKey(commandName + COMMAND_KEY_SUFFIX))
+                .andCommandPropertiesDefaults(HystrixCommandProperties.Setter()
+                        .withExecutionIsolationStrategy(HystrixCommandProperties.ExecutionIsolationStrategy.SEMAPHORE)
+                        .withExecutionIsolationSemaphoreMaxConcurrentRequests(maxConcurrentRequests)));
+
+        checkNullArguments(groupKeyName, commandName, httpRequest, httpAsyncClient, httpContext);
+
+        this.commandName = commandName;
+        this.httpRequest = httpRequest;
+        this.httpAsyncClient = httpAsyncClient;
+        this.httpContext = httpContext;
+    }
+
+    /**
+     * Execute the REST web service call without blocking.
+     * Unsubscribing (e.g. on a Hystrix timeout) cancels the underlying exchange.
+     *
+     * @return an Observable emitting the single response
+     */
+    @Override
+    protected Observable<RestClientResponse> construct() {
+        return Observable.create(new Observable.OnSubscribe<RestClientResponse>() {
+            @Override
+            public void call(final Subscriber<? super RestClientResponse> subscriber) {
+                LOGGER.debug("Executing {} non-blocking Circuit Breaker Command", commandName);
+
+                final Future<HttpResponse> exchange = httpAsyncClient.execute(httpRequest, httpContext,
+                        new FutureCallback<HttpResponse>() {
+                            @Override
+                            public void completed(HttpResponse httpResponse) {
+                                final RestClientResponse restClientResponse;
+                                try {
+                                    restClientResponse = HttpResponseProcessor.process(httpResponse, commandName);
+                                } catch (Exception ex) {
+                                    subscriber.onError(ex);
+                                    return;
+                                }
+                                subscriber.onNext(restClientResponse);
+                                subscriber.onCompleted();
+                            }
+
+                            @Override
+                            public void failed(Exception ex) {
+                                subscriber.onError(ex);
+                            }
+
+                            @Override
+                            public void cancelled() {
+                                subscriber.onError(new CancellationException("HTTP request to " + commandName + " was cancelled"));
+                            }
+                        });
+
+                subscriber.add(Subscriptions.create(new Action0() {
+                    @Override
+                    public void call() {
+                        exchange.cancel(true);
+                    }
+                }));
+            }
+        });
+    }
+
+    /**
+     * This method checks for null arguments
+     */
+    private void checkNullArguments(String groupKeyName,
+                                    String commandName,
+                                    HttpRequestBase httpRequest,
+                                    HttpAsyncClient httpAsyncClient,
+                                    HttpContext httpContext) {
+
+        if (groupKeyName == null) {
+            LOGGER.error("groupKeyName is null");
+            throw new HystrixBadRequestException("groupKeyName is null");
+        }
+        if (commandName == null) {
+            LOGGER.error("commandName is null");
+            throw new HystrixBadRequestException("commandName is null");
+        }
+        if (httpAsyncClient == null) {
+            LOGGER.error("httpAsyncClient is null");
+            throw new HystrixBadRequestException("httpAsyncClient is null");
+        }
+        if (httpRequest == null) {
+            LOGGER.error("httpRequest is null");
+            throw new HystrixBadRequestException("httpRequest is null");
+        }
+        if (httpContext == null) {
+            LOGGER.error("httpContext is null");
+            throw new HystrixBadRequestException("httpContext is null");
+        }
+    }
+}
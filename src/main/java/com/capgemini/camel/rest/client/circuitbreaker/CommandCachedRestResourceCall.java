@@ -1,5 +1,6 @@
 package com.capgemini.camel.rest.client.circuitbreaker;
 
+import com.capgemini.camel.rest.client.transport.RestTransport;
 import com.netflix.hystrix.HystrixCommand;
 import com.netflix.hystrix.HystrixCommandKey;
 import com.netflix.hystrix.HystrixRequestCache;
@@ -44,6 +45,27 @@ public class CommandCachedRestResourceCall extends CommandRestResourceCall {
         this.requestCacheKey = requestCacheKey;
     }
 
+    /**
+     * Constructor for REST WebService HystrixCommand class, sending the request through a transport.
+     *
+     * @param commandName  String the web service call name used to create the Hystrix Command Key
+     * @param groupKeyName The group key under which this web service call falls
+     * @param httpRequest  Request method to be executed
+     * @param transport    RestTransport that sends the request
+     * @param httpContext  Http request execution context
+     */
+    public CommandCachedRestResourceCall(final String groupKeyName,
+                                         final String commandName,
+                                         final String requestCacheKey,
+                                         final HttpRequestBase httpRequest,
+                                         final RestTransport transport,
+                                         final HttpContext httpContext) {
+
+        super(groupKeyName, commandName, httpRequest, transport, httpContext);
+
+        this.requestCacheKey = requestCacheKey;
+    }
+
     @Override
     protected String getCacheKey() {
         return this.requestCacheKey;
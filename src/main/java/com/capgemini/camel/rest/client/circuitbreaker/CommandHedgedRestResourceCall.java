@@ -0,0 +1,190 @@
+package com.capgemini.camel.rest.client.circuitbreaker;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.capgemini.camel.rest.client.connection.ConnectionLeaseTracker;
+import com.capgemini.camel.rest.client.model.RestClientResponse;
+import com.capgemini.camel.rest.client.transport.RestTransport;
+import com.capgemini.camel.rest.client.util.RequestBudget;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Netflix Hystrix Circuit Breaker wrapper for hedged GET calls.
+ * <p/>
+ * The request is sent from the Hystrix thread, and if no response has arrived after the hedge delay an identical
+ * request is sent as well, provided the {@link RequestBudget} allows it. The first successful response wins,
+ * the other request is aborted. The hedge requests run on a small shared pool of daemon threads: when all of them
+ * are busy the hedges wait for one, and are not sent at all if the first request completes meanwhile.
+ * The Hystrix timeout still applies to the call as a whole.
+ *
+ * @author Abbas Attarwala
+ */
+public class CommandHedgedRestResourceCall extends CommandRestResourceCall {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommandHedgedRestResourceCall.class);
+
+    private static final int HEDGE_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private static final ScheduledThreadPoolExecutor HEDGE_EXECUTOR = new ScheduledThreadPoolExecutor(HEDGE_THREADS, new ThreadFactory() {
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "rest-client-hedge-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    static {
+        // every call schedules a hedge which is cancelled when the first request completes in time
+        HEDGE_EXECUTOR.setRemoveOnCancelPolicy(true);
+    }
+
+    private static final int WAITING = 0;
+    private static final int HEDGING = 1;
+    private static final int SETTLED = 2;
+
+    private final RestTransport transport;
+    private final String commandName;
+    private final HttpRequestBase httpRequest;
+    private final long hedgeDelayMillis;
+    private final RequestBudget hedgeBudget;
+
+    /**
+     * @param groupKeyName     The group key under which this web service call falls
+     * @param commandName      String the web service call name used to create the Hystrix Command Key
+     * @param httpRequest      GET request to be executed
+     * @param transport        RestTransport that sends the requests
+     * @param hedgeDelayMillis How long to wait for a response before sending the hedge request
+     * @param hedgeBudget      The budget capping the number of hedge requests
+     */
+    public CommandHedgedRestResourceCall(final String groupKeyName,
+                                         final String commandName,
+                                         final HttpRequestBase httpRequest,
+                                         final RestTransport transport,
+                                         final long hedgeDelayMillis,
+                                         final RequestBudget hedgeBudget) {
+
+        super(groupKeyName, commandName, httpRequest, transport, HttpClientContext.create());
+
+        this.commandName = commandName;
+        this.httpRequest = httpRequest;
+        this.transport = transport;
+        this.hedgeDelayMillis = hedgeDelayMillis;
+        this.hedgeBudget = hedgeBudget;
+    }
+
+    /**
+     * Execute the REST web service call, hedging it if it is slow
+     *
+     * @return the first successful response
+     */
+    @Override
+    protected RestClientResponse run() throws Exception {
+        LOGGER.debug("Executing {} hedged Circuit Breaker Command", commandName);
+
+        final Hedge hedge = new Hedge(copy(httpRequest));
+        final ScheduledFuture<?> scheduledHedge = HEDGE_EXECUTOR.schedule(hedge, hedgeDelayMillis, TimeUnit.MILLISECONDS);
+
+        try {
+            final RestClientResponse response;
+            try {
+                response = send(httpRequest);
+            } catch (Exception ex) {
+                if (hedge.state.compareAndSet(WAITING, SETTLED)) {
+                    throw ex;
+                }
+                LOGGER.debug("The first request to {} resource failed, waiting for the hedge request", commandName);
+                RestClientResponse hedgeResponse = hedge.outcome.get();
+                if (hedgeResponse == null) {
+                    throw ex;
+                }
+                return hedgeResponse;
+            }
+            hedge.state.compareAndSet(WAITING, SETTLED);
+            if (hedge.decided.compareAndSet(false, true)) {
+                return response;
+            }
+            return hedge.outcome.get();
+        } finally {
+            scheduledHedge.cancel(false);
+            if (!hedge.won) {
+                hedge.request.abort();
+            }
+        }
+    }
+
+    /**
+     * The hedge request, sent if the first request has not completed after the hedge delay.
+     * Its outcome is the hedge response, or null if the hedge has not been sent, failed or lost.
+     */
+    private final class Hedge implements Runnable {
+
+        private final HttpRequestBase request;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private final AtomicBoolean decided = new AtomicBoolean();
+        private final CompletableFuture<RestClientResponse> outcome = new CompletableFuture<>();
+        private volatile boolean won;
+
+        private Hedge(HttpRequestBase request) {
+            this.request = request;
+        }
+
+        @Override
+        public void run() {
+            if (!state.compareAndSet(WAITING, HEDGING)) {
+                return;
+            }
+            if (!hedgeBudget.tryAcquire()) {
+                LOGGER.debug("Hedge budget of {} resource exhausted, waiting for the first request", commandName);
+                outcome.complete(null);
+                return;
+            }
+
+            LOGGER.debug("No response from {} resource after {} ms, sending a hedge request", commandName, hedgeDelayMillis);
+            try {
+                RestClientResponse response = send(request);
+                request.releaseConnection();
+                if (decided.compareAndSet(false, true)) {
+                    won = true;
+                    outcome.complete(response);
+                    httpRequest.abort();
+                    return;
+                }
+            } catch (Exception ex) {
+                LOGGER.debug("The hedge request to {} resource failed, waiting for the first request", commandName, ex);
+            }
+            outcome.complete(null);
+        }
+    }
+
+    private RestClientResponse send(HttpRequestBase request) throws Exception {
+        final String previousCommandName = ConnectionLeaseTracker.enterCommand(commandName);
+        try {
+            return processHttpResponse(transport.execute(request, HttpClientContext.create()));
+        } finally {
+            ConnectionLeaseTracker.exitCommand(previousCommandName);
+        }
+    }
+
+    /**
+     * Creates a request identical to the original GET request
+     */
+    private static HttpRequestBase copy(HttpRequestBase original) {
+        HttpGet copy = new HttpGet(original.getURI());
+        copy.setHeaders(original.getAllHeaders());
+        copy.setConfig(original.getConfig());
+        return copy;
+    }
+}
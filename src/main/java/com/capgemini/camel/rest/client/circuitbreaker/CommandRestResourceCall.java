@@ -1,27 +1,21 @@
 package com.capgemini.camel.rest.client.circuitbreaker;
 
-import java.io.IOException;
-
-import com.capgemini.camel.exception.rest.JsonReadException;
+import com.capgemini.camel.rest.client.connection.ConnectionLeaseTracker;
 import com.capgemini.camel.rest.client.model.RestClientResponse;
+import com.capgemini.camel.rest.client.transport.ApacheHttpTransport;
+import com.capgemini.camel.rest.client.transport.RestTransport;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.netflix.hystrix.HystrixCommand;
 import com.netflix.hystrix.HystrixCommandGroupKey;
 import com.netflix.hystrix.HystrixCommandKey;
 import com.netflix.hystrix.exception.HystrixBadRequestException;
-import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
-import org.apache.http.HttpStatus;
-import org.apache.http.ParseException;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.protocol.HttpContext;
-import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static com.capgemini.camel.exception.rest.ErrorScenario.JSON_READ_FAILED;
-import static com.capgemini.camel.exception.rest.ErrorScenario.NULL_HTTP_RESPONSE;
-
 /**
  * Netflix Hystrix Circuit Breaker wrapper for all REST WebService calls
  * <p/>
@@ -37,7 +31,7 @@ public class CommandRestResourceCall extends HystrixCommand<RestClientResponse>
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CommandRestResourceCall.class);
 
-    private final HttpClient httpClient;
+    private final RestTransport transport;
     private final String commandName;
     private final HttpRequestBase httpRequest;
     private final HttpContext httpContext;
@@ -58,14 +52,32 @@ public class CommandRestResourceCall extends HystrixCommand<RestClientResponse>
                                    final HttpClient httpClient,
                                    final HttpContext httpContext) {
 
+        this(groupKeyName, commandName, httpRequest, httpClient == null ? null : new ApacheHttpTransport(httpClient), httpContext);
+    }
+
+    /**
+     * Constructor for REST WebService HystrixCommand class, sending the request through a transport.
+     *
+     * @param commandName  String the web service call name used to create the Hystrix Command Key
+     * @param groupKeyName The group key under which this web service call falls
+     * @param httpRequest  Request method to be executed
+     * @param transport    RestTransport that sends the request
+     * @param httpContext  Http request execution context
+     */
+    public CommandRestResourceCall(final String groupKeyName,
+                                   final String commandName,
+                                   final HttpRequestBase httpRequest,
+                                   final RestTransport transport,
+                                   final HttpContext httpContext) {
+
         super(Setter.withGroupKey(HystrixCommandGroupKey.Factory.asKey(groupKeyName))
                 .andCommandKey(HystrixCommandKey.Factory.asKey(commandName)));
 
-        checkNullArguments(groupKeyName, commandName, httpRequest, httpClient, httpContext);
+        checkNullArguments(groupKeyName, commandName, httpRequest, transport, httpContext);
 
         this.commandName = commandName;
         this.httpRequest = httpRequest;
-        this.httpClient = httpClient;
+        this.transport = transport;
         this.httpContext = httpContext;
     }
 
@@ -79,9 +91,20 @@ public class CommandRestResourceCall extends HystrixCommand<RestClientResponse>
     @Override
     protected RestClientResponse run() throws Exception {
         LOGGER.debug("Executing {} Circuit Breaker Command", commandName);
-        final HttpResponse httpResponse = httpClient.execute(httpRequest, httpContext);
-
-        return processHttpResponse(httpResponse);
+        final String previousCommandName = ConnectionLeaseTracker.enterCommand(commandName);
+        try {
+            final HttpResponse httpResponse;
+            try {
+                httpResponse = transport.execute(httpRequest, httpContext);
+            } catch (JsonProcessingException jpe) {
+                // a payload which cannot be serialized is a fault of the caller, not of the REST resource
+                throw new HystrixBadRequestException("Request payload of " + commandName + " could not be serialized", jpe);
+            }
+
+            return processHttpResponse(httpResponse);
+        } finally {
+            ConnectionLeaseTracker.exitCommand(previousCommandName);
+        }
     }
 
     /**
@@ -89,32 +112,7 @@ public class CommandRestResourceCall extends HystrixCommand<RestClientResponse>
      *  @param httpResponse The HttpResponse returned
      */
     protected RestClientResponse processHttpResponse(HttpResponse httpResponse) throws Exception {
-
-        final String json;
-
-        if (httpResponse == null) {
-            LOGGER.error(NULL_HTTP_RESPONSE.getLogMessage(commandName));
-            throw new JsonReadException(NULL_HTTP_RESPONSE);
-        }
-
-        final int httpStatusCode = httpResponse.getStatusLine().getStatusCode();
-        if (httpStatusCode == HttpStatus.SC_NO_CONTENT && httpResponse.getEntity() == null) {
-            LOGGER.debug("Http No Content response from the {} resource with null payload.", commandName);
-            return null;
-        }
-
-        LOGGER.debug("HTTP status code returned by the REST resource is --> {}", httpStatusCode);
-        HttpEntity entity = httpResponse.getEntity();
-
-        try {
-            json = EntityUtils.toString(entity, "UTF-8");
-            LOGGER.debug(httpResponse.getStatusLine().toString());
-        } catch (ParseException | IllegalArgumentException | IOException ex) {
-            LOGGER.error(JSON_READ_FAILED.getLogMessage(commandName), ex);
-            throw new JsonReadException(JSON_READ_FAILED, ex);
-        }
-
-        return new RestClientResponse(json, httpStatusCode, httpResponse.getAllHeaders());
+        return HttpResponseProcessor.process(httpResponse, commandName);
     }
 
     /**
@@ -123,7 +121,7 @@ public class CommandRestResourceCall extends HystrixCommand<RestClientResponse>
     private void checkNullArguments(String groupKeyName,
                                     String commandName,
                                     HttpRequestBase httpRequest,
-                                    HttpClient httpClient,
+                                    RestTransport transport,
                                     HttpContext httpContext) {
 
         if (groupKeyName == null) {
@@ -134,7 +132,7 @@ public class CommandRestResourceCall extends HystrixCommand<RestClientResponse>
             LOGGER.error("commandName is null");
             throw new HystrixBadRequestException("groupKeyName is null");
         }
-        if (httpClient == null) {
+        if (transport == null) {
             LOGGER.error("httpClient is null");
             throw new HystrixBadRequestException("httpClient is null");
         }
@@ -0,0 +1,156 @@
+package com.capgemini.camel.rest.client.circuitbreaker;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.capgemini.camel.rest.client.RestResponseHandler;
+import com.capgemini.camel.rest.client.connection.ConnectionLeaseTracker;
+import com.capgemini.camel.rest.client.model.RestClientResponse;
+import com.capgemini.camel.rest.client.transport.RestTransport;
+import com.netflix.hystrix.HystrixCommand;
+import com.netflix.hystrix.HystrixCommandGroupKey;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.exception.HystrixBadRequestException;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Netflix Hystrix Circuit Breaker wrapper for REST WebService calls whose successful
+ * responses are consumed as a stream by a {@link RestResponseHandler}.
+ * <p/>
+ * Failure responses (HTTP status code 400 and above) are not handed to the handler, their payload
+ * is buffered into a {@link RestClientResponse} so that they are classified like any other response.
+ * Once the handler has returned the rest of the payload is consumed, which gives the connection back
+ * to the pool. If the handler fails the request is aborted instead, so that an unread payload is
+ * never downloaded just to release the connection.
+ *
+ * @param <T> the type of the value produced by the handler
+ *
+ * @author Abbas Attarwala
+ */
+public class CommandStreamingRestResourceCall<T> extends HystrixCommand<CommandStreamingRestResourceCall.Result<T>> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommandStreamingRestResourceCall.class);
+
+    private final RestTransport transport;
+    private final String commandName;
+    private final HttpRequestBase httpRequest;
+    private final HttpContext httpContext;
+    private final RestResponseHandler<T> responseHandler;
+
+    /**
+     * @param groupKeyName    The group key under which this web service call falls
+     * @param commandName     String the web service call name used to create the Hystrix Command Key
+     * @param httpRequest     Request method to be executed
+     * @param transport       RestTransport that sends the request
+     * @param httpContext     Http request execution context
+     * @param responseHandler Handler consuming the payload of a successful response
+     */
+    public CommandStreamingRestResourceCall(final String groupKeyName,
+                                            final String commandName,
+                                            final HttpRequestBase httpRequest,
+                                            final RestTransport transport,
+                                            final HttpContext httpContext,
+                                            final RestResponseHandler<T> responseHandler) {
+
+        super(Setter.withGroupKey(HystrixCommandGroupKey.Factory.asKey(groupKeyName))
+                .andCommandKey(HystrixCommandKey.Factory.asKey(commandName)));
+
+        if (groupKeyName == null || commandName == null || httpRequest == null
+                || transport == null || httpContext == null || responseHandler == null) {
+            LOGGER.error("Null argument passed to the {} streaming command", commandName);
+            throw new HystrixBadRequestException("groupKeyName, commandName, httpRequest, transport, "
+                    + "httpContext and responseHandler are mandatory");
+        }
+
+        this.commandName = commandName;
+        this.httpRequest = httpRequest;
+        this.transport = transport;
+        this.httpContext = httpContext;
+        this.responseHandler = responseHandler;
+    }
+
+    /**
+     * Execute the REST web service call and stream the response to the handler
+     *
+     * @return the value produced by the handler, or the buffered failure response
+     */
+    @Override
+    protected Result<T> run() throws Exception {
+        LOGGER.debug("Executing {} streaming Circuit Breaker Command", commandName);
+        final String previousCommandName = ConnectionLeaseTracker.enterCommand(commandName);
+        try {
+            return streamHttpResponse(HttpResponseProcessor.requireResponse(
+                    transport.execute(httpRequest, httpContext), commandName));
+        } finally {
+            ConnectionLeaseTracker.exitCommand(previousCommandName);
+        }
+    }
+
+    /**
+     * Buffers a failure response, or hands a successful one to the handler
+     */
+    private Result<T> streamHttpResponse(HttpResponse httpResponse) throws Exception {
+
+        final int httpStatusCode = httpResponse.getStatusLine().getStatusCode();
+        if (httpStatusCode >= 400) {
+            return Result.failed(HttpResponseProcessor.process(httpResponse, commandName));
+        }
+
+        final HttpEntity entity = HttpResponseProcessor.decompress(httpResponse, commandName);
+        final InputStream body = entity == null ? new ByteArrayInputStream(new byte[0]) : entity.getContent();
+
+        try {
+            T value = responseHandler.handleResponse(httpStatusCode, httpResponse.getAllHeaders(), body);
+            EntityUtils.consume(entity);
+            return Result.handled(value);
+        } catch (IOException ex) {
+            httpRequest.abort();
+            throw ex;
+        } catch (Exception ex) {
+            httpRequest.abort();
+            LOGGER.debug("Response handler of the {} resource failed, the request has been aborted.", commandName);
+            throw new HystrixBadRequestException("Response handler of the " + commandName + " resource failed", ex);
+        }
+    }
+
+    /**
+     * The outcome of a streaming call: either the value produced by the handler,
+     * or the buffered payload of a failure response.
+     */
+    public static final class Result<T> {
+
+        private final T value;
+        private final RestClientResponse failureResponse;
+
+        private Result(T value, RestClientResponse failureResponse) {
+            this.value = value;
+            this.failureResponse = failureResponse;
+        }
+
+        static <T> Result<T> handled(T value) {
+            return new Result<>(value, null);
+        }
+
+        static <T> Result<T> failed(RestClientResponse failureResponse) {
+            return new Result<>(null, failureResponse);
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        /**
+         * @return the buffered failure response, null if the response was handed to the handler
+         */
+        public RestClientResponse getFailureResponse() {
+            return failureResponse;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.capgemini.camel.rest.client.circuitbreaker;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import com.capgemini.camel.exception.rest.JsonReadException;
+import com.capgemini.camel.rest.client.model.RestClientResponse;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.ParseException;
+import org.apache.http.client.entity.DeflateDecompressingEntity;
+import org.apache.http.client.entity.GzipDecompressingEntity;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.capgemini.camel.exception.rest.ErrorScenario.JSON_READ_FAILED;
+import static com.capgemini.camel.exception.rest.ErrorScenario.NULL_HTTP_RESPONSE;
+
+/**
+ * Turns a raw {@link HttpResponse} into a {@link RestClientResponse}.
+ * Shared by the blocking and the non-blocking circuit breaker commands so that
+ * both produce exactly the same responses and failures.
+ *
+ * @author Abbas Attarwala
+ */
+final class HttpResponseProcessor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpResponseProcessor.class);
+
+    /**
+     * Private constructor
+     */
+    private HttpResponseProcessor() {
+        throw new RuntimeException("This is a non-instantiable class");
+    }
+
+    /**
+     * Extracts the JSON string, the HTTP status code and the headers from the HTTP response.
+     *
+     * @param httpResponse The HttpResponse returned
+     * @param commandName  The Hystrix command name
+     * @return             The response, or null for a No Content response with a null payload.
+     *                     A Not Modified response without payload has a null JSON string
+     * @throws JsonReadException if the response is null or its payload cannot be read
+     */
+    static RestClientResponse process(HttpResponse httpResponse, String commandName) throws JsonReadException {
+
+        final String json;
+
+        requireResponse(httpResponse, commandName);
+
+        final int httpStatusCode = httpResponse.getStatusLine().getStatusCode();
+        if (httpStatusCode == HttpStatus.SC_NO_CONTENT && httpResponse.getEntity() == null) {
+            LOGGER.debug("Http No Content response from the {} resource with null payload.", commandName);
+            return null;
+        }
+        if (httpStatusCode == HttpStatus.SC_NOT_MODIFIED && httpResponse.getEntity() == null) {
+            LOGGER.debug("Http Not Modified response from the {} resource.", commandName);
+            return new RestClientResponse(null, httpStatusCode, httpResponse.getAllHeaders());
+        }
+
+        LOGGER.debug("HTTP status code returned by the REST resource is --> {}", httpStatusCode);
+        HttpEntity entity = decompress(httpResponse, commandName);
+
+        try {
+            json = EntityUtils.toString(entity, "UTF-8");
+            LOGGER.debug(httpResponse.getStatusLine().toString());
+        } catch (ParseException | IllegalArgumentException | IOException ex) {
+            LOGGER.error(JSON_READ_FAILED.getLogMessage(commandName), ex);
+            throw new JsonReadException(JSON_READ_FAILED, ex);
+        }
+
+        return new RestClientResponse(json, httpStatusCode, httpResponse.getAllHeaders());
+    }
+
+    /**
+     * Wraps the payload of a compressed response in an entity decompressing it while it is read.
+     * Responses already decompressed by the HTTP client no longer carry a <code>Content-Encoding</code>
+     * header and are returned unchanged, as are responses with an encoding which is not supported.
+     *
+     * @return the (decompressing) payload of the response, null if it has none
+     */
+    static HttpEntity decompress(HttpResponse httpResponse, String commandName) {
+        HttpEntity entity = httpResponse.getEntity();
+        if (entity == null || entity.getContentEncoding() == null) {
+            return entity;
+        }
+
+        String contentEncoding = entity.getContentEncoding().getValue().trim().toLowerCase(Locale.ENGLISH);
+        if ("gzip".equals(contentEncoding) || "x-gzip".equals(contentEncoding)) {
+            entity = new GzipDecompressingEntity(entity);
+        } else if ("deflate".equals(contentEncoding)) {
+            entity = new DeflateDecompressingEntity(entity);
+        } else {
+            return entity;
+        }
+
+        LOGGER.debug("Decompressing the {} encoded response of {} resource", contentEncoding, commandName);
+        httpResponse.setEntity(entity);
+        httpResponse.removeHeaders(HttpHeaders.CONTENT_ENCODING);
+        httpResponse.removeHeaders(HttpHeaders.CONTENT_LENGTH);
+        return entity;
+    }
+
+    /**
+     * @return the HTTP response, if it is not null
+     * @throws JsonReadException if the response is null
+     */
+    static HttpResponse requireResponse(HttpResponse httpResponse, String commandName) throws JsonReadException {
+        if (httpResponse == null) {
+            LOGGER.error(NULL_HTTP_RESPONSE.getLogMessage(commandName));
+            throw new JsonReadException(NULL_HTTP_RESPONSE);
+        }
+        return httpResponse;
+    }
+}
@@ -0,0 +1,166 @@
+package com.capgemini.camel.rest.client.circuitbreaker;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.hystrix.HystrixCommandMetrics;
+import com.netflix.hystrix.HystrixThreadPoolKey;
+import com.netflix.hystrix.HystrixThreadPoolProperties;
+import com.netflix.hystrix.strategy.HystrixPlugins;
+import com.netflix.hystrix.strategy.concurrency.HystrixConcurrencyStrategy;
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestVariable;
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestVariableLifecycle;
+import com.netflix.hystrix.strategy.eventnotifier.HystrixEventNotifier;
+import com.netflix.hystrix.strategy.executionhook.HystrixCommandExecutionHook;
+import com.netflix.hystrix.strategy.metrics.HystrixMetricsPublisher;
+import com.netflix.hystrix.strategy.properties.HystrixPropertiesStrategy;
+import com.netflix.hystrix.strategy.properties.HystrixProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A Hystrix concurrency strategy running the thread isolated commands on virtual threads (JDK 21+).
+ * <p/>
+ * Only the threads change: each Hystrix thread pool is still a {@link ThreadPoolExecutor} sized by the
+ * <code>hystrix.threadpool.*</code> properties, so isolation, rejections, metrics and timeouts behave as
+ * before, and the request context is still propagated by Hystrix onto the command threads. Since a blocked
+ * virtual thread costs a few hundred bytes instead of a platform thread, the pools of I/O bound group keys
+ * can be sized in the thousands.
+ * <p/>
+ * The strategy must be registered with {@link #register()} before the first command is created, the
+ * thread pools being created once: registering it later fails rather than leaving the existing pools on
+ * platform threads. Every other call is delegated to the strategy previously registered.
+ *
+ * @author Abbas Attarwala
+ */
+public class VirtualThreadConcurrencyStrategy extends HystrixConcurrencyStrategy {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadConcurrencyStrategy.class);
+
+    private final HystrixConcurrencyStrategy delegate;
+
+    public VirtualThreadConcurrencyStrategy(HystrixConcurrencyStrategy delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Registers the strategy with Hystrix, wrapping the strategy currently registered.
+     * The other Hystrix plugins are kept.
+     *
+     * @return TRUE if commands will run on virtual threads, FALSE if the JVM does not support them
+     * @throws IllegalStateException if a Hystrix command has already been created
+     */
+    public static synchronized boolean register() {
+        if (!isSupported()) {
+            LOGGER.warn("Virtual threads are not supported by this JVM, Hystrix commands keep running on platform threads");
+            return false;
+        }
+
+        HystrixPlugins plugins = HystrixPlugins.getInstance();
+        HystrixConcurrencyStrategy concurrencyStrategy = plugins.getConcurrencyStrategy();
+        if (concurrencyStrategy instanceof VirtualThreadConcurrencyStrategy) {
+            return true;
+        }
+        if (!HystrixCommandMetrics.getInstances().isEmpty()) {
+            throw new IllegalStateException("Hystrix commands have already been created, "
+                    + "the virtual thread strategy must be registered before the first command");
+        }
+
+        HystrixEventNotifier eventNotifier = plugins.getEventNotifier();
+        HystrixMetricsPublisher metricsPublisher = plugins.getMetricsPublisher();
+        HystrixPropertiesStrategy propertiesStrategy = plugins.getPropertiesStrategy();
+        HystrixCommandExecutionHook commandExecutionHook = plugins.getCommandExecutionHook();
+
+        HystrixPlugins.reset();
+
+        plugins = HystrixPlugins.getInstance();
+        plugins.registerConcurrencyStrategy(new VirtualThreadConcurrencyStrategy(concurrencyStrategy));
+        plugins.registerEventNotifier(eventNotifier);
+        plugins.registerMetricsPublisher(metricsPublisher);
+        plugins.registerPropertiesStrategy(propertiesStrategy);
+        plugins.registerCommandExecutionHook(commandExecutionHook);
+
+        LOGGER.info("Hystrix commands now run on virtual threads");
+        return true;
+    }
+
+    /**
+     * @return TRUE if the JVM can create virtual threads
+     */
+    public static boolean isSupported() {
+        try {
+            createVirtualThreadFactory("hystrix-virtual-thread-support-check-");
+            return true;
+        } catch (Exception | LinkageError ex) {
+            return false;
+        }
+    }
+
+    @Override
+    public ThreadPoolExecutor getThreadPool(HystrixThreadPoolKey threadPoolKey,
+                                            HystrixProperty<Integer> corePoolSize,
+                                            HystrixProperty<Integer> maximumPoolSize,
+                                            HystrixProperty<Integer> keepAliveTime,
+                                            TimeUnit unit,
+                                            BlockingQueue<Runnable> workQueue) {
+        int coreSize = corePoolSize.get();
+        int maximumSize = Math.max(coreSize, maximumPoolSize.get());
+        return new ThreadPoolExecutor(coreSize, maximumSize, keepAliveTime.get(), unit, workQueue,
+                                      threadFactory(threadPoolKey));
+    }
+
+    @Override
+    public ThreadPoolExecutor getThreadPool(HystrixThreadPoolKey threadPoolKey,
+                                            HystrixThreadPoolProperties threadPoolProperties) {
+        int coreSize = threadPoolProperties.coreSize().get();
+        int maximumSize = coreSize;
+        if (threadPoolProperties.getAllowMaximumSizeToDivergeFromCoreSize().get()) {
+            maximumSize = Math.max(coreSize, threadPoolProperties.maximumSize().get());
+        }
+        return new ThreadPoolExecutor(coreSize,
+                                      maximumSize,
+                                      threadPoolProperties.keepAliveTimeMinutes().get(),
+                                      TimeUnit.MINUTES,
+                                      getBlockingQueue(threadPoolProperties.maxQueueSize().get()),
+                                      threadFactory(threadPoolKey));
+    }
+
+    @Override
+    public BlockingQueue<Runnable> getBlockingQueue(int maxQueueSize) {
+        return delegate.getBlockingQueue(maxQueueSize);
+    }
+
+    @Override
+    public <T> Callable<T> wrapCallable(Callable<T> callable) {
+        return delegate.wrapCallable(callable);
+    }
+
+    @Override
+    public <T> HystrixRequestVariable<T> getRequestVariable(HystrixRequestVariableLifecycle<T> rv) {
+        return delegate.getRequestVariable(rv);
+    }
+
+    private static ThreadFactory threadFactory(HystrixThreadPoolKey threadPoolKey) {
+        try {
+            return createVirtualThreadFactory("hystrix-" + threadPoolKey.name() + "-");
+        } catch (Exception ex) {
+            throw new IllegalStateException("Virtual thread factory could not be created", ex);
+        }
+    }
+
+    /**
+     * <code>Thread.ofVirtual().name(prefix, 0).factory()</code>, through reflection
+     * so that the library can still be built and run on older JDKs.
+     */
+    private static ThreadFactory createVirtualThreadFactory(String namePrefix) throws Exception {
+        Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+        Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+        Method name = builderType.getMethod("name", String.class, long.class);
+        builder = name.invoke(builder, namePrefix, 0L);
+        return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+    }
+}
@@ -0,0 +1,121 @@
+package com.capgemini.camel.rest.client.config;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.netflix.config.ConfigurationManager;
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.apache.commons.configuration.event.ConfigurationEvent;
+import org.apache.commons.configuration.event.ConfigurationListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Applies the Hystrix properties of a command to the command keys of its endpoints.
+ * <p/>
+ * A client with several endpoints runs each request under the command key of the chosen endpoint,
+ * <code>&lt;commandName&gt;@&lt;host&gt;</code>, for which Hystrix only reads
+ * <code>hystrix.command.&lt;commandName&gt;@&lt;host&gt;.*</code>. Once an endpoint command key has been
+ * {@link #bridge(String, String) bridged}, every <code>hystrix.command.&lt;commandName&gt;.*</code> property is
+ * copied onto it through Archaius, at once and whenever the property is set or cleared afterwards, so that
+ * the settings of the command keep applying to each endpoint. A property set for an endpoint command key
+ * before it is bridged is kept until the same property of the command changes.
+ *
+ * @author Abbas Attarwala
+ */
+public final class EndpointCommandProperties {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EndpointCommandProperties.class);
+
+    private static final String HYSTRIX_COMMAND_PREFIX = "hystrix.command.";
+
+    private static final ConcurrentMap<String, Set<String>> ENDPOINT_COMMANDS = new ConcurrentHashMap<>();
+
+    static {
+        ConfigurationManager.getConfigInstance().addConfigurationListener(new ConfigurationListener() {
+            @Override
+            public void configurationChanged(ConfigurationEvent event) {
+                String propertyName = event.getPropertyName();
+                if (event.isBeforeUpdate() || propertyName == null || !propertyName.startsWith(HYSTRIX_COMMAND_PREFIX)) {
+                    return;
+                }
+                for (String commandName : ENDPOINT_COMMANDS.keySet()) {
+                    String commandPrefix = propertyPrefix(commandName);
+                    if (propertyName.startsWith(commandPrefix)) {
+                        copy(propertyName.substring(commandPrefix.length()), commandName, ENDPOINT_COMMANDS.get(commandName));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Private constructor
+     */
+    private EndpointCommandProperties() {
+        throw new RuntimeException("This is a non-instantiable class");
+    }
+
+    /**
+     * Makes the Hystrix properties of a command apply to the command key of one of its endpoints
+     *
+     * @param commandName         The Hystrix command name
+     * @param endpointCommandName The Hystrix command name of the endpoint, <code>&lt;commandName&gt;@&lt;host&gt;</code>
+     */
+    public static void bridge(String commandName, String endpointCommandName) {
+        Set<String> endpointCommandNames = ENDPOINT_COMMANDS.get(commandName);
+        if (endpointCommandNames != null && endpointCommandNames.contains(endpointCommandName)) {
+            return;
+        }
+        if (endpointCommandNames == null) {
+            Set<String> created = ConcurrentHashMap.newKeySet();
+            endpointCommandNames = ENDPOINT_COMMANDS.putIfAbsent(commandName, created);
+            if (endpointCommandNames == null) {
+                endpointCommandNames = created;
+            }
+        }
+        if (!endpointCommandNames.add(endpointCommandName)) {
+            return;
+        }
+
+        LOGGER.debug("Applying the Hystrix properties of {} to {}", commandName, endpointCommandName);
+        final AbstractConfiguration configuration = ConfigurationManager.getConfigInstance();
+        final String commandPrefix = propertyPrefix(commandName);
+        final List<String> propertyNames = new ArrayList<>();
+        for (Iterator<String> keys = configuration.getKeys(); keys.hasNext(); ) {
+            String propertyName = keys.next();
+            if (propertyName.startsWith(commandPrefix)) {
+                propertyNames.add(propertyName);
+            }
+        }
+        for (String propertyName : propertyNames) {
+            String endpointPropertyName = propertyPrefix(endpointCommandName) + propertyName.substring(commandPrefix.length());
+            if (!configuration.containsKey(endpointPropertyName)) {
+                configuration.setProperty(endpointPropertyName, configuration.getProperty(propertyName));
+            }
+        }
+    }
+
+    /**
+     * Copies the current value of a property of the command onto its endpoint command keys, clearing them if it has none
+     */
+    private static void copy(String property, String commandName, Set<String> endpointCommandNames) {
+        final AbstractConfiguration configuration = ConfigurationManager.getConfigInstance();
+        final Object value = configuration.getProperty(propertyPrefix(commandName) + property);
+        for (String endpointCommandName : endpointCommandNames) {
+            if (value == null) {
+                configuration.clearProperty(propertyPrefix(endpointCommandName) + property);
+            } else {
+                configuration.setProperty(propertyPrefix(endpointCommandName) + property, value);
+            }
+        }
+    }
+
+    private static String propertyPrefix(String commandName) {
+        return HYSTRIX_COMMAND_PREFIX + commandName + ".";
+    }
+}
@@ -0,0 +1,58 @@
+package com.capgemini.camel.rest.client.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.netflix.config.ConfigurationManager;
+import org.apache.commons.configuration.event.ConfigurationEvent;
+import org.apache.commons.configuration.event.ConfigurationListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks changes to the REST client properties (every property starting with <code>http.</code>)
+ * made through Archaius.
+ * <p/>
+ * Configuration derived from these properties can be computed once, tagged with the current
+ * {@link #getVersion() version} and reused for as long as the version does not change,
+ * which keeps hot reloading working without resolving the properties on every call.
+ *
+ * @author Abbas Attarwala
+ */
+public final class PropertyChangeTracker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PropertyChangeTracker.class);
+
+    private static final String TRACKED_PROPERTY_PREFIX = "http.";
+
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    static {
+        ConfigurationManager.getConfigInstance().addConfigurationListener(new ConfigurationListener() {
+            @Override
+            public void configurationChanged(ConfigurationEvent event) {
+                if (event.isBeforeUpdate()) {
+                    return;
+                }
+                String propertyName = event.getPropertyName();
+                if (propertyName == null || propertyName.startsWith(TRACKED_PROPERTY_PREFIX)) {
+                    LOGGER.debug("REST client property {} changed, invalidating the derived configuration", propertyName);
+                    VERSION.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    /**
+     * Private constructor
+     */
+    private PropertyChangeTracker() {
+        throw new RuntimeException("This is a non-instantiable class");
+    }
+
+    /**
+     * @return the current version of the REST client properties, incremented whenever one of them changes
+     */
+    public static long getVersion() {
+        return VERSION.get();
+    }
+}
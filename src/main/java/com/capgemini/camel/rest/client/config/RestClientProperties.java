@@ -0,0 +1,236 @@
+package com.capgemini.camel.rest.client.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.netflix.config.DynamicPropertyFactory;
+
+/**
+ * Resolves the REST client configuration properties of a group key through Archaius.
+ *
+ * First priority is given to the resource specific property <code>http.request.&lt;commandName&gt;.&lt;name&gt;</code>,
+ * second priority to the service/API specific property <code>http.request.&lt;groupKeyName&gt;.&lt;name&gt;</code>,
+ * and the supplied default is the last fallback.
+ * Command names which have been prefixed with the group key name are resolved under their unprefixed name,
+ * so the same properties apply whether or not the client prepends the group key name to its command keys.
+ * Likewise the per-endpoint command names (<code>&lt;commandName&gt;@&lt;host&gt;</code>) are resolved under the command name.
+ * <p/>
+ * The resolved values are kept per command and property name and reused until the REST client properties change
+ * (see {@link PropertyChangeTracker}), the calls on the hot path neither create Archaius properties nor build
+ * property names.
+ *
+ * @author Abbas Attarwala
+ */
+public class RestClientProperties {
+
+    public static final String PROPERTY_PREFIX = "http.request.";
+    public static final String ENDPOINT_SEPARATOR = "@";
+
+    private static final String GROUP_SCOPE = "";
+
+    private final String groupKeyPropertyPrefix;
+    private final String commandNamePrefix;
+
+    private final ConcurrentMap<String, ConcurrentMap<String, ResolvedProperty>> resolvedProperties = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, ResolvedProperty>> resolvedCommandProperties = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the property resolver for a REST API
+     *
+     * @param groupKeyName  The Hystrix groupKey name
+     */
+    public RestClientProperties(String groupKeyName) {
+        this.groupKeyPropertyPrefix = PROPERTY_PREFIX + groupKeyName + ".";
+        this.commandNamePrefix = groupKeyName + ".";
+    }
+
+    public int getInt(String commandName, String name, int defaultValue) {
+        final long propertiesVersion = PropertyChangeTracker.getVersion();
+        ResolvedProperty property = get(resolvedProperties, commandName, name);
+        if (property == null || !property.isCurrent(propertiesVersion, defaultValue, null, Integer.class)) {
+            DynamicPropertyFactory propertyFactory = DynamicPropertyFactory.getInstance();
+            int value = propertyFactory.getIntProperty(commandPropertyName(commandName, name),
+                    propertyFactory.getIntProperty(groupKeyPropertyPrefix + name, defaultValue).getValue()).getValue();
+            property = put(resolvedProperties, commandName, name, new ResolvedProperty(propertiesVersion, defaultValue, null, value));
+        }
+        return (Integer) property.value;
+    }
+
+    public long getLong(String commandName, String name, long defaultValue) {
+        final long propertiesVersion = PropertyChangeTracker.getVersion();
+        ResolvedProperty property = get(resolvedProperties, commandName, name);
+        if (property == null || !property.isCurrent(propertiesVersion, defaultValue, null, Long.class)) {
+            DynamicPropertyFactory propertyFactory = DynamicPropertyFactory.getInstance();
+            long value = propertyFactory.getLongProperty(commandPropertyName(commandName, name),
+                    propertyFactory.getLongProperty(groupKeyPropertyPrefix + name, defaultValue).getValue()).getValue();
+            property = put(resolvedProperties, commandName, name, new ResolvedProperty(propertiesVersion, defaultValue, null, value));
+        }
+        return (Long) property.value;
+    }
+
+    public boolean getBoolean(String commandName, String name, boolean defaultValue) {
+        final long propertiesVersion = PropertyChangeTracker.getVersion();
+        ResolvedProperty property = get(resolvedProperties, commandName, name);
+        if (property == null || !property.isCurrent(propertiesVersion, defaultValue ? 1 : 0, null, Boolean.class)) {
+            DynamicPropertyFactory propertyFactory = DynamicPropertyFactory.getInstance();
+            boolean value = propertyFactory.getBooleanProperty(commandPropertyName(commandName, name),
+                    propertyFactory.getBooleanProperty(groupKeyPropertyPrefix + name, defaultValue).getValue()).getValue();
+            property = put(resolvedProperties, commandName, name, new ResolvedProperty(propertiesVersion, defaultValue ? 1 : 0, null, value));
+        }
+        return (Boolean) property.value;
+    }
+
+    public double getDouble(String commandName, String name, double defaultValue) {
+        final long propertiesVersion = PropertyChangeTracker.getVersion();
+        final long defaultBits = Double.doubleToLongBits(defaultValue);
+        ResolvedProperty property = get(resolvedProperties, commandName, name);
+        if (property == null || !property.isCurrent(propertiesVersion, defaultBits, null, Double.class)) {
+            DynamicPropertyFactory propertyFactory = DynamicPropertyFactory.getInstance();
+            double value = propertyFactory.getDoubleProperty(commandPropertyName(commandName, name),
+                    propertyFactory.getDoubleProperty(groupKeyPropertyPrefix + name, defaultValue).getValue()).getValue();
+            property = put(resolvedProperties, commandName, name, new ResolvedProperty(propertiesVersion, defaultBits, null, value));
+        }
+        return (Double) property.value;
+    }
+
+    public String getString(String commandName, String name, String defaultValue) {
+        final long propertiesVersion = PropertyChangeTracker.getVersion();
+        ResolvedProperty property = get(resolvedProperties, commandName, name);
+        if (property == null || !property.isCurrent(propertiesVersion, 0, defaultValue, String.class)) {
+            DynamicPropertyFactory propertyFactory = DynamicPropertyFactory.getInstance();
+            String value = propertyFactory.getStringProperty(commandPropertyName(commandName, name),
+                    propertyFactory.getStringProperty(groupKeyPropertyPrefix + name, defaultValue).getValue()).getValue();
+            property = put(resolvedProperties, commandName, name, new ResolvedProperty(propertiesVersion, 0, defaultValue, value));
+        }
+        return (String) property.value;
+    }
+
+    /**
+     * Resolves a property which can only be set at group key level
+     */
+    public int getGroupInt(String name, int defaultValue) {
+        final long propertiesVersion = PropertyChangeTracker.getVersion();
+        ResolvedProperty property = get(resolvedProperties, GROUP_SCOPE, name);
+        if (property == null || !property.isCurrent(propertiesVersion, defaultValue, null, Integer.class)) {
+            int value = DynamicPropertyFactory.getInstance().getIntProperty(groupKeyPropertyPrefix + name, defaultValue).getValue();
+            property = put(resolvedProperties, GROUP_SCOPE, name, new ResolvedProperty(propertiesVersion, defaultValue, null, value));
+        }
+        return (Integer) property.value;
+    }
+
+    /**
+     * Resolves a property which can only be set at group key level
+     */
+    public long getGroupLong(String name, long defaultValue) {
+        final long propertiesVersion = PropertyChangeTracker.getVersion();
+        ResolvedProperty property = get(resolvedProperties, GROUP_SCOPE, name);
+        if (property == null || !property.isCurrent(propertiesVersion, defaultValue, null, Long.class)) {
+            long value = DynamicPropertyFactory.getInstance().getLongProperty(groupKeyPropertyPrefix + name, defaultValue).getValue();
+            property = put(resolvedProperties, GROUP_SCOPE, name, new ResolvedProperty(propertiesVersion, defaultValue, null, value));
+        }
+        return (Long) property.value;
+    }
+
+    /**
+     * Resolves a property which can only be set at group key level
+     */
+    public double getGroupDouble(String name, double defaultValue) {
+        final long propertiesVersion = PropertyChangeTracker.getVersion();
+        final long defaultBits = Double.doubleToLongBits(defaultValue);
+        ResolvedProperty property = get(resolvedProperties, GROUP_SCOPE, name);
+        if (property == null || !property.isCurrent(propertiesVersion, defaultBits, null, Double.class)) {
+            double value = DynamicPropertyFactory.getInstance().getDoubleProperty(groupKeyPropertyPrefix + name, defaultValue).getValue();
+            property = put(resolvedProperties, GROUP_SCOPE, name, new ResolvedProperty(propertiesVersion, defaultBits, null, value));
+        }
+        return (Double) property.value;
+    }
+
+    /**
+     * Resolves a property which can only be set at group key level
+     */
+    public String getGroupString(String name, String defaultValue) {
+        final long propertiesVersion = PropertyChangeTracker.getVersion();
+        ResolvedProperty property = get(resolvedProperties, GROUP_SCOPE, name);
+        if (property == null || !property.isCurrent(propertiesVersion, 0, defaultValue, String.class)) {
+            String value = DynamicPropertyFactory.getInstance().getStringProperty(groupKeyPropertyPrefix + name, defaultValue).getValue();
+            property = put(resolvedProperties, GROUP_SCOPE, name, new ResolvedProperty(propertiesVersion, 0, defaultValue, value));
+        }
+        return (String) property.value;
+    }
+
+    /**
+     * Resolves a property set for the command only, without falling back to the group key
+     */
+    public double getCommandDouble(String commandName, String name, double defaultValue) {
+        final long propertiesVersion = PropertyChangeTracker.getVersion();
+        final long defaultBits = Double.doubleToLongBits(defaultValue);
+        ResolvedProperty property = get(resolvedCommandProperties, commandName, name);
+        if (property == null || !property.isCurrent(propertiesVersion, defaultBits, null, Double.class)) {
+            double value = DynamicPropertyFactory.getInstance().getDoubleProperty(commandPropertyName(commandName, name), defaultValue).getValue();
+            property = put(resolvedCommandProperties, commandName, name, new ResolvedProperty(propertiesVersion, defaultBits, null, value));
+        }
+        return (Double) property.value;
+    }
+
+    private String commandPropertyName(String commandName, String name) {
+        if (commandName.startsWith(commandNamePrefix)) {
+            commandName = commandName.substring(commandNamePrefix.length());
+        }
+        int endpointSeparator = commandName.lastIndexOf(ENDPOINT_SEPARATOR);
+        if (endpointSeparator > 0) {
+            commandName = commandName.substring(0, endpointSeparator);
+        }
+        return PROPERTY_PREFIX + commandName + "." + name;
+    }
+
+    private static ResolvedProperty get(ConcurrentMap<String, ConcurrentMap<String, ResolvedProperty>> properties,
+                                        String scope,
+                                        String name) {
+        ConcurrentMap<String, ResolvedProperty> scopeProperties = properties.get(scope);
+        return scopeProperties == null ? null : scopeProperties.get(name);
+    }
+
+    private static ResolvedProperty put(ConcurrentMap<String, ConcurrentMap<String, ResolvedProperty>> properties,
+                                        String scope,
+                                        String name,
+                                        ResolvedProperty property) {
+        ConcurrentMap<String, ResolvedProperty> scopeProperties = properties.get(scope);
+        if (scopeProperties == null) {
+            ConcurrentMap<String, ResolvedProperty> newScopeProperties = new ConcurrentHashMap<>();
+            scopeProperties = properties.putIfAbsent(scope, newScopeProperties);
+            if (scopeProperties == null) {
+                scopeProperties = newScopeProperties;
+            }
+        }
+        scopeProperties.put(name, property);
+        return property;
+    }
+
+    /**
+     * A resolved property value, tagged with the properties version and the default value it was resolved with
+     */
+    private static final class ResolvedProperty {
+
+        private final long propertiesVersion;
+        private final long defaultBits;
+        private final String defaultString;
+        private final Object value;
+
+        private ResolvedProperty(long propertiesVersion, long defaultBits, String defaultString, Object value) {
+            this.propertiesVersion = propertiesVersion;
+            this.defaultBits = defaultBits;
+            this.defaultString = defaultString;
+            this.value = value;
+        }
+
+        /**
+         * The type is checked as well, in case the same property is read as two different types
+         */
+        private boolean isCurrent(long currentVersion, long currentDefaultBits, String currentDefaultString, Class<?> type) {
+            return propertiesVersion == currentVersion
+                    && defaultBits == currentDefaultBits
+                    && (defaultString == null ? currentDefaultString == null : defaultString.equals(currentDefaultString))
+                    && (value == null ? type == String.class : type == value.getClass());
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.capgemini.camel.rest.client.connection;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A connection manager accounting for every connection leased from a pool.
+ * <p/>
+ * Each lease is recorded with its route, the time it was acquired and the name of the Hystrix command
+ * which acquired it, and is forgotten once the connection is released or aborted. Together with the
+ * pool statistics this gives the leased, available, pending and max-leased-time gauges of every route.
+ * <p/>
+ * When leak detection is enabled, the stack which acquired each connection is captured as well, and
+ * {@link #detectLeaks(long)} logs the leases held for longer than the threshold.
+ * <p/>
+ * The pooled clients built by the {@link ManagedHttpClientFactory} are tracked. A client set with
+ * {@link com.capgemini.camel.rest.client.RestClient#setHttpClient(org.apache.http.client.HttpClient)} is only
+ * tracked if it has been built on a tracker, e.g. with <code>HttpClients.custom().setConnectionManager(new
+ * ConnectionLeaseTracker(groupKeyName, connectionManager))</code>. The connections of the non-blocking
+ * <code>HttpAsyncClient</code> are managed by its own connection manager and are not tracked.
+ *
+ * @author Abbas Attarwala
+ */
+public class ConnectionLeaseTracker implements HttpClientConnectionManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionLeaseTracker.class);
+
+    private static final ThreadLocal<String> CURRENT_COMMAND = new ThreadLocal<>();
+
+    private final String groupKeyName;
+    private final PoolingHttpClientConnectionManager delegate;
+    private final ConcurrentMap<HttpClientConnection, Lease> leases = new ConcurrentHashMap<>();
+    private final Set<HttpRoute> routes = Collections.newSetFromMap(new ConcurrentHashMap<HttpRoute, Boolean>());
+    private volatile boolean captureAcquisitionStacks;
+
+    public ConnectionLeaseTracker(String groupKeyName, PoolingHttpClientConnectionManager delegate) {
+        this.groupKeyName = groupKeyName;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Records the Hystrix command about to lease connections on the current thread.
+     *
+     * @param commandName  The Hystrix command name
+     * @return             The command previously recorded, to be restored with {@link #exitCommand(String)}
+     */
+    public static String enterCommand(String commandName) {
+        String previous = CURRENT_COMMAND.get();
+        CURRENT_COMMAND.set(commandName);
+        return previous;
+    }
+
+    /**
+     * Restores the command recorded before {@link #enterCommand(String)} was called.
+     */
+    public static void exitCommand(String previousCommandName) {
+        if (previousCommandName == null) {
+            CURRENT_COMMAND.remove();
+        } else {
+            CURRENT_COMMAND.set(previousCommandName);
+        }
+    }
+
+    public void setCaptureAcquisitionStacks(boolean captureAcquisitionStacks) {
+        this.captureAcquisitionStacks = captureAcquisitionStacks;
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(final HttpRoute route, Object state) {
+        routes.add(route);
+        final ConnectionRequest request = delegate.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit tunit) throws InterruptedException,
+                                                                                 ExecutionException,
+                                                                                 ConnectionPoolTimeoutException {
+                HttpClientConnection connection = request.get(timeout, tunit);
+                leases.put(connection, new Lease(route, CURRENT_COMMAND.get(),
+                        captureAcquisitionStacks ? new Throwable("Connection acquisition stack") : null));
+                return connection;
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void releaseConnection(HttpClientConnection connection, Object newState, long validDuration, TimeUnit timeUnit) {
+        leases.remove(connection);
+        delegate.releaseConnection(connection, newState, validDuration, timeUnit);
+    }
+
+    @Override
+    public void connect(HttpClientConnection connection, HttpRoute route, int connectTimeout, HttpContext context) throws IOException {
+        delegate.connect(connection, route, connectTimeout, context);
+    }
+
+    @Override
+    public void upgrade(HttpClientConnection connection, HttpRoute route, HttpContext context) throws IOException {
+        delegate.upgrade(connection, route, context);
+    }
+
+    @Override
+    public void routeComplete(HttpClientConnection connection, HttpRoute route, HttpContext context) throws IOException {
+        delegate.routeComplete(connection, route, context);
+    }
+
+    @Override
+    public void closeIdleConnections(long idletime, TimeUnit tunit) {
+        delegate.closeIdleConnections(idletime, tunit);
+    }
+
+    @Override
+    public void closeExpiredConnections() {
+        delegate.closeExpiredConnections();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+        leases.clear();
+        routes.clear();
+    }
+
+    /**
+     * @return the number of connections currently leased through this tracker
+     */
+    public int getLeasedCount() {
+        return leases.size();
+    }
+
+    /**
+     * @return the lease gauges of every route a connection has been requested for
+     */
+    public List<RouteLeaseStats> getRouteStats() {
+        final long now = System.nanoTime();
+        final Map<HttpRoute, Long> oldestLeases = new HashMap<>();
+        for (Lease lease : leases.values()) {
+            Long oldest = oldestLeases.get(lease.route);
+            if (oldest == null || lease.acquiredAtNanos < oldest) {
+                oldestLeases.put(lease.route, lease.acquiredAtNanos);
+            }
+        }
+
+        final List<RouteLeaseStats> routeStats = new ArrayList<>();
+        for (HttpRoute route : routes) {
+            PoolStats poolStats = delegate.getStats(route);
+            Long oldest = oldestLeases.get(route);
+            long maxLeasedTimeMillis = oldest == null ? 0 : TimeUnit.NANOSECONDS.toMillis(now - oldest);
+            routeStats.add(new RouteLeaseStats(route,
+                                               poolStats.getLeased(),
+                                               poolStats.getAvailable(),
+                                               poolStats.getPending(),
+                                               poolStats.getMax(),
+                                               maxLeasedTimeMillis));
+        }
+        return routeStats;
+    }
+
+    /**
+     * Logs every lease held for longer than the threshold, once per lease,
+     * with the command which acquired it and the acquisition stack when it has been captured.
+     *
+     * @param thresholdMillis  How long a connection can be leased before it is reported
+     * @return                 The number of leases newly reported
+     */
+    public int detectLeaks(long thresholdMillis) {
+        final long now = System.nanoTime();
+        int reported = 0;
+        for (Lease lease : leases.values()) {
+            long leasedMillis = TimeUnit.NANOSECONDS.toMillis(now - lease.acquiredAtNanos);
+            if (leasedMillis >= thresholdMillis && !lease.reported) {
+                lease.reported = true;
+                reported++;
+                reportLeak(lease.route, lease.commandName, leasedMillis, lease.acquisitionStack);
+            }
+        }
+        return reported;
+    }
+
+    /**
+     * Reports a lease held for longer than the leak detection threshold, by logging it
+     *
+     * @param route             The route of the leased connection
+     * @param commandName       The Hystrix command which acquired the connection, null if unknown
+     * @param leasedMillis      How long the connection has been leased
+     * @param acquisitionStack  The stack which acquired the connection, null if it has not been captured
+     */
+    protected void reportLeak(HttpRoute route, String commandName, long leasedMillis, Throwable acquisitionStack) {
+        LOGGER.warn("Connection to {} of {} group key leased by the {} command for {} ms, it may have leaked",
+                route, groupKeyName, commandName, leasedMillis, acquisitionStack);
+    }
+
+    /**
+     * A connection lease
+     */
+    private static final class Lease {
+
+        private final HttpRoute route;
+        private final String commandName;
+        private final Throwable acquisitionStack;
+        private final long acquiredAtNanos = System.nanoTime();
+        private volatile boolean reported;
+
+        private Lease(HttpRoute route, String commandName, Throwable acquisitionStack) {
+            this.route = route;
+            this.commandName = commandName;
+            this.acquisitionStack = acquisitionStack;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.capgemini.camel.rest.client.connection;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.capgemini.camel.rest.client.config.RestClientProperties;
+import com.netflix.config.DynamicPropertyFactory;
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates and manages one pooled {@link CloseableHttpClient} per Hystrix group key.
+ * <p/>
+ * The pool of a group key is sized after the Hystrix thread pool executing its commands
+ * (<code>hystrix.threadpool.&lt;groupKeyName&gt;.coreSize</code>, 10 by default), plus a headroom of
+ * <code>pool.headroomPercent</code> (50 by default) of it. The Hystrix threads are not the only ones leasing
+ * connections: a hedged call holds two of them, and the background cache refreshes and the threads of the
+ * non-blocking calls lease their own, so a command thread can still wait for a connection once they
+ * outnumber the headroom. Both limits can be overridden with
+ * <code>http.request.&lt;groupKeyName&gt;.pool.maxPerRoute</code> and
+ * <code>http.request.&lt;groupKeyName&gt;.pool.maxTotal</code>, changes are applied on the next eviction run.
+ * <p/>
+ * Connections are kept alive for as long as the server <code>Keep-Alive</code> header allows,
+ * capped by <code>pool.keepAliveMaxMs</code>. A background thread closes expired connections and
+ * connections idle for longer than <code>pool.idleTimeoutMs</code>.
+ * <p/>
+ * Every lease is accounted for by a {@link ConnectionLeaseTracker}. Setting
+ * <code>pool.leakDetectionThresholdMs</code> above 0 captures the acquisition stack of every lease
+ * and logs the leases held for longer than the threshold on each eviction run.
+ *
+ * @author Abbas Attarwala
+ */
+public final class ManagedHttpClientFactory {
+
+    public static final int DEFAULT_HYSTRIX_CORE_SIZE = 10;
+    public static final int DEFAULT_POOL_HEADROOM_PERCENT = 50;
+    public static final long DEFAULT_KEEP_ALIVE_MAX_MS = 30000;
+    public static final long DEFAULT_IDLE_TIMEOUT_MS = 30000;
+    public static final long DEFAULT_EVICTION_INTERVAL_MS = 5000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ManagedHttpClientFactory.class);
+
+    private static final ManagedHttpClientFactory INSTANCE = new ManagedHttpClientFactory();
+
+    private final ConcurrentMap<String, ManagedPool> pools = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "rest-client-connection-evictor-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private ManagedHttpClientFactory() {
+    }
+
+    public static ManagedHttpClientFactory getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the pooled client of the group key, creating it on first use.
+     *
+     * @param groupKeyName  The Hystrix groupKey name
+     * @return              The client shared by every REST client of the group key
+     */
+    public CloseableHttpClient getHttpClient(String groupKeyName) {
+        ManagedPool pool = pools.get(groupKeyName);
+        if (pool == null) {
+            synchronized (pools) {
+                pool = pools.get(groupKeyName);
+                if (pool == null) {
+                    pool = new ManagedPool(groupKeyName);
+                    pools.put(groupKeyName, pool);
+                }
+            }
+        }
+        return pool.httpClient;
+    }
+
+    /**
+     * @return the connection manager of the group key, null if no client has been created for it
+     */
+    public PoolingHttpClientConnectionManager getConnectionManager(String groupKeyName) {
+        ManagedPool pool = pools.get(groupKeyName);
+        return pool == null ? null : pool.connectionManager;
+    }
+
+    /**
+     * @return the lease tracker of the group key, null if no client has been created for it
+     */
+    public ConnectionLeaseTracker getLeaseTracker(String groupKeyName) {
+        ManagedPool pool = pools.get(groupKeyName);
+        return pool == null ? null : pool.leaseTracker;
+    }
+
+    /**
+     * Closes the client of the group key and every connection of its pool.
+     * The next call to {@link #getHttpClient(String)} creates a new client.
+     */
+    public void shutdown(String groupKeyName) {
+        ManagedPool pool = pools.remove(groupKeyName);
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Closes every client created by the factory.
+     */
+    public void shutdownAll() {
+        for (String groupKeyName : pools.keySet()) {
+            shutdown(groupKeyName);
+        }
+    }
+
+    /**
+     * @return the size of the Hystrix thread pool executing the commands of the group key
+     */
+    public static int getHystrixCoreSize(String groupKeyName) {
+        DynamicPropertyFactory propertyFactory = DynamicPropertyFactory.getInstance();
+        int defaultCoreSize = propertyFactory.getIntProperty("hystrix.threadpool.default.coreSize", DEFAULT_HYSTRIX_CORE_SIZE).get();
+        return propertyFactory.getIntProperty("hystrix.threadpool." + groupKeyName + ".coreSize", defaultCoreSize).get();
+    }
+
+    /**
+     * The pool, the client and the eviction task of a group key
+     */
+    private final class ManagedPool {
+
+        private final String groupKeyName;
+        private final RestClientProperties properties;
+        private final PoolingHttpClientConnectionManager connectionManager;
+        private final ConnectionLeaseTracker leaseTracker;
+        private final CloseableHttpClient httpClient;
+        private final ScheduledFuture<?> eviction;
+
+        private ManagedPool(String groupKeyName) {
+            this.groupKeyName = groupKeyName;
+            this.properties = new RestClientProperties(groupKeyName);
+            this.connectionManager = new PoolingHttpClientConnectionManager();
+            this.leaseTracker = new ConnectionLeaseTracker(groupKeyName, connectionManager);
+            resize();
+            leaseTracker.setCaptureAcquisitionStacks(properties.getGroupLong("pool.leakDetectionThresholdMs", 0) > 0);
+
+            this.httpClient = HttpClients.custom()
+                    .setConnectionManager(leaseTracker)
+                    .setKeepAliveStrategy(new CappedKeepAliveStrategy(properties))
+                    // the REST client negotiates and decompresses the responses itself, per command
+                    .disableContentCompression()
+                    .build();
+
+            long evictionInterval = properties.getGroupLong("pool.evictionIntervalMs", DEFAULT_EVICTION_INTERVAL_MS);
+            this.eviction = evictor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    evict();
+                }
+            }, evictionInterval, evictionInterval, TimeUnit.MILLISECONDS);
+
+            LOGGER.info("Created the HTTP connection pool of {} group key: maxTotal {}, maxPerRoute {}",
+                    groupKeyName, connectionManager.getMaxTotal(), connectionManager.getDefaultMaxPerRoute());
+        }
+
+        private void resize() {
+            int coreSize = getHystrixCoreSize(groupKeyName);
+            int headroomPercent = Math.max(0, properties.getGroupInt("pool.headroomPercent", DEFAULT_POOL_HEADROOM_PERCENT));
+            int poolSize = coreSize + (coreSize * headroomPercent + 99) / 100;
+            int maxPerRoute = Math.max(1, properties.getGroupInt("pool.maxPerRoute", poolSize));
+            int maxTotal = Math.max(maxPerRoute, properties.getGroupInt("pool.maxTotal", poolSize));
+
+            if (connectionManager.getMaxTotal() != maxTotal) {
+                connectionManager.setMaxTotal(maxTotal);
+            }
+            if (connectionManager.getDefaultMaxPerRoute() != maxPerRoute) {
+                connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+            }
+        }
+
+        private void evict() {
+            try {
+                resize();
+                connectionManager.closeExpiredConnections();
+                connectionManager.closeIdleConnections(
+                        properties.getGroupLong("pool.idleTimeoutMs", DEFAULT_IDLE_TIMEOUT_MS), TimeUnit.MILLISECONDS);
+
+                long leakDetectionThreshold = properties.getGroupLong("pool.leakDetectionThresholdMs", 0);
+                leaseTracker.setCaptureAcquisitionStacks(leakDetectionThreshold > 0);
+                if (leakDetectionThreshold > 0) {
+                    leaseTracker.detectLeaks(leakDetectionThreshold);
+                }
+            } catch (RuntimeException ex) {
+                LOGGER.warn("Eviction of the idle HTTP connections of {} group key failed", groupKeyName, ex);
+            }
+        }
+
+        private void shutdown() {
+            eviction.cancel(false);
+            try {
+                httpClient.close();
+            } catch (Exception ex) {
+                LOGGER.warn("Closing the HTTP client of {} group key failed", groupKeyName, ex);
+            }
+            connectionManager.shutdown();
+            LOGGER.info("Shut down the HTTP connection pool of {} group key", groupKeyName);
+        }
+    }
+
+    /**
+     * Keeps connections alive for as long as the server <code>Keep-Alive</code> header allows,
+     * never longer than <code>pool.keepAliveMaxMs</code>.
+     */
+    private static final class CappedKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+
+        private final RestClientProperties properties;
+
+        private CappedKeepAliveStrategy(RestClientProperties properties) {
+            this.properties = properties;
+        }
+
+        @Override
+        public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+            long maxKeepAlive = properties.getGroupLong("pool.keepAliveMaxMs", DEFAULT_KEEP_ALIVE_MAX_MS);
+            long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return keepAlive <= 0 ? maxKeepAlive : Math.min(keepAlive, maxKeepAlive);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.capgemini.camel.rest.client.connection;
+
+import org.apache.http.conn.routing.HttpRoute;
+
+/**
+ * A snapshot of the connection leases of a route of a pooled {@link ConnectionLeaseTracker}.
+ *
+ * @author Abbas Attarwala
+ */
+public class RouteLeaseStats {
+
+    private final HttpRoute route;
+    private final int leased;
+    private final int available;
+    private final int pending;
+    private final int max;
+    private final long maxLeasedTimeMillis;
+
+    public RouteLeaseStats(HttpRoute route, int leased, int available, int pending, int max, long maxLeasedTimeMillis) {
+        this.route = route;
+        this.leased = leased;
+        this.available = available;
+        this.pending = pending;
+        this.max = max;
+        this.maxLeasedTimeMillis = maxLeasedTimeMillis;
+    }
+
+    public HttpRoute getRoute() {
+        return route;
+    }
+
+    /**
+     * @return the number of connections currently leased
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * @return the number of idle connections in the pool
+     */
+    public int getAvailable() {
+        return available;
+    }
+
+    /**
+     * @return the number of threads waiting for a connection
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * @return the maximum number of connections of the route
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * @return how long the oldest current lease has been held for, 0 if no connection is leased
+     */
+    public long getMaxLeasedTimeMillis() {
+        return maxLeasedTimeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteLeaseStats: " + route
+                + ", leased: " + leased
+                + ", available: " + available
+                + ", pending: " + pending
+                + ", max: " + max
+                + ", maxLeasedTime: " + maxLeasedTimeMillis + " ms";
+    }
+}
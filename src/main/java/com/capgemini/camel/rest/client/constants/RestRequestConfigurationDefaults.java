@@ -11,6 +11,50 @@ public class RestRequestConfigurationDefaults {
     public static final int SOCKET_TIMEOUT = 2000;
     public static final int CONNECTION_REQUEST_TIMEOUT = 2000;
     public static final boolean STALE_CONNECTION_CHECK = true;
+    public static final boolean VALIDATE_JSON = false;
+    public static final boolean COMPRESSION_ENABLED = false;
+    public static final boolean REQUEST_COMPRESSION_ENABLED = false;
+    public static final long REQUEST_COMPRESSION_MIN_SIZE = 2048;
+    public static final int ASYNC_MAX_CONCURRENT_REQUESTS = 1000;
+    public static final int COLLAPSER_WINDOW = 10;
+    public static final int COLLAPSER_MAX_BATCH_SIZE = 100;
+    public static final boolean HEDGE_ENABLED = false;
+    public static final long HEDGE_DELAY = 0;
+    public static final int HEDGE_PERCENTILE = 95;
+    public static final long HEDGE_MIN_DELAY = 10;
+    public static final int HEDGE_BUDGET_PERCENT = 10;
+    public static final int HEDGE_BUDGET_MAX_TOKENS = 10;
+    public static final boolean ADAPTIVE_TIMEOUT_ENABLED = false;
+    public static final int ADAPTIVE_TIMEOUT_PERCENTILE = 99;
+    public static final double ADAPTIVE_TIMEOUT_MULTIPLIER = 2.0;
+    public static final int ADAPTIVE_TIMEOUT_MIN = 250;
+    public static final int ADAPTIVE_TIMEOUT_MAX = 10000;
+    public static final int ADAPTIVE_TIMEOUT_HYSTRIX_MARGIN = 250;
+    public static final long ADAPTIVE_TIMEOUT_REFRESH_INTERVAL = 5000;
+    public static final int RETRY_MAX_RETRIES = 0;
+    public static final long RETRY_BASE_DELAY = 50;
+    public static final long RETRY_MAX_DELAY = 1000;
+    public static final int RETRY_BUDGET_PERCENT = 10;
+    public static final int RETRY_BUDGET_INITIAL_TOKENS = 1;
+    public static final int RETRY_BUDGET_MAX_TOKENS = 10;
+    public static final boolean CONCURRENCY_LIMIT_ENABLED = false;
+    public static final int CONCURRENCY_LIMIT_INITIAL = 20;
+    public static final int CONCURRENCY_LIMIT_MIN = 1;
+    public static final int CONCURRENCY_LIMIT_MAX = 200;
+    public static final double CONCURRENCY_LIMIT_BACKOFF_RATIO = 0.9;
+    public static final double CONCURRENCY_LIMIT_LATENCY_TOLERANCE = 2.0;
+    public static final double RATE_LIMIT_PERMITS_PER_SECOND = 0;
+    public static final int RATE_LIMIT_BURST = 1;
+    public static final long RATE_LIMIT_TIMEOUT = 0;
+    public static final int LB_CONSECUTIVE_ERRORS = 5;
+    public static final double LB_LATENCY_OUTLIER_FACTOR = 3.0;
+    public static final int LB_MIN_REQUESTS = 20;
+    public static final long LB_BASE_EJECTION = 30000;
+    public static final long LB_MAX_EJECTION = 300000;
+    public static final boolean SHARED_CACHE_ENABLED = false;
+    public static final long SHARED_CACHE_TTL = 60000;
+    public static final long SHARED_CACHE_REVALIDATION_RETENTION = 300000;
+    public static final boolean SHARED_CACHE_HONOUR_CACHE_CONTROL = true;
     
     /**
      * Private constructor
@@ -0,0 +1,82 @@
+package com.capgemini.camel.rest.client.entity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+/**
+ * An HTTP entity serializing an object to JSON with Jackson directly into the request stream.
+ * <p/>
+ * Neither the JSON String nor its encoded bytes are held in memory: the payload is written
+ * with chunked transfer encoding while it is serialized. The entity is repeatable, the object
+ * is serialized again every time the entity is written. An object which cannot be serialized fails
+ * the write with a {@link com.fasterxml.jackson.core.JsonProcessingException}, which the REST client
+ * reports as a bad request rather than as a failure of the REST resource.
+ *
+ * @author Abbas Attarwala
+ */
+public class JacksonEntity extends AbstractHttpEntity {
+
+    private final Object value;
+    private final ObjectWriter objectWriter;
+
+    /**
+     * @param value         The object to serialize
+     * @param objectMapper  The mapper used to serialize the object
+     */
+    public JacksonEntity(Object value, ObjectMapper objectMapper) {
+        if (value == null) {
+            throw new IllegalArgumentException("value is null");
+        }
+        if (objectMapper == null) {
+            throw new IllegalArgumentException("objectMapper is null");
+        }
+        this.value = value;
+        this.objectWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        setContentType(ContentType.APPLICATION_JSON.toString());
+        setChunked(true);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    /**
+     * Serializes the object into memory, only for the consumers which need the payload as a stream.
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        return new ByteArrayInputStream(objectWriter.writeValueAsBytes(value));
+    }
+
+    @Override
+    public void writeTo(OutputStream outstream) throws IOException {
+        if (outstream == null) {
+            throw new IllegalArgumentException("Output stream may not be null");
+        }
+        objectWriter.writeValue(outstream, value);
+        outstream.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+}
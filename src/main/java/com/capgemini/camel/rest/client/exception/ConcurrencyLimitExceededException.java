@@ -0,0 +1,36 @@
+package com.capgemini.camel.rest.client.exception;
+
+import com.capgemini.camel.exception.rest.RestEndpointException;
+
+import static com.capgemini.camel.exception.rest.ErrorScenario.CB_REJECTED_SEMAPHORE_EXECUTION;
+
+/**
+ * Thrown when a call is rejected without being sent because the adaptive concurrency limit
+ * of its command has been reached.
+ *
+ * @author Abbas Attarwala
+ */
+public class ConcurrencyLimitExceededException extends RestEndpointException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String commandName;
+    private final int limit;
+
+    public ConcurrencyLimitExceededException(String commandName, int limit) {
+        super(CB_REJECTED_SEMAPHORE_EXECUTION);
+        this.commandName = commandName;
+        this.limit = limit;
+    }
+
+    public String getCommandName() {
+        return commandName;
+    }
+
+    /**
+     * @return the concurrency limit of the command when the call was rejected
+     */
+    public int getLimit() {
+        return limit;
+    }
+}
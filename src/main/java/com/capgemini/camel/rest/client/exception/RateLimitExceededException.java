@@ -0,0 +1,30 @@
+package com.capgemini.camel.rest.client.exception;
+
+import com.capgemini.camel.exception.rest.RestEndpointException;
+
+import static com.capgemini.camel.exception.rest.ErrorScenario.CB_REJECTED_SEMAPHORE_EXECUTION;
+
+/**
+ * Thrown when a call is rejected without being sent because the client-side rate limit
+ * of its command or group key has been reached.
+ *
+ * @author Abbas Attarwala
+ */
+public class RateLimitExceededException extends RestEndpointException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String limitName;
+
+    public RateLimitExceededException(String limitName) {
+        super(CB_REJECTED_SEMAPHORE_EXECUTION);
+        this.limitName = limitName;
+    }
+
+    /**
+     * @return the name of the command or group key whose rate limit has been reached
+     */
+    public String getLimitName() {
+        return limitName;
+    }
+}
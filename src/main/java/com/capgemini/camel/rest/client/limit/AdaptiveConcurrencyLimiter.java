@@ -0,0 +1,101 @@
+package com.capgemini.camel.rest.client.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the number of concurrent calls of a command to a limit adapted to the measured latency and errors (AIMD).
+ * <p/>
+ * The limit grows by one for every limit's worth of successful calls made while the limit was nearly used up,
+ * and is cut by the backoff ratio when a call fails or takes longer than the latency tolerance times the
+ * no-load latency. The no-load latency is the lowest latency measured, slowly drifting up so that it follows
+ * a backend which has become durably slower. Calls over the limit are rejected straight away instead of queuing
+ * in front of a saturated backend.
+ *
+ * @author Abbas Attarwala
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private long noLoadLatencyNanos = Long.MAX_VALUE;
+
+    /**
+     * @param initialLimit      The limit before any call is measured
+     * @param minLimit          The lowest limit
+     * @param maxLimit          The highest limit
+     * @param backoffRatio      The factor applied to the limit when the backend is overloaded, between 0 and 1
+     * @param latencyTolerance  How many times the no-load latency a call may take before the backend is considered overloaded
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double latencyTolerance) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.backoffRatio = Math.min(1.0, Math.max(0.1, backoffRatio));
+        this.latencyTolerance = Math.max(1.0, latencyTolerance);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * Takes a slot for a call
+     *
+     * @return TRUE if the call can be made, FALSE if the limit has been reached
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Gives the slot of a completed call back and adapts the limit
+     *
+     * @param latencyNanos  How long the call took
+     * @param dropped       TRUE if the call failed because of the backend (error or timeout)
+     */
+    public void release(long latencyNanos, boolean dropped) {
+        final int callsInFlight = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (!dropped) {
+                noLoadLatencyNanos = noLoadLatencyNanos == Long.MAX_VALUE
+                        ? latencyNanos
+                        : Math.min(latencyNanos, noLoadLatencyNanos + (noLoadLatencyNanos >> 8) + 1);
+            }
+            if (dropped || latencyNanos > noLoadLatencyNanos * latencyTolerance) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (callsInFlight * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+    }
+
+    /**
+     * Gives the slot of a call which never reached the backend (short circuited or rejected) back,
+     * leaving the limit as it is
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * @return the current number of concurrent calls allowed
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return the number of calls currently in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,106 @@
+package com.capgemini.camel.rest.client.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket, refilled at a steady rate and holding at most a burst of permits.
+ * <p/>
+ * The bucket is kept as the time at which the next permit becomes available (the generic cell rate
+ * algorithm), so taking a permit is a single compare-and-set on that time: a permit is granted when
+ * the time is less than a burst ahead of now, and pushes it one interval further. A caller willing to
+ * wait reserves its permit the same way and sleeps until the permit becomes available.
+ *
+ * @author Abbas Attarwala
+ */
+public class TokenBucketRateLimiter {
+
+    private final AtomicLong nextPermitNanos = new AtomicLong(System.nanoTime());
+    private volatile long intervalNanos;
+    private volatile long burstNanos;
+
+    /**
+     * @param permitsPerSecond  The steady rate of permits
+     * @param burst             The number of permits which can be taken at once after a quiet period
+     */
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst) {
+        setRate(permitsPerSecond, burst);
+    }
+
+    /**
+     * Changes the rate of the bucket, the permits already reserved are kept
+     */
+    public void setRate(double permitsPerSecond, int burst) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / Math.max(permitsPerSecond, 0.001));
+        this.intervalNanos = Math.max(1, interval);
+        this.burstNanos = this.intervalNanos * (Math.max(1, burst) - 1);
+    }
+
+    /**
+     * Takes a permit if one is available right away
+     *
+     * @return TRUE if the permit has been taken
+     */
+    public boolean tryAcquire() {
+        return reserve(System.nanoTime(), 0) >= 0;
+    }
+
+    /**
+     * Takes a permit, waiting for it if it becomes available within the timeout
+     *
+     * @return TRUE if the permit has been taken, FALSE if none is available within the timeout or the thread is interrupted
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) {
+        final long now = System.nanoTime();
+        final long waitNanos = reserve(now, unit.toNanos(timeout));
+        if (waitNanos < 0) {
+            return false;
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reserves a permit without waiting for it, the caller sleeping before it uses the permit
+     *
+     * @return how long in nanoseconds the caller must wait before using the permit, -1 if the wait would exceed the maximum
+     */
+    public long reserve(long maxWait, TimeUnit unit) {
+        return reserve(System.nanoTime(), unit.toNanos(maxWait));
+    }
+
+    /**
+     * Gives back a reserved permit which the caller will not use
+     */
+    public void cancel() {
+        nextPermitNanos.addAndGet(-intervalNanos);
+    }
+
+    /**
+     * @return how long the caller must wait for its reserved permit, -1 if the wait would exceed the maximum
+     */
+    private long reserve(long now, long maxWaitNanos) {
+        final long interval = intervalNanos;
+        final long burst = burstNanos;
+        long current;
+        long waitNanos;
+        do {
+            current = nextPermitNanos.get();
+            long next = current - now < 0 ? now : current;
+            waitNanos = Math.max(0, next - burst - now);
+            if (waitNanos > maxWaitNanos) {
+                return -1;
+            }
+            if (nextPermitNanos.compareAndSet(current, next + interval)) {
+                return waitNanos;
+            }
+        } while (true);
+    }
+}
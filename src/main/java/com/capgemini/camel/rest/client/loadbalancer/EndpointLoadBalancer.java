@@ -0,0 +1,282 @@
+package com.capgemini.camel.rest.client.loadbalancer;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.capgemini.camel.rest.client.util.Backoff;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Spreads the requests of a group key over several endpoints serving the same REST API.
+ * <p/>
+ * Each request goes to the endpoint with the fewest outstanding requests out of two picked at random
+ * (power of two choices), which avoids both the herding of a pure least-outstanding choice and the
+ * blindness of a random one. Endpoints returning consecutive errors, or whose latency is an outlier
+ * compared to the fastest endpoint, are ejected for a period doubling with each ejection. When every
+ * endpoint is ejected they are all used again rather than failing every request.
+ *
+ * @author Abbas Attarwala
+ */
+public class EndpointLoadBalancer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EndpointLoadBalancer.class);
+
+    private final List<Endpoint> endpoints;
+    private final Settings settings;
+
+    /**
+     * @param endPoints The base URIs of the endpoints, e.g. <code>http://host1:8080/api</code>
+     * @param settings  The ejection settings
+     */
+    public EndpointLoadBalancer(List<String> endPoints, Settings settings) {
+        if (endPoints == null || endPoints.isEmpty()) {
+            throw new IllegalArgumentException("At least one endpoint is required");
+        }
+        List<Endpoint> endpointList = new ArrayList<>(endPoints.size());
+        for (String endPoint : endPoints) {
+            endpointList.add(new Endpoint(endPoint));
+        }
+        this.endpoints = Collections.unmodifiableList(endpointList);
+        this.settings = settings;
+    }
+
+    /**
+     * @return the endpoint the next request should be sent to
+     */
+    public Endpoint choose() {
+        final long now = System.nanoTime();
+        List<Endpoint> available = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            if (!endpoint.isEjected(now)) {
+                available.add(endpoint);
+            }
+        }
+        if (available.isEmpty()) {
+            LOGGER.warn("Every endpoint has been ejected, using all of them");
+            available = endpoints;
+        }
+        if (available.size() == 1) {
+            return available.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(available.size());
+        int second = random.nextInt(available.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        Endpoint a = available.get(first);
+        Endpoint b = available.get(second);
+        int outstandingA = a.getOutstanding();
+        int outstandingB = b.getOutstanding();
+        if (outstandingA != outstandingB) {
+            return outstandingA < outstandingB ? a : b;
+        }
+        return a.getLatencyNanos() <= b.getLatencyNanos() ? a : b;
+    }
+
+    /**
+     * Points a URI built on one of the endpoints to another endpoint
+     *
+     * @param uri       A URI starting with the base URI of one of the endpoints
+     * @param target    The endpoint to send the request to
+     * @return the URI on the target endpoint, or the URI unchanged if it is not built on any endpoint
+     */
+    public URI rewrite(URI uri, Endpoint target) {
+        final String uriString = uri.toString();
+        Endpoint current = null;
+        for (Endpoint endpoint : endpoints) {
+            if (uriString.startsWith(endpoint.getBaseUri())
+                    && (current == null || endpoint.getBaseUri().length() > current.getBaseUri().length())) {
+                current = endpoint;
+            }
+        }
+        if (current == null || current == target) {
+            return uri;
+        }
+        return URI.create(target.getBaseUri() + uriString.substring(current.getBaseUri().length()));
+    }
+
+    /**
+     * Records the outcome of a request sent to an endpoint, ejecting it if it is failing or slow
+     *
+     * @param endpoint      The endpoint the request was sent to
+     * @param latencyNanos  How long the request took
+     * @param success       FALSE if the request failed because of the endpoint (error, timeout or 5xx response)
+     */
+    public void complete(Endpoint endpoint, long latencyNanos, boolean success) {
+        endpoint.outstanding.decrementAndGet();
+        final long now = System.nanoTime();
+
+        if (!success) {
+            if (endpoint.consecutiveErrors.incrementAndGet() >= settings.consecutiveErrors) {
+                eject(endpoint, now, "consecutive errors");
+            }
+            return;
+        }
+
+        endpoint.consecutiveErrors.set(0);
+        if (endpoint.ejectedUntilNanos != 0 && !endpoint.isEjected(now)) {
+            // back from ejection, its latency is measured afresh
+            endpoint.ejectedUntilNanos = 0;
+            endpoint.resetLatency();
+        }
+        endpoint.recordLatency(latencyNanos);
+        if (endpoint.samples < settings.minRequests) {
+            return;
+        }
+
+        if (settings.latencyOutlierFactor > 0) {
+            long fastest = Long.MAX_VALUE;
+            for (Endpoint other : endpoints) {
+                if (other != endpoint && other.samples >= settings.minRequests && !other.isEjected(now)) {
+                    fastest = Math.min(fastest, other.getLatencyNanos());
+                }
+            }
+            if (fastest != Long.MAX_VALUE && endpoint.getLatencyNanos() > fastest * settings.latencyOutlierFactor) {
+                eject(endpoint, now, "latency outlier");
+                return;
+            }
+        }
+        // healthy again, the next ejection starts from the base period
+        endpoint.ejections.set(0);
+    }
+
+    /**
+     * @return the endpoints of the group key
+     */
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    private void eject(Endpoint endpoint, long now, String reason) {
+        if (endpoint.isEjected(now)) {
+            return;
+        }
+        long ejectionMillis = Backoff.ceiling(endpoint.ejections.incrementAndGet(), settings.baseEjectionMillis, settings.maxEjectionMillis);
+        endpoint.ejectedUntilNanos = now + TimeUnit.MILLISECONDS.toNanos(ejectionMillis);
+        endpoint.consecutiveErrors.set(0);
+        LOGGER.warn("Ejecting endpoint {} for {} ms: {}", endpoint.getBaseUri(), ejectionMillis, reason);
+    }
+
+    /**
+     * An endpoint and its load and health statistics
+     */
+    public static final class Endpoint {
+
+        private final String baseUri;
+        private final String hostKey;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveErrors = new AtomicInteger();
+        private final AtomicInteger ejections = new AtomicInteger();
+        private volatile long ejectedUntilNanos;
+        private volatile long latencyNanos;
+        private volatile long samples;
+
+        private Endpoint(String baseUri) {
+            this.baseUri = baseUri;
+            URI uri = URI.create(baseUri);
+            this.hostKey = uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+        }
+
+        /**
+         * Counts a request sent to the endpoint, until it is completed
+         */
+        public void start() {
+            outstanding.incrementAndGet();
+        }
+
+        /**
+         * Uncounts a request which has not been sent after all, without recording any outcome
+         */
+        public void cancel() {
+            outstanding.decrementAndGet();
+        }
+
+        public String getBaseUri() {
+            return baseUri;
+        }
+
+        /**
+         * @return host[:port] of the endpoint
+         */
+        public String getHostKey() {
+            return hostKey;
+        }
+
+        /**
+         * @return the number of requests sent to the endpoint and not completed yet
+         */
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        /**
+         * @return the moving average of the latency of the successful requests
+         */
+        public long getLatencyNanos() {
+            return latencyNanos;
+        }
+
+        public boolean isEjected(long now) {
+            long ejectedUntil = ejectedUntilNanos;
+            return ejectedUntil != 0 && ejectedUntil - now > 0;
+        }
+
+        private synchronized void resetLatency() {
+            latencyNanos = 0;
+            samples = 0;
+        }
+
+        /**
+         * Exponentially weighted moving average, a tenth of the weight going to the latest request
+         */
+        private synchronized void recordLatency(long latency) {
+            latencyNanos = samples == 0 ? latency : latencyNanos + (latency - latencyNanos) / 10;
+            samples++;
+        }
+
+        @Override
+        public String toString() {
+            return "Endpoint: " + baseUri + ", outstanding: " + outstanding.get()
+                    + ", latency: " + TimeUnit.NANOSECONDS.toMillis(latencyNanos) + " ms";
+        }
+    }
+
+    /**
+     * The ejection settings of a load balancer
+     */
+    public static final class Settings {
+
+        private final int consecutiveErrors;
+        private final double latencyOutlierFactor;
+        private final int minRequests;
+        private final long baseEjectionMillis;
+        private final long maxEjectionMillis;
+
+        /**
+         * @param consecutiveErrors     The number of consecutive errors ejecting an endpoint
+         * @param latencyOutlierFactor  How many times slower than the fastest endpoint an endpoint is ejected, 0 to disable
+         * @param minRequests           The number of successful requests measured before the latency of an endpoint is compared
+         * @param baseEjectionMillis    How long an endpoint is ejected for the first time
+         * @param maxEjectionMillis     The longest ejection
+         */
+        public Settings(int consecutiveErrors,
+                        double latencyOutlierFactor,
+                        int minRequests,
+                        long baseEjectionMillis,
+                        long maxEjectionMillis) {
+            this.consecutiveErrors = Math.max(1, consecutiveErrors);
+            this.latencyOutlierFactor = latencyOutlierFactor;
+            this.minRequests = Math.max(1, minRequests);
+            this.baseEjectionMillis = baseEjectionMillis;
+            this.maxEjectionMillis = maxEjectionMillis;
+        }
+    }
+}
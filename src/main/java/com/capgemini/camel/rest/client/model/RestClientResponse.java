@@ -34,6 +34,23 @@ public class RestClientResponse {
 
     public Header[] getResponseHeaders() { return responseHeaders; }
 
+    /**
+     * Returns the value of the first response header with the given name, the lookup is case-insensitive.
+     *
+     * @param name  The header name
+     * @return      The header value, or null if the response has no such header
+     */
+    public String getFirstHeaderValue(String name) {
+        if (responseHeaders != null) {
+            for (Header header : responseHeaders) {
+                if (header.getName().equalsIgnoreCase(name)) {
+                    return header.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
     @Override
     public String toString() {
         final StringBuilder message = new StringBuilder("HttpResponse: "
@@ -0,0 +1,139 @@
+package com.capgemini.camel.rest.client.model;
+
+import java.util.Map;
+
+import org.apache.http.entity.ContentType;
+
+/**
+ * Class to model a request to a REST resource, as executed in bulk by
+ * {@link com.capgemini.camel.rest.client.RestClient#executeAll(java.util.List)}.
+ *
+ * @author Abbas Attarwala
+ */
+public class RestRequest {
+
+    private final String method;
+    private final String resourcePath;
+    private final String commandName;
+    private final Map<String, String> queryParams;
+    private final Map<String, String> headers;
+    private final String requestBody;
+    private final ContentType contentType;
+
+    private RestRequest(String method,
+                        String resourcePath,
+                        String commandName,
+                        Map<String, String> queryParams,
+                        Map<String, String> headers,
+                        String requestBody,
+                        ContentType contentType) {
+        this.method = method;
+        this.resourcePath = resourcePath;
+        this.commandName = commandName;
+        this.queryParams = queryParams;
+        this.headers = headers;
+        this.requestBody = requestBody;
+        this.contentType = contentType;
+    }
+
+    /**
+     * A GET request
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters (can be null).
+     * @param headers       Key-Value pair {@link Map<String, String>} of header values (can be null).
+     */
+    public static RestRequest get(String resourcePath,
+                                  String commandName,
+                                  Map<String, String> queryParams,
+                                  Map<String, String> headers) {
+        return new RestRequest("GET", resourcePath, commandName, queryParams, headers, null, null);
+    }
+
+    /**
+     * A POST request
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param requestBody   The requestBody that needs to be sent to the REST resource.
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters (can be null).
+     * @param contentType   The HTTP content type for the request body, if null then we will assume 'text/plain'
+     * @param headers       Key-Value pair {@link Map<String, String>} of header values (can be null).
+     */
+    public static RestRequest post(String resourcePath,
+                                   String commandName,
+                                   String requestBody,
+                                   Map<String, String> queryParams,
+                                   ContentType contentType,
+                                   Map<String, String> headers) {
+        return new RestRequest("POST", resourcePath, commandName, queryParams, headers, requestBody, contentType);
+    }
+
+    /**
+     * A PUT request
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param requestBody   The requestBody that needs to be sent to the REST resource.
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters (can be null).
+     * @param contentType   The HTTP content type for the request body, if null then we will assume 'text/plain'
+     * @param headers       Key-Value pair {@link Map<String, String>} of header values (can be null).
+     */
+    public static RestRequest put(String resourcePath,
+                                  String commandName,
+                                  String requestBody,
+                                  Map<String, String> queryParams,
+                                  ContentType contentType,
+                                  Map<String, String> headers) {
+        return new RestRequest("PUT", resourcePath, commandName, queryParams, headers, requestBody, contentType);
+    }
+
+    /**
+     * A DELETE request
+     *
+     * @param resourcePath  The resource path. Must start with "/".
+     * @param commandName   The Hystrix command name
+     * @param queryParams   Key-Value pair {@link Map<String, String>} of query parameters (can be null).
+     * @param headers       Key-Value pair {@link Map<String, String>} of header values (can be null).
+     */
+    public static RestRequest delete(String resourcePath,
+                                     String commandName,
+                                     Map<String, String> queryParams,
+                                     Map<String, String> headers) {
+        return new RestRequest("DELETE", resourcePath, commandName, queryParams, headers, null, null);
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getResourcePath() {
+        return resourcePath;
+    }
+
+    public String getCommandName() {
+        return commandName;
+    }
+
+    public Map<String, String> getQueryParams() {
+        return queryParams;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public String getRequestBody() {
+        return requestBody;
+    }
+
+    public ContentType getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public String toString() {
+        return "RestRequest: " + method + " " + resourcePath + ", command: " + commandName;
+    }
+}
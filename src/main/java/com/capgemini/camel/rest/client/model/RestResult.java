@@ -0,0 +1,56 @@
+package com.capgemini.camel.rest.client.model;
+
+/**
+ * Class to model the outcome of a {@link RestRequest} executed in bulk:
+ * either the JSON response, or the exception the equivalent single call would have thrown.
+ *
+ * @author Abbas Attarwala
+ */
+public class RestResult {
+
+    private final RestRequest request;
+    private final String jsonResponse;
+    private final Exception exception;
+
+    private RestResult(RestRequest request, String jsonResponse, Exception exception) {
+        this.request = request;
+        this.jsonResponse = jsonResponse;
+        this.exception = exception;
+    }
+
+    public static RestResult success(RestRequest request, String jsonResponse) {
+        return new RestResult(request, jsonResponse, null);
+    }
+
+    public static RestResult failure(RestRequest request, Exception exception) {
+        return new RestResult(request, null, exception);
+    }
+
+    public RestRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @return the JSON response, null for a failed request or a No Content response
+     */
+    public String getJsonResponse() {
+        return jsonResponse;
+    }
+
+    /**
+     * @return the failure of the request, null if it succeeded
+     */
+    public Exception getException() {
+        return exception;
+    }
+
+    public boolean isSuccess() {
+        return exception == null;
+    }
+
+    @Override
+    public String toString() {
+        return "RestResult: " + request
+                + (isSuccess() ? ", JSONResponse: " + jsonResponse : ", Exception: " + exception);
+    }
+}
@@ -0,0 +1,31 @@
+package com.capgemini.camel.rest.client.timeout;
+
+/**
+ * The adaptive timeouts of a Hystrix command, published on the platform MBean server as
+ * <code>com.capgemini.camel.rest.client:type=AdaptiveTimeouts,command=&lt;commandName&gt;</code>
+ * while adaptive timeouts are enabled for the command.
+ *
+ * @author Abbas Attarwala
+ */
+public interface AdaptiveTimeoutGaugesMXBean {
+
+    /**
+     * @return the latency percentile the timeouts are derived from
+     */
+    int getPercentile();
+
+    /**
+     * @return the latency percentile observed over the Hystrix rolling window
+     */
+    int getObservedLatencyMillis();
+
+    /**
+     * @return the socket timeout set on the HTTP requests of the command
+     */
+    int getSocketTimeoutMillis();
+
+    /**
+     * @return the Hystrix execution timeout set on the command
+     */
+    int getHystrixTimeoutMillis();
+}
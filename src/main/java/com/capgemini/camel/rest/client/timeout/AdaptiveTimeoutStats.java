@@ -0,0 +1,77 @@
+package com.capgemini.camel.rest.client.timeout;
+
+/**
+ * A snapshot of the timeouts computed by {@link AdaptiveTimeouts} for a single Hystrix command.
+ *
+ * @author Abbas Attarwala
+ */
+public class AdaptiveTimeoutStats {
+
+    private final String commandName;
+    private final int percentile;
+    private final int observedLatencyMillis;
+    private final int socketTimeoutMillis;
+    private final int hystrixTimeoutMillis;
+    private final long computedAtMillis;
+
+    public AdaptiveTimeoutStats(String commandName,
+                                int percentile,
+                                int observedLatencyMillis,
+                                int socketTimeoutMillis,
+                                int hystrixTimeoutMillis,
+                                long computedAtMillis) {
+        this.commandName = commandName;
+        this.percentile = percentile;
+        this.observedLatencyMillis = observedLatencyMillis;
+        this.socketTimeoutMillis = socketTimeoutMillis;
+        this.hystrixTimeoutMillis = hystrixTimeoutMillis;
+        this.computedAtMillis = computedAtMillis;
+    }
+
+    public String getCommandName() {
+        return commandName;
+    }
+
+    /**
+     * @return the latency percentile the timeouts are derived from
+     */
+    public int getPercentile() {
+        return percentile;
+    }
+
+    /**
+     * @return the latency percentile observed over the Hystrix rolling window
+     */
+    public int getObservedLatencyMillis() {
+        return observedLatencyMillis;
+    }
+
+    /**
+     * @return the socket timeout set on the HTTP requests of the command
+     */
+    public int getSocketTimeoutMillis() {
+        return socketTimeoutMillis;
+    }
+
+    /**
+     * @return the Hystrix execution timeout set on the command
+     */
+    public int getHystrixTimeoutMillis() {
+        return hystrixTimeoutMillis;
+    }
+
+    /**
+     * @return when the timeouts were computed, in milliseconds since the epoch
+     */
+    public long getComputedAtMillis() {
+        return computedAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveTimeoutStats: " + commandName
+                + ", p" + percentile + ": " + observedLatencyMillis + " ms"
+                + ", socketTimeout: " + socketTimeoutMillis + " ms"
+                + ", hystrixTimeout: " + hystrixTimeoutMillis + " ms";
+    }
+}
@@ -0,0 +1,259 @@
+package com.capgemini.camel.rest.client.timeout;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.capgemini.camel.rest.client.config.EndpointCommandProperties;
+import com.capgemini.camel.rest.client.config.RestClientProperties;
+import com.capgemini.camel.rest.client.constants.RestRequestConfigurationDefaults;
+import com.netflix.config.ConcurrentCompositeConfiguration;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.hystrix.HystrixCommandMetrics;
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Derives the timeouts of a command from its observed latency instead of static properties.
+ * <p/>
+ * When <code>timeout.adaptive.enabled</code> is set, the socket timeout of the command is the
+ * <code>timeout.adaptive.percentile</code> of its execution times over the Hystrix rolling window,
+ * times <code>timeout.adaptive.multiplier</code>, kept within <code>timeout.adaptive.minMs</code> and
+ * <code>timeout.adaptive.maxMs</code>. The Hystrix execution timeout of the command follows it, with
+ * <code>timeout.adaptive.hystrixMarginMs</code> on top. The timeouts are recomputed at most every
+ * <code>timeout.adaptive.refreshIntervalMs</code>; until Hystrix has recorded an execution the
+ * configured timeouts apply. With several endpoints, the execution times are those of the slowest
+ * endpoint command key, <code>&lt;commandName&gt;@&lt;host&gt;</code>.
+ * <p/>
+ * The adaptive Hystrix timeout overrides the configured one without replacing it: once adaptive timeouts
+ * are disabled for the command, the configured Hystrix timeout applies again. The computed timeouts are
+ * published as {@link AdaptiveTimeoutGaugesMXBean} gauges.
+ * <p/>
+ * Calls cut short by the Hystrix timeout are not part of the execution times, so the minimum bound
+ * should leave room for the slowest expected response.
+ *
+ * @author Abbas Attarwala
+ */
+public class AdaptiveTimeouts {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveTimeouts.class);
+
+    private static final String HYSTRIX_TIMEOUT_PROPERTY = "hystrix.command.%s.execution.isolation.thread.timeoutInMilliseconds";
+    private static final String GAUGES_OBJECT_NAME = "com.capgemini.camel.rest.client:type=AdaptiveTimeouts,command=%s";
+    private static final Object NOT_CONFIGURED = new Object();
+
+    private final RestClientProperties properties;
+    private final ConcurrentMap<String, AdaptiveTimeoutStats> timeouts = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ObjectName> gauges = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Object> configuredHystrixTimeouts = new ConcurrentHashMap<>();
+
+    public AdaptiveTimeouts(RestClientProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Returns the socket timeout of a command, recomputing its adaptive timeouts if they are due
+     *
+     * @param commandName       The Hystrix command name
+     * @param configuredTimeout The socket timeout configured for the command
+     * @return the adaptive socket timeout, or the configured one if adaptive timeouts are disabled or unknown
+     */
+    public int getSocketTimeout(String commandName, int configuredTimeout) {
+        if (!properties.getBoolean(commandName, "timeout.adaptive.enabled", RestRequestConfigurationDefaults.ADAPTIVE_TIMEOUT_ENABLED)) {
+            if (timeouts.remove(commandName) != null) {
+                LOGGER.debug("Adaptive timeouts of {} disabled, restoring the configured timeouts", commandName);
+                setHystrixTimeout(commandName, null);
+                unregisterGauges(commandName);
+            }
+            return configuredTimeout;
+        }
+
+        final long now = System.currentTimeMillis();
+        final long refreshInterval = properties.getLong(commandName, "timeout.adaptive.refreshIntervalMs",
+                                                        RestRequestConfigurationDefaults.ADAPTIVE_TIMEOUT_REFRESH_INTERVAL);
+
+        AdaptiveTimeoutStats current = timeouts.get(commandName);
+        if (current == null || now - current.getComputedAtMillis() >= refreshInterval) {
+            AdaptiveTimeoutStats computed = compute(commandName, now);
+            if (computed == null) {
+                return current == null ? configuredTimeout : current.getSocketTimeoutMillis();
+            }
+            boolean updated = current == null
+                    ? timeouts.putIfAbsent(commandName, computed) == null
+                    : timeouts.replace(commandName, current, computed);
+            if (updated) {
+                applyHystrixTimeout(computed, current);
+                if (current == null) {
+                    registerGauges(commandName);
+                }
+                current = computed;
+            } else {
+                current = timeouts.get(commandName);
+            }
+        }
+        return current.getSocketTimeoutMillis();
+    }
+
+    /**
+     * @return the adaptive timeouts of a command, null if none have been computed yet
+     */
+    public AdaptiveTimeoutStats getStats(String commandName) {
+        return timeouts.get(commandName);
+    }
+
+    /**
+     * @return the adaptive timeouts of every command, keyed by command name
+     */
+    public Map<String, AdaptiveTimeoutStats> getStats() {
+        return new LinkedHashMap<>(timeouts);
+    }
+
+    private AdaptiveTimeoutStats compute(String commandName, long now) {
+        int percentile = properties.getInt(commandName, "timeout.adaptive.percentile", RestRequestConfigurationDefaults.ADAPTIVE_TIMEOUT_PERCENTILE);
+        int observedLatency = 0;
+        for (HystrixCommandMetrics metrics : getMetrics(commandName)) {
+            observedLatency = Math.max(observedLatency, metrics.getExecutionTimePercentile(percentile));
+        }
+        if (observedLatency <= 0) {
+            return null;
+        }
+
+        int socketTimeout = computeTimeout(observedLatency,
+                properties.getDouble(commandName, "timeout.adaptive.multiplier", RestRequestConfigurationDefaults.ADAPTIVE_TIMEOUT_MULTIPLIER),
+                properties.getInt(commandName, "timeout.adaptive.minMs", RestRequestConfigurationDefaults.ADAPTIVE_TIMEOUT_MIN),
+                properties.getInt(commandName, "timeout.adaptive.maxMs", RestRequestConfigurationDefaults.ADAPTIVE_TIMEOUT_MAX));
+        int hystrixTimeout = socketTimeout + properties.getInt(commandName, "timeout.adaptive.hystrixMarginMs",
+                                                               RestRequestConfigurationDefaults.ADAPTIVE_TIMEOUT_HYSTRIX_MARGIN);
+
+        return new AdaptiveTimeoutStats(commandName, percentile, observedLatency, socketTimeout, hystrixTimeout, now);
+    }
+
+    /**
+     * @return the metrics of the command, and of its endpoint command keys when the client has several endpoints
+     */
+    static List<HystrixCommandMetrics> getMetrics(String commandName) {
+        final String endpointPrefix = commandName + RestClientProperties.ENDPOINT_SEPARATOR;
+        final List<HystrixCommandMetrics> commandMetrics = new ArrayList<>();
+        for (HystrixCommandMetrics metrics : HystrixCommandMetrics.getInstances()) {
+            String commandKeyName = metrics.getCommandKey().name();
+            if (commandKeyName.equals(commandName) || commandKeyName.startsWith(endpointPrefix)) {
+                commandMetrics.add(metrics);
+            }
+        }
+        return commandMetrics;
+    }
+
+    /**
+     * The observed latency times the multiplier, within the bounds
+     */
+    static int computeTimeout(int observedLatency, double multiplier, int minTimeout, int maxTimeout) {
+        long timeout = (long) Math.ceil(observedLatency * multiplier);
+        return (int) Math.max(minTimeout, Math.min(Math.max(minTimeout, maxTimeout), timeout));
+    }
+
+    /**
+     * Sets the Hystrix execution timeout of the command through Archaius, Hystrix reading it on every execution.
+     * The endpoint command keys follow it through the {@link EndpointCommandProperties}.
+     */
+    private void applyHystrixTimeout(AdaptiveTimeoutStats computed, AdaptiveTimeoutStats previous) {
+        if (previous != null && previous.getHystrixTimeoutMillis() == computed.getHystrixTimeoutMillis()) {
+            return;
+        }
+        LOGGER.debug("Adapting the timeouts of {}", computed);
+        setHystrixTimeout(computed.getCommandName(), computed.getHystrixTimeoutMillis());
+    }
+
+    /**
+     * Overrides the Hystrix execution timeout of the command, or clears the override when the timeout is null.
+     * The override layer of the Archaius configuration takes precedence over the configured value and leaves it
+     * untouched; with another configuration installed, the configured value is saved and set back instead.
+     */
+    private void setHystrixTimeout(String commandName, Integer timeoutMillis) {
+        final String property = String.format(HYSTRIX_TIMEOUT_PROPERTY, commandName);
+        final AbstractConfiguration config = ConfigurationManager.getConfigInstance();
+
+        if (config instanceof ConcurrentCompositeConfiguration) {
+            if (timeoutMillis == null) {
+                ((ConcurrentCompositeConfiguration) config).clearOverrideProperty(property);
+            } else {
+                ((ConcurrentCompositeConfiguration) config).setOverrideProperty(property, timeoutMillis);
+            }
+            return;
+        }
+
+        if (timeoutMillis != null) {
+            Object configured = config.getProperty(property);
+            configuredHystrixTimeouts.putIfAbsent(property, configured == null ? NOT_CONFIGURED : configured);
+            config.setProperty(property, timeoutMillis);
+            return;
+        }
+        Object configured = configuredHystrixTimeouts.remove(property);
+        if (configured == NOT_CONFIGURED) {
+            config.clearProperty(property);
+        } else if (configured != null) {
+            config.setProperty(property, configured);
+        }
+    }
+
+    /**
+     * Publishes the adaptive timeouts of the command on the platform MBean server.
+     * Commands of the same name in another client keep the gauges registered first.
+     */
+    private void registerGauges(final String commandName) {
+        try {
+            ObjectName objectName = new ObjectName(String.format(GAUGES_OBJECT_NAME, ObjectName.quote(commandName)));
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            if (mBeanServer.isRegistered(objectName)) {
+                return;
+            }
+            mBeanServer.registerMBean(new AdaptiveTimeoutGaugesMXBean() {
+                @Override
+                public int getPercentile() {
+                    AdaptiveTimeoutStats stats = timeouts.get(commandName);
+                    return stats == null ? 0 : stats.getPercentile();
+                }
+
+                @Override
+                public int getObservedLatencyMillis() {
+                    AdaptiveTimeoutStats stats = timeouts.get(commandName);
+                    return stats == null ? 0 : stats.getObservedLatencyMillis();
+                }
+
+                @Override
+                public int getSocketTimeoutMillis() {
+                    AdaptiveTimeoutStats stats = timeouts.get(commandName);
+                    return stats == null ? 0 : stats.getSocketTimeoutMillis();
+                }
+
+                @Override
+                public int getHystrixTimeoutMillis() {
+                    AdaptiveTimeoutStats stats = timeouts.get(commandName);
+                    return stats == null ? 0 : stats.getHystrixTimeoutMillis();
+                }
+            }, objectName);
+            gauges.put(commandName, objectName);
+        } catch (JMException ex) {
+            LOGGER.warn("Could not publish the adaptive timeouts of {}", commandName, ex);
+        }
+    }
+
+    private void unregisterGauges(String commandName) {
+        ObjectName objectName = gauges.remove(commandName);
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException ex) {
+            LOGGER.debug("Adaptive timeouts of {} already unpublished", commandName, ex);
+        }
+    }
+}
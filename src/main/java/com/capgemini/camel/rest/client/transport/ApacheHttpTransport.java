@@ -0,0 +1,31 @@
+package com.capgemini.camel.rest.client.transport;
+
+import java.io.IOException;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * The HTTP/1.1 transport of the Apache {@link HttpClient}, the default transport.
+ *
+ * @author Abbas Attarwala
+ */
+public class ApacheHttpTransport implements RestTransport {
+
+    private final HttpClient httpClient;
+
+    public ApacheHttpTransport(HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequestBase httpRequest, HttpContext httpContext) throws IOException {
+        return httpClient.execute(httpRequest, httpContext);
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+}
@@ -0,0 +1,32 @@
+package com.capgemini.camel.rest.client.transport;
+
+import java.io.IOException;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Sends the HTTP requests of the circuit breaker commands.
+ * <p/>
+ * The requests and responses keep the Apache HttpComponents types used throughout the client, a transport
+ * only decides how they travel. Implementations must honour {@link HttpRequestBase#abort()}, which is called
+ * when a command times out, and release the connection once the response entity has been consumed or the
+ * request has been reset.
+ *
+ * @author Abbas Attarwala
+ * @see ApacheHttpTransport
+ * @see com.capgemini.camel.rest.client.RestClient#TRANSPORT_HTTP2
+ */
+public interface RestTransport {
+
+    /**
+     * Sends the request and returns its response, whose entity is streamed from the connection
+     *
+     * @param httpRequest   The request to send
+     * @param httpContext   The request execution context
+     * @return              The response
+     * @throws IOException if the request cannot be sent or the response cannot be read
+     */
+    HttpResponse execute(HttpRequestBase httpRequest, HttpContext httpContext) throws IOException;
+}
@@ -0,0 +1,44 @@
+package com.capgemini.camel.rest.client.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with full jitter: the delay before a retry is drawn uniformly between zero
+ * and the exponential delay, so that clients failing together do not retry together.
+ *
+ * @author Abbas Attarwala
+ */
+public final class Backoff {
+
+    /**
+     * Private constructor
+     */
+    private Backoff() {
+        throw new RuntimeException("This is a non-instantiable class");
+    }
+
+    /**
+     * @param retry       The retry number, starting at 1
+     * @param baseDelay   The delay ceiling of the first retry
+     * @param maxDelay    The highest delay ceiling
+     * @return a random delay between 0 and <code>min(maxDelay, baseDelay * 2^(retry - 1))</code>
+     */
+    public static long fullJitter(int retry, long baseDelay, long maxDelay) {
+        return ThreadLocalRandom.current().nextLong(ceiling(retry, baseDelay, maxDelay) + 1);
+    }
+
+    /**
+     * @return the exponential delay ceiling of a retry, capped at maxDelay
+     */
+    public static long ceiling(int retry, long baseDelay, long maxDelay) {
+        if (baseDelay <= 0 || maxDelay <= 0) {
+            return 0;
+        }
+        int shift = Math.max(0, Math.min(retry - 1, 62));
+        long ceiling = baseDelay << shift;
+        if (ceiling >>> shift != baseDelay || ceiling > maxDelay) {
+            return maxDelay;
+        }
+        return ceiling;
+    }
+}
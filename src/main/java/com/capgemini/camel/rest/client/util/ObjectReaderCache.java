@@ -0,0 +1,71 @@
+package com.capgemini.camel.rest.client.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Caches one {@link ObjectReader} per target type of an {@link ObjectMapper}.
+ * <p/>
+ * Readers are immutable and thread-safe, so resolving the deserializer of a type once and
+ * reusing the reader saves the lookup on every call. A cache is bound to the mapper it was
+ * created with, replacing the mapper means replacing the cache.
+ *
+ * @author Abbas Attarwala
+ */
+public class ObjectReaderCache {
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<JavaType, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    public ObjectReaderCache(ObjectMapper objectMapper) {
+        if (objectMapper == null) {
+            throw new IllegalArgumentException("objectMapper is null");
+        }
+        this.objectMapper = objectMapper;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * @return the reader decoding payloads into the given class
+     */
+    public ObjectReader forType(Class<?> type) {
+        return forType(objectMapper.getTypeFactory().constructType(type));
+    }
+
+    /**
+     * @return the reader decoding payloads into the given generic type
+     */
+    public ObjectReader forType(TypeReference<?> type) {
+        return forType(objectMapper.getTypeFactory().constructType(type));
+    }
+
+    /**
+     * @return the reader decoding payloads into the given type
+     */
+    public ObjectReader forType(JavaType type) {
+        ObjectReader reader = readers.get(type);
+        if (reader == null) {
+            reader = objectMapper.readerFor(type);
+            ObjectReader cached = readers.putIfAbsent(type, reader);
+            if (cached != null) {
+                reader = cached;
+            }
+        }
+        return reader;
+    }
+
+    /**
+     * @return the number of cached readers
+     */
+    public int size() {
+        return readers.size();
+    }
+}
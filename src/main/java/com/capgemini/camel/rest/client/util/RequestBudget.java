@@ -0,0 +1,71 @@
+package com.capgemini.camel.rest.client.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the extra requests (hedges, retries) sent on top of the regular traffic to a percentage of it.
+ * <p/>
+ * Every regular request deposits a fraction of a token, every extra request withdraws a whole one, so
+ * over time the extra requests cannot exceed the percentage of the regular ones. The balance is capped,
+ * which bounds the burst of extra requests allowed after a quiet period, and starts with a few tokens
+ * so that a fresh client can send its first extra requests.
+ *
+ * @author Abbas Attarwala
+ */
+public class RequestBudget {
+
+    private static final long TOKEN = 1000;
+
+    private final AtomicLong balance;
+    private final long maxBalance;
+
+    /**
+     * @param initialTokens The number of extra requests allowed before any regular request is made
+     * @param maxTokens     The maximum number of extra requests which can be saved up
+     */
+    public RequestBudget(int initialTokens, int maxTokens) {
+        this.maxBalance = Math.max(1, maxTokens) * TOKEN;
+        this.balance = new AtomicLong(Math.min(initialTokens * TOKEN, maxBalance));
+    }
+
+    /**
+     * Records a regular request, adding the percentage of a token to the budget
+     *
+     * @param percent  The percentage of the regular requests allowed as extra requests
+     */
+    public void recordRequest(int percent) {
+        final long deposit = TOKEN * Math.max(0, percent) / 100;
+        if (deposit == 0) {
+            return;
+        }
+        long current;
+        long updated;
+        do {
+            current = balance.get();
+            updated = Math.min(maxBalance, current + deposit);
+        } while (current != updated && !balance.compareAndSet(current, updated));
+    }
+
+    /**
+     * Withdraws one token for an extra request
+     *
+     * @return TRUE if the extra request can be sent, FALSE if the budget is exhausted
+     */
+    public boolean tryAcquire() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    /**
+     * @return the number of extra requests which can currently be sent
+     */
+    public long getAvailableTokens() {
+        return balance.get() / TOKEN;
+    }
+}
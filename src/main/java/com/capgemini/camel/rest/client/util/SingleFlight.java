@@ -0,0 +1,71 @@
+package com.capgemini.camel.rest.client.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Coalesces concurrent executions of the same call.
+ * <p/>
+ * The first thread to execute a call for a key runs it, every thread arriving with the same key
+ * while the call is in flight waits for it and receives the same result or exception.
+ * Once the call has completed the next execution for the key runs the call again.
+ *
+ * @param <K> the key type identifying identical calls
+ * @param <V> the result type
+ *
+ * @author Abbas Attarwala
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Executes the call, or waits for the identical call already in flight.
+     *
+     * @param key   The key identifying identical calls
+     * @param call  The call to execute
+     * @return      The result of the call
+     * @throws Exception the exception thrown by the call
+     */
+    public V execute(K key, Callable<V> call) throws Exception {
+        final CompletableFuture<V> flight = new CompletableFuture<>();
+        final CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+
+        if (leader != null) {
+            return await(leader);
+        }
+
+        try {
+            V result = call.call();
+            flight.complete(result);
+            return result;
+        } catch (Exception | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * @return the number of calls currently in flight
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private V await(CompletableFuture<V> leader) throws Exception {
+        try {
+            return leader.get();
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.capgemini.camel.rest.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.capgemini.camel.rest.client.model.RestRequest;
+import com.capgemini.camel.rest.client.testsupport.StubResponse;
+import com.capgemini.camel.rest.client.testsupport.StubServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.config.ConfigurationManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Tests for the collapsing of single-key lookups into bulk requests
+ *
+ * @author Abbas Attarwala
+ */
+public class BatchingCollapserTest {
+
+    private static final String WINDOW_PROPERTY = "http.request.batchedItems.collapser.windowMs";
+
+    private StubServer firstServer;
+    private StubServer secondServer;
+    private ExecutorService callers;
+
+    @Before
+    public void setUp() throws Exception {
+        firstServer = new StubServer(8).stub("/items", StubResponse.ok("{\"1\":\"first-1\",\"2\":\"first-2\"}"));
+        secondServer = new StubServer(8).stub("/items", StubResponse.ok("{\"1\":\"second-1\",\"2\":\"second-2\"}"));
+        callers = Executors.newFixedThreadPool(4);
+        ConfigurationManager.getConfigInstance().setProperty(WINDOW_PROPERTY, 100);
+    }
+
+    @After
+    public void tearDown() {
+        ConfigurationManager.getConfigInstance().clearProperty(WINDOW_PROPERTY);
+        callers.shutdownNow();
+        firstServer.close();
+        secondServer.close();
+    }
+
+    @Test
+    public void testConcurrentLookupsAreSentAsOneRequest() throws Exception {
+        RestClient restClient = new RestClient("BatchGroupKey", firstServer.getEndPoint());
+        restClient.registerBatchRequestHandler("batchedItems", new ItemsHandler(""));
+
+        List<String> results = lookUpConcurrently(restClient, "1", "2");
+
+        assertEquals("first-1", results.get(0));
+        assertEquals("first-2", results.get(1));
+        assertEquals(1, firstServer.getRequestCount());
+    }
+
+    @Test
+    public void testClientsSharingACommandNameAreNotMixed() throws Exception {
+        RestClient firstClient = new RestClient("BatchGroupKey", firstServer.getEndPoint());
+        RestClient secondClient = new RestClient("BatchGroupKey", secondServer.getEndPoint());
+        firstClient.registerBatchRequestHandler("batchedItems", new ItemsHandler(""));
+        secondClient.registerBatchRequestHandler("batchedItems", new ItemsHandler(""));
+
+        assertEquals("first-1", firstClient.getBatched("batchedItems", "1"));
+        assertEquals("second-1", secondClient.getBatched("batchedItems", "1"));
+        assertEquals(1, secondServer.getRequestCount());
+    }
+
+    @Test
+    public void testHandlerRegisteredAgainReplacesThePreviousOne() throws Exception {
+        RestClient restClient = new RestClient("BatchGroupKey", firstServer.getEndPoint());
+        restClient.registerBatchRequestHandler("batchedItems", new ItemsHandler(""));
+        assertEquals("first-1", restClient.getBatched("batchedItems", "1"));
+
+        restClient.registerBatchRequestHandler("batchedItems", new ItemsHandler("replaced-"));
+        assertEquals("replaced-first-1", restClient.getBatched("batchedItems", "1"));
+    }
+
+    @Test
+    public void testCollapserKeyFollowsTheWindowAndBatchSize() {
+        RestClient restClient = new RestClient("BatchGroupKey", firstServer.getEndPoint());
+
+        assertEquals(BatchingCollapser.collapserKeyName(restClient, "batchedItems", 10, 100),
+                BatchingCollapser.collapserKeyName(restClient, "batchedItems", 10, 100));
+        assertNotEquals(BatchingCollapser.collapserKeyName(restClient, "batchedItems", 10, 100),
+                BatchingCollapser.collapserKeyName(restClient, "batchedItems", 20, 100));
+        assertNotEquals(BatchingCollapser.collapserKeyName(restClient, "batchedItems", 10, 100),
+                BatchingCollapser.collapserKeyName(new RestClient("BatchGroupKey", firstServer.getEndPoint()), "batchedItems", 10, 100));
+    }
+
+    private List<String> lookUpConcurrently(final RestClient restClient, String... keys) throws Exception {
+        List<Future<String>> futures = new ArrayList<>();
+        for (final String key : keys) {
+            futures.add(callers.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return restClient.getBatched("batchedItems", key);
+                }
+            }));
+        }
+        List<String> results = new ArrayList<>();
+        for (Future<String> future : futures) {
+            results.add(future.get(5, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    /**
+     * Looks the keys up with GET /items?ids=..., the bulk response being a JSON object keyed by id
+     */
+    private static final class ItemsHandler implements BatchRequestHandler {
+
+        private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+        private final String prefix;
+
+        private ItemsHandler(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public RestRequest createBatchRequest(Collection<String> keys) {
+            Map<String, String> queryParams = new LinkedHashMap<>();
+            queryParams.put("ids", String.join(",", keys));
+            return RestRequest.get("/items", "bulkItems", queryParams, null);
+        }
+
+        @Override
+        public Map<String, String> splitBatchResponse(String json, Collection<String> keys) throws Exception {
+            JsonNode items = OBJECT_MAPPER.readTree(json);
+            Map<String, String> responses = new LinkedHashMap<>();
+            for (String key : keys) {
+                if (items.has(key)) {
+                    responses.put(key, prefix + items.get(key).asText());
+                }
+            }
+            return responses;
+        }
+    }
+}
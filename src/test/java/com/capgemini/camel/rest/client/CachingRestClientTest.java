@@ -0,0 +1,149 @@
+package com.capgemini.camel.rest.client;
+
+import java.util.concurrent.TimeUnit;
+
+import com.capgemini.camel.exception.rest.RestClientSideException;
+import com.capgemini.camel.exception.rest.RestServerSideException;
+import com.capgemini.camel.rest.client.cache.ResponseCacheStats;
+import com.capgemini.camel.rest.client.cache.SharedResponseCache;
+import com.capgemini.camel.rest.client.testsupport.LatencyDistribution;
+import com.capgemini.camel.rest.client.testsupport.StubResponse;
+import com.capgemini.camel.rest.client.testsupport.StubServer;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestContext;
+import org.apache.http.entity.ContentType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the CachingRestClient, against a StubServer
+ *
+ * @author Abbas Attarwala
+ */
+public class CachingRestClientTest {
+
+    private static final String VALIDATE_JSON_PROPERTY = "http.request.CachingGroupKey.validateJson";
+    private static final String CACHE_ENABLED_PROPERTY = "http.request.CachingGroupKey.cache.enabled";
+    private static final String CACHE_TTL_PROPERTY = "http.request.CachingGroupKey.cache.ttl";
+
+    private StubServer server;
+    private HystrixRequestContext context;
+    private CachingRestClient cachingRestClient;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer(8);
+        context = HystrixRequestContext.initializeContext();
+        cachingRestClient = new CachingRestClient("CachingGroupKey", server.getEndPoint());
+    }
+
+    @After
+    public void tearDown() {
+        ConfigurationManager.getConfigInstance().clearProperty(VALIDATE_JSON_PROPERTY);
+        ConfigurationManager.getConfigInstance().clearProperty(CACHE_ENABLED_PROPERTY);
+        ConfigurationManager.getConfigInstance().clearProperty(CACHE_TTL_PROPERTY);
+        context.shutdown();
+        server.close();
+    }
+
+    @Test(expected = RestClientSideException.class)
+    public void testNotFoundIsAClientSideError() throws Exception {
+        server.stub("/missing", StubResponse.status(404, "{\"error\":\"not found\"}"));
+
+        cachingRestClient.get("/missing", "cachedGetMissing", "missing", null);
+    }
+
+    @Test(expected = RestServerSideException.class)
+    public void testServerErrorIsAServerSideError() throws Exception {
+        server.stub("/failing", StubResponse.status(500, "{}"));
+
+        cachingRestClient.get("/failing", "cachedGetFailing", "failing", null);
+    }
+
+    @Test
+    public void testEmptyCreatedResponseIsValidJson() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty(VALIDATE_JSON_PROPERTY, true);
+        server.stub("/items", StubResponse.status(201, ""));
+
+        assertEquals("", cachingRestClient.post("/items", "cachedPostItem", "{\"name\":\"one\"}", "item-1", null,
+                ContentType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void testStaleEntryIsRevalidatedWithItsEntityTag() throws Exception {
+        server.stub("/items/etag", StubResponse.ok("{\"id\":1}").withEntityTag("\"v1\""));
+
+        assertRevalidated("/items/etag", "cachedGetEntityTag");
+    }
+
+    @Test
+    public void testStaleEntryIsRevalidatedWithItsLastModifiedDate() throws Exception {
+        server.stub("/items/modified", StubResponse.ok("{\"id\":1}").withLastModified("Mon, 05 Oct 2026 10:00:00 GMT"));
+
+        assertRevalidated("/items/modified", "cachedGetLastModified");
+    }
+
+    @Test
+    public void testStaleWhileRevalidateServesTheStaleEntryAndRefreshesItOnce() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty(CACHE_ENABLED_PROPERTY, true);
+        final String cacheControl = "max-age=1, stale-while-revalidate=30";
+        server.stub("/items/swr", StubResponse.ok("{\"version\":1}").withHeader("Cache-Control", cacheControl));
+
+        assertEquals("{\"version\":1}", cachingRestClient.get("/items/swr", "cachedGetStaleWhileRevalidate", "item-1", null));
+        Thread.sleep(1100);
+        server.stub("/items/swr", StubResponse.ok("{\"version\":2}").withHeader("Cache-Control", cacheControl)
+                .withLatency(LatencyDistribution.fixed(300)));
+
+        for (int i = 0; i < 3; i++) {
+            renewRequestContext();
+            long start = System.nanoTime();
+            assertEquals("{\"version\":1}", cachingRestClient.get("/items/swr", "cachedGetStaleWhileRevalidate", "item-1", null));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue("Took " + elapsedMillis + " ms", elapsedMillis < 200);
+        }
+
+        String refreshed = null;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!"{\"version\":2}".equals(refreshed) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            renewRequestContext();
+            refreshed = cachingRestClient.get("/items/swr", "cachedGetStaleWhileRevalidate", "item-1", null);
+        }
+        assertEquals("{\"version\":2}", refreshed);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    /**
+     * Loads a resource into the shared cache, lets the entry go stale and checks that the next call
+     * is answered with a 304 which extends the entry, each call in a request context of its own
+     */
+    private void assertRevalidated(String resourcePath, String commandName) throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty(CACHE_ENABLED_PROPERTY, true);
+        ConfigurationManager.getConfigInstance().setProperty(CACHE_TTL_PROPERTY, 200);
+
+        assertEquals("{\"id\":1}", cachingRestClient.get(resourcePath, commandName, "item-1", null));
+        Thread.sleep(300);
+
+        renewRequestContext();
+        assertEquals("{\"id\":1}", cachingRestClient.get(resourcePath, commandName, "item-1", null));
+        assertEquals(2, server.getRequestCount());
+
+        renewRequestContext();
+        assertEquals("{\"id\":1}", cachingRestClient.get(resourcePath, commandName, "item-1", null));
+        assertEquals(2, server.getRequestCount());
+
+        ResponseCacheStats stats = SharedResponseCache.getInstance().getStats(commandName);
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getRevalidationCount());
+        assertEquals(2, stats.getHitCount());
+    }
+
+    private void renewRequestContext() {
+        context.shutdown();
+        context = HystrixRequestContext.initializeContext();
+    }
+}
@@ -0,0 +1,118 @@
+package com.capgemini.camel.rest.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.capgemini.camel.exception.rest.RestClientSideException;
+import com.capgemini.camel.exception.rest.RestServerSideException;
+import com.capgemini.camel.rest.client.circuitbreaker.CommandAsyncRestResourceCall;
+import com.capgemini.camel.rest.client.testsupport.LatencyDistribution;
+import com.capgemini.camel.rest.client.testsupport.StubResponse;
+import com.capgemini.camel.rest.client.testsupport.StubServer;
+import com.netflix.hystrix.HystrixCommandProperties;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the non-blocking verbs of the RestClient, against a StubServer
+ *
+ * @author Abbas Attarwala
+ */
+public class RestClientAsyncTest {
+
+    private StubServer server;
+    private CloseableHttpAsyncClient httpAsyncClient;
+    private RestClient restClient;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer(64);
+        httpAsyncClient = HttpAsyncClients.custom().setMaxConnTotal(64).setMaxConnPerRoute(64).build();
+        httpAsyncClient.start();
+        restClient = new RestClient("AsyncGroupKey", server.getEndPoint());
+        restClient.setHttpAsyncClient(httpAsyncClient);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        httpAsyncClient.close();
+        server.close();
+    }
+
+    @Test
+    public void testGetAsync() throws Exception {
+        server.stub("/items/1", StubResponse.ok("{\"id\":1}"));
+
+        assertEquals("{\"id\":1}", restClient.getAsync("/items/1", "asyncGetItem", null).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPostPutAndDeleteAsync() throws Exception {
+        server.stub("/items", StubResponse.status(201, "{\"id\":2}"));
+        server.stub("/items/2", StubResponse.ok("{\"id\":2,\"name\":\"two\"}"));
+
+        assertEquals("{\"id\":2}", restClient.postAsync("/items", "asyncPostItem", "{\"name\":\"two\"}", null,
+                ContentType.APPLICATION_JSON).get(5, TimeUnit.SECONDS));
+        assertEquals("{\"id\":2,\"name\":\"two\"}", restClient.putAsync("/items/2", "asyncPutItem", "{\"name\":\"two\"}", null,
+                ContentType.APPLICATION_JSON).get(5, TimeUnit.SECONDS));
+        assertEquals("{\"id\":2,\"name\":\"two\"}", restClient.deleteAsync("/items/2", "asyncDeleteItem", null)
+                .get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAsyncFailuresMatchTheBlockingCalls() throws Exception {
+        server.stub("/missing", StubResponse.status(404, "{}"));
+        server.stub("/failing", StubResponse.status(500, "{}"));
+
+        assertFailsWith(RestClientSideException.class, restClient.getAsync("/missing", "asyncGetMissing", null));
+        assertFailsWith(RestServerSideException.class, restClient.getAsync("/failing", "asyncGetFailing", null));
+    }
+
+    @Test
+    public void testMoreThanTenCallsInFlight() throws Exception {
+        server.stub("/slow", StubResponse.ok("{}").withLatency(LatencyDistribution.fixed(200)));
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            results.add(restClient.getAsync("/slow", "asyncGetSlow", null));
+        }
+        for (CompletableFuture<String> result : results) {
+            assertEquals("{}", result.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testAsyncCommandHasItsOwnSemaphoreIsolatedKey() {
+        CommandAsyncRestResourceCall command = new CommandAsyncRestResourceCall("AsyncGroupKey", "asyncKeyCommand",
+                new HttpGet(server.getEndPoint()), httpAsyncClient, HttpClientContext.create());
+
+        assertEquals("asyncKeyCommand" + CommandAsyncRestResourceCall.COMMAND_KEY_SUFFIX, command.getCommandKey().name());
+        assertEquals(HystrixCommandProperties.ExecutionIsolationStrategy.SEMAPHORE,
+                command.getProperties().executionIsolationStrategy().get());
+        assertTrue(command.getProperties().executionIsolationSemaphoreMaxConcurrentRequests().get() > 10);
+    }
+
+    private static void assertFailsWith(Class<? extends Exception> expected, CompletableFuture<String> result)
+            throws InterruptedException, TimeoutException {
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            fail("Expected " + expected.getSimpleName());
+        } catch (ExecutionException ee) {
+            assertTrue("Unexpected " + ee.getCause(), expected.isInstance(ee.getCause()));
+        }
+    }
+}
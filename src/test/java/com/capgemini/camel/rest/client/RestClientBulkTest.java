@@ -0,0 +1,116 @@
+package com.capgemini.camel.rest.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.capgemini.camel.exception.rest.RestClientSideException;
+import com.capgemini.camel.exception.rest.RestConnectionException;
+import com.capgemini.camel.exception.rest.RestServerSideException;
+import com.capgemini.camel.rest.client.model.RestRequest;
+import com.capgemini.camel.rest.client.model.RestResult;
+import com.capgemini.camel.rest.client.testsupport.LatencyDistribution;
+import com.capgemini.camel.rest.client.testsupport.StubResponse;
+import com.capgemini.camel.rest.client.testsupport.StubServer;
+import com.netflix.config.ConfigurationManager;
+import org.apache.http.entity.ContentType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the bulk execution of the RestClient, against a StubServer
+ *
+ * @author Abbas Attarwala
+ */
+public class RestClientBulkTest {
+
+    private static final String MAX_CONCURRENCY_PROPERTY = "http.request.BulkGroupKey.bulk.maxConcurrency";
+
+    private StubServer server;
+    private RestClient restClient;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer(64);
+        restClient = new RestClient("BulkGroupKey", server.getEndPoint());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        ConfigurationManager.getConfigInstance().clearProperty(MAX_CONCURRENCY_PROPERTY);
+        server.close();
+    }
+
+    @Test
+    public void testResultsAreInTheOrderOfTheRequests() throws Exception {
+        server.stub("/items/1", StubResponse.ok("{\"id\":1}").withLatency(LatencyDistribution.fixed(200)));
+        server.stub("/items/2", StubResponse.ok("{\"id\":2}"));
+        server.stub("/items", StubResponse.status(201, "{\"id\":3}"));
+        server.stub("/missing", StubResponse.status(404, "{}"));
+        server.stub("/failing", StubResponse.status(500, "{}"));
+
+        List<RestRequest> requests = Arrays.asList(
+                RestRequest.get("/items/1", "bulkGetSlowItem", null, null),
+                RestRequest.get("/missing", "bulkGetMissing", null, null),
+                RestRequest.get("/items/2", "bulkGetItem", null, null),
+                RestRequest.post("/items", "bulkPostItem", "{\"name\":\"three\"}", null, ContentType.APPLICATION_JSON, null),
+                RestRequest.delete("/failing", "bulkDeleteFailing", null, null));
+
+        List<RestResult> results = restClient.executeAll(requests);
+
+        assertEquals(requests.size(), results.size());
+        for (int i = 0; i < requests.size(); i++) {
+            assertSame(requests.get(i), results.get(i).getRequest());
+        }
+        assertEquals("{\"id\":1}", results.get(0).getJsonResponse());
+        assertTrue(results.get(1).getException() instanceof RestClientSideException);
+        assertNull(results.get(1).getJsonResponse());
+        assertEquals("{\"id\":2}", results.get(2).getJsonResponse());
+        assertEquals("{\"id\":3}", results.get(3).getJsonResponse());
+        assertTrue(results.get(4).getException() instanceof RestServerSideException);
+    }
+
+    @Test
+    public void testMaxConcurrencyCapsTheRequestsInFlight() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty(MAX_CONCURRENCY_PROPERTY, 2);
+        server.stub("/slow", StubResponse.ok("{}").withLatency(LatencyDistribution.fixed(100)));
+
+        List<RestRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            requests.add(RestRequest.get("/slow", "bulkGetCapped", null, null));
+        }
+
+        for (RestResult result : restClient.executeAll(requests)) {
+            assertTrue(result.toString(), result.isSuccess());
+        }
+        assertEquals(8, server.getRequestCount());
+        assertEquals(2, server.getMaxInFlightCount());
+    }
+
+    @Test
+    public void testDeadlineAbortsTheUnfinishedRequests() throws Exception {
+        server.stub("/fast", StubResponse.ok("{\"fast\":true}"));
+        server.stub("/slow", StubResponse.ok("{}").withLatency(LatencyDistribution.fixed(3000)));
+
+        List<RestRequest> requests = Arrays.asList(
+                RestRequest.get("/fast", "bulkGetFast", null, null),
+                RestRequest.get("/slow", "bulkGetBeyondDeadline", null, null));
+
+        long start = System.nanoTime();
+        List<RestResult> results = restClient.executeAll(requests, 300, TimeUnit.MILLISECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("{\"fast\":true}", results.get(0).getJsonResponse());
+        assertFalse(results.get(1).isSuccess());
+        assertTrue(results.get(1).getException() instanceof RestConnectionException);
+        assertTrue("Took " + elapsedMillis + " ms", elapsedMillis < 1000);
+    }
+}
@@ -0,0 +1,155 @@
+package com.capgemini.camel.rest.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import com.capgemini.camel.rest.client.testsupport.RecordedRequest;
+import com.capgemini.camel.rest.client.testsupport.StubResponse;
+import com.capgemini.camel.rest.client.testsupport.StubServer;
+import com.netflix.config.ConfigurationManager;
+import org.apache.http.Header;
+import org.apache.http.entity.ContentType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for the compression of the requests and responses of the RestClient, against a StubServer
+ *
+ * @author Abbas Attarwala
+ */
+public class RestClientCompressionTest {
+
+    private static final String COMPRESSION_PROPERTY = "http.request.CompressionGroupKey.compression.enabled";
+    private static final String REQUEST_COMPRESSION_PROPERTY = "http.request.CompressionGroupKey.compression.request.enabled";
+    private static final String REQUEST_MIN_SIZE_PROPERTY = "http.request.CompressionGroupKey.compression.request.minSize";
+    private static final String JSON = "{\"items\":[\"one\",\"two\",\"three\"]}";
+
+    private StubServer server;
+    private RestClient restClient;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer(8);
+        server.stub("/items", StubResponse.ok("{\"id\":1}"));
+        restClient = new RestClient("CompressionGroupKey", server.getEndPoint());
+    }
+
+    @After
+    public void tearDown() {
+        ConfigurationManager.getConfigInstance().clearProperty(COMPRESSION_PROPERTY);
+        ConfigurationManager.getConfigInstance().clearProperty(REQUEST_COMPRESSION_PROPERTY);
+        ConfigurationManager.getConfigInstance().clearProperty(REQUEST_MIN_SIZE_PROPERTY);
+        server.close();
+    }
+
+    @Test
+    public void testCompressedResponsesAreOnlyAskedForWhenEnabled() throws Exception {
+        restClient.get("/items", "compressionGetDisabled", null);
+        assertNull(server.getLastRequest().getHeader("Accept-Encoding"));
+
+        ConfigurationManager.getConfigInstance().setProperty(COMPRESSION_PROPERTY, true);
+        restClient.get("/items", "compressionGetEnabled", null);
+        assertEquals(RestClient.ACCEPTED_ENCODINGS, server.getLastRequest().getHeader("Accept-Encoding"));
+    }
+
+    @Test
+    public void testCallerAcceptEncodingIsKept() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty(COMPRESSION_PROPERTY, true);
+
+        restClient.get("/items", "compressionGetIdentity", null, Collections.singletonMap("Accept-Encoding", "identity"));
+
+        assertEquals("identity", server.getLastRequest().getHeader("Accept-Encoding"));
+    }
+
+    @Test
+    public void testGzipResponseIsDecompressed() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty(COMPRESSION_PROPERTY, true);
+        server.stub("/gzip", StubResponse.ok(JSON).withContentEncoding("gzip"));
+
+        assertEquals(JSON, restClient.get("/gzip", "compressionGetGzip", null));
+    }
+
+    @Test
+    public void testDeflateResponseIsDecompressed() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty(COMPRESSION_PROPERTY, true);
+        server.stub("/deflate", StubResponse.ok(JSON).withContentEncoding("deflate"));
+
+        assertEquals(JSON, restClient.get("/deflate", "compressionGetDeflate", null));
+    }
+
+    @Test
+    public void testStreamedResponseIsDecompressed() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty(COMPRESSION_PROPERTY, true);
+        server.stub("/gzip", StubResponse.ok(JSON).withContentEncoding("gzip"));
+
+        assertEquals(JSON, restClient.getStreaming("/gzip", "compressionGetGzipStreaming", null, null,
+                new RestResponseHandler<String>() {
+                    @Override
+                    public String handleResponse(int httpStatusCode, Header[] headers, InputStream body)
+                            throws IOException {
+                        return new String(readAll(body), "UTF-8");
+                    }
+                }));
+    }
+
+    @Test
+    public void testRequestPayloadsAreCompressedFromTheMinimumSize() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty(REQUEST_COMPRESSION_PROPERTY, true);
+        ConfigurationManager.getConfigInstance().setProperty(REQUEST_MIN_SIZE_PROPERTY, 1024);
+
+        byte[] small = payload(1023);
+        restClient.postBytes("/items", "compressionPostSmall", small, null, ContentType.APPLICATION_JSON, null);
+        assertNull(server.getLastRequest().getHeader("Content-Encoding"));
+        assertArrayEquals(small, server.getLastRequest().getBody());
+
+        byte[] large = payload(1024);
+        restClient.postBytes("/items", "compressionPostLarge", large, null, ContentType.APPLICATION_JSON, null);
+        assertGzipped(large, server.getLastRequest());
+
+        restClient.postStream("/items", "compressionPostStream", new ByteArrayInputStream(small), -1,
+                null, ContentType.APPLICATION_JSON, null);
+        assertGzipped(small, server.getLastRequest());
+    }
+
+    @Test
+    public void testRequestPayloadsAreNotCompressedByDefault() throws Exception {
+        byte[] large = payload(4096);
+
+        restClient.putBytes("/items", "compressionPutDefault", large, null, ContentType.APPLICATION_JSON, null);
+
+        assertNull(server.getLastRequest().getHeader("Content-Encoding"));
+        assertArrayEquals(large, server.getLastRequest().getBody());
+    }
+
+    private static void assertGzipped(byte[] expected, RecordedRequest request) throws IOException {
+        assertEquals("gzip", request.getHeader("Content-Encoding"));
+        assertArrayEquals(expected, readAll(new GZIPInputStream(new ByteArrayInputStream(request.getBody()))));
+    }
+
+    private static byte[] payload(int length) {
+        byte[] payload = new byte[length];
+        for (int i = 0; i < length; i++) {
+            payload[i] = (byte) ('a' + i % 26);
+        }
+        return payload;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
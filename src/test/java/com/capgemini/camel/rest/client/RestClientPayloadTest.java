@@ -0,0 +1,116 @@
+package com.capgemini.camel.rest.client;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.capgemini.camel.rest.client.testsupport.RecordedRequest;
+import com.capgemini.camel.rest.client.testsupport.StubResponse;
+import com.capgemini.camel.rest.client.testsupport.StubServer;
+import org.apache.http.entity.ContentType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for the binary, streamed and serialized payloads of the RestClient, against a StubServer
+ *
+ * @author Abbas Attarwala
+ */
+public class RestClientPayloadTest {
+
+    private static final byte[] BINARY_PAYLOAD = {0, 1, 2, (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 127, -1};
+
+    private StubServer server;
+    private RestClient restClient;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer(8);
+        server.stub("/items", StubResponse.ok("{\"id\":3}"));
+        restClient = new RestClient("PayloadGroupKey", server.getEndPoint());
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testBinaryPayloadsAreSentAsIs() throws Exception {
+        assertEquals("{\"id\":3}", restClient.postBytes("/items", "payloadPostBytes", BINARY_PAYLOAD, null, null, null));
+        assertReceived("POST", ContentType.APPLICATION_OCTET_STREAM.getMimeType(), BINARY_PAYLOAD);
+        assertEquals(String.valueOf(BINARY_PAYLOAD.length), server.getLastRequest().getHeader("Content-Length"));
+
+        assertEquals("{\"id\":3}", restClient.putBytes("/items", "payloadPutBytes", BINARY_PAYLOAD, null,
+                ContentType.create("image/png"), null));
+        assertReceived("PUT", "image/png", BINARY_PAYLOAD);
+    }
+
+    @Test
+    public void testStreamedPayloadsOfUnknownLengthAreSentChunked() throws Exception {
+        byte[] payload = largePayload();
+
+        assertEquals("{\"id\":3}", restClient.postStream("/items", "payloadPostStream", new ByteArrayInputStream(payload), -1,
+                null, ContentType.APPLICATION_JSON, null));
+        assertReceived("POST", ContentType.APPLICATION_JSON.getMimeType(), payload);
+        assertEquals("chunked", server.getLastRequest().getHeader("Transfer-Encoding"));
+        assertNull(server.getLastRequest().getHeader("Content-Length"));
+
+        assertEquals("{\"id\":3}", restClient.putStream("/items", "payloadPutStream", new ByteArrayInputStream(payload), -1,
+                null, null, null));
+        assertReceived("PUT", ContentType.APPLICATION_OCTET_STREAM.getMimeType(), payload);
+        assertEquals("chunked", server.getLastRequest().getHeader("Transfer-Encoding"));
+    }
+
+    @Test
+    public void testStreamedPayloadsOfKnownLengthAreNotChunked() throws Exception {
+        assertEquals("{\"id\":3}", restClient.postStream("/items", "payloadPostSizedStream",
+                new ByteArrayInputStream(BINARY_PAYLOAD), BINARY_PAYLOAD.length, null, null, null));
+        assertReceived("POST", ContentType.APPLICATION_OCTET_STREAM.getMimeType(), BINARY_PAYLOAD);
+        assertEquals(String.valueOf(BINARY_PAYLOAD.length), server.getLastRequest().getHeader("Content-Length"));
+    }
+
+    @Test
+    public void testObjectsAreSerializedToJson() throws Exception {
+        byte[] json = "{\"id\":3,\"name\":\"three\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals("{\"id\":3}", restClient.postObject("/items", "payloadPostObject", new Item(3, "three"), null, null));
+        assertReceived("POST", ContentType.APPLICATION_JSON.getMimeType(), json);
+
+        assertEquals("{\"id\":3}", restClient.putObject("/items", "payloadPutObject", new Item(3, "three"), null, null));
+        assertReceived("PUT", ContentType.APPLICATION_JSON.getMimeType(), json);
+    }
+
+    private void assertReceived(String method, String mimeType, byte[] payload) {
+        RecordedRequest request = server.getLastRequest();
+        assertEquals(method, request.getMethod());
+        assertEquals(mimeType, ContentType.parse(request.getHeader("Content-Type")).getMimeType());
+        assertArrayEquals(payload, request.getBody());
+    }
+
+    private static byte[] largePayload() {
+        byte[] payload = new byte[64 * 1024];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) (i % 251);
+        }
+        return payload;
+    }
+
+    /**
+     * A payload serialized with the ObjectMapper of the client
+     */
+    public static final class Item {
+
+        public final int id;
+        public final String name;
+
+        Item(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
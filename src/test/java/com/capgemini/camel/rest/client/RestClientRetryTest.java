@@ -0,0 +1,119 @@
+package com.capgemini.camel.rest.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+import com.capgemini.camel.exception.rest.RestClientSideException;
+import com.capgemini.camel.exception.rest.RestServerSideException;
+import com.capgemini.camel.rest.client.testsupport.StubResponse;
+import com.capgemini.camel.rest.client.testsupport.StubServer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.netflix.config.ConfigurationManager;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the retries of the RestClient, against a StubServer
+ *
+ * @author Abbas Attarwala
+ */
+public class RestClientRetryTest {
+
+    private static final String MAX_RETRIES_PROPERTY = "http.request.RetryGroupKey.retry.maxRetries";
+
+    private StubServer server;
+    private RestClient restClient;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer(8);
+        restClient = new RestClient("RetryGroupKey", server.getEndPoint());
+        ConfigurationManager.getConfigInstance().setProperty(MAX_RETRIES_PROPERTY, 2);
+    }
+
+    @After
+    public void tearDown() {
+        ConfigurationManager.getConfigInstance().clearProperty(MAX_RETRIES_PROPERTY);
+        server.close();
+    }
+
+    @Test
+    public void testConnectionFailuresAreTransient() {
+        assertTrue(restClient.isTransient(new ConnectException("Connection refused")));
+        assertTrue(restClient.isTransient(new SocketTimeoutException("Read timed out")));
+        assertTrue(restClient.isTransient(new NoHttpResponseException("The target server failed to respond")));
+    }
+
+    @Test
+    public void testSerializationFailuresAreNotTransient() {
+        assertFalse(restClient.isTransient(new JsonMappingException((Closeable) null, "No serializer found")));
+        assertFalse(restClient.isTransient(new IOException("Unexpected end of stream")));
+    }
+
+    @Test
+    public void testNonRepeatableStreamIsNeverRetried() throws Exception {
+        server.stub("/unavailable", StubResponse.status(503, "{}"));
+
+        try {
+            restClient.putStream("/unavailable", "retryPutStream",
+                    new ByteArrayInputStream("{\"id\":1}".getBytes(StandardCharsets.UTF_8)), -1, null, ContentType.APPLICATION_JSON, null);
+            fail("Expected RestServerSideException");
+        } catch (RestServerSideException rsse) {
+            assertEquals(1, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void testRetryBudgetStartsWithOneToken() throws Exception {
+        server.stub("/unavailable", StubResponse.status(503, "{}"));
+
+        try {
+            restClient.get("/unavailable", "retryGetUnavailable", null);
+            fail("Expected RestServerSideException");
+        } catch (RestServerSideException rsse) {
+            assertEquals(2, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void testEveryAttemptHasItsOwnRequest() {
+        HttpPut httpRequest = new HttpPut(server.getEndPoint() + "/items/1");
+        httpRequest.setHeader("Accept", "application/json");
+        httpRequest.setEntity(new StringEntity("{}", ContentType.APPLICATION_JSON));
+        httpRequest.setConfig(RequestConfig.custom().setSocketTimeout(1234).build());
+
+        HttpRequestBase copy = restClient.copyRequest(httpRequest);
+
+        assertNotSame(httpRequest, copy);
+        assertEquals("PUT", copy.getMethod());
+        assertEquals(httpRequest.getURI(), copy.getURI());
+        assertEquals("application/json", copy.getFirstHeader("Accept").getValue());
+        assertSame(httpRequest.getEntity(), ((HttpPut) copy).getEntity());
+        assertEquals(1234, copy.getConfig().getSocketTimeout());
+    }
+
+    @Test(expected = RestClientSideException.class)
+    public void testUnserializablePayloadIsABadRequest() throws Exception {
+        server.stub("/items/1", StubResponse.ok("{}"));
+
+        restClient.putObject("/items/1", "retryPutUnserializable", new Object(), null, null);
+    }
+}
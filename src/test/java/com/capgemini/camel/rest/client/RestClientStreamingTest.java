@@ -0,0 +1,166 @@
+package com.capgemini.camel.rest.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+
+import com.capgemini.camel.exception.rest.RestClientSideException;
+import com.capgemini.camel.rest.client.connection.ConnectionLeaseTracker;
+import com.capgemini.camel.rest.client.connection.RouteLeaseStats;
+import com.capgemini.camel.rest.client.testsupport.StubResponse;
+import com.capgemini.camel.rest.client.testsupport.StubServer;
+import org.apache.http.Header;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the streaming verbs of the RestClient, against a StubServer
+ *
+ * @author Abbas Attarwala
+ */
+public class RestClientStreamingTest {
+
+    private static final String LARGE_BODY = largeBody();
+
+    private StubServer server;
+    private ConnectionLeaseTracker leaseTracker;
+    private CloseableHttpClient httpClient;
+    private RestClient restClient;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer(8);
+        server.stub("/items", StubResponse.ok(LARGE_BODY).withSlowBody(8, 5));
+        leaseTracker = new ConnectionLeaseTracker("StreamingGroupKey", new PoolingHttpClientConnectionManager());
+        httpClient = HttpClients.custom().setConnectionManager(leaseTracker).build();
+        restClient = new RestClient("StreamingGroupKey", server.getEndPoint());
+        restClient.setHttpClient(httpClient);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        httpClient.close();
+        server.close();
+    }
+
+    @Test
+    public void testEveryVerbStreamsTheResponseToTheHandler() throws Exception {
+        assertEquals(LARGE_BODY, restClient.getStreaming("/items", "streamingGet", null, null, new ReadingHandler()));
+        assertNoConnectionLeased();
+
+        assertEquals(LARGE_BODY, restClient.postStreaming("/items", "streamingPost", "{\"name\":\"one\"}", null,
+                ContentType.APPLICATION_JSON, null, new ReadingHandler()));
+        assertNoConnectionLeased();
+
+        assertEquals(LARGE_BODY, restClient.putStreaming("/items", "streamingPut", "{\"name\":\"one\"}", null,
+                ContentType.APPLICATION_JSON, null, new ReadingHandler()));
+        assertNoConnectionLeased();
+
+        assertEquals(LARGE_BODY, restClient.deleteStreaming("/items", "streamingDelete", null, null, new ReadingHandler()));
+        assertNoConnectionLeased();
+    }
+
+    @Test
+    public void testConnectionIsReleasedWhenTheHandlerReadsPartOfTheStream() throws Exception {
+        Integer firstByte = restClient.getStreaming("/items", "streamingGetFirstByte", null, null,
+                new RestResponseHandler<Integer>() {
+                    @Override
+                    public Integer handleResponse(int httpStatusCode, Header[] headers, InputStream body) throws Exception {
+                        return body.read();
+                    }
+                });
+
+        assertEquals(Integer.valueOf('['), firstByte);
+        assertNoConnectionLeased();
+    }
+
+    @Test
+    public void testConnectionIsReleasedWhenTheHandlerThrows() throws Exception {
+        final IllegalStateException handlerFailure = new IllegalStateException("Unexpected payload");
+
+        try {
+            restClient.getStreaming("/items", "streamingGetFailingHandler", null, null, new RestResponseHandler<Object>() {
+                @Override
+                public Object handleResponse(int httpStatusCode, Header[] headers, InputStream body) throws Exception {
+                    body.read();
+                    throw handlerFailure;
+                }
+            });
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ise) {
+            assertSame(handlerFailure, ise);
+        }
+        assertNoConnectionLeased();
+    }
+
+    @Test
+    public void testConnectionIsReleasedWhenTheHandlerFailsToRead() throws Exception {
+        try {
+            restClient.getStreaming("/items", "streamingGetFailingRead", null, null, new RestResponseHandler<Object>() {
+                @Override
+                public Object handleResponse(int httpStatusCode, Header[] headers, InputStream body) throws Exception {
+                    body.read();
+                    throw new IOException("Truncated payload");
+                }
+            });
+            fail("Expected the read failure to fail the call");
+        } catch (Exception ex) {
+            assertNoConnectionLeased();
+        }
+    }
+
+    @Test
+    public void testFailureResponseIsNotHandedToTheHandler() throws Exception {
+        server.stub("/missing", StubResponse.status(404, "{\"error\":\"missing\"}"));
+        ReadingHandler handler = new ReadingHandler();
+
+        try {
+            restClient.getStreaming("/missing", "streamingGetMissing", null, null, handler);
+            fail("Expected RestClientSideException");
+        } catch (RestClientSideException rcse) {
+            assertFalse(handler.called);
+        }
+        assertNoConnectionLeased();
+    }
+
+    private void assertNoConnectionLeased() {
+        assertEquals(0, leaseTracker.getLeasedCount());
+        for (RouteLeaseStats routeStats : leaseTracker.getRouteStats()) {
+            assertEquals(0, routeStats.getLeased());
+        }
+    }
+
+    private static String largeBody() {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 2000; i++) {
+            body.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append('}');
+        }
+        return body.append(']').toString();
+    }
+
+    /**
+     * Reads the whole payload into a String
+     */
+    private static final class ReadingHandler implements RestResponseHandler<String> {
+
+        private volatile boolean called;
+
+        @Override
+        public String handleResponse(int httpStatusCode, Header[] headers, InputStream body) throws Exception {
+            called = true;
+            Scanner scanner = new Scanner(body, StandardCharsets.UTF_8.name()).useDelimiter("\\A");
+            return scanner.hasNext() ? scanner.next() : "";
+        }
+    }
+}
@@ -1,6 +1,19 @@
 package com.capgemini.camel.rest.client;
 
+import java.net.ConnectException;
+import java.util.concurrent.TimeUnit;
+
+import com.capgemini.camel.rest.client.circuitbreaker.CommandRestResourceCall;
+import com.capgemini.camel.rest.client.exception.RateLimitExceededException;
+import com.capgemini.camel.rest.client.limit.AdaptiveConcurrencyLimiter;
+import com.capgemini.camel.rest.client.transport.ApacheHttpTransport;
+import com.capgemini.camel.rest.client.transport.JdkHttp2Transport;
+import com.capgemini.camel.rest.client.transport.RestTransport;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.hystrix.exception.HystrixBadRequestException;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -10,6 +23,10 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Test for the RestClient
@@ -51,4 +68,102 @@ public class RestClientTest {
         assertEquals("GroupKeyName.CommandName", restClientPrependGroupKeyNameToCommandName.prependGroupKeyNameToCommandNameIfRequired("CommandName"));
     }
 
+    @Test
+    public void testHttpRequestConfigIsReusedUntilPropertiesChange() {
+        RequestConfig requestConfig = restClientInitiatedWithOldConstructor.getHttpRequestConfig("ConfigCommandName");
+        assertSame(requestConfig, restClientInitiatedWithOldConstructor.getHttpRequestConfig("ConfigCommandName"));
+
+        ConfigurationManager.getConfigInstance().setProperty("http.request.ConfigCommandName.socketTimeout", 1234);
+        try {
+            assertEquals(1234, restClientInitiatedWithOldConstructor.getHttpRequestConfig("ConfigCommandName").getSocketTimeout());
+        } finally {
+            ConfigurationManager.getConfigInstance().clearProperty("http.request.ConfigCommandName.socketTimeout");
+        }
+    }
+
+    @Test
+    public void testOnlyTimeoutsIoFailuresAndServerErrorsAreDrops() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty("http.request.limitedCommand.limit.enabled", true);
+        try {
+            AdaptiveConcurrencyLimiter limiter = restClientInitiatedWithOldConstructor.acquireConcurrencySlot("limitedCommand");
+            int limit = limiter.getLimit();
+            restClientInitiatedWithOldConstructor.completeCall(limiter, null, 1000, null, failure(HystrixRuntimeException.FailureType.SHORTCIRCUIT, null));
+            assertEquals(limit, limiter.getLimit());
+            assertEquals(0, limiter.getInFlight());
+
+            limiter = restClientInitiatedWithOldConstructor.acquireConcurrencySlot("limitedCommand");
+            restClientInitiatedWithOldConstructor.completeCall(limiter, null, 1000, null, failure(HystrixRuntimeException.FailureType.TIMEOUT, null));
+            assertTrue(limiter.getLimit() < limit);
+        } finally {
+            ConfigurationManager.getConfigInstance().clearProperty("http.request.limitedCommand.limit.enabled");
+        }
+
+        assertTrue(RestClient.isDrop(failure(HystrixRuntimeException.FailureType.COMMAND_EXCEPTION, new ConnectException())));
+        assertFalse(RestClient.isDrop(failure(HystrixRuntimeException.FailureType.COMMAND_EXCEPTION, new IllegalStateException())));
+        assertFalse(RestClient.isDrop(failure(HystrixRuntimeException.FailureType.REJECTED_THREAD_EXECUTION, null)));
+        assertTrue(RestClient.isRejection(failure(HystrixRuntimeException.FailureType.REJECTED_SEMAPHORE_EXECUTION, null)));
+        assertFalse(RestClient.isRejection(new HystrixBadRequestException("bad request")));
+    }
+
+    @Test
+    public void testCommandRatePermitIsGivenBackWhenTheGroupKeyHasNone() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty("http.request.GroupKeyName.ratelimit.permitsPerSecond", 0.01);
+        ConfigurationManager.getConfigInstance().setProperty("http.request.firstRatedCommand.ratelimit.permitsPerSecond", 0.01);
+        ConfigurationManager.getConfigInstance().setProperty("http.request.secondRatedCommand.ratelimit.permitsPerSecond", 0.01);
+        try {
+            restClientInitiatedWithOldConstructor.acquireRatePermit("firstRatedCommand");
+            try {
+                restClientInitiatedWithOldConstructor.acquireRatePermit("secondRatedCommand");
+                fail("Expected RateLimitExceededException");
+            } catch (RateLimitExceededException rlee) {
+                assertEquals("GroupKeyName", rlee.getLimitName());
+            }
+
+            ConfigurationManager.getConfigInstance().clearProperty("http.request.GroupKeyName.ratelimit.permitsPerSecond");
+            restClientInitiatedWithOldConstructor.acquireRatePermit("secondRatedCommand");
+        } finally {
+            ConfigurationManager.getConfigInstance().clearProperty("http.request.GroupKeyName.ratelimit.permitsPerSecond");
+            ConfigurationManager.getConfigInstance().clearProperty("http.request.firstRatedCommand.ratelimit.permitsPerSecond");
+            ConfigurationManager.getConfigInstance().clearProperty("http.request.secondRatedCommand.ratelimit.permitsPerSecond");
+        }
+    }
+
+    @Test
+    public void testRatePermitIsNotWaitedForBeyondTheDeadline() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty("http.request.deadlineRatedCommand.ratelimit.permitsPerSecond", 10);
+        try {
+            restClientInitiatedWithOldConstructor.acquireRatePermit("deadlineRatedCommand");
+            long start = System.nanoTime();
+            try {
+                restClientInitiatedWithOldConstructor.acquireRatePermit("deadlineRatedCommand", start + TimeUnit.MILLISECONDS.toNanos(20));
+                fail("Expected RateLimitExceededException");
+            } catch (RateLimitExceededException rlee) {
+                assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(20));
+            }
+            restClientInitiatedWithOldConstructor.acquireRatePermit("deadlineRatedCommand", start + TimeUnit.SECONDS.toNanos(1));
+        } finally {
+            ConfigurationManager.getConfigInstance().clearProperty("http.request.deadlineRatedCommand.ratelimit.permitsPerSecond");
+        }
+    }
+
+    @Test
+    public void testTransportsAreReused() {
+        RestTransport apacheTransport = restClientInitiatedWithOldConstructor.getTransport();
+        assertTrue(apacheTransport instanceof ApacheHttpTransport);
+        assertSame(httpClient, ((ApacheHttpTransport) apacheTransport).getHttpClient());
+        assertSame(apacheTransport, restClientInitiatedWithOldConstructor.getTransport());
+
+        ConfigurationManager.getConfigInstance().setProperty("http.request.GroupKeyName.transport", RestClient.TRANSPORT_HTTP2);
+        try {
+            RestTransport http2Transport = restClientInitiatedWithOldConstructor.getTransport();
+            assertTrue(http2Transport instanceof JdkHttp2Transport);
+            assertSame(http2Transport, restClientInitiatedWithOldConstructor.getTransport());
+        } finally {
+            ConfigurationManager.getConfigInstance().clearProperty("http.request.GroupKeyName.transport");
+        }
+    }
+
+    private static HystrixRuntimeException failure(HystrixRuntimeException.FailureType failureType, Exception cause) {
+        return new HystrixRuntimeException(failureType, CommandRestResourceCall.class, "failed", cause, null);
+    }
 }
@@ -0,0 +1,55 @@
+package com.capgemini.camel.rest.client.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the CacheControl parser
+ *
+ * @author Abbas Attarwala
+ */
+public class CacheControlTest {
+
+    @Test
+    public void testMissingHeaderFallsBackToDefault() {
+        CacheControl cacheControl = CacheControl.parse(null);
+
+        assertFalse(cacheControl.hasFreshnessLifetime());
+        assertEquals(60000, cacheControl.getFreshnessLifetimeMillis(60000));
+        assertEquals(0, cacheControl.getStaleWhileRevalidateMillis());
+    }
+
+    @Test
+    public void testSharedMaxAgeTakesPrecedenceOverMaxAge() {
+        CacheControl cacheControl = CacheControl.parse("public, max-age=60, s-maxage=300");
+
+        assertEquals(300000, cacheControl.getFreshnessLifetimeMillis(1000));
+    }
+
+    @Test
+    public void testNoCacheMeansAlwaysRevalidate() {
+        CacheControl cacheControl = CacheControl.parse("no-cache, max-age=60");
+
+        assertTrue(cacheControl.isNoCache());
+        assertEquals(0, cacheControl.getFreshnessLifetimeMillis(1000));
+    }
+
+    @Test
+    public void testNoStoreAndStaleWhileRevalidate() {
+        CacheControl cacheControl = CacheControl.parse("No-Store, stale-while-revalidate=\"30\"");
+
+        assertTrue(cacheControl.isNoStore());
+        assertEquals(30000, cacheControl.getStaleWhileRevalidateMillis());
+    }
+
+    @Test
+    public void testMalformedValuesAreIgnored() {
+        CacheControl cacheControl = CacheControl.parse("max-age=soon, s-maxage=-1");
+
+        assertFalse(cacheControl.hasFreshnessLifetime());
+        assertEquals(1000, cacheControl.getFreshnessLifetimeMillis(1000));
+    }
+}
@@ -0,0 +1,96 @@
+package com.capgemini.camel.rest.client.cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.methods.HttpGet;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the CachedResponse
+ *
+ * @author Abbas Attarwala
+ */
+public class CachedResponseTest {
+
+    @Test
+    public void testResponseIsFreshForItsFreshnessLifetime() {
+        CachedResponse cachedResponse = new CachedResponse("{}", 200, null, null, null, 60000, 0, 0);
+
+        assertTrue(cachedResponse.isFresh());
+        assertFalse(cachedResponse.isWithinStaleWhileRevalidate());
+        assertEquals(TimeUnit.SECONDS.toNanos(60), cachedResponse.getTimeToLiveNanos());
+    }
+
+    @Test
+    public void testStaleResponseCanBeServedWhileRevalidated() {
+        CachedResponse cachedResponse = new CachedResponse("{}", 200, null, null, null, 0, 30000, 0);
+
+        assertFalse(cachedResponse.isFresh());
+        assertTrue(cachedResponse.isWithinStaleWhileRevalidate());
+        assertEquals(TimeUnit.SECONDS.toNanos(30), cachedResponse.getTimeToLiveNanos());
+    }
+
+    @Test
+    public void testOnlyResponsesWithValidatorsAreRetainedForRevalidation() {
+        CachedResponse withoutValidators = new CachedResponse("{}", 200, null, null, null, 1000, 0, 300000);
+        CachedResponse withEntityTag = new CachedResponse("{}", 200, "\"v1\"", null, null, 1000, 0, 300000);
+
+        assertFalse(withoutValidators.hasValidators());
+        assertEquals(TimeUnit.SECONDS.toNanos(1), withoutValidators.getTimeToLiveNanos());
+        assertTrue(withEntityTag.hasValidators());
+        assertEquals(TimeUnit.SECONDS.toNanos(301), withEntityTag.getTimeToLiveNanos());
+    }
+
+    @Test
+    public void testRevalidationRestartsFreshnessAndKeepsTheStoredValidators() {
+        CachedResponse stale = new CachedResponse("{\"id\":1}", 200, "\"v1\"", "Mon, 05 Oct 2026 10:00:00 GMT", null, 0, 0, 300000);
+        assertFalse(stale.isFresh());
+
+        CachedResponse revalidated = stale.revalidated("\"v2\"", null, 60000, 0, 300000);
+
+        assertTrue(revalidated.isFresh());
+        assertEquals("{\"id\":1}", revalidated.getJsonResponse());
+        assertEquals("\"v2\"", revalidated.getEntityTag());
+        assertEquals("Mon, 05 Oct 2026 10:00:00 GMT", revalidated.getLastModified());
+    }
+
+    @Test
+    public void testResponseOnlyMatchesRequestsWithTheSameVaryHeaders() {
+        Map<String, String> varyHeaders = new HashMap<>();
+        varyHeaders.put("accept-language", "en");
+        varyHeaders.put("x-tenant", null);
+        CachedResponse cachedResponse = new CachedResponse("{}", 200, null, null, varyHeaders, 60000, 0, 0);
+
+        HttpGet sameHeaders = new HttpGet("http://localhost/items");
+        sameHeaders.setHeader("Accept-Language", "en");
+        assertTrue(cachedResponse.matchesVaryHeaders(sameHeaders));
+
+        HttpGet otherLanguage = new HttpGet("http://localhost/items");
+        otherLanguage.setHeader("Accept-Language", "fr");
+        assertFalse(cachedResponse.matchesVaryHeaders(otherLanguage));
+
+        HttpGet missingLanguage = new HttpGet("http://localhost/items");
+        assertFalse(cachedResponse.matchesVaryHeaders(missingLanguage));
+
+        HttpGet extraTenant = new HttpGet("http://localhost/items");
+        extraTenant.setHeader("Accept-Language", "en");
+        extraTenant.setHeader("X-Tenant", "acme");
+        assertFalse(cachedResponse.matchesVaryHeaders(extraTenant));
+    }
+
+    @Test
+    public void testResponseWithoutVaryMatchesEveryRequest() {
+        CachedResponse cachedResponse = new CachedResponse("{}", 200, null, null, Collections.<String, String>emptyMap(), 60000, 0, 0);
+
+        HttpGet request = new HttpGet("http://localhost/items");
+        request.setHeader("Accept-Language", "fr");
+        assertTrue(cachedResponse.matchesVaryHeaders(request));
+    }
+}
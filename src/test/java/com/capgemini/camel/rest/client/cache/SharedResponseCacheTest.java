@@ -0,0 +1,108 @@
+package com.capgemini.camel.rest.client.cache;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import com.netflix.config.ConfigurationManager;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the SharedResponseCache, with its maintenance run on the calling thread
+ *
+ * @author Abbas Attarwala
+ */
+public class SharedResponseCacheTest {
+
+    private static final Executor SAME_THREAD = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @After
+    public void tearDown() {
+        ConfigurationManager.getConfigInstance().clearProperty(SharedResponseCache.HTTP_CACHE_MAX_BYTES);
+    }
+
+    @Test
+    public void testCacheIsBoundedByBytes() {
+        ConfigurationManager.getConfigInstance().setProperty(SharedResponseCache.HTTP_CACHE_MAX_BYTES, 8192);
+        SharedResponseCache cache = new SharedResponseCache(SAME_THREAD);
+
+        for (int i = 0; i < 10; i++) {
+            cache.put("boundedCommand", "key-" + i, response(1000));
+        }
+
+        assertTrue(cache.getWeightedSize() <= 8192);
+        assertTrue(cache.getStats("boundedCommand").getEvictionCount() >= 6);
+    }
+
+    @Test
+    public void testMaxBytesCanBeChangedAtRuntime() {
+        ConfigurationManager.getConfigInstance().setProperty(SharedResponseCache.HTTP_CACHE_MAX_BYTES, 65536);
+        SharedResponseCache cache = new SharedResponseCache(SAME_THREAD);
+
+        for (int i = 0; i < 10; i++) {
+            cache.put("resizedCommand", "key-" + i, response(1000));
+        }
+        assertEquals(0, cache.getStats("resizedCommand").getEvictionCount());
+
+        ConfigurationManager.getConfigInstance().setProperty(SharedResponseCache.HTTP_CACHE_MAX_BYTES, 8192);
+
+        assertTrue(cache.getWeightedSize() <= 8192);
+        assertTrue(cache.getStats("resizedCommand").getEvictionCount() >= 6);
+    }
+
+    @Test
+    public void testResponsesWithoutTimeToLiveAreNotStored() {
+        SharedResponseCache cache = new SharedResponseCache(SAME_THREAD);
+
+        cache.put("uncachedCommand", "key", new CachedResponse("{}", 200, 0));
+        cache.put("cachedCommand", "key", new CachedResponse("{}", 200, 60000));
+
+        assertNull(cache.get("uncachedCommand", "key"));
+        assertNotNull(cache.get("cachedCommand", "key"));
+        assertNull(cache.get("cachedCommand", "otherKey"));
+    }
+
+    @Test
+    public void testStatisticsAreKeptPerCommand() {
+        SharedResponseCache cache = new SharedResponseCache(SAME_THREAD);
+
+        cache.recordHit("firstCommand");
+        cache.recordRevalidation("firstCommand");
+        cache.recordMiss("firstCommand");
+        cache.recordLoad("firstCommand", 2000000);
+        cache.recordMiss("secondCommand");
+
+        ResponseCacheStats firstStats = cache.getStats("firstCommand");
+        assertEquals(2, firstStats.getHitCount());
+        assertEquals(1, firstStats.getRevalidationCount());
+        assertEquals(1, firstStats.getMissCount());
+        assertEquals(1, firstStats.getLoadCount());
+        assertEquals(2000000, firstStats.getTotalLoadTimeNanos());
+
+        ResponseCacheStats secondStats = cache.getStats("secondCommand");
+        assertEquals(0, secondStats.getHitCount());
+        assertEquals(1, secondStats.getMissCount());
+
+        Map<String, ResponseCacheStats> stats = cache.getStats();
+        assertEquals(2, stats.size());
+        assertEquals(2, stats.get("firstCommand").getHitCount());
+        assertEquals(1, stats.get("secondCommand").getMissCount());
+    }
+
+    private static CachedResponse response(int length) {
+        char[] json = new char[length];
+        Arrays.fill(json, 'x');
+        return new CachedResponse(new String(json), 200, 60000);
+    }
+}
@@ -0,0 +1,116 @@
+package com.capgemini.camel.rest.client.circuitbreaker;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.capgemini.camel.rest.client.connection.ConnectionLeaseTracker;
+import com.capgemini.camel.rest.client.model.RestClientResponse;
+import com.capgemini.camel.rest.client.testsupport.LatencyDistribution;
+import com.capgemini.camel.rest.client.testsupport.StubResponse;
+import com.capgemini.camel.rest.client.testsupport.StubServer;
+import com.capgemini.camel.rest.client.transport.ApacheHttpTransport;
+import com.capgemini.camel.rest.client.util.RequestBudget;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the CommandHedgedRestResourceCall, against a StubServer
+ *
+ * @author Abbas Attarwala
+ */
+public class CommandHedgedRestResourceCallTest {
+
+    private StubServer server;
+    private ConnectionLeaseTracker leaseTracker;
+    private CloseableHttpClient httpClient;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer(8);
+        leaseTracker = new ConnectionLeaseTracker("HedgeGroupKey", new PoolingHttpClientConnectionManager());
+        httpClient = HttpClients.custom().setConnectionManager(leaseTracker).build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        httpClient.close();
+        server.close();
+    }
+
+    @Test
+    public void testSlowRequestIsHedgedAndTheLoserAborted() throws Exception {
+        RequestBudget hedgeBudget = new RequestBudget(1, 1);
+        HttpGet primaryRequest = new HttpGet(server.getEndPoint() + "/items");
+
+        long start = System.nanoTime();
+        RestClientResponse response = executeWithSlowPrimary(primaryRequest, hedgeBudget, "hedgedCommand");
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("{\"hedge\":true}", response.getJsonResponse());
+        assertEquals(2, server.getRequestCount());
+        assertTrue("Took " + elapsedMillis + " ms", elapsedMillis < 1000);
+        assertTrue(primaryRequest.isAborted());
+        assertEquals(0, leaseTracker.getLeasedCount());
+        assertEquals(0, hedgeBudget.getAvailableTokens());
+    }
+
+    @Test
+    public void testExhaustedBudgetStopsTheHedges() throws Exception {
+        RequestBudget hedgeBudget = new RequestBudget(1, 1);
+        executeWithSlowPrimary(new HttpGet(server.getEndPoint() + "/items"), hedgeBudget, "budgetedHedgedCommand");
+        assertEquals(2, server.getRequestCount());
+
+        server.stub("/items", StubResponse.ok("{\"primary\":true}").withLatency(LatencyDistribution.fixed(300)));
+        HttpGet primaryRequest = new HttpGet(server.getEndPoint() + "/items");
+        RestClientResponse response = new CommandHedgedRestResourceCall("HedgeGroupKey", "budgetedHedgedCommand",
+                primaryRequest, new ApacheHttpTransport(httpClient), 50, hedgeBudget).execute();
+
+        assertEquals("{\"primary\":true}", response.getJsonResponse());
+        assertEquals(3, server.getRequestCount());
+        assertFalse(primaryRequest.isAborted());
+    }
+
+    @Test
+    public void testFastRequestIsNotHedged() throws Exception {
+        RequestBudget hedgeBudget = new RequestBudget(1, 1);
+        server.stub("/items", StubResponse.ok("{\"primary\":true}"));
+
+        RestClientResponse response = new CommandHedgedRestResourceCall("HedgeGroupKey", "fastHedgedCommand",
+                new HttpGet(server.getEndPoint() + "/items"), new ApacheHttpTransport(httpClient), 500, hedgeBudget).execute();
+
+        assertEquals("{\"primary\":true}", response.getJsonResponse());
+        Thread.sleep(600);
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, hedgeBudget.getAvailableTokens());
+    }
+
+    /**
+     * Sends the first request to a slow script, which is replaced by a fast one once the request has arrived
+     */
+    private RestClientResponse executeWithSlowPrimary(HttpGet primaryRequest,
+                                                      RequestBudget hedgeBudget,
+                                                      String commandName) throws Exception {
+        long requestCount = server.getRequestCount();
+        server.stub("/items", StubResponse.ok("{\"primary\":true}").withLatency(LatencyDistribution.fixed(5000)));
+
+        Future<RestClientResponse> result = new CommandHedgedRestResourceCall("HedgeGroupKey", commandName,
+                primaryRequest, new ApacheHttpTransport(httpClient), 100, hedgeBudget).queue();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (server.getRequestCount() == requestCount && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        server.stub("/items", StubResponse.ok("{\"hedge\":true}"));
+
+        return result.get(2, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,102 @@
+package com.capgemini.camel.rest.client.circuitbreaker;
+
+import java.io.InputStream;
+
+import com.capgemini.camel.rest.client.RestResponseHandler;
+import com.capgemini.camel.rest.client.testsupport.StubResponse;
+import com.capgemini.camel.rest.client.testsupport.StubServer;
+import com.capgemini.camel.rest.client.transport.ApacheHttpTransport;
+import com.netflix.hystrix.exception.HystrixBadRequestException;
+import org.apache.http.Header;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test for the CommandStreamingRestResourceCall, against a StubServer
+ *
+ * @author Abbas Attarwala
+ */
+public class CommandStreamingRestResourceCallTest {
+
+    private StubServer server;
+    private CloseableHttpClient httpClient;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer(8);
+        server.stub("/items", StubResponse.ok("{\"id\":1}"));
+        httpClient = HttpClients.createDefault();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        httpClient.close();
+        server.close();
+    }
+
+    @Test
+    public void testHandlerReceivesTheStatusAndTheStream() {
+        CommandStreamingRestResourceCall.Result<String> result = command(new HttpGet(server.getEndPoint() + "/items"),
+                new RestResponseHandler<String>() {
+                    @Override
+                    public String handleResponse(int httpStatusCode, Header[] headers, InputStream body) throws Exception {
+                        byte[] payload = new byte[8];
+                        int read = body.read(payload);
+                        return httpStatusCode + ":" + new String(payload, 0, read, "UTF-8");
+                    }
+                }).execute();
+
+        assertEquals("200:{\"id\":1}", result.getValue());
+        assertNull(result.getFailureResponse());
+    }
+
+    @Test
+    public void testFailureResponseIsBuffered() {
+        server.stub("/failing", StubResponse.status(500, "{\"error\":true}"));
+
+        CommandStreamingRestResourceCall.Result<String> result = command(new HttpGet(server.getEndPoint() + "/failing"),
+                new RestResponseHandler<String>() {
+                    @Override
+                    public String handleResponse(int httpStatusCode, Header[] headers, InputStream body) {
+                        throw new AssertionError("A failure response must not be handed to the handler");
+                    }
+                }).execute();
+
+        assertNull(result.getValue());
+        assertEquals(500, result.getFailureResponse().getHttpResponseCode());
+        assertEquals("{\"error\":true}", result.getFailureResponse().getJsonResponse());
+    }
+
+    @Test
+    public void testFailingHandlerAbortsTheRequest() {
+        HttpGet httpRequest = new HttpGet(server.getEndPoint() + "/items");
+
+        try {
+            command(httpRequest, new RestResponseHandler<String>() {
+                @Override
+                public String handleResponse(int httpStatusCode, Header[] headers, InputStream body) {
+                    throw new IllegalArgumentException("Unexpected payload");
+                }
+            }).execute();
+            fail("Expected HystrixBadRequestException");
+        } catch (HystrixBadRequestException hbre) {
+            assertTrue(hbre.getCause() instanceof IllegalArgumentException);
+            assertTrue(httpRequest.isAborted());
+        }
+    }
+
+    private CommandStreamingRestResourceCall<String> command(HttpGet httpRequest, RestResponseHandler<String> handler) {
+        return new CommandStreamingRestResourceCall<>("StreamingGroupKey", "streamingCommand", httpRequest,
+                new ApacheHttpTransport(httpClient), HttpClientContext.create(), handler);
+    }
+}
@@ -0,0 +1,85 @@
+package com.capgemini.camel.rest.client.circuitbreaker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test for the decompression of the responses by the HttpResponseProcessor
+ *
+ * @author Abbas Attarwala
+ */
+public class HttpResponseProcessorTest {
+
+    private static final String JSON = "{\"id\":1,\"name\":\"one\"}";
+
+    @Test
+    public void testGzipResponseIsDecompressed() throws IOException {
+        HttpResponse httpResponse = response(gzip(JSON), "gzip");
+
+        assertEquals(JSON, EntityUtils.toString(HttpResponseProcessor.decompress(httpResponse, "decompressGzip")));
+        assertFalse(httpResponse.containsHeader("Content-Encoding"));
+        assertFalse(httpResponse.containsHeader("Content-Length"));
+    }
+
+    @Test
+    public void testDeflateResponseIsDecompressed() throws IOException {
+        HttpResponse httpResponse = response(deflate(JSON), "deflate");
+
+        assertEquals(JSON, EntityUtils.toString(HttpResponseProcessor.decompress(httpResponse, "decompressDeflate")));
+    }
+
+    @Test
+    public void testProcessedResponseIsDecompressed() throws Exception {
+        assertEquals(JSON, HttpResponseProcessor.process(response(gzip(JSON), "x-gzip"), "processGzip").getJsonResponse());
+    }
+
+    @Test
+    public void testUnknownEncodingIsLeftAsIs() {
+        HttpResponse httpResponse = response(JSON.getBytes(StandardCharsets.UTF_8), "br");
+
+        assertSame(httpResponse.getEntity(), HttpResponseProcessor.decompress(httpResponse, "decompressUnknown"));
+        assertEquals("br", httpResponse.getFirstHeader("Content-Encoding").getValue());
+    }
+
+    private static HttpResponse response(byte[] body, String contentEncoding) {
+        HttpResponse httpResponse = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        ByteArrayEntity entity = new ByteArrayEntity(body, ContentType.APPLICATION_JSON);
+        entity.setContentEncoding(contentEncoding);
+        httpResponse.setEntity(entity);
+        httpResponse.setHeader("Content-Encoding", contentEncoding);
+        httpResponse.setHeader("Content-Length", String.valueOf(body.length));
+        return httpResponse;
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(encoded)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return encoded.toByteArray();
+    }
+
+    private static byte[] deflate(String text) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        try (OutputStream out = new DeflaterOutputStream(encoded)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return encoded.toByteArray();
+    }
+}
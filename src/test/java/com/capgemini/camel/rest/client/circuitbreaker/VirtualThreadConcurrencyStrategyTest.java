@@ -0,0 +1,104 @@
+package com.capgemini.camel.rest.client.circuitbreaker;
+
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.hystrix.Hystrix;
+import com.netflix.hystrix.HystrixCommand;
+import com.netflix.hystrix.HystrixCommandGroupKey;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import com.netflix.hystrix.strategy.HystrixPlugins;
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestContext;
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestVariableDefault;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Test for the VirtualThreadConcurrencyStrategy, skipped on JVMs without virtual threads (JDK &lt; 21)
+ *
+ * @author Abbas Attarwala
+ */
+public class VirtualThreadConcurrencyStrategyTest {
+
+    private static final HystrixCommandGroupKey GROUP_KEY = HystrixCommandGroupKey.Factory.asKey("VirtualThreadGroupKey");
+
+    private HystrixRequestContext context;
+
+    @Before
+    public void setUp() {
+        assumeTrue(VirtualThreadConcurrencyStrategy.isSupported());
+        Hystrix.reset();
+        context = HystrixRequestContext.initializeContext();
+    }
+
+    @After
+    public void tearDown() {
+        if (context != null) {
+            context.shutdown();
+        }
+        Hystrix.reset();
+    }
+
+    @Test
+    public void testCommandsRunOnVirtualThreadsWithTheRequestContext() throws Exception {
+        assertTrue(VirtualThreadConcurrencyStrategy.register());
+        assertTrue(HystrixPlugins.getInstance().getConcurrencyStrategy() instanceof VirtualThreadConcurrencyStrategy);
+
+        final HystrixRequestVariableDefault<String> requestVariable = new HystrixRequestVariableDefault<>();
+        requestVariable.set("caller");
+
+        String result = new HystrixCommand<String>(setter("virtualThreadCommand", 1000)) {
+            @Override
+            protected String run() throws Exception {
+                boolean virtual = (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread());
+                return virtual + ":" + requestVariable.get();
+            }
+        }.execute();
+
+        assertEquals("true:caller", result);
+    }
+
+    @Test
+    public void testTimeoutsStillInterruptTheCommands() {
+        assertTrue(VirtualThreadConcurrencyStrategy.register());
+
+        try {
+            new HystrixCommand<String>(setter("virtualThreadTimeoutCommand", 100)) {
+                @Override
+                protected String run() throws Exception {
+                    TimeUnit.SECONDS.sleep(5);
+                    return "late";
+                }
+            }.execute();
+            fail("Expected HystrixRuntimeException");
+        } catch (HystrixRuntimeException hre) {
+            assertEquals(HystrixRuntimeException.FailureType.TIMEOUT, hre.getFailureType());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRegisteringAfterTheFirstCommandFails() {
+        new HystrixCommand<String>(setter("platformThreadCommand", 1000)) {
+            @Override
+            protected String run() {
+                return "platform";
+            }
+        }.execute();
+
+        VirtualThreadConcurrencyStrategy.register();
+    }
+
+    private static HystrixCommand.Setter setter(String commandName, int timeoutInMilliseconds) {
+        return HystrixCommand.Setter.withGroupKey(GROUP_KEY)
+                .andCommandKey(HystrixCommandKey.Factory.asKey(commandName))
+                .andCommandPropertiesDefaults(HystrixCommandProperties.Setter()
+                        .withExecutionTimeoutInMilliseconds(timeoutInMilliseconds));
+    }
+}
@@ -0,0 +1,48 @@
+package com.capgemini.camel.rest.client.config;
+
+import com.netflix.config.ConfigurationManager;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.strategy.properties.HystrixPropertiesCommandDefault;
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Test for the EndpointCommandProperties
+ *
+ * @author Abbas Attarwala
+ */
+public class EndpointCommandPropertiesTest {
+
+    private static final String COMMAND_TIMEOUT = "hystrix.command.bridgedCommand.execution.isolation.thread.timeoutInMilliseconds";
+    private static final String ENDPOINT_TIMEOUT = "hystrix.command.bridgedCommand@host1:8080.execution.isolation.thread.timeoutInMilliseconds";
+
+    private final AbstractConfiguration configuration = ConfigurationManager.getConfigInstance();
+
+    @After
+    public void tearDown() {
+        configuration.clearProperty(COMMAND_TIMEOUT);
+        configuration.clearProperty(ENDPOINT_TIMEOUT);
+    }
+
+    @Test
+    public void testCommandPropertiesApplyToTheEndpointCommandKey() {
+        configuration.setProperty(COMMAND_TIMEOUT, 1500);
+
+        EndpointCommandProperties.bridge("bridgedCommand", "bridgedCommand@host1:8080");
+
+        HystrixCommandProperties properties = new HystrixPropertiesCommandDefault(
+                HystrixCommandKey.Factory.asKey("bridgedCommand@host1:8080"), HystrixCommandProperties.Setter());
+        assertEquals(1500, properties.executionTimeoutInMilliseconds().get().intValue());
+
+        configuration.setProperty(COMMAND_TIMEOUT, 2500);
+        assertEquals(2500, properties.executionTimeoutInMilliseconds().get().intValue());
+
+        configuration.clearProperty(COMMAND_TIMEOUT);
+        assertFalse(configuration.containsKey(ENDPOINT_TIMEOUT));
+    }
+}
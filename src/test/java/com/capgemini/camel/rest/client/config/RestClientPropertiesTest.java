@@ -0,0 +1,77 @@
+package com.capgemini.camel.rest.client.config;
+
+import com.netflix.config.ConfigurationManager;
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the RestClientProperties
+ *
+ * @author Abbas Attarwala
+ */
+public class RestClientPropertiesTest {
+
+    private static final String GROUP_PROPERTY = "http.request.PropertiesGroupKey.retry.maxRetries";
+    private static final String COMMAND_PROPERTY = "http.request.propertiesCommand.retry.maxRetries";
+
+    private final AbstractConfiguration configuration = ConfigurationManager.getConfigInstance();
+    private final RestClientProperties properties = new RestClientProperties("PropertiesGroupKey");
+
+    @After
+    public void tearDown() {
+        configuration.clearProperty(GROUP_PROPERTY);
+        configuration.clearProperty(COMMAND_PROPERTY);
+        configuration.clearProperty("http.request.PropertiesGroupKey.transport");
+    }
+
+    @Test
+    public void testCommandPropertyTakesPrecedenceOverGroupProperty() {
+        assertEquals(1, properties.getInt("propertiesCommand", "retry.maxRetries", 1));
+
+        configuration.setProperty(GROUP_PROPERTY, 2);
+        assertEquals(2, properties.getInt("propertiesCommand", "retry.maxRetries", 1));
+
+        configuration.setProperty(COMMAND_PROPERTY, 3);
+        assertEquals(3, properties.getInt("propertiesCommand", "retry.maxRetries", 1));
+        assertEquals(3, properties.getInt("PropertiesGroupKey.propertiesCommand", "retry.maxRetries", 1));
+        assertEquals(3, properties.getInt("propertiesCommand@host1:8080", "retry.maxRetries", 1));
+        assertEquals(2, properties.getInt("otherCommand", "retry.maxRetries", 1));
+    }
+
+    @Test
+    public void testResolvedValuesFollowPropertyChanges() {
+        configuration.setProperty(COMMAND_PROPERTY, 3);
+        assertEquals(3, properties.getInt("propertiesCommand", "retry.maxRetries", 1));
+        assertEquals(3, properties.getInt("propertiesCommand", "retry.maxRetries", 1));
+
+        configuration.setProperty(COMMAND_PROPERTY, 4);
+        assertEquals(4, properties.getInt("propertiesCommand", "retry.maxRetries", 1));
+
+        configuration.clearProperty(COMMAND_PROPERTY);
+        assertEquals(1, properties.getInt("propertiesCommand", "retry.maxRetries", 1));
+    }
+
+    @Test
+    public void testDefaultValueAndTypeArePartOfTheResolvedValue() {
+        assertEquals(1, properties.getInt("propertiesCommand", "retry.maxRetries", 1));
+        assertEquals(5, properties.getInt("propertiesCommand", "retry.maxRetries", 5));
+        assertEquals(5L, properties.getLong("propertiesCommand", "retry.maxRetries", 5L));
+        assertEquals(0.5, properties.getDouble("propertiesCommand", "retry.maxRetries", 0.5), 0.0);
+
+        assertFalse(properties.getBoolean("propertiesCommand", "hedge.enabled", false));
+        assertTrue(properties.getBoolean("propertiesCommand", "hedge.enabled", true));
+    }
+
+    @Test
+    public void testGroupStringProperty() {
+        assertEquals("apache", properties.getGroupString("transport", "apache"));
+
+        configuration.setProperty("http.request.PropertiesGroupKey.transport", "http2");
+        assertEquals("http2", properties.getGroupString("transport", "apache"));
+    }
+}
@@ -0,0 +1,200 @@
+package com.capgemini.camel.rest.client.connection;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.capgemini.camel.exception.rest.RestServerSideException;
+import com.capgemini.camel.rest.client.RestClient;
+import com.capgemini.camel.rest.client.testsupport.StubResponse;
+import com.capgemini.camel.rest.client.testsupport.StubServer;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test for the ConnectionLeaseTracker, against a StubServer
+ *
+ * @author Abbas Attarwala
+ */
+public class ConnectionLeaseTrackerTest {
+
+    private StubServer server;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private RecordingLeaseTracker leaseTracker;
+    private CloseableHttpClient httpClient;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer(8);
+        server.stub("/items", StubResponse.ok("{\"id\":1}"));
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setDefaultMaxPerRoute(1);
+        leaseTracker = new RecordingLeaseTracker(connectionManager);
+        httpClient = HttpClients.custom().setConnectionManager(leaseTracker).build();
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        httpClient.close();
+        server.close();
+    }
+
+    @Test
+    public void testRouteGauges() throws Exception {
+        HttpResponse httpResponse = httpClient.execute(new HttpGet(server.getEndPoint() + "/items"));
+        assertEquals(1, leaseTracker.getLeasedCount());
+        assertEquals(1, routeStats().getLeased());
+        assertEquals(0, routeStats().getAvailable());
+        assertEquals(1, routeStats().getMax());
+
+        Future<String> pendingRequest = executor.submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return EntityUtils.toString(httpClient.execute(new HttpGet(server.getEndPoint() + "/items")).getEntity());
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (routeStats().getPending() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, routeStats().getPending());
+
+        EntityUtils.consume(httpResponse.getEntity());
+        assertEquals("{\"id\":1}", pendingRequest.get(2, TimeUnit.SECONDS));
+
+        assertEquals(0, leaseTracker.getLeasedCount());
+        assertEquals(0, routeStats().getLeased());
+        assertEquals(1, routeStats().getAvailable());
+        assertEquals(0, routeStats().getPending());
+    }
+
+    @Test
+    public void testMaxLeasedTime() throws Exception {
+        HttpResponse httpResponse = httpClient.execute(new HttpGet(server.getEndPoint() + "/items"));
+        Thread.sleep(50);
+
+        assertTrue(routeStats().getMaxLeasedTimeMillis() >= 50);
+
+        EntityUtils.consume(httpResponse.getEntity());
+        assertEquals(0, routeStats().getMaxLeasedTimeMillis());
+    }
+
+    @Test
+    public void testLeakIsReportedOnceWithCommandAndAcquisitionStack() throws Exception {
+        leaseTracker.setCaptureAcquisitionStacks(true);
+
+        String previousCommandName = ConnectionLeaseTracker.enterCommand("leakyCommand");
+        HttpResponse httpResponse;
+        try {
+            httpResponse = httpClient.execute(new HttpGet(server.getEndPoint() + "/items"));
+        } finally {
+            ConnectionLeaseTracker.exitCommand(previousCommandName);
+        }
+
+        assertEquals(0, leaseTracker.detectLeaks(60000));
+        assertEquals(1, leaseTracker.detectLeaks(0));
+        assertEquals("leakyCommand", leaseTracker.leakedCommandName);
+        assertNotNull(leaseTracker.leakedAcquisitionStack);
+        assertEquals(0, leaseTracker.detectLeaks(0));
+
+        EntityUtils.consume(httpResponse.getEntity());
+        assertEquals(0, leaseTracker.getLeasedCount());
+    }
+
+    @Test
+    public void testAcquisitionStackIsOnlyCapturedWhenEnabled() throws Exception {
+        HttpResponse httpResponse = httpClient.execute(new HttpGet(server.getEndPoint() + "/items"));
+
+        assertEquals(1, leaseTracker.detectLeaks(0));
+        assertNull(leaseTracker.leakedCommandName);
+        assertNull(leaseTracker.leakedAcquisitionStack);
+
+        EntityUtils.consume(httpResponse.getEntity());
+    }
+
+    @Test
+    public void testConnectionIsReleasedAfterANoContentResponse() throws Exception {
+        server.stub("/empty", StubResponse.status(204, null));
+
+        assertNull(trackedRestClient().get("/empty", "leaseGetEmpty", null));
+        assertEquals(0, leaseTracker.getLeasedCount());
+        assertEquals(0, routeStats().getLeased());
+    }
+
+    @Test
+    public void testConnectionIsReleasedAfterAFailure() throws Exception {
+        server.stub("/failing", StubResponse.status(500, "{}"));
+
+        try {
+            trackedRestClient().get("/failing", "leaseGetFailing", null);
+            fail("Expected RestServerSideException");
+        } catch (RestServerSideException rsse) {
+            assertEquals(0, leaseTracker.getLeasedCount());
+            assertEquals(0, routeStats().getLeased());
+        }
+    }
+
+    @Test
+    public void testConnectionIsReleasedAfterADroppedConnection() throws Exception {
+        server.stub("/dropped", StubResponse.ok("{}").withConnectionDropRate(1.0));
+
+        try {
+            trackedRestClient().get("/dropped", "leaseGetDropped", null);
+            fail("Expected the dropped connection to fail the call");
+        } catch (Exception ex) {
+            assertEquals(0, leaseTracker.getLeasedCount());
+            assertEquals(0, routeStats().getLeased());
+        }
+    }
+
+    private RestClient trackedRestClient() {
+        RestClient restClient = new RestClient("LeaseGroupKey", server.getEndPoint());
+        restClient.setHttpClient(httpClient);
+        return restClient;
+    }
+
+    private RouteLeaseStats routeStats() {
+        List<RouteLeaseStats> routeStats = leaseTracker.getRouteStats();
+        assertEquals(1, routeStats.size());
+        return routeStats.get(0);
+    }
+
+    /**
+     * Records the last leak reported instead of logging it
+     */
+    private static final class RecordingLeaseTracker extends ConnectionLeaseTracker {
+
+        private volatile String leakedCommandName;
+        private volatile Throwable leakedAcquisitionStack;
+
+        private RecordingLeaseTracker(PoolingHttpClientConnectionManager delegate) {
+            super("LeaseGroupKey", delegate);
+        }
+
+        @Override
+        protected void reportLeak(HttpRoute route, String commandName, long leasedMillis, Throwable acquisitionStack) {
+            leakedCommandName = commandName;
+            leakedAcquisitionStack = acquisitionStack;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.capgemini.camel.rest.client.connection;
+
+import com.capgemini.camel.rest.client.RestClient;
+import com.netflix.config.ConfigurationManager;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test for the ManagedHttpClientFactory
+ *
+ * @author Abbas Attarwala
+ */
+public class ManagedHttpClientFactoryTest {
+
+    private static final String GROUP_KEY = "ManagedHttpClientFactoryTest";
+
+    private final ManagedHttpClientFactory factory = ManagedHttpClientFactory.getInstance();
+
+    @After
+    public void shutdownPool() {
+        factory.shutdown(GROUP_KEY);
+        ConfigurationManager.getConfigInstance().clearProperty("hystrix.threadpool." + GROUP_KEY + ".coreSize");
+        ConfigurationManager.getConfigInstance().clearProperty("http.request." + GROUP_KEY + ".pool.maxTotal");
+        ConfigurationManager.getConfigInstance().clearProperty("http.request." + GROUP_KEY + ".pool.headroomPercent");
+    }
+
+    @Test
+    public void testPoolIsSizedFromTheHystrixThreadPoolWithHeadroom() {
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.threadpool." + GROUP_KEY + ".coreSize", 25);
+
+        factory.getHttpClient(GROUP_KEY);
+        PoolingHttpClientConnectionManager connectionManager = factory.getConnectionManager(GROUP_KEY);
+
+        assertEquals(38, connectionManager.getDefaultMaxPerRoute());
+        assertEquals(38, connectionManager.getMaxTotal());
+    }
+
+    @Test
+    public void testHeadroomCanBeRemoved() {
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.threadpool." + GROUP_KEY + ".coreSize", 25);
+        ConfigurationManager.getConfigInstance().setProperty("http.request." + GROUP_KEY + ".pool.headroomPercent", 0);
+
+        factory.getHttpClient(GROUP_KEY);
+        PoolingHttpClientConnectionManager connectionManager = factory.getConnectionManager(GROUP_KEY);
+
+        assertEquals(25, connectionManager.getDefaultMaxPerRoute());
+        assertEquals(25, connectionManager.getMaxTotal());
+    }
+
+    @Test
+    public void testPoolSizeCanBeOverridden() {
+        ConfigurationManager.getConfigInstance().setProperty("http.request." + GROUP_KEY + ".pool.maxTotal", 40);
+
+        factory.getHttpClient(GROUP_KEY);
+        PoolingHttpClientConnectionManager connectionManager = factory.getConnectionManager(GROUP_KEY);
+
+        assertEquals(15, connectionManager.getDefaultMaxPerRoute());
+        assertEquals(40, connectionManager.getMaxTotal());
+    }
+
+    @Test
+    public void testClientIsSharedPerGroupKeyUntilShutdown() {
+        Object httpClient = factory.getHttpClient(GROUP_KEY);
+        assertSame(httpClient, factory.getHttpClient(GROUP_KEY));
+
+        factory.shutdown(GROUP_KEY);
+        assertNull(factory.getConnectionManager(GROUP_KEY));
+        assertNotSame(httpClient, factory.getHttpClient(GROUP_KEY));
+    }
+
+    @Test
+    public void testRestClientUsesTheClientRecreatedAfterShutdown() {
+        RestClient restClient = new RestClient(GROUP_KEY, "http://localhost:8080");
+        Object httpClient = restClient.getHttpClient();
+        assertSame(factory.getHttpClient(GROUP_KEY), httpClient);
+
+        factory.shutdownAll();
+        assertNotSame(httpClient, restClient.getHttpClient());
+        assertSame(factory.getHttpClient(GROUP_KEY), restClient.getHttpClient());
+    }
+}
@@ -0,0 +1,82 @@
+package com.capgemini.camel.rest.client.limit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the AdaptiveConcurrencyLimiter
+ *
+ * @author Abbas Attarwala
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    public void testCallsOverTheLimitAreRejected() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.5, 2.0);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release(1000, false);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testCancelledCallGivesItsSlotBackWithoutCuttingTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.5, 2.0);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        limiter.cancel();
+
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(2, limiter.getLimit());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testLimitIsCutWhenCallsAreDropped() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 10, 0.5, 2.0);
+
+        limiter.tryAcquire();
+        limiter.release(1000, true);
+        assertEquals(4, limiter.getLimit());
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(1000, true);
+        }
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    public void testLimitIsCutWhenLatencyDegrades() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 10, 0.5, 2.0);
+
+        limiter.tryAcquire();
+        limiter.release(1000, false);
+        limiter.tryAcquire();
+        limiter.release(5000, false);
+
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    public void testLimitGrowsWhileFullyUsedAndFast() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.5, 2.0);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.release(1000, false);
+            limiter.release(1000, false);
+        }
+
+        assertTrue(limiter.getLimit() > 2);
+        assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,55 @@
+package com.capgemini.camel.rest.client.limit;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the TokenBucketRateLimiter
+ *
+ * @author Abbas Attarwala
+ */
+public class TokenBucketRateLimiterTest {
+
+    @Test
+    public void testBurstIsAllowedThenCallsFailFast() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 3);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testCallerWaitsForThePermitWithinTheTimeout() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(20, 1);
+
+        assertTrue(limiter.tryAcquire());
+        long start = System.nanoTime();
+        assertTrue(limiter.tryAcquire(1, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(30));
+    }
+
+    @Test
+    public void testCallerDoesNotWaitBeyondTheTimeout() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1);
+
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire(10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testReservedPermitCanBeGivenBack() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1);
+
+        assertEquals(0, limiter.reserve(0, TimeUnit.MILLISECONDS));
+        assertEquals(-1, limiter.reserve(10, TimeUnit.MILLISECONDS));
+        limiter.cancel();
+        assertTrue(limiter.tryAcquire());
+    }
+}
@@ -0,0 +1,68 @@
+package com.capgemini.camel.rest.client.loadbalancer;
+
+import java.net.URI;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test for the EndpointLoadBalancer
+ *
+ * @author Abbas Attarwala
+ */
+public class EndpointLoadBalancerTest {
+
+    private final EndpointLoadBalancer loadBalancer = new EndpointLoadBalancer(
+            Arrays.asList("http://host1:8080/api", "http://host2:8080/api"),
+            new EndpointLoadBalancer.Settings(3, 3.0, 5, 30000, 300000));
+
+    @Test
+    public void testLeastOutstandingEndpointIsChosen() {
+        EndpointLoadBalancer.Endpoint busy = loadBalancer.getEndpoints().get(0);
+        busy.start();
+        busy.start();
+
+        for (int i = 0; i < 10; i++) {
+            assertNotSame(busy, loadBalancer.choose());
+        }
+    }
+
+    @Test
+    public void testEndpointIsEjectedAfterConsecutiveErrors() {
+        EndpointLoadBalancer.Endpoint failing = loadBalancer.getEndpoints().get(1);
+        for (int i = 0; i < 3; i++) {
+            failing.start();
+            loadBalancer.complete(failing, 1000, false);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertSame(loadBalancer.getEndpoints().get(0), loadBalancer.choose());
+        }
+    }
+
+    @Test
+    public void testSlowEndpointIsEjected() {
+        EndpointLoadBalancer.Endpoint fast = loadBalancer.getEndpoints().get(0);
+        EndpointLoadBalancer.Endpoint slow = loadBalancer.getEndpoints().get(1);
+        for (int i = 0; i < 5; i++) {
+            fast.start();
+            loadBalancer.complete(fast, 1000000, true);
+            slow.start();
+            loadBalancer.complete(slow, 10000000, true);
+        }
+
+        assertSame(fast, loadBalancer.choose());
+    }
+
+    @Test
+    public void testUriIsPointedToTheChosenEndpoint() {
+        URI uri = URI.create("http://host1:8080/api/items?id=1");
+
+        assertEquals(URI.create("http://host2:8080/api/items?id=1"), loadBalancer.rewrite(uri, loadBalancer.getEndpoints().get(1)));
+        assertEquals("host2:8080", loadBalancer.getEndpoints().get(1).getHostKey());
+    }
+}
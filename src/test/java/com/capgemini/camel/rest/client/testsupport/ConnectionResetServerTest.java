@@ -0,0 +1,49 @@
+package com.capgemini.camel.rest.client.testsupport;
+
+import java.io.IOException;
+import java.net.SocketException;
+
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the ConnectionResetServer
+ *
+ * @author Abbas Attarwala
+ */
+public class ConnectionResetServerTest {
+
+    private ConnectionResetServer server;
+    private CloseableHttpClient httpClient;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new ConnectionResetServer();
+        httpClient = HttpClients.custom().disableAutomaticRetries().build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        httpClient.close();
+        server.close();
+    }
+
+    @Test
+    public void testClientSeesAConnectionReset() throws IOException {
+        try {
+            httpClient.execute(new HttpGet(server.getEndPoint() + "/items"));
+            fail("Expected SocketException");
+        } catch (SocketException se) {
+            assertTrue(se.getMessage(), se.getMessage().contains("Connection reset"));
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+}
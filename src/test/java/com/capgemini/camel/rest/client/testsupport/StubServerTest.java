@@ -0,0 +1,103 @@
+package com.capgemini.camel.rest.client.testsupport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the StubServer and the LoadGenerator driving it
+ *
+ * @author Abbas Attarwala
+ */
+public class StubServerTest {
+
+    private StubServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubServer(8);
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testScriptedResponse() throws IOException {
+        server.stub("/items", StubResponse.ok("{\"id\":1}").withSlowBody(4, 5));
+
+        HttpURLConnection connection = open("/items");
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("application/json", connection.getContentType());
+        assertEquals("{\"id\":1}", read(connection));
+    }
+
+    @Test
+    public void testUnscriptedPathIsNotFound() throws IOException {
+        assertEquals(404, open("/unknown").getResponseCode());
+    }
+
+    @Test
+    public void testInjectedErrors() throws IOException {
+        server.stub("/items", StubResponse.ok("{}").withErrorRate(1.0, 503));
+
+        assertEquals(503, open("/items").getResponseCode());
+        assertEquals(1, server.getFaultCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void testInjectedConnectionDrop() throws IOException {
+        server.stub("/items", StubResponse.ok("{}").withConnectionDropRate(1.0));
+
+        try {
+            open("/items").getResponseCode();
+        } finally {
+            // HttpURLConnection sends a dropped GET a second time before giving up
+            assertEquals(server.getRequestCount(), server.getFaultCount());
+        }
+    }
+
+    @Test
+    public void testLatencyIsMeasuredFromTheIntendedStart() throws InterruptedException {
+        server.stub("/items", StubResponse.ok("{}").withLatency(LatencyDistribution.fixed(20)));
+
+        LoadReport report = new LoadGenerator(50, 500, TimeUnit.MILLISECONDS).run(new Callable<Integer>() {
+            @Override
+            public Integer call() throws IOException {
+                return open("/items").getResponseCode();
+            }
+        });
+
+        assertEquals(25, report.getIssued());
+        assertEquals(25, report.getSuccesses());
+        assertEquals(0, report.getIncomplete());
+        assertTrue(report.getLatencyMillis(50) >= 20);
+        assertEquals(25, server.getRequestCount());
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(server.getEndPoint() + path).openConnection();
+        connection.setReadTimeout(5000);
+        return connection;
+    }
+
+    private static String read(HttpURLConnection connection) throws IOException {
+        try (InputStream in = connection.getInputStream();
+             Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name()).useDelimiter("\\A")) {
+            return scanner.hasNext() ? scanner.next() : "";
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.capgemini.camel.rest.client.timeout;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.capgemini.camel.rest.client.config.RestClientProperties;
+import com.netflix.config.ConcurrentCompositeConfiguration;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.hystrix.Hystrix;
+import com.netflix.hystrix.HystrixCommand;
+import com.netflix.hystrix.HystrixCommandGroupKey;
+import com.netflix.hystrix.HystrixCommandKey;
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test for the AdaptiveTimeouts
+ *
+ * @author Abbas Attarwala
+ */
+public class AdaptiveTimeoutsTest {
+
+    private static final String COMMAND_NAME = "adaptiveCommand";
+    private static final String ENABLED_PROPERTY = "http.request." + COMMAND_NAME + ".timeout.adaptive.enabled";
+    private static final String HYSTRIX_TIMEOUT_PROPERTY = "hystrix.command." + COMMAND_NAME + ".execution.isolation.thread.timeoutInMilliseconds";
+    private static final String ROLLING_PERCENTILE_PROPERTY = "hystrix.command." + COMMAND_NAME + ".metrics.rollingPercentile.timeInMilliseconds";
+
+    @After
+    public void tearDown() {
+        AbstractConfiguration config = ConfigurationManager.getConfigInstance();
+        config.clearProperty(ENABLED_PROPERTY);
+        config.clearProperty(HYSTRIX_TIMEOUT_PROPERTY);
+        config.clearProperty(ROLLING_PERCENTILE_PROPERTY);
+        if (config instanceof ConcurrentCompositeConfiguration) {
+            ((ConcurrentCompositeConfiguration) config).clearOverrideProperty(HYSTRIX_TIMEOUT_PROPERTY);
+        }
+        Hystrix.reset();
+    }
+
+    @Test
+    public void testTimeoutIsObservedLatencyTimesMultiplier() {
+        assertEquals(300, AdaptiveTimeouts.computeTimeout(120, 2.5, 100, 5000));
+    }
+
+    @Test
+    public void testTimeoutIsKeptWithinBounds() {
+        assertEquals(100, AdaptiveTimeouts.computeTimeout(10, 2.0, 100, 5000));
+        assertEquals(5000, AdaptiveTimeouts.computeTimeout(4000, 2.0, 100, 5000));
+    }
+
+    @Test
+    public void testConfiguredTimeoutIsUsedWhenDisabled() {
+        AdaptiveTimeouts adaptiveTimeouts = new AdaptiveTimeouts(new RestClientProperties("adaptiveTimeoutsTest"));
+
+        assertEquals(2000, adaptiveTimeouts.getSocketTimeout("getItems", 2000));
+        assertNull(adaptiveTimeouts.getStats("getItems"));
+    }
+
+    @Test
+    public void testConfiguredHystrixTimeoutIsRestoredWhenDisabled() throws Exception {
+        AbstractConfiguration config = ConfigurationManager.getConfigInstance();
+        config.setProperty(HYSTRIX_TIMEOUT_PROPERTY, 4321);
+        config.setProperty(ROLLING_PERCENTILE_PROPERTY, 600);
+        config.setProperty(ENABLED_PROPERTY, true);
+        AdaptiveTimeouts adaptiveTimeouts = new AdaptiveTimeouts(new RestClientProperties("adaptiveTimeoutsTest"));
+
+        AdaptiveTimeoutStats stats = awaitAdaptiveTimeouts(adaptiveTimeouts);
+        assertEquals(250, stats.getSocketTimeoutMillis());
+        assertEquals(500, stats.getHystrixTimeoutMillis());
+        assertEquals(500, config.getInt(HYSTRIX_TIMEOUT_PROPERTY));
+
+        config.setProperty(ENABLED_PROPERTY, false);
+
+        assertEquals(2000, adaptiveTimeouts.getSocketTimeout(COMMAND_NAME, 2000));
+        assertNull(adaptiveTimeouts.getStats(COMMAND_NAME));
+        assertEquals(4321, config.getInt(HYSTRIX_TIMEOUT_PROPERTY));
+    }
+
+    @Test
+    public void testTimeoutsArePublishedAsGauges() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty(ROLLING_PERCENTILE_PROPERTY, 600);
+        ConfigurationManager.getConfigInstance().setProperty(ENABLED_PROPERTY, true);
+        AdaptiveTimeouts adaptiveTimeouts = new AdaptiveTimeouts(new RestClientProperties("adaptiveTimeoutsTest"));
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName("com.capgemini.camel.rest.client:type=AdaptiveTimeouts,command="
+                + ObjectName.quote(COMMAND_NAME));
+
+        AdaptiveTimeoutStats stats = awaitAdaptiveTimeouts(adaptiveTimeouts);
+
+        assertEquals(stats.getSocketTimeoutMillis(), mBeanServer.getAttribute(objectName, "SocketTimeoutMillis"));
+        assertEquals(stats.getHystrixTimeoutMillis(), mBeanServer.getAttribute(objectName, "HystrixTimeoutMillis"));
+        assertEquals(stats.getObservedLatencyMillis(), mBeanServer.getAttribute(objectName, "ObservedLatencyMillis"));
+        assertEquals(99, mBeanServer.getAttribute(objectName, "Percentile"));
+
+        ConfigurationManager.getConfigInstance().setProperty(ENABLED_PROPERTY, false);
+        adaptiveTimeouts.getSocketTimeout(COMMAND_NAME, 2000);
+
+        assertFalse(mBeanServer.isRegistered(objectName));
+    }
+
+    /**
+     * Executes the command until Hystrix has recorded its execution times and the adaptive timeouts are computed
+     */
+    private static AdaptiveTimeoutStats awaitAdaptiveTimeouts(AdaptiveTimeouts adaptiveTimeouts) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (adaptiveTimeouts.getStats(COMMAND_NAME) == null && System.nanoTime() < deadline) {
+            new HystrixCommand<Void>(HystrixCommand.Setter
+                    .withGroupKey(HystrixCommandGroupKey.Factory.asKey("AdaptiveGroupKey"))
+                    .andCommandKey(HystrixCommandKey.Factory.asKey(COMMAND_NAME))) {
+                @Override
+                protected Void run() throws Exception {
+                    TimeUnit.MILLISECONDS.sleep(20);
+                    return null;
+                }
+            }.execute();
+            adaptiveTimeouts.getSocketTimeout(COMMAND_NAME, 2000);
+        }
+        AdaptiveTimeoutStats stats = adaptiveTimeouts.getStats(COMMAND_NAME);
+        assertNotNull(stats);
+        return stats;
+    }
+}
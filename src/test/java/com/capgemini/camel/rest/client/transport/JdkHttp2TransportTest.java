@@ -0,0 +1,118 @@
+package com.capgemini.camel.rest.client.transport;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.capgemini.camel.rest.client.testsupport.LatencyDistribution;
+import com.capgemini.camel.rest.client.testsupport.StubResponse;
+import com.capgemini.camel.rest.client.testsupport.StubServer;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the JdkHttp2Transport, against a StubServer
+ *
+ * @author Abbas Attarwala
+ */
+public class JdkHttp2TransportTest {
+
+    private StubServer server;
+    private JdkHttp2Transport transport;
+    private ScheduledExecutorService scheduler;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubServer(8);
+        transport = new JdkHttp2Transport(1000);
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+        server.close();
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        server.stub("/items/1", StubResponse.ok("{\"id\":1}").withEntityTag("\"v1\""));
+
+        HttpResponse httpResponse = transport.execute(new HttpGet(server.getEndPoint() + "/items/1"), HttpClientContext.create());
+
+        assertEquals(200, httpResponse.getStatusLine().getStatusCode());
+        assertEquals("application/json", httpResponse.getFirstHeader("Content-Type").getValue());
+        assertEquals("\"v1\"", httpResponse.getFirstHeader("ETag").getValue());
+        assertEquals("{\"id\":1}", EntityUtils.toString(httpResponse.getEntity(), "UTF-8"));
+    }
+
+    @Test
+    public void testRequestEntityIsSent() throws IOException {
+        server.stub("/items/1", StubResponse.status(204, null));
+
+        HttpPut httpRequest = new HttpPut(server.getEndPoint() + "/items/1");
+        httpRequest.setEntity(new StringEntity("{\"id\":1}", ContentType.APPLICATION_JSON));
+        HttpResponse httpResponse = transport.execute(httpRequest, HttpClientContext.create());
+
+        assertEquals(204, httpResponse.getStatusLine().getStatusCode());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test(expected = SocketTimeoutException.class)
+    public void testSocketTimeoutBoundsTheWaitForTheResponse() throws IOException {
+        server.stub("/slow", StubResponse.ok("{}").withLatency(LatencyDistribution.fixed(5000)));
+
+        HttpGet httpRequest = new HttpGet(server.getEndPoint() + "/slow");
+        httpRequest.setConfig(RequestConfig.custom().setSocketTimeout(100).build());
+        transport.execute(httpRequest, HttpClientContext.create());
+    }
+
+    @Test
+    public void testAbortCancelsTheWaitForTheResponse() {
+        server.stub("/slow", StubResponse.ok("{}").withLatency(LatencyDistribution.fixed(5000)));
+
+        final HttpGet httpRequest = new HttpGet(server.getEndPoint() + "/slow");
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                httpRequest.abort();
+            }
+        }, 100, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        try {
+            transport.execute(httpRequest, HttpClientContext.create());
+            fail("Expected IOException");
+        } catch (IOException ioe) {
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+        }
+    }
+
+    @Test
+    public void testAbortedRequestIsNotSent() {
+        HttpGet httpRequest = new HttpGet(server.getEndPoint() + "/items/1");
+        httpRequest.abort();
+
+        try {
+            transport.execute(httpRequest, HttpClientContext.create());
+            fail("Expected IOException");
+        } catch (IOException ioe) {
+            assertEquals(0, server.getRequestCount());
+        }
+    }
+}
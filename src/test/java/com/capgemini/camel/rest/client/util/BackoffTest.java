@@ -0,0 +1,31 @@
+package com.capgemini.camel.rest.client.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the Backoff
+ *
+ * @author Abbas Attarwala
+ */
+public class BackoffTest {
+
+    @Test
+    public void testCeilingDoublesUpToTheMaximum() {
+        assertEquals(50, Backoff.ceiling(1, 50, 1000));
+        assertEquals(100, Backoff.ceiling(2, 50, 1000));
+        assertEquals(800, Backoff.ceiling(5, 50, 1000));
+        assertEquals(1000, Backoff.ceiling(6, 50, 1000));
+        assertEquals(1000, Backoff.ceiling(100, 50, 1000));
+    }
+
+    @Test
+    public void testDelayIsWithinTheCeiling() {
+        for (int i = 0; i < 1000; i++) {
+            long delay = Backoff.fullJitter(3, 50, 1000);
+            assertTrue(delay >= 0 && delay <= 200);
+        }
+    }
+}
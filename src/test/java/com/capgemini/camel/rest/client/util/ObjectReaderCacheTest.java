@@ -0,0 +1,48 @@
+package com.capgemini.camel.rest.client.util;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test for the ObjectReaderCache
+ *
+ * @author Abbas Attarwala
+ */
+public class ObjectReaderCacheTest {
+
+    private final ObjectReaderCache objectReaders = new ObjectReaderCache(new ObjectMapper());
+
+    @Test
+    public void testReaderIsCreatedOncePerType() {
+        ObjectReader reader = objectReaders.forType(Map.class);
+
+        assertSame(reader, objectReaders.forType(Map.class));
+        assertNotSame(reader, objectReaders.forType(List.class));
+        assertEquals(2, objectReaders.size());
+    }
+
+    @Test
+    public void testGenericTypesAreCachedByResolvedType() throws Exception {
+        ObjectReader reader = objectReaders.forType(new TypeReference<List<Integer>>() { });
+
+        assertSame(reader, objectReaders.forType(new TypeReference<List<Integer>>() { }));
+        assertNotSame(reader, objectReaders.forType(new TypeReference<List<String>>() { }));
+
+        List<Integer> values = reader.readValue("[1, 2, 3]");
+        assertEquals(Integer.valueOf(3), values.get(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMapperIsMandatory() {
+        new ObjectReaderCache(null);
+    }
+}
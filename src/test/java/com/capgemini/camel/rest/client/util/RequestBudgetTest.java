@@ -0,0 +1,49 @@
+package com.capgemini.camel.rest.client.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the RequestBudget
+ *
+ * @author Abbas Attarwala
+ */
+public class RequestBudgetTest {
+
+    @Test
+    public void testInitialTokensAreSpentFirst() {
+        RequestBudget budget = new RequestBudget(2, 10);
+
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+    }
+
+    @Test
+    public void testRegularRequestsRefillTheBudgetByPercentage() {
+        RequestBudget budget = new RequestBudget(0, 10);
+
+        for (int i = 0; i < 9; i++) {
+            budget.recordRequest(10);
+        }
+        assertFalse(budget.tryAcquire());
+
+        budget.recordRequest(10);
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+    }
+
+    @Test
+    public void testBalanceIsCapped() {
+        RequestBudget budget = new RequestBudget(0, 3);
+
+        for (int i = 0; i < 100; i++) {
+            budget.recordRequest(50);
+        }
+
+        assertEquals(3, budget.getAvailableTokens());
+    }
+}
@@ -0,0 +1,87 @@
+package com.capgemini.camel.rest.client.util;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Test for the SingleFlight call coalescing
+ *
+ * @author Abbas Attarwala
+ */
+public class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @After
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentCallsShareOneExecution() throws Exception {
+        final AtomicInteger executions = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final Callable<String> slowCall = new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                executions.incrementAndGet();
+                release.await(5, TimeUnit.SECONDS);
+                return "{}";
+            }
+        };
+
+        Future<String> leader = executor.submit(executeAsync("key", slowCall));
+        while (singleFlight.getInFlightCount() == 0) {
+            Thread.sleep(1);
+        }
+        Future<String> follower = executor.submit(executeAsync("key", slowCall));
+        Thread.sleep(50);
+        release.countDown();
+
+        assertEquals("{}", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("{}", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    public void testExceptionIsPropagated() throws Exception {
+        final IOException failure = new IOException("Connection reset");
+        try {
+            singleFlight.execute("key", new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    throw failure;
+                }
+            });
+            fail("The exception of the call should have been thrown");
+        } catch (IOException e) {
+            assertSame(failure, e);
+        }
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    private Callable<String> executeAsync(final String key, final Callable<String> call) {
+        return new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return singleFlight.execute(key, call);
+            }
+        };
+    }
+}
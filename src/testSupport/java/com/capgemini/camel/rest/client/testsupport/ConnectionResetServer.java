@@ -0,0 +1,92 @@
+package com.capgemini.camel.rest.client.testsupport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A backend on the loopback interface which resets every connection: it reads the request headers, then closes
+ * the socket with <code>SO_LINGER</code> set to 0 so that a RST is sent instead of a FIN. The client sees a
+ * <code>java.net.SocketException: Connection reset</code> while reading the response.
+ * <p>
+ * The {@link StubServer} cannot inject this fault, the JDK HTTP server does not expose its sockets.
+ *
+ * @author Abbas Attarwala
+ */
+public class ConnectionResetServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final Thread acceptor;
+    private final AtomicLong requestCount = new AtomicLong();
+
+    /**
+     * Starts a server on an ephemeral port
+     */
+    public ConnectionResetServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!serverSocket.isClosed()) {
+                    try {
+                        reset(serverSocket.accept());
+                    } catch (IOException e) {
+                        // the server socket has been closed, or the client went away first
+                    }
+                }
+            }
+        }, "connection-reset-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * @return the base URL of the server, to be given to the clients as their end point
+     */
+    public String getEndPoint() {
+        return "http://" + serverSocket.getInetAddress().getHostAddress() + ":" + serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return the number of requests received, and reset
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void reset(Socket socket) throws IOException {
+        try {
+            readRequestHeaders(socket.getInputStream());
+            requestCount.incrementAndGet();
+            socket.setSoLinger(true, 0);
+        } catch (SocketException e) {
+            // the client went away first, there is nothing left to reset
+        } finally {
+            socket.close();
+        }
+    }
+
+    /**
+     * Reads up to the blank line ending the request headers, so that the client is waiting for the response
+     */
+    private static void readRequestHeaders(InputStream in) throws IOException {
+        int matched = 0;
+        int read;
+        while (matched < 4 && (read = in.read()) != -1) {
+            if (read == (matched % 2 == 0 ? '\r' : '\n')) {
+                matched++;
+            } else {
+                matched = read == '\r' ? 1 : 0;
+            }
+        }
+    }
+}
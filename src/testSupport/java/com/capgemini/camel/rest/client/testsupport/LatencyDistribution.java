@@ -0,0 +1,86 @@
+package com.capgemini.camel.rest.client.testsupport;
+
+import java.util.Random;
+
+/**
+ * The distribution of the delays a {@link StubServer} waits before responding.
+ *
+ * @author Abbas Attarwala
+ */
+public abstract class LatencyDistribution {
+
+    /**
+     * 2.326 is the 99th percentile of the standard normal distribution
+     */
+    private static final double Z_99 = 2.326;
+
+    /**
+     * @return the next delay, in milliseconds
+     */
+    public abstract long nextDelayMillis(Random random);
+
+    /**
+     * No delay
+     */
+    public static LatencyDistribution none() {
+        return fixed(0);
+    }
+
+    /**
+     * Always the same delay
+     */
+    public static LatencyDistribution fixed(final long delayMillis) {
+        return new LatencyDistribution() {
+            @Override
+            public long nextDelayMillis(Random random) {
+                return delayMillis;
+            }
+        };
+    }
+
+    /**
+     * A delay drawn uniformly between the bounds
+     */
+    public static LatencyDistribution uniform(final long minMillis, final long maxMillis) {
+        return new LatencyDistribution() {
+            @Override
+            public long nextDelayMillis(Random random) {
+                return minMillis + (long) (random.nextDouble() * (maxMillis - minMillis));
+            }
+        };
+    }
+
+    /**
+     * A log-normal delay, the usual shape of service latencies: most responses close to the median,
+     * with a long tail reaching the 99th percentile
+     *
+     * @param medianMillis  The median delay
+     * @param p99Millis     The 99th percentile delay, greater than the median
+     */
+    public static LatencyDistribution logNormal(final double medianMillis, final double p99Millis) {
+        final double mu = Math.log(medianMillis);
+        final double sigma = Math.log(p99Millis / medianMillis) / Z_99;
+        return new LatencyDistribution() {
+            @Override
+            public long nextDelayMillis(Random random) {
+                return Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+            }
+        };
+    }
+
+    /**
+     * Mostly the fast distribution, the slow one for a fraction of the responses, e.g. garbage collection pauses
+     *
+     * @param fast          The usual distribution
+     * @param slow          The occasional distribution
+     * @param slowFraction  The fraction of the responses following the slow distribution, between 0 and 1
+     */
+    public static LatencyDistribution bimodal(final LatencyDistribution fast, final LatencyDistribution slow, final double slowFraction) {
+        return new LatencyDistribution() {
+            @Override
+            public long nextDelayMillis(Random random) {
+                return random.nextDouble() < slowFraction ? slow.nextDelayMillis(random) : fast.nextDelayMillis(random);
+            }
+        };
+    }
+}
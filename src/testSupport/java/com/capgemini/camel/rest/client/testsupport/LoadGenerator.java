@@ -0,0 +1,178 @@
+package com.capgemini.camel.rest.client.testsupport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandMetrics;
+import com.netflix.hystrix.HystrixEventType;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * An open-model load generator: requests arrive at a constant rate, whether or not the previous ones have completed,
+ * like the independent users of a real service.
+ * <p>
+ * The latency of every request is measured from the time it was scheduled to start, not from the time it actually
+ * started, so that the requests delayed behind a stalled client or a saturated generator are charged for the wait.
+ * Measuring from the actual start would hide the stalls, the coordinated omission of closed-loop generators.
+ * <p>
+ * The rejections, short circuits and timeouts are read from the Hystrix metrics of the commands given,
+ * as the difference between their cumulative counts before and after the run.
+ *
+ * @author Abbas Attarwala
+ */
+public class LoadGenerator {
+
+    /**
+     * How long the requests still running after the last arrival are waited for
+     */
+    private static final long DRAIN_TIMEOUT_SECONDS = 60;
+
+    private final double requestsPerSecond;
+    private final long durationNanos;
+    private final List<HystrixCommandKey> commandKeys = new ArrayList<>();
+
+    /**
+     * @param requestsPerSecond The arrival rate of the requests
+     * @param duration          How long requests arrive for
+     * @param unit              The unit of the duration
+     * @param commandNames      The Hystrix commands whose rejections, short circuits and timeouts are reported
+     */
+    public LoadGenerator(double requestsPerSecond, long duration, TimeUnit unit, String... commandNames) {
+        if (requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("The arrival rate must be positive: " + requestsPerSecond);
+        }
+        this.requestsPerSecond = requestsPerSecond;
+        this.durationNanos = unit.toNanos(duration);
+        for (String commandName : commandNames) {
+            commandKeys.add(HystrixCommandKey.Factory.asKey(commandName));
+        }
+    }
+
+    /**
+     * Runs the load, calling the given request at the arrival rate, each call on its own thread
+     *
+     * @param request   The request, e.g. a call to a {@code RestClient}; any exception thrown counts as a failure
+     * @return the report of the run
+     */
+    public LoadReport run(final Callable<?> request) throws InterruptedException {
+        final Histogram latencies = new ConcurrentHistogram(3);
+        final AtomicLong successes = new AtomicLong();
+        final Map<String, AtomicLong> failures = new ConcurrentHashMap<>();
+        final AtomicLong lastCompletion = new AtomicLong();
+        long[] countsBefore = getHystrixCounts();
+
+        ExecutorService workers = Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "load-generator-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        long intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond));
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        long issued = 0;
+        for (long scheduled = start; scheduled < end; scheduled += intervalNanos) {
+            awaitUntil(scheduled);
+            final long intendedStart = scheduled;
+            workers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        request.call();
+                        successes.incrementAndGet();
+                    } catch (Exception e) {
+                        String failure = e.getClass().getSimpleName();
+                        AtomicLong count = failures.get(failure);
+                        if (count == null) {
+                            failures.putIfAbsent(failure, new AtomicLong());
+                            count = failures.get(failure);
+                        }
+                        count.incrementAndGet();
+                    } finally {
+                        long now = System.nanoTime();
+                        latencies.recordValue(now - intendedStart);
+                        long last;
+                        while (now > (last = lastCompletion.get()) && !lastCompletion.compareAndSet(last, now)) {
+                            // retry until this completion is recorded or a later one is
+                        }
+                    }
+                }
+            });
+            issued++;
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        workers.shutdownNow();
+        long elapsedNanos = Math.max(lastCompletion.get(), end) - start;
+
+        awaitHystrixMetrics();
+        long[] countsAfter = getHystrixCounts();
+
+        Map<String, Long> failureCounts = new ConcurrentHashMap<>();
+        for (Map.Entry<String, AtomicLong> failure : failures.entrySet()) {
+            failureCounts.put(failure.getKey(), failure.getValue().get());
+        }
+        return new LoadReport(requestsPerSecond, issued, successes.get(), failureCounts, elapsedNanos, latencies.copy(),
+                countsAfter[0] - countsBefore[0], countsAfter[1] - countsBefore[1], countsAfter[2] - countsBefore[2]);
+    }
+
+    private static void awaitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * @return the cumulative rejections, short circuits and timeouts of the commands
+     */
+    private long[] getHystrixCounts() {
+        long[] counts = new long[3];
+        for (HystrixCommandKey commandKey : commandKeys) {
+            HystrixCommandMetrics metrics = HystrixCommandMetrics.getInstance(commandKey);
+            if (metrics == null) {
+                continue;
+            }
+            counts[0] += metrics.getCumulativeCount(HystrixEventType.THREAD_POOL_REJECTED)
+                    + metrics.getCumulativeCount(HystrixEventType.SEMAPHORE_REJECTED);
+            counts[1] += metrics.getCumulativeCount(HystrixEventType.SHORT_CIRCUITED);
+            counts[2] += metrics.getCumulativeCount(HystrixEventType.TIMEOUT);
+        }
+        return counts;
+    }
+
+    /**
+     * Hystrix publishes its cumulative counts once per bucket of the rolling window,
+     * so the last events of the run are only counted after one bucket has elapsed
+     */
+    private void awaitHystrixMetrics() throws InterruptedException {
+        long bucketMillis = 0;
+        for (HystrixCommandKey commandKey : commandKeys) {
+            HystrixCommandMetrics metrics = HystrixCommandMetrics.getInstance(commandKey);
+            if (metrics != null) {
+                bucketMillis = Math.max(bucketMillis,
+                        metrics.getProperties().metricsRollingStatisticalWindowInMilliseconds().get()
+                                / metrics.getProperties().metricsRollingStatisticalWindowBuckets().get());
+            }
+        }
+        TimeUnit.MILLISECONDS.sleep(bucketMillis);
+    }
+}
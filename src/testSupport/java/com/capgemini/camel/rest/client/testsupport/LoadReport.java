@@ -0,0 +1,148 @@
+package com.capgemini.camel.rest.client.testsupport;
+
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * The results of a {@link LoadGenerator} run: throughput, latency percentiles and the Hystrix rejections.
+ * Latencies are recorded in nanoseconds and reported in milliseconds.
+ *
+ * @author Abbas Attarwala
+ */
+public class LoadReport {
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final double targetRate;
+    private final long issued;
+    private final long successes;
+    private final Map<String, Long> failures;
+    private final long elapsedNanos;
+    private final Histogram latencies;
+    private final long rejections;
+    private final long shortCircuits;
+    private final long timeouts;
+
+    LoadReport(double targetRate, long issued, long successes, Map<String, Long> failures, long elapsedNanos,
+               Histogram latencies, long rejections, long shortCircuits, long timeouts) {
+        this.targetRate = targetRate;
+        this.issued = issued;
+        this.successes = successes;
+        this.failures = Collections.unmodifiableMap(new TreeMap<>(failures));
+        this.elapsedNanos = elapsedNanos;
+        this.latencies = latencies;
+        this.rejections = rejections;
+        this.shortCircuits = shortCircuits;
+        this.timeouts = timeouts;
+    }
+
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    /**
+     * @return the number of requests started
+     */
+    public long getIssued() {
+        return issued;
+    }
+
+    public long getSuccesses() {
+        return successes;
+    }
+
+    /**
+     * @return the number of failed requests by the simple name of the exception they threw
+     */
+    public Map<String, Long> getFailures() {
+        return failures;
+    }
+
+    public long getFailureCount() {
+        long count = 0;
+        for (Long failure : failures.values()) {
+            count += failure;
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of requests still running when the run gave up waiting for them
+     */
+    public long getIncomplete() {
+        return issued - successes - getFailureCount();
+    }
+
+    /**
+     * @return the completed requests per second, successful or not, from the first arrival to the last completion
+     */
+    public double getThroughput() {
+        return (successes + getFailureCount()) / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * @return the successful requests per second
+     */
+    public double getGoodput() {
+        return successes / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * @param percentile    The percentile, between 0 and 100
+     * @return the latency at the percentile, in milliseconds
+     */
+    public double getLatencyMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    public double getMaxLatencyMillis() {
+        return latencies.getMaxValue() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * @return the latencies, in nanoseconds, for further analysis
+     */
+    public Histogram getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * @return the Hystrix thread pool and semaphore rejections
+     */
+    public long getRejections() {
+        return rejections;
+    }
+
+    public long getShortCircuits() {
+        return shortCircuits;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * Prints the full latency distribution, in milliseconds, in the HdrHistogram format which its plotter reads
+     */
+    public void printLatencyDistribution(PrintStream out) {
+        latencies.outputPercentileDistribution(out, NANOS_PER_MILLI);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("target=%.1f/s issued=%d successes=%d failures=%s incomplete=%d "
+                        + "throughput=%.1f/s goodput=%.1f/s "
+                        + "latency(ms) p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f "
+                        + "rejections=%d shortCircuits=%d timeouts=%d",
+                targetRate, issued, successes, failures, getIncomplete(),
+                getThroughput(), getGoodput(),
+                getLatencyMillis(50), getLatencyMillis(90), getLatencyMillis(99), getLatencyMillis(99.9),
+                getMaxLatencyMillis(),
+                rejections, shortCircuits, timeouts);
+    }
+}
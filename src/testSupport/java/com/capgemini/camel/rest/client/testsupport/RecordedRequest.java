@@ -0,0 +1,56 @@
+package com.capgemini.camel.rest.client.testsupport;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A request received by a {@link StubServer}, with its payload as received on the wire.
+ *
+ * @author Abbas Attarwala
+ */
+public class RecordedRequest {
+
+    private final String method;
+    private final String path;
+    private final Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final byte[] body;
+
+    RecordedRequest(String method, String path, Map<String, List<String>> headers, byte[] body) {
+        this.method = method;
+        this.path = path;
+        this.headers.putAll(headers);
+        this.body = body;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the first value of the header, null if the request did not have it
+     */
+    public String getHeader(String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * @return the payload, still encoded if it was sent with a <code>Content-Encoding</code>
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * @return the payload decoded as UTF-8
+     */
+    public String getBodyAsString() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+}
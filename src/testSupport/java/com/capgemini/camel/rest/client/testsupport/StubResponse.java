@@ -0,0 +1,182 @@
+package com.capgemini.camel.rest.client.testsupport;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The scripted behaviour of a path of a {@link StubServer}: the response, and the faults injected into it.
+ *
+ * @author Abbas Attarwala
+ */
+public class StubResponse {
+
+    private final int status;
+    private final byte[] body;
+    private String contentType = "application/json";
+    private LatencyDistribution latency = LatencyDistribution.none();
+    private double errorRate;
+    private int errorStatus = 503;
+    private double connectionDropRate;
+    private int bodyChunks = 1;
+    private long chunkDelayMillis;
+    private String entityTag;
+    private String lastModified;
+    private String contentEncoding;
+    private final Map<String, String> headers = new LinkedHashMap<>();
+
+    private StubResponse(int status, String body) {
+        this.status = status;
+        this.body = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A 200 response with a JSON body
+     */
+    public static StubResponse ok(String json) {
+        return new StubResponse(200, json);
+    }
+
+    /**
+     * A response with any status
+     */
+    public static StubResponse status(int status, String body) {
+        return new StubResponse(status, body);
+    }
+
+    public StubResponse withContentType(String contentType) {
+        this.contentType = contentType;
+        return this;
+    }
+
+    /**
+     * Delays the response headers by a delay drawn from the distribution
+     */
+    public StubResponse withLatency(LatencyDistribution latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * Answers a fraction of the requests with an error status instead of the response
+     *
+     * @param errorRate     The fraction of the requests failing, between 0 and 1
+     * @param errorStatus   The status of the failed requests, e.g. 500 or 503
+     */
+    public StubResponse withErrorRate(double errorRate, int errorStatus) {
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        return this;
+    }
+
+    /**
+     * Closes the connection of a fraction of the requests without answering them. The close is orderly,
+     * the client reads the end of the stream instead of a response (a <code>NoHttpResponseException</code>
+     * with HttpClient), not a connection reset: see {@link ConnectionResetServer} for a reset
+     *
+     * @param connectionDropRate    The fraction of the requests dropped, between 0 and 1
+     */
+    public StubResponse withConnectionDropRate(double connectionDropRate) {
+        this.connectionDropRate = connectionDropRate;
+        return this;
+    }
+
+    /**
+     * Sends the body in chunks, pausing between them, to simulate a slow body after fast headers
+     *
+     * @param chunks            The number of chunks the body is split into
+     * @param chunkDelayMillis  The pause before each chunk
+     */
+    public StubResponse withSlowBody(int chunks, long chunkDelayMillis) {
+        this.bodyChunks = Math.max(1, chunks);
+        this.chunkDelayMillis = chunkDelayMillis;
+        return this;
+    }
+
+    /**
+     * Sends an <code>ETag</code> header with the response, and answers the requests whose
+     * <code>If-None-Match</code> header carries the same tag with a <code>304 Not Modified</code>
+     */
+    public StubResponse withEntityTag(String entityTag) {
+        this.entityTag = entityTag;
+        return this;
+    }
+
+    /**
+     * Sends a <code>Last-Modified</code> header with the response, and answers the requests whose
+     * <code>If-Modified-Since</code> header carries the same date with a <code>304 Not Modified</code>
+     */
+    public StubResponse withLastModified(String lastModified) {
+        this.lastModified = lastModified;
+        return this;
+    }
+
+    /**
+     * Sends a header with the response, e.g. <code>Cache-Control</code>
+     */
+    public StubResponse withHeader(String name, String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    /**
+     * Compresses the body with the encoding, <code>gzip</code> or <code>deflate</code>, for the requests whose
+     * <code>Accept-Encoding</code> header lists it; the other requests get the body as is
+     */
+    public StubResponse withContentEncoding(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+        return this;
+    }
+
+    int getStatus() {
+        return status;
+    }
+
+    byte[] getBody() {
+        return body;
+    }
+
+    String getContentType() {
+        return contentType;
+    }
+
+    LatencyDistribution getLatency() {
+        return latency;
+    }
+
+    double getErrorRate() {
+        return errorRate;
+    }
+
+    int getErrorStatus() {
+        return errorStatus;
+    }
+
+    double getConnectionDropRate() {
+        return connectionDropRate;
+    }
+
+    int getBodyChunks() {
+        return bodyChunks;
+    }
+
+    long getChunkDelayMillis() {
+        return chunkDelayMillis;
+    }
+
+    String getEntityTag() {
+        return entityTag;
+    }
+
+    String getLastModified() {
+        return lastModified;
+    }
+
+    String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    Map<String, String> getHeaders() {
+        return headers;
+    }
+}
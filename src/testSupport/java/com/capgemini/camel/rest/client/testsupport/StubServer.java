@@ -0,0 +1,260 @@
+package com.capgemini.camel.rest.client.testsupport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * An in-process HTTP backend on the loopback interface, for exercising the clients under scripted latencies and faults.
+ * <p>
+ * Every path is scripted with a {@link StubResponse}; unscripted paths are answered with a 404.
+ * The scripts can be replaced while the server runs, e.g. to make the backend fail in the middle of a load test.
+ *
+ * @author Abbas Attarwala
+ */
+public class StubServer implements AutoCloseable {
+
+    private static final StubResponse NOT_FOUND = StubResponse.status(404, null);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, StubResponse> responses = new ConcurrentHashMap<>();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong faultCount = new AtomicLong();
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+    private final AtomicInteger maxInFlightCount = new AtomicInteger();
+    private volatile RecordedRequest lastRequest;
+
+    /**
+     * Starts a server on an ephemeral port
+     *
+     * @param threads   The number of requests served concurrently, above which requests queue in the server
+     */
+    public StubServer(int threads) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "stub-server-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        server.setExecutor(executor);
+        server.createContext("/", new StubHandler());
+        server.start();
+    }
+
+    public StubServer() throws IOException {
+        this(64);
+    }
+
+    /**
+     * Scripts the responses of a path, replacing any previous script
+     *
+     * @param path      The exact path of the requests, without the query string
+     * @param response  The scripted response
+     * @return this server
+     */
+    public StubServer stub(String path, StubResponse response) {
+        responses.put(path, response);
+        return this;
+    }
+
+    /**
+     * @return the base URL of the server, to be given to the clients as their end point
+     */
+    public String getEndPoint() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * @return the number of requests received
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return the number of requests answered with an injected error or dropped
+     */
+    public long getFaultCount() {
+        return faultCount.get();
+    }
+
+    /**
+     * @return the highest number of requests which have been served concurrently
+     */
+    public int getMaxInFlightCount() {
+        return maxInFlightCount.get();
+    }
+
+    /**
+     * @return the last request received, null if none has been received
+     */
+    public RecordedRequest getLastRequest() {
+        return lastRequest;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private class StubHandler implements HttpHandler {
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            requestCount.incrementAndGet();
+            int inFlight = inFlightCount.incrementAndGet();
+            int maxInFlight = maxInFlightCount.get();
+            while (inFlight > maxInFlight && !maxInFlightCount.compareAndSet(maxInFlight, inFlight)) {
+                maxInFlight = maxInFlightCount.get();
+            }
+            StubResponse response = responses.get(exchange.getRequestURI().getPath());
+            if (response == null) {
+                response = NOT_FOUND;
+            }
+            Random random = ThreadLocalRandom.current();
+            try {
+                lastRequest = new RecordedRequest(exchange.getRequestMethod(), exchange.getRequestURI().getPath(),
+                                                  exchange.getRequestHeaders(), read(exchange.getRequestBody()));
+                pause(response.getLatency().nextDelayMillis(random));
+
+                if (random.nextDouble() < response.getConnectionDropRate()) {
+                    faultCount.incrementAndGet();
+                    // Closing the exchange before sending the headers drops the connection without a response,
+                    // with a FIN: the server does not expose its sockets, so a reset cannot be injected
+                    exchange.close();
+                    return;
+                }
+                if (random.nextDouble() < response.getErrorRate()) {
+                    faultCount.incrementAndGet();
+                    exchange.sendResponseHeaders(response.getErrorStatus(), -1);
+                    return;
+                }
+                send(exchange, response);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlightCount.decrementAndGet();
+                exchange.close();
+            }
+        }
+
+        private void send(HttpExchange exchange, StubResponse response) throws IOException, InterruptedException {
+            for (Map.Entry<String, String> header : response.getHeaders().entrySet()) {
+                exchange.getResponseHeaders().set(header.getKey(), header.getValue());
+            }
+            if (response.getEntityTag() != null) {
+                exchange.getResponseHeaders().set("ETag", response.getEntityTag());
+            }
+            if (response.getLastModified() != null) {
+                exchange.getResponseHeaders().set("Last-Modified", response.getLastModified());
+            }
+            if (isNotModified(exchange, response)) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            byte[] body = response.getBody();
+            exchange.getResponseHeaders().set("Content-Type", response.getContentType());
+            if (body.length > 0 && accepts(exchange, response.getContentEncoding())) {
+                body = encode(body, response.getContentEncoding());
+                exchange.getResponseHeaders().set("Content-Encoding", response.getContentEncoding());
+            }
+            exchange.sendResponseHeaders(response.getStatus(), body.length == 0 ? -1 : body.length);
+            if (body.length == 0) {
+                return;
+            }
+            int chunks = Math.min(response.getBodyChunks(), body.length);
+            int chunkSize = (body.length + chunks - 1) / chunks;
+            OutputStream out = exchange.getResponseBody();
+            for (int offset = 0; offset < body.length; offset += chunkSize) {
+                if (offset > 0) {
+                    pause(response.getChunkDelayMillis());
+                }
+                out.write(body, offset, Math.min(chunkSize, body.length - offset));
+                out.flush();
+            }
+            out.close();
+        }
+
+        /**
+         * The <code>If-None-Match</code> header takes precedence over the <code>If-Modified-Since</code> header
+         */
+        private boolean isNotModified(HttpExchange exchange, StubResponse response) {
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            if (ifNoneMatch != null) {
+                return ifNoneMatch.equals(response.getEntityTag());
+            }
+            String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+            return ifModifiedSince != null && ifModifiedSince.equals(response.getLastModified());
+        }
+
+        private boolean accepts(HttpExchange exchange, String contentEncoding) {
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (contentEncoding == null || acceptEncoding == null) {
+                return false;
+            }
+            for (String accepted : acceptEncoding.split(",")) {
+                if (accepted.split(";")[0].trim().equalsIgnoreCase(contentEncoding)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private byte[] encode(byte[] body, String contentEncoding) throws IOException {
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            try (OutputStream out = "gzip".equalsIgnoreCase(contentEncoding)
+                    ? new GZIPOutputStream(encoded)
+                    : new DeflaterOutputStream(encoded)) {
+                out.write(body);
+            }
+            return encoded.toByteArray();
+        }
+
+        private byte[] read(InputStream in) throws IOException {
+            try {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+                return out.toByteArray();
+            } finally {
+                in.close();
+            }
+        }
+
+        private void pause(long millis) throws InterruptedException {
+            if (millis > 0) {
+                TimeUnit.MILLISECONDS.sleep(millis);
+            }
+        }
+    }
+}